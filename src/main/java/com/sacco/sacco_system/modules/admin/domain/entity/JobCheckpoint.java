@@ -0,0 +1,40 @@
+package com.sacco.sacco_system.modules.admin.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Restart point for a background job (last processed day, timestamp or key).
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String jobName; // e.g., "GL_DAILY_SNAPSHOT"
+
+    private LocalDate lastProcessedDate;
+
+    private LocalDateTime lastProcessedAt;
+
+    private String lastProcessedKey;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
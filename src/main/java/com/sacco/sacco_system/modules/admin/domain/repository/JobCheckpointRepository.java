@@ -0,0 +1,9 @@
+package com.sacco.sacco_system.modules.admin.domain.repository;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
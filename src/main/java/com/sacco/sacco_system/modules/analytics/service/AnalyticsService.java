@@ -3,6 +3,7 @@ package com.sacco.sacco_system.modules.analytics.service;
 import com.sacco.sacco_system.modules.finance.domain.repository.ShareCapitalRepository;
 import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanAgingService;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
@@ -31,6 +32,7 @@ public class AnalyticsService {
     private final LoanRepository loanRepository;
     private final SavingsAccountRepository savingsAccountRepository;
     private final ShareCapitalRepository shareCapitalRepository;
+    private final LoanAgingService loanAgingService;
 
     /**
      * Get member growth analytics
@@ -91,17 +93,12 @@ public class AnalyticsService {
 
         BigDecimal totalRepaid = totalDisbursed.subtract(totalOutstanding);
 
-        // Calculate portfolio at risk (PAR)
-        BigDecimal portfolioAtRisk = allLoans.stream()
-                .filter(l -> l.getStatus() == Loan.LoanStatus.DEFAULTED)
-                .map(Loan::getPrincipalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Portfolio at risk (PAR30) from the nightly aging buckets
+        Map<String, Object> par = loanAgingService.getPortfolioAtRisk();
+        BigDecimal portfolioAtRisk = (BigDecimal) par.get("par30");
+        double parPercentage = (double) par.get("par30Percentage");
 
-        double parPercentage = totalDisbursed.compareTo(BigDecimal.ZERO) > 0 ?
-                portfolioAtRisk.divide(totalDisbursed, 4, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100)).doubleValue() : 0;
-
-        return Map.of(
+        Map<String, Object> analytics = new LinkedHashMap<>(Map.of(
                 "totalLoans", totalLoans,
                 "activeLoans", activeLoans,
                 "completedLoans", completedLoans,
@@ -114,7 +111,9 @@ public class AnalyticsService {
                 "repaymentRate", totalDisbursed.compareTo(BigDecimal.ZERO) > 0 ?
                         totalRepaid.divide(totalDisbursed, 4, RoundingMode.HALF_UP)
                                 .multiply(BigDecimal.valueOf(100)).doubleValue() : 0
-        );
+        ));
+        analytics.put("aging", par);
+        return analytics;
     }
 
     /**
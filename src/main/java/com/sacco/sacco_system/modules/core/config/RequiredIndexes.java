@@ -0,0 +1,95 @@
+package com.sacco.sacco_system.modules.core.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Indexes the services rely on, for idempotency (unique) or for their hot queries. Flyway runs
+ * before Hibernate creates the tables, so on a fresh database the migrations that add indexes to
+ * Hibernate-managed tables skip them; this check runs once the schema exists and creates any that
+ * are missing. Startup fails if a unique index cannot be created (duplicate rows), rather than
+ * running without the guarantee.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class RequiredIndexes {
+
+    @Getter
+    @AllArgsConstructor
+    static final class RequiredIndex {
+        private final String name;
+        private final String table;
+        private final String ddl;
+        private final String duplicatesSql; // unique indexes only: keys that would violate it
+
+        static RequiredIndex of(String name, String table, String ddl) {
+            return new RequiredIndex(name, table, ddl, null);
+        }
+    }
+
+    static final List<RequiredIndex> INDEXES = List.of(
+            new RequiredIndex("uk_deposits_payment_reference", "deposits",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS uk_deposits_payment_reference ON deposits (payment_method, payment_reference) " +
+                    "WHERE payment_reference IS NOT NULL",
+                    "SELECT payment_method || '/' || payment_reference FROM deposits WHERE payment_reference IS NOT NULL " +
+                    "GROUP BY payment_method, payment_reference HAVING COUNT(*) > 1 ORDER BY 1 LIMIT 20"),
+            new RequiredIndex("uq_fines_late_payment_loan_day", "fines",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS uq_fines_late_payment_loan_day ON fines (loan_id, fine_date) " +
+                    "WHERE type = 'LATE_LOAN_PAYMENT' AND loan_id IS NOT NULL",
+                    "SELECT loan_id || '/' || fine_date FROM fines WHERE type = 'LATE_LOAN_PAYMENT' AND loan_id IS NOT NULL " +
+                    "GROUP BY loan_id, fine_date HAVING COUNT(*) > 1 ORDER BY 1 LIMIT 20"),
+            // Journal tables are created by V3, so these normally exist already
+            RequiredIndex.of("idx_journal_entries_transaction_date", "journal_entries",
+                    "CREATE INDEX IF NOT EXISTS idx_journal_entries_transaction_date ON journal_entries (transaction_date)"),
+            RequiredIndex.of("idx_journal_entries_date_id", "journal_entries",
+                    "CREATE INDEX IF NOT EXISTS idx_journal_entries_date_id ON journal_entries (transaction_date DESC, id DESC)"),
+            RequiredIndex.of("idx_journal_entries_posted_date", "journal_entries",
+                    "CREATE INDEX IF NOT EXISTS idx_journal_entries_posted_date ON journal_entries (posted_date)"),
+            RequiredIndex.of("idx_journal_lines_entry", "journal_lines",
+                    "CREATE INDEX IF NOT EXISTS idx_journal_lines_entry ON journal_lines (journal_entry_id)"),
+            RequiredIndex.of("idx_transactions_savings_day", "transactions",
+                    "CREATE INDEX IF NOT EXISTS idx_transactions_savings_day ON transactions (transaction_date, savings_account_id) " +
+                    "WHERE savings_account_id IS NOT NULL"),
+            RequiredIndex.of("idx_savings_accounts_maturity", "savings_accounts",
+                    "CREATE INDEX IF NOT EXISTS idx_savings_accounts_maturity ON savings_accounts (maturity_date, id) " +
+                    "WHERE status = 'ACTIVE' AND maturity_date IS NOT NULL"),
+            RequiredIndex.of("idx_loan_guarantors_loan_exposure", "loan_guarantors",
+                    "CREATE INDEX IF NOT EXISTS idx_loan_guarantors_loan_exposure ON loan_guarantors (loan_id) " +
+                    "WHERE exposure IS NOT NULL")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void ensureIndexes() {
+        for (RequiredIndex index : INDEXES) {
+            if (exists(index.getName())) continue;
+            if (!exists(index.getTable())) {
+                throw new IllegalStateException("Table " + index.getTable() + " is missing, cannot create " + index.getName());
+            }
+            if (index.getDuplicatesSql() != null) {
+                List<String> duplicates = jdbcTemplate.queryForList(index.getDuplicatesSql(), String.class);
+                if (!duplicates.isEmpty()) {
+                    throw new IllegalStateException("Cannot create unique index " + index.getName() + ": duplicate rows in "
+                            + index.getTable() + " for " + String.join(", ", duplicates));
+                }
+            }
+            jdbcTemplate.execute(index.getDdl());
+            log.info("Created missing index {}", index.getName());
+        }
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+}
@@ -0,0 +1,68 @@
+package com.sacco.sacco_system.modules.core.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * PostgreSQL advisory locks scoped to the current transaction.
+ * Used to keep background jobs and cross-node critical sections single-flight.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdvisoryLocks {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Block until the lock is held; released automatically at commit/rollback
+     */
+    public void lockForTransaction(long key) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, key);
+    }
+
+    /**
+     * Try to take the lock without waiting; released automatically at commit/rollback
+     */
+    public boolean tryLockForTransaction(long key) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key);
+        return Boolean.TRUE.equals(locked);
+    }
+
+    /**
+     * Keep trying for up to timeoutMs; false if the lock is still held elsewhere (or the thread was interrupted)
+     */
+    public boolean tryLockForTransaction(long key, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long backoff = 1;
+        while (!tryLockForTransaction(key)) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            try {
+                Thread.sleep(Math.min(backoff, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoff = Math.min(backoff * 2, 50);
+        }
+        return true;
+    }
+
+    /**
+     * Stable 64-bit lock key for a name
+     */
+    public static long keyOf(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    /**
+     * Stable 64-bit lock key for an entity id
+     */
+    public static long keyOf(UUID id) {
+        return id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+    }
+}
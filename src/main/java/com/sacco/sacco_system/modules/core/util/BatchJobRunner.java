@@ -0,0 +1,62 @@
+package com.sacco.sacco_system.modules.core.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long nightly jobs off the Spring scheduler thread(s). The @Scheduled trigger only hands
+ * the job over here and returns, so a multi-minute batch never holds up the short pollers
+ * (outbox drain, balance fold, index refresh) that share the scheduler pool.
+ * A job still running when it is triggered again is skipped.
+ */
+@Component
+@Slf4j
+public class BatchJobRunner {
+
+    private final ExecutorService executor;
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public BatchJobRunner(@Value("${app.jobs.batch-workers:2}") int workers) {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread thread = new Thread(r, "batch-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue the job. Returns false if a job with the same name is still queued or running.
+     */
+    public boolean submit(String jobName, Runnable job) {
+        if (!running.add(jobName)) {
+            log.warn("Batch job {} is still running, skipping this trigger", jobName);
+            return false;
+        }
+        executor.execute(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                job.run();
+                log.debug("Batch job {} finished in {} ms", jobName, System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                log.error("Batch job {} failed: {}", jobName, e.getMessage(), e);
+            } finally {
+                running.remove(jobName);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
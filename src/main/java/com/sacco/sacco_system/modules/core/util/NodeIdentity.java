@@ -0,0 +1,111 @@
+package com.sacco.sacco_system.modules.core.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This node's number (0-31), stamped into reference codes and transaction ids.
+ *
+ * Taken from app.node-id when set. Otherwise a free number is leased from the node_leases
+ * table at startup and renewed on a schedule, so two running nodes never share a number;
+ * startup fails if all 32 are leased. A node that misses renewals long enough to lose its
+ * lease takes a new number.
+ */
+@Component
+@Slf4j
+public class NodeIdentity {
+
+    public static final int NODE_BITS = 5;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+    private static final int LEASE_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean configured;
+    private final String holder;
+    private volatile int nodeId;
+
+    @Value("${app.node-lease-seconds:300}")
+    private long leaseSeconds = 300;
+
+    public NodeIdentity(JdbcTemplate jdbcTemplate, @Value("${app.node-id:-1}") int configuredNodeId) {
+        if (configuredNodeId >= MAX_NODES) {
+            throw new IllegalStateException("app.node-id must be between 0 and " + (MAX_NODES - 1) + ", was " + configuredNodeId);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.configured = configuredNodeId >= 0;
+        this.nodeId = configuredNodeId;
+        this.holder = hostName() + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (configured) return;
+        nodeId = lease();
+        log.info("app.node-id not set, leased node {}", nodeId);
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    @Scheduled(fixedDelayString = "${app.node-lease-renew-ms:60000}")
+    public void renew() {
+        if (configured) return;
+        int renewed = jdbcTemplate.update(
+                "UPDATE node_leases SET expires_at = now() + make_interval(secs => ?) WHERE node_id = ? AND holder = ?",
+                leaseSeconds, nodeId, holder);
+        if (renewed == 0) {
+            int lost = nodeId;
+            nodeId = lease();
+            log.error("Lease on node {} expired before it was renewed; now running as node {}", lost, nodeId);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (configured) return;
+        try {
+            jdbcTemplate.update("DELETE FROM node_leases WHERE node_id = ? AND holder = ?", nodeId, holder);
+        } catch (Exception e) {
+            log.warn("Could not release node {} lease: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * Claim the lowest number with no live lease; retried when another node claims it first
+     */
+    private int lease() {
+        for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+            List<Integer> claimed = jdbcTemplate.queryForList(
+                    "WITH candidate AS (" +
+                    "  SELECT n FROM generate_series(0, ?) n " +
+                    "  WHERE NOT EXISTS (SELECT 1 FROM node_leases l WHERE l.node_id = n AND l.expires_at > now()) " +
+                    "  ORDER BY n LIMIT 1) " +
+                    "INSERT INTO node_leases (node_id, holder, expires_at) " +
+                    "SELECT n, ?, now() + make_interval(secs => ?) FROM candidate " +
+                    "ON CONFLICT (node_id) DO UPDATE SET holder = EXCLUDED.holder, expires_at = EXCLUDED.expires_at " +
+                    "WHERE node_leases.expires_at <= now() " +
+                    "RETURNING node_id",
+                    Integer.class, MAX_NODES - 1, holder, leaseSeconds);
+            if (!claimed.isEmpty()) return claimed.get(0);
+        }
+        throw new IllegalStateException("No free node id: all " + MAX_NODES + " are leased by running nodes; set app.node-id explicitly");
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
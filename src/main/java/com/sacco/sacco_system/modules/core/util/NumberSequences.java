@@ -0,0 +1,73 @@
+package com.sacco.sacco_system.modules.core.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Member, account and loan numbers from PostgreSQL sequences, allocated in blocks.
+ * One nextval reserves a whole block (the sequence's INCREMENT BY) for this node, and numbers
+ * are then handed out from memory, so most calls cost no query. Blocks never overlap across
+ * nodes; numbers left in a block at shutdown are skipped, which leaves gaps but no duplicates.
+ */
+@Component
+@RequiredArgsConstructor
+public class NumberSequences {
+
+    public enum Prefix {
+        MEM("seq_number_mem", "MEM%06d"),
+        SAV("seq_number_sav", "SAV%06d"),
+        FD("seq_number_fd", "FD%06d"),
+        LN("seq_number_ln", "LN-%06d");
+
+        private final String sequence;
+        private final String format;
+
+        Prefix(String sequence, String format) {
+            this.sequence = sequence;
+            this.format = format;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Prefix, Block> blocks = new EnumMap<>(Prefix.class);
+
+    /**
+     * Next formatted number, e.g. MEM000124 or LN-000017
+     */
+    public String next(Prefix prefix) {
+        return String.format(prefix.format, nextValue(prefix));
+    }
+
+    public long nextValue(Prefix prefix) {
+        Block block;
+        synchronized (blocks) {
+            block = blocks.computeIfAbsent(prefix, p -> new Block());
+        }
+        synchronized (block) {
+            if (block.next > block.last) {
+                // The block size is read with the reservation, so ALTER SEQUENCE ... INCREMENT BY is safe at runtime
+                jdbcTemplate.query(
+                        "SELECT nextval(CAST(s.sequencename AS regclass)) AS start, s.increment_by FROM pg_sequences s " +
+                        "WHERE s.schemaname = current_schema() AND s.sequencename = ?",
+                        rs -> {
+                            block.next = rs.getLong("start");
+                            block.last = block.next + Math.max(1, rs.getLong("increment_by")) - 1;
+                        },
+                        prefix.sequence);
+                if (block.next > block.last) {
+                    throw new IllegalStateException("Number sequence " + prefix.sequence + " is missing");
+                }
+            }
+            return block.next++;
+        }
+    }
+
+    private static final class Block {
+        private long next = 1;
+        private long last = 0;
+    }
+}
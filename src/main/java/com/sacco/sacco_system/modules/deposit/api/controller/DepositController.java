@@ -3,9 +3,11 @@ package com.sacco.sacco_system.modules.deposit.api.controller;
 import com.sacco.sacco_system.modules.audit.domain.entity.AuditLog;
 import com.sacco.sacco_system.modules.audit.domain.service.AuditService;
 import com.sacco.sacco_system.modules.users.domain.entity.User;
+import com.sacco.sacco_system.modules.deposit.api.dto.CheckoffImportStatusDTO;
 import com.sacco.sacco_system.modules.deposit.api.dto.CreateDepositRequest;
 import com.sacco.sacco_system.modules.deposit.api.dto.DepositDTO;
 import com.sacco.sacco_system.modules.deposit.api.dto.DepositProductDTO;
+import com.sacco.sacco_system.modules.deposit.domain.service.CheckoffImportService;
 import com.sacco.sacco_system.modules.deposit.domain.service.DepositProductService;
 import com.sacco.sacco_system.modules.deposit.domain.service.DepositService;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
@@ -14,8 +16,10 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +37,7 @@ public class DepositController {
 
     private final DepositService depositService;
     private final DepositProductService depositProductService;
+    private final CheckoffImportService checkoffImportService;
     private final MemberRepository memberRepository;
     private final AuditService auditService;
 
@@ -156,4 +161,57 @@ public class DepositController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+
+    /**
+     * Start a payroll check-off import (CSV). Runs in the background; poll the job for progress.
+     * POST /api/deposits/checkoff/import
+     */
+    @PostMapping("/checkoff/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TREASURER')")
+    public ResponseEntity<?> importCheckoff(
+            @AuthenticationPrincipal User user,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "BANK") String paymentMethod,
+            @RequestParam(required = false) String bankAccountCode) {
+        try {
+            CheckoffImportStatusDTO job = checkoffImportService.startImport(file, paymentMethod, bankAccountCode);
+
+            auditService.logSuccess(user, AuditLog.Actions.CREATE, "CheckoffImport",
+                job.getJobId().toString(), "Check-off import queued: " + job.getFileName());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Check-off import started");
+            response.put("job", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Progress and row errors of a check-off import
+     * GET /api/deposits/checkoff/import/{jobId}
+     */
+    @GetMapping("/checkoff/import/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TREASURER')")
+    public ResponseEntity<?> getCheckoffImport(@PathVariable UUID jobId) {
+        return checkoffImportService.getStatus(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(Map.of("success", true, "job", job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("success", false, "message", "Import job not found")));
+    }
+
+    /**
+     * Recent check-off imports (kept in memory)
+     * GET /api/deposits/checkoff/import
+     */
+    @GetMapping("/checkoff/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TREASURER')")
+    public ResponseEntity<?> getCheckoffImports() {
+        return ResponseEntity.ok(Map.of("success", true, "jobs", checkoffImportService.getRecentJobs()));
+    }
 }
@@ -0,0 +1,48 @@
+package com.sacco.sacco_system.modules.deposit.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of a payroll check-off import, with the rows that could not be applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoffImportStatusDTO {
+
+    private UUID jobId;
+    private String fileName;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private String paymentMethod;
+    private long rowsRead;
+    private long rowsPosted;
+    private long rowsFailed;
+    private BigDecimal amountPosted;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>(); // first errors only (see errorsTruncated)
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RowError {
+        private long row;
+        private String memberNumber;
+        private String message;
+    }
+}
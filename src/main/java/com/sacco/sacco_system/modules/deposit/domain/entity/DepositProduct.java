@@ -36,7 +36,7 @@ public class DepositProduct {
 
     private BigDecimal targetAmount;  // Optional target for the contribution
 
-    private BigDecimal currentAmount = BigDecimal.ZERO;  // Total collected so far
+    private BigDecimal currentAmount = BigDecimal.ZERO;  // Frozen total at completion/close; live total is the sum of deposit_product_shards
 
     @Enumerated(EnumType.STRING)
     private DepositProductStatus status = DepositProductStatus.ACTIVE;
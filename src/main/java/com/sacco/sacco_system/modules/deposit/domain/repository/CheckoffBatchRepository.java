@@ -0,0 +1,231 @@
+package com.sacco.sacco_system.modules.deposit.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC access for the payroll check-off import: compact lookup indexes loaded once per file,
+ * row locks on the balances a chunk touches, and batch inserts for deposits and allocations
+ * (transaction records go through TransactionBatchRepository).
+ */
+@Repository
+@RequiredArgsConstructor
+public class CheckoffBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AccountRef {
+        private final UUID id;
+        private final UUID memberId;
+        private final String number;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class DepositRow {
+        private final UUID id;
+        private final UUID memberId;
+        private final BigDecimal amount;
+        private final String transactionReference;
+        private final String paymentMethod;
+        private final String paymentReference;
+        private final String notes;
+        private final LocalDateTime processedAt;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AllocationRow {
+        private final UUID depositId;
+        private final String destinationType;
+        private final BigDecimal amount;
+        private final UUID savingsAccountId;
+        private final UUID loanId;
+    }
+
+    // ========================================================================
+    // 1. INDEXES (loaded once per import, streamed row by row)
+    // ========================================================================
+
+    public Map<String, UUID> loadMemberIndex() {
+        Map<String, UUID> index = new HashMap<>();
+        jdbcTemplate.query("SELECT id, member_number FROM members",
+                rs -> { index.put(rs.getString("member_number"), rs.getObject("id", UUID.class)); });
+        return index;
+    }
+
+    /**
+     * Active savings accounts, oldest first (so the first one per member is their default)
+     */
+    public List<AccountRef> loadActiveSavingsAccounts() {
+        List<AccountRef> accounts = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, member_id, account_number FROM savings_accounts WHERE status = 'ACTIVE' ORDER BY account_open_date, id",
+                rs -> {
+                    accounts.add(new AccountRef(rs.getObject("id", UUID.class),
+                            rs.getObject("member_id", UUID.class), rs.getString("account_number")));
+                });
+        return accounts;
+    }
+
+    public List<AccountRef> loadActiveLoans() {
+        List<AccountRef> loans = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, member_id, loan_number FROM loans WHERE status = 'ACTIVE' ORDER BY disbursement_date, id",
+                rs -> {
+                    loans.add(new AccountRef(rs.getObject("id", UUID.class),
+                            rs.getObject("member_id", UUID.class), rs.getString("loan_number")));
+                });
+        return loans;
+    }
+
+    // ========================================================================
+    // 2. BALANCES (locked in id order for the duration of the chunk)
+    // ========================================================================
+
+    /**
+     * id -> {balance, totalDeposits} for the accounts that are still active
+     */
+    public Map<UUID, BigDecimal[]> lockSavingsBalances(Collection<UUID> ids) {
+        Map<UUID, BigDecimal[]> balances = new HashMap<>();
+        if (ids.isEmpty()) return balances;
+        namedJdbcTemplate.query(
+                "SELECT id, balance, total_deposits FROM savings_accounts " +
+                "WHERE id IN (:ids) AND status = 'ACTIVE' ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids),
+                rs -> {
+                    balances.put(rs.getObject("id", UUID.class), new BigDecimal[] {
+                            nz(rs.getBigDecimal("balance")), nz(rs.getBigDecimal("total_deposits"))});
+                });
+        return balances;
+    }
+
+    /**
+     * id -> loanBalance for the loans that are still active
+     */
+    public Map<UUID, BigDecimal> lockLoanBalances(Collection<UUID> ids) {
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        if (ids.isEmpty()) return balances;
+        namedJdbcTemplate.query(
+                "SELECT id, loan_balance FROM loans WHERE id IN (:ids) AND status = 'ACTIVE' ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", ids),
+                rs -> { balances.put(rs.getObject("id", UUID.class), nz(rs.getBigDecimal("loan_balance"))); });
+        return balances;
+    }
+
+    public void updateSavingsBalances(Map<UUID, BigDecimal[]> balances, LocalDateTime now) {
+        List<Map.Entry<UUID, BigDecimal[]>> rows = new ArrayList<>(balances.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE savings_accounts SET balance = ?, total_deposits = ?, updated_at = ? WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getValue()[0]);
+                    ps.setBigDecimal(2, row.getValue()[1]);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setObject(4, row.getKey());
+                });
+    }
+
+    /**
+     * A loan whose balance reaches zero is marked COMPLETED, as in LoanRepaymentService
+     */
+    public void updateLoanBalances(Map<UUID, BigDecimal> balances) {
+        List<Map.Entry<UUID, BigDecimal>> rows = new ArrayList<>(balances.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE loans SET loan_balance = ?, status = CASE WHEN ? = 0 THEN 'COMPLETED' ELSE status END WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getValue());
+                    ps.setBigDecimal(2, row.getValue());
+                    ps.setObject(3, row.getKey());
+                });
+    }
+
+    public void addMemberSavings(Map<UUID, BigDecimal> deltas, LocalDateTime now) {
+        List<Map.Entry<UUID, BigDecimal>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE members SET total_savings = COALESCE(total_savings, 0) + ?, updated_at = ? WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getValue());
+                    ps.setTimestamp(2, Timestamp.valueOf(now));
+                    ps.setObject(3, row.getKey());
+                });
+    }
+
+    // ========================================================================
+    // 3. RECORDS
+    // ========================================================================
+
+    /**
+     * Payment references already used by a deposit on this channel (uk_deposits_payment_reference)
+     */
+    public Set<String> findExistingPaymentReferences(String paymentMethod, Collection<String> references) {
+        Set<String> existing = new HashSet<>();
+        if (references.isEmpty()) return existing;
+        namedJdbcTemplate.query(
+                "SELECT payment_reference FROM deposits WHERE payment_method = :method AND payment_reference IN (:refs)",
+                new MapSqlParameterSource("method", paymentMethod).addValue("refs", references),
+                rs -> { existing.add(rs.getString("payment_reference")); });
+        return existing;
+    }
+
+    public void insertDeposits(List<DepositRow> deposits) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO deposits (id, member_id, total_amount, status, transaction_reference, payment_method, " +
+                "payment_reference, notes, created_at, processed_at) VALUES (?, ?, ?, 'COMPLETED', ?, ?, ?, ?, ?, ?)",
+                deposits, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, row.getId());
+                    ps.setObject(2, row.getMemberId());
+                    ps.setBigDecimal(3, row.getAmount());
+                    ps.setString(4, row.getTransactionReference());
+                    ps.setString(5, row.getPaymentMethod());
+                    ps.setString(6, row.getPaymentReference());
+                    ps.setString(7, row.getNotes());
+                    ps.setTimestamp(8, Timestamp.valueOf(row.getProcessedAt()));
+                    ps.setTimestamp(9, Timestamp.valueOf(row.getProcessedAt()));
+                });
+    }
+
+    public void insertAllocations(List<AllocationRow> allocations) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO deposit_allocations (id, deposit_id, destination_type, amount, savings_account_id, loan_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'COMPLETED')",
+                allocations, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, row.getDepositId());
+                    ps.setString(3, row.getDestinationType());
+                    ps.setBigDecimal(4, row.getAmount());
+                    ps.setObject(5, row.getSavingsAccountId());
+                    ps.setObject(6, row.getLoanId());
+                });
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
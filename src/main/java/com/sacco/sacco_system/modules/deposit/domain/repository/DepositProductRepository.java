@@ -3,8 +3,11 @@ package com.sacco.sacco_system.modules.deposit.domain.repository;
 import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProduct;
 import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProductStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,4 +17,7 @@ public interface DepositProductRepository extends JpaRepository<DepositProduct,
     List<DepositProduct> findByStatus(DepositProductStatus status);
     
     boolean existsByName(String name);
+
+    @Query("SELECT p FROM DepositProduct p LEFT JOIN FETCH p.createdBy WHERE p.id IN :ids")
+    List<DepositProduct> findAllWithCreatorByIdIn(@Param("ids") Collection<UUID> ids);
 }
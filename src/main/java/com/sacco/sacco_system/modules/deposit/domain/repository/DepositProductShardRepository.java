@@ -0,0 +1,65 @@
+package com.sacco.sacco_system.modules.deposit.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sharded contribution totals for deposit products (deposit_product_shards).
+ * Writers add to one shard row; readers sum all shards of a product.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DepositProductShardRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void add(UUID productId, int shard, BigDecimal amount) {
+        jdbcTemplate.update(
+                "INSERT INTO deposit_product_shards (product_id, shard, amount) VALUES (?, ?, ?) " +
+                "ON CONFLICT (product_id, shard) DO UPDATE SET amount = deposit_product_shards.amount + EXCLUDED.amount",
+                productId, shard, amount);
+    }
+
+    public BigDecimal total(UUID productId) {
+        BigDecimal total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM deposit_product_shards WHERE product_id = ?",
+                BigDecimal.class, productId);
+        return total != null ? total : BigDecimal.ZERO;
+    }
+
+    /**
+     * Lock the product row until the transaction ends and return its current status
+     */
+    public String lockProductStatus(UUID productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT status FROM deposit_products WHERE id = ? FOR UPDATE", String.class, productId);
+    }
+
+    /**
+     * productId -> total; products without contributions are absent
+     */
+    public Map<UUID, BigDecimal> totals(Collection<UUID> productIds) {
+        Map<UUID, BigDecimal> totals = new HashMap<>();
+        if (productIds.isEmpty()) return totals;
+        namedJdbcTemplate.query(
+                "SELECT product_id, SUM(amount) AS total FROM deposit_product_shards " +
+                "WHERE product_id IN (:ids) GROUP BY product_id",
+                new MapSqlParameterSource("ids", productIds),
+                rs -> { totals.put(rs.getObject("product_id", UUID.class), rs.getBigDecimal("total")); });
+        return totals;
+    }
+
+    public void deleteByProduct(UUID productId) {
+        jdbcTemplate.update("DELETE FROM deposit_product_shards WHERE product_id = ?", productId);
+    }
+}
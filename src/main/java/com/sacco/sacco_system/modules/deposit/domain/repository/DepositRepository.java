@@ -19,6 +19,9 @@ public interface DepositRepository extends JpaRepository<Deposit, UUID> {
     List<Deposit> findByMemberAndStatus(Member member, DepositStatus status);
     
     Optional<Deposit> findByTransactionReference(String transactionReference);
+
+    // Idempotency lookup (unique while paymentReference is set)
+    Optional<Deposit> findByPaymentMethodAndPaymentReference(String paymentMethod, String paymentReference);
     
     List<Deposit> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 }
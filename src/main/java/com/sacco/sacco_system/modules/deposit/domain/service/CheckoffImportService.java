@@ -0,0 +1,617 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+import com.sacco.sacco_system.modules.deposit.api.dto.CheckoffImportStatusDTO;
+import com.sacco.sacco_system.modules.deposit.domain.entity.DepositDestinationType;
+import com.sacco.sacco_system.modules.deposit.domain.repository.CheckoffBatchRepository;
+import com.sacco.sacco_system.modules.deposit.domain.repository.CheckoffBatchRepository.AccountRef;
+import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
+import com.sacco.sacco_system.modules.finance.domain.repository.TransactionBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorExposureService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleService;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payroll check-off import.
+ *
+ * The uploaded CSV is spooled to a temp file and read line by line, so only one chunk of rows
+ * is ever in memory. Rows are validated against member / savings account / loan indexes loaded
+ * once per file. Each chunk is split by member across a small worker pool; every partition is
+ * written in its own transaction with JDBC batches and one summary GL posting per event, so no
+ * two workers ever touch the same member's balances. If a partition fails, its rows are retried
+ * one by one to isolate the bad ones. Progress and row errors are kept in memory per job.
+ *
+ * Columns (header row required, any order): member_number, amount, destination (SAVINGS | LOAN,
+ * default SAVINGS), account (savings account or loan number; optional when the member has a
+ * single candidate), reference. Rows with a reference are idempotent: re-importing the same
+ * file skips them as already imported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoffImportService {
+
+    private static final int MAX_ERRORS_KEPT = 1000;
+    private static final int MAX_JOBS_KEPT = 50;
+
+    private final CheckoffBatchRepository checkoffBatchRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final AccountingService accountingService;
+    private final ReferenceCodeService referenceCodeService;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberLockService memberLockService;
+    private final LoanScheduleService loanScheduleService;
+    private final GuarantorExposureService guarantorExposureService;
+    private final GuarantorMatchIndex guarantorMatchIndex;
+
+    // One import at a time; the parallelism is inside the job
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "checkoff-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.deposits.checkoff-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.deposits.checkoff-workers:4}")
+    private int workerCount;
+
+    // ========================================================================
+    // 1. API
+    // ========================================================================
+
+    public CheckoffImportStatusDTO startImport(MultipartFile file, String paymentMethod, String bankAccountCode) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Check-off file is empty");
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "checkoff.csv";
+        if (!fileName.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            throw new IllegalArgumentException("Only CSV check-off files are supported (save the payroll sheet as CSV)");
+        }
+
+        String method = paymentMethod != null && !paymentMethod.isBlank() ? paymentMethod.trim().toUpperCase(Locale.ROOT) : "BANK";
+        String sourceAccount = PaymentAccounts.debitAccountFor(method, bankAccountCode);
+
+        Path spool;
+        try {
+            spool = Files.createTempFile("checkoff-", ".csv");
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read check-off file: " + e.getMessage());
+        }
+
+        Job job = new Job(UUID.randomUUID(), fileName, method, sourceAccount);
+        evictOldJobs();
+        jobs.put(job.id, job);
+        jobRunner.submit(() -> run(job, spool));
+
+        log.info("Queued check-off import {} ({} bytes) as job {}", fileName, file.getSize(), job.id);
+        return job.toDTO();
+    }
+
+    public Optional<CheckoffImportStatusDTO> getStatus(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::toDTO);
+    }
+
+    public List<CheckoffImportStatusDTO> getRecentJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job job) -> job.queuedAt).reversed())
+                .map(Job::toDTO)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+    }
+
+    // ========================================================================
+    // 2. PIPELINE
+    // ========================================================================
+
+    private void run(Job job, Path spool) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, workerCount));
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            Indexes indexes = loadIndexes();
+
+            String headerLine = reader.readLine();
+            if (headerLine == null) throw new IllegalArgumentException("Check-off file is empty");
+            Map<String, Integer> columns = parseHeader(headerLine);
+
+            List<CheckoffLine> chunk = new ArrayList<>(chunkSize);
+            long rowNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+                if (line.isBlank()) continue;
+                job.rowsRead.incrementAndGet();
+
+                CheckoffLine parsed = parseRow(job, rowNumber, line, columns, indexes);
+                if (parsed != null) chunk.add(parsed);
+                if (chunk.size() >= chunkSize) {
+                    processChunk(job, chunk, workers);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) processChunk(job, chunk, workers);
+
+            job.status = "COMPLETED";
+            log.info("Check-off import {} done: {} rows, {} posted ({}), {} failed",
+                    job.fileName, job.rowsRead.get(), job.rowsPosted.get(), job.amountPosted(), job.rowsFailed.get());
+        } catch (Exception e) {
+            job.status = "FAILED";
+            job.message = e.getMessage();
+            log.error("Check-off import {} stopped after {} rows: {}", job.fileName, job.rowsRead.get(), e.getMessage(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            workers.shutdown();
+            try {
+                Files.deleteIfExists(spool);
+            } catch (IOException e) {
+                log.warn("Could not delete check-off spool file {}", spool);
+            }
+        }
+    }
+
+    /**
+     * Split the chunk by member and write the partitions in parallel; wait for all before reading on
+     */
+    private void processChunk(Job job, List<CheckoffLine> chunk, ExecutorService workers) {
+        int partitionCount = Math.max(1, workerCount);
+        List<List<CheckoffLine>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) partitions.add(new ArrayList<>());
+        for (CheckoffLine line : chunk) {
+            partitions.get(Math.floorMod(line.memberId.hashCode(), partitionCount)).add(line);
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<CheckoffLine> partition : partitions) {
+            if (!partition.isEmpty()) {
+                futures.add(CompletableFuture.runAsync(() -> applyPartition(job, partition), workers));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void applyPartition(Job job, List<CheckoffLine> lines) {
+        PartitionResult result;
+        try {
+            result = transactionTemplate.execute(status -> writePartition(job, lines));
+        } catch (Exception e) {
+            if (lines.size() == 1) {
+                CheckoffLine line = lines.get(0);
+                job.addError(line.rowNumber, line.memberNumber, e.getMessage());
+                return;
+            }
+            log.warn("Check-off partition of {} rows failed ({}), retrying row by row", lines.size(), e.getMessage());
+            for (CheckoffLine line : lines) applyPartition(job, List.of(line));
+            return;
+        }
+        if (result == null) return;
+
+        job.rowsPosted.addAndGet(result.posted);
+        job.addAmount(result.amount);
+        result.errors.forEach(error -> job.addError(error.row, error.memberNumber, error.message));
+    }
+
+    /**
+     * One transaction: lock the balances, compute running balances in file order, then batch everything
+     */
+    private PartitionResult writePartition(Job job, List<CheckoffLine> lines) {
+        LocalDateTime now = LocalDateTime.now();
+        memberLockService.lockAll(lines.stream().map(line -> line.memberId).toList());
+
+        TreeSet<UUID> savingsIds = new TreeSet<>();
+        TreeSet<UUID> loanIds = new TreeSet<>();
+        for (CheckoffLine line : lines) {
+            (line.destination == DepositDestinationType.LOAN_REPAYMENT ? loanIds : savingsIds).add(line.targetId);
+        }
+        Map<UUID, BigDecimal[]> savings = checkoffBatchRepository.lockSavingsBalances(savingsIds);
+        Map<UUID, BigDecimal> loans = checkoffBatchRepository.lockLoanBalances(loanIds);
+
+        Map<UUID, BigDecimal[]> savingsUpdates = new HashMap<>();
+        Map<UUID, BigDecimal> loanUpdates = new HashMap<>();
+        Map<UUID, BigDecimal> loanRepayments = new HashMap<>();
+        Map<UUID, BigDecimal> memberSavings = new HashMap<>();
+        List<CheckoffBatchRepository.DepositRow> deposits = new ArrayList<>(lines.size());
+        List<CheckoffBatchRepository.AllocationRow> allocations = new ArrayList<>(lines.size());
+        List<TransactionBatchRepository.TransactionRow> transactions = new ArrayList<>(lines.size());
+        List<CheckoffImportStatusDTO.RowError> errors = new ArrayList<>();
+        Set<String> usedReferences = checkoffBatchRepository.findExistingPaymentReferences(job.paymentMethod,
+                lines.stream().map(line -> line.paymentReference).filter(Objects::nonNull).toList());
+        BigDecimal savingsTotal = BigDecimal.ZERO;
+        BigDecimal loanTotal = BigDecimal.ZERO;
+        String txnPaymentMethod = job.transactionPaymentMethod().name();
+
+        for (CheckoffLine line : lines) {
+            if (line.paymentReference != null && !usedReferences.add(line.paymentReference)) {
+                errors.add(rowError(line, "Already imported (payment reference " + line.paymentReference + ")"));
+                continue;
+            }
+            BigDecimal balanceAfter;
+            Transaction.TransactionType type;
+            String description;
+            if (line.destination == DepositDestinationType.SAVINGS_ACCOUNT) {
+                BigDecimal[] balance = savings.get(line.targetId);
+                if (balance == null) {
+                    errors.add(rowError(line, "Savings account " + line.targetNumber + " is no longer active"));
+                    continue;
+                }
+                balance[0] = balance[0].add(line.amount);
+                balance[1] = balance[1].add(line.amount);
+                savingsUpdates.put(line.targetId, balance);
+                memberSavings.merge(line.memberId, line.amount, BigDecimal::add);
+                savingsTotal = savingsTotal.add(line.amount);
+                balanceAfter = balance[0];
+                type = Transaction.TransactionType.DEPOSIT;
+                description = "Payroll check-off";
+            } else {
+                BigDecimal balance = loans.get(line.targetId);
+                if (balance == null) {
+                    errors.add(rowError(line, "Loan " + line.targetNumber + " is not active"));
+                    continue;
+                }
+                if (balance.signum() == 0) {
+                    errors.add(rowError(line, "Loan " + line.targetNumber + " has no outstanding balance"));
+                    continue;
+                }
+                // Same rule as LoanRepaymentService: never below zero, completed at zero
+                BigDecimal newBalance = balance.subtract(line.amount).max(BigDecimal.ZERO);
+                loans.put(line.targetId, newBalance);
+                loanUpdates.put(line.targetId, newBalance);
+                loanRepayments.merge(line.targetId, line.amount, BigDecimal::add);
+                loanTotal = loanTotal.add(line.amount);
+                balanceAfter = newBalance;
+                type = Transaction.TransactionType.LOAN_REPAYMENT;
+                description = "Payroll check-off repayment for Loan " + line.targetNumber;
+            }
+
+            UUID depositId = UUID.randomUUID();
+            deposits.add(new CheckoffBatchRepository.DepositRow(
+                    depositId, line.memberId, line.amount,
+                    "DEP-" + depositId.toString().replace("-", "").substring(0, 16).toUpperCase(Locale.ROOT),
+                    job.paymentMethod, line.paymentReference,
+                    "Check-off " + job.fileName + " row " + line.rowNumber, now));
+            allocations.add(new CheckoffBatchRepository.AllocationRow(
+                    depositId, line.destination.name(), line.amount,
+                    line.destination == DepositDestinationType.SAVINGS_ACCOUNT ? line.targetId : null,
+                    line.destination == DepositDestinationType.LOAN_REPAYMENT ? line.targetId : null));
+            transactions.add(new TransactionBatchRepository.TransactionRow(
+                    referenceCodeService.nextTransactionId(), line.memberId,
+                    line.destination == DepositDestinationType.SAVINGS_ACCOUNT ? line.targetId : null,
+                    line.destination == DepositDestinationType.LOAN_REPAYMENT ? line.targetId : null,
+                    type.name(), line.amount, description, txnPaymentMethod,
+                    referenceCodeService.generateReferenceCode(), line.reference, balanceAfter, now));
+        }
+
+        if (!deposits.isEmpty()) {
+            checkoffBatchRepository.updateSavingsBalances(savingsUpdates, now);
+            checkoffBatchRepository.addMemberSavings(memberSavings, now);
+            checkoffBatchRepository.updateLoanBalances(loanUpdates);
+            BigDecimal interestEarned = loanScheduleService.applyRepayments(loanRepayments, now.toLocalDate()).values()
+                    .stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            guarantorExposureService.onLoanBalances(loanUpdates);
+            guarantorMatchIndex.invalidate(memberSavings.keySet());
+            checkoffBatchRepository.insertDeposits(deposits);
+            checkoffBatchRepository.insertAllocations(allocations);
+            transactionBatchRepository.insert(transactions);
+
+            // One summary GL entry per event for the whole partition
+            String batchRef = "CHK-" + job.id.toString().substring(0, 8).toUpperCase(Locale.ROOT) + "-" + job.batches.incrementAndGet();
+            List<AccountingService.PostingRequest> postings = new ArrayList<>(3);
+            if (savingsTotal.signum() > 0) {
+                postings.add(summaryPosting("SAVINGS_DEPOSIT", "Payroll check-off savings - " + job.fileName,
+                        batchRef, savingsTotal, job.sourceAccount, now));
+            }
+            if (loanTotal.signum() > 0) {
+                postings.add(summaryPosting("LOAN_REPAYMENT", "Payroll check-off loan repayments - " + job.fileName,
+                        batchRef, loanTotal, job.sourceAccount, now));
+            }
+            if (interestEarned.signum() > 0) {
+                postings.add(summaryPosting("LOAN_INTEREST_EARNED", "Payroll check-off interest earned - " + job.fileName,
+                        batchRef, interestEarned, null, now));
+            }
+            accountingService.postBatch(postings);
+        }
+
+        return new PartitionResult(deposits.size(), savingsTotal.add(loanTotal), errors);
+    }
+
+    private static AccountingService.PostingRequest summaryPosting(String event, String description, String reference,
+                                                                  BigDecimal amount, String sourceAccount, LocalDateTime when) {
+        return AccountingService.PostingRequest.builder()
+                .eventName(event)
+                .description(description)
+                .referenceNo(reference)
+                .amount(amount)
+                .debitAccountCode(sourceAccount)
+                .transactionDate(when)
+                .build();
+    }
+
+    // ========================================================================
+    // 3. PARSING & VALIDATION
+    // ========================================================================
+
+    private Indexes loadIndexes() {
+        Indexes indexes = new Indexes();
+        indexes.members = checkoffBatchRepository.loadMemberIndex();
+        for (AccountRef account : checkoffBatchRepository.loadActiveSavingsAccounts()) {
+            indexes.savingsByNumber.put(account.getNumber(), account);
+            indexes.defaultSavings.putIfAbsent(account.getMemberId(), account);
+        }
+        for (AccountRef loan : checkoffBatchRepository.loadActiveLoans()) {
+            indexes.loansByNumber.put(loan.getNumber(), loan);
+            indexes.loansByMember.computeIfAbsent(loan.getMemberId(), id -> new ArrayList<>(1)).add(loan);
+        }
+        log.debug("Check-off indexes: {} members, {} savings accounts, {} active loans",
+                indexes.members.size(), indexes.savingsByNumber.size(), indexes.loansByNumber.size());
+        return indexes;
+    }
+
+    private static Map<String, Integer> parseHeader(String headerLine) {
+        List<String> cells = splitCsv(headerLine.startsWith("\uFEFF") ? headerLine.substring(1) : headerLine);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String name = cells.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            switch (name) {
+                case "membernumber", "memberno", "member" -> columns.put("member", i);
+                case "amount" -> columns.put("amount", i);
+                case "destination", "type" -> columns.put("destination", i);
+                case "account", "accountnumber", "loannumber", "target" -> columns.put("account", i);
+                case "reference", "ref", "paymentreference" -> columns.put("reference", i);
+                default -> { }
+            }
+        }
+        if (!columns.containsKey("member") || !columns.containsKey("amount")) {
+            throw new IllegalArgumentException("Check-off header must contain member_number and amount columns");
+        }
+        return columns;
+    }
+
+    /**
+     * Parse and validate one row; returns null (and records the error) if it cannot be applied
+     */
+    private CheckoffLine parseRow(Job job, long rowNumber, String line, Map<String, Integer> columns, Indexes indexes) {
+        List<String> cells = splitCsv(line);
+        String memberNumber = cell(cells, columns.get("member"));
+        try {
+            UUID memberId = indexes.members.get(memberNumber);
+            if (memberId == null) throw new IllegalArgumentException("Unknown member number");
+
+            BigDecimal amount;
+            try {
+                amount = new BigDecimal(cell(cells, columns.get("amount")).replace(",", ""));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount");
+            }
+            if (amount.signum() <= 0) throw new IllegalArgumentException("Amount must be positive");
+            if (amount.scale() > 2) throw new IllegalArgumentException("Amount has more than 2 decimal places");
+
+            String destination = cell(cells, columns.get("destination")).toUpperCase(Locale.ROOT);
+            String target = cell(cells, columns.get("account"));
+            String reference = cell(cells, columns.get("reference"));
+
+            AccountRef ref;
+            DepositDestinationType type;
+            switch (destination) {
+                case "", "SAVINGS", "SAVINGS_ACCOUNT" -> {
+                    type = DepositDestinationType.SAVINGS_ACCOUNT;
+                    ref = target.isEmpty() ? indexes.defaultSavings.get(memberId) : indexes.savingsByNumber.get(target);
+                    if (ref == null) throw new IllegalArgumentException("No active savings account " + target);
+                }
+                case "LOAN", "LOAN_REPAYMENT" -> {
+                    type = DepositDestinationType.LOAN_REPAYMENT;
+                    if (target.isEmpty()) {
+                        List<AccountRef> memberLoans = indexes.loansByMember.getOrDefault(memberId, List.of());
+                        if (memberLoans.size() != 1) {
+                            throw new IllegalArgumentException(memberLoans.isEmpty()
+                                    ? "Member has no active loan"
+                                    : "Member has " + memberLoans.size() + " active loans; give the loan number");
+                        }
+                        ref = memberLoans.get(0);
+                    } else {
+                        ref = indexes.loansByNumber.get(target);
+                        if (ref == null) throw new IllegalArgumentException("No active loan " + target);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported destination " + destination);
+            }
+            if (!ref.getMemberId().equals(memberId)) {
+                throw new IllegalArgumentException(ref.getNumber() + " belongs to another member");
+            }
+
+            // Payroll references are per remittance, so the deposit's payment reference adds member and target
+            return new CheckoffLine(rowNumber, memberNumber, memberId, type, ref.getId(), ref.getNumber(), amount,
+                    reference.isEmpty() ? null : reference,
+                    reference.isEmpty() ? null : reference + "/" + memberNumber + "/" + ref.getNumber());
+        } catch (IllegalArgumentException e) {
+            job.addError(rowNumber, memberNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String cell(List<String> cells, Integer index) {
+        if (index == null || index >= cells.size()) return "";
+        return cells.get(index).trim();
+    }
+
+    /**
+     * Minimal RFC 4180 split: quoted fields may contain commas and doubled quotes
+     */
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private void evictOldJobs() {
+        if (jobs.size() < MAX_JOBS_KEPT) return;
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .min(Comparator.comparing((Job job) -> job.queuedAt))
+                .ifPresent(oldest -> jobs.remove(oldest.id));
+    }
+
+    private static CheckoffImportStatusDTO.RowError rowError(CheckoffLine line, String message) {
+        return new CheckoffImportStatusDTO.RowError(line.rowNumber, line.memberNumber, message);
+    }
+
+    // ========================================================================
+    // 4. STATE
+    // ========================================================================
+
+    @AllArgsConstructor
+    private static final class CheckoffLine {
+        final long rowNumber;
+        final String memberNumber;
+        final UUID memberId;
+        final DepositDestinationType destination;
+        final UUID targetId;
+        final String targetNumber;
+        final BigDecimal amount;
+        final String reference;
+        final String paymentReference; // idempotency key on deposits, null without a reference
+    }
+
+    private static final class Indexes {
+        Map<String, UUID> members = Map.of();
+        final Map<String, AccountRef> savingsByNumber = new HashMap<>();
+        final Map<UUID, AccountRef> defaultSavings = new HashMap<>();
+        final Map<String, AccountRef> loansByNumber = new HashMap<>();
+        final Map<UUID, List<AccountRef>> loansByMember = new HashMap<>();
+    }
+
+    @AllArgsConstructor
+    private static final class PartitionResult {
+        final int posted;
+        final BigDecimal amount;
+        final List<CheckoffImportStatusDTO.RowError> errors;
+    }
+
+    private static final class Job {
+        final UUID id;
+        final String fileName;
+        final String paymentMethod;
+        final String sourceAccount;
+        final LocalDateTime queuedAt = LocalDateTime.now();
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong rowsPosted = new AtomicLong();
+        final AtomicLong rowsFailed = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        final List<CheckoffImportStatusDTO.RowError> errors = new ArrayList<>();
+        BigDecimal amountPosted = BigDecimal.ZERO;
+        volatile String status = "QUEUED";
+        volatile String message;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        Job(UUID id, String fileName, String paymentMethod, String sourceAccount) {
+            this.id = id;
+            this.fileName = fileName;
+            this.paymentMethod = paymentMethod;
+            this.sourceAccount = sourceAccount;
+        }
+
+        synchronized void addError(long row, String memberNumber, String message) {
+            rowsFailed.incrementAndGet();
+            if (errors.size() < MAX_ERRORS_KEPT) {
+                errors.add(new CheckoffImportStatusDTO.RowError(row, memberNumber, message));
+            }
+        }
+
+        synchronized void addAmount(BigDecimal amount) {
+            amountPosted = amountPosted.add(amount);
+        }
+
+        synchronized BigDecimal amountPosted() {
+            return amountPosted;
+        }
+
+        Transaction.PaymentMethod transactionPaymentMethod() {
+            return switch (paymentMethod) {
+                case "MPESA" -> Transaction.PaymentMethod.MPESA;
+                case "CASH" -> Transaction.PaymentMethod.CASH;
+                default -> Transaction.PaymentMethod.BANK;
+            };
+        }
+
+        synchronized CheckoffImportStatusDTO toDTO() {
+            return CheckoffImportStatusDTO.builder()
+                    .jobId(id)
+                    .fileName(fileName)
+                    .status(status)
+                    .paymentMethod(paymentMethod)
+                    .rowsRead(rowsRead.get())
+                    .rowsPosted(rowsPosted.get())
+                    .rowsFailed(rowsFailed.get())
+                    .amountPosted(amountPosted)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .message(message)
+                    .errors(new ArrayList<>(errors))
+                    .errorsTruncated(rowsFailed.get() > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * In-process half of deposit idempotency (the unique index on deposits(payment_method,
+ * payment_reference) is the other half, and the one that holds across nodes).
+ *  - A bounded LRU of recently completed keys answers channel retries without a query.
+ *  - Concurrent requests for the same key wait for the first attempt instead of racing it.
+ */
+@Component
+public class DepositIdempotencyGuard {
+
+    private static final long WAIT_SECONDS = 30;
+
+    private final Map<String, UUID> recent;
+    private final Map<String, CompletableFuture<UUID>> inFlight = new ConcurrentHashMap<>();
+
+    public DepositIdempotencyGuard(@Value("${app.deposits.idempotency-cache-size:10000}") int cacheSize) {
+        this.recent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UUID> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static String normalizeMethod(String paymentMethod) {
+        return (paymentMethod == null || paymentMethod.isBlank()) ? null : paymentMethod.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public static String normalizeReference(String paymentReference) {
+        return (paymentReference == null || paymentReference.isBlank()) ? null : paymentReference.trim();
+    }
+
+    /**
+     * Idempotency key, or null when the payment carries no external reference
+     */
+    public static String key(String paymentMethod, String paymentReference) {
+        String reference = normalizeReference(paymentReference);
+        if (reference == null) return null;
+        return normalizeMethod(paymentMethod) + "|" + reference;
+    }
+
+    /**
+     * Deposit id for the key: from the LRU, from a concurrent attempt, or by running the attempt.
+     * If the attempt we waited on failed, the next waiter runs its own.
+     */
+    public UUID runOnce(String key, Supplier<UUID> attempt) {
+        while (true) {
+            UUID known = recent(key);
+            if (known != null) return known;
+
+            CompletableFuture<UUID> mine = new CompletableFuture<>();
+            CompletableFuture<UUID> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                try {
+                    return running.get(WAIT_SECONDS, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    continue;
+                } catch (TimeoutException e) {
+                    throw new IllegalStateException("A deposit with this payment reference is still being processed");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a duplicate deposit");
+                }
+            }
+
+            try {
+                UUID depositId = attempt.get();
+                remember(key, depositId);
+                mine.complete(depositId);
+                return depositId;
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    private UUID recent(String key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    private void remember(String key, UUID depositId) {
+        synchronized (recent) {
+            recent.put(key, depositId);
+        }
+    }
+}
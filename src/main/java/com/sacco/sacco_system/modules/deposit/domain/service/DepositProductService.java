@@ -4,13 +4,16 @@ import com.sacco.sacco_system.modules.deposit.api.dto.DepositProductDTO;
 import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProduct;
 import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProductStatus;
 import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductRepository;
+import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductShardRepository;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,6 +27,7 @@ import java.util.stream.Collectors;
 public class DepositProductService {
 
     private final DepositProductRepository depositProductRepository;
+    private final DepositProductShardRepository productShardRepository;
 
     /**
      * Create a new deposit product
@@ -47,7 +51,7 @@ public class DepositProductService {
         log.info("Created deposit product: {} by {}", saved.getName(), 
                 createdBy != null ? createdBy.getEmail() : "SYSTEM/ADMIN");
         
-        return convertToDTO(saved);
+        return convertToDTO(saved, BigDecimal.ZERO);
     }
 
     /**
@@ -70,25 +74,21 @@ public class DepositProductService {
         product.setStatus(dto.getStatus());
 
         DepositProduct saved = depositProductRepository.save(product);
-        return convertToDTO(saved);
+        return convertToDTO(saved, productShardRepository.total(saved.getId()));
     }
 
     /**
      * Get all active products
      */
     public List<DepositProductDTO> getActiveProducts() {
-        return depositProductRepository.findByStatus(DepositProductStatus.ACTIVE).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(depositProductRepository.findByStatus(DepositProductStatus.ACTIVE));
     }
 
     /**
      * Get all products (for admin)
      */
     public List<DepositProductDTO> getAllProducts() {
-        return depositProductRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(depositProductRepository.findAll());
     }
 
     /**
@@ -97,7 +97,7 @@ public class DepositProductService {
     public DepositProductDTO getProductById(UUID id) {
         DepositProduct product = depositProductRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        return convertToDTO(product);
+        return convertToDTO(product, productShardRepository.total(id));
     }
 
     /**
@@ -108,11 +108,18 @@ public class DepositProductService {
         DepositProduct product = depositProductRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
+        // Take the product-row lock a contributor takes when it completes the target, so the two
+        // cannot interleave and the frozen total includes a completing contribution
+        productShardRepository.lockProductStatus(id);
+
+        // Freeze the final total on the product row
+        BigDecimal collected = productShardRepository.total(id);
+        product.setCurrentAmount(collected);
         product.setStatus(DepositProductStatus.CLOSED);
         DepositProduct saved = depositProductRepository.save(product);
         
         log.info("Closed deposit product: {}", saved.getName());
-        return convertToDTO(saved);
+        return convertToDTO(saved, collected);
     }
 
     /**
@@ -123,24 +130,36 @@ public class DepositProductService {
         DepositProduct product = depositProductRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        if (product.getCurrentAmount().signum() > 0) {
+        if (productShardRepository.total(id).signum() > 0) {
             throw new IllegalStateException("Cannot delete product with existing contributions");
         }
 
+        productShardRepository.deleteByProduct(id);
         depositProductRepository.delete(product);
         log.info("Deleted deposit product: {}", product.getName());
     }
 
+    /**
+     * Convert entities to DTOs, summing contribution shards for all of them in one query
+     */
+    private List<DepositProductDTO> convertToDTOs(List<DepositProduct> products) {
+        Map<UUID, BigDecimal> totals = productShardRepository.totals(
+                products.stream().map(DepositProduct::getId).toList());
+        return products.stream()
+                .map(p -> convertToDTO(p, totals.getOrDefault(p.getId(), BigDecimal.ZERO)))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Convert entity to DTO
      */
-    private DepositProductDTO convertToDTO(DepositProduct product) {
+    private DepositProductDTO convertToDTO(DepositProduct product, BigDecimal collected) {
         return DepositProductDTO.builder()
                 .id(product.getId())
                 .name(product.getName())
                 .description(product.getDescription())
                 .targetAmount(product.getTargetAmount())
-                .currentAmount(product.getCurrentAmount())
+                .currentAmount(collected)
                 .status(product.getStatus())
                 .createdById(product.getCreatedBy() != null ? product.getCreatedBy().getId() : null)
                 .createdByName(product.getCreatedBy() != null ? 
@@ -4,6 +4,7 @@ import com.sacco.sacco_system.modules.deposit.api.dto.*;
 import com.sacco.sacco_system.modules.deposit.domain.entity.*;
 import com.sacco.sacco_system.modules.deposit.domain.repository.DepositAllocationRepository;
 import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductRepository;
+import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductShardRepository;
 import com.sacco.sacco_system.modules.deposit.domain.repository.DepositRepository;
 import com.sacco.sacco_system.modules.finance.domain.entity.Fine;
 import com.sacco.sacco_system.modules.finance.domain.entity.ShareCapital;
@@ -11,27 +12,35 @@ import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
 import com.sacco.sacco_system.modules.finance.domain.repository.FineRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.ShareCapitalRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
-import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.PostingOutboxService;
 import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
 import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
 import com.sacco.sacco_system.modules.loan.domain.service.LoanRepaymentService;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
 import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
 import com.sacco.sacco_system.modules.savings.domain.service.SavingsService;
 import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -53,45 +62,96 @@ public class DepositService {
     private final FineRepository fineRepository;
     private final ShareCapitalRepository shareCapitalRepository;
     private final TransactionRepository transactionRepository;
-    private final AccountingService accountingService;
+    private final PostingOutboxService postingOutboxService;
     private final ReferenceCodeService referenceCodeService;
     private final SavingsService savingsService;
     private final LoanRepaymentService loanRepaymentService;
     private final SystemSettingService systemSettingService;
+    private final DepositIdempotencyGuard idempotencyGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberLockService memberLockService;
+    private final DepositProductShardRepository productShardRepository;
+
+    @Value("${app.deposits.contribution-shards:16}")
+    private int contributionShards;
 
     /**
-     * Process a deposit with multiple allocations
+     * Process a deposit with multiple allocations.
+     * Idempotent on (paymentMethod, paymentReference): a retried payment returns the original
+     * deposit without re-running allocations or touching the ledger.
      */
-    @Transactional
     public DepositDTO processDeposit(Member member, CreateDepositRequest request) {
+        String key = DepositIdempotencyGuard.key(request.getPaymentMethod(), request.getPaymentReference());
+        if (key == null) {
+            return transactionTemplate.execute(status -> createDeposit(member, request));
+        }
+
+        String method = DepositIdempotencyGuard.normalizeMethod(request.getPaymentMethod());
+        String reference = DepositIdempotencyGuard.normalizeReference(request.getPaymentReference());
+        UUID depositId = idempotencyGuard.runOnce(key, () -> {
+            Optional<Deposit> existing = depositRepository.findByPaymentMethodAndPaymentReference(method, reference);
+            if (existing.isPresent()) return existing.get().getId();
+            try {
+                return transactionTemplate.execute(status -> createDeposit(member, request)).getId();
+            } catch (DataIntegrityViolationException e) {
+                // Another node claimed the reference first
+                return depositRepository.findByPaymentMethodAndPaymentReference(method, reference)
+                        .map(Deposit::getId)
+                        .orElseThrow(() -> e);
+            }
+        });
+
+        return transactionTemplate.execute(status -> {
+            Deposit deposit = depositRepository.findById(depositId)
+                    .orElseThrow(() -> new RuntimeException("Deposit not found"));
+            if (!deposit.getMember().getId().equals(member.getId())
+                    || deposit.getTotalAmount().compareTo(request.getTotalAmount()) != 0) {
+                throw new IllegalArgumentException("Payment reference " + reference + " has already been used for another deposit");
+            }
+            return convertToDTO(deposit);
+        });
+    }
+
+    private DepositDTO createDeposit(Member requester, CreateDepositRequest request) {
         // 1. Validate allocations sum equals total
         validateAllocations(request);
 
+        // One lane per member: everything below is read after the lock, so balances are current
+        memberLockService.lock(requester.getId());
+        Member member = memberRepository.findById(requester.getId())
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+
         // ✅ 2. Determine the Source GL Account ONCE based on Payment Method and optional Bank Code
-        String sourceAccount = getDebitAccountForPayment(request.getPaymentMethod(), request.getBankAccountCode());
+        String sourceAccount = PaymentAccounts.debitAccountFor(request.getPaymentMethod(), request.getBankAccountCode());
+
+        // Load every allocation target up front: one query per target type
+        AllocationTargets targets = prefetchTargets(request);
 
         // 3. Create deposit entity (Initial State)
         Deposit deposit = Deposit.builder()
                 .member(member)
                 .totalAmount(request.getTotalAmount())
                 .status(DepositStatus.PROCESSING)
-                .paymentMethod(request.getPaymentMethod())
-                .paymentReference(request.getPaymentReference())
+                .paymentMethod(DepositIdempotencyGuard.normalizeMethod(request.getPaymentMethod()))
+                .paymentReference(DepositIdempotencyGuard.normalizeReference(request.getPaymentReference()))
                 .notes(request.getNotes())
                 .allocations(new ArrayList<>())
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        // Claim the payment reference before any money moves (unique index; a concurrent duplicate fails here)
+        deposit = depositRepository.saveAndFlush(deposit);
+
         // 4. Process each allocation (FAIL FAST STRATEGY)
         List<DepositAllocation> allocations = new ArrayList<>();
 
         for (AllocationRequest allocationReq : request.getAllocations()) {
             // ✅ Pass the determined sourceAccount to the processor
-            DepositAllocation allocation = processAllocation(member, deposit, allocationReq, sourceAccount);
+            DepositAllocation allocation = processAllocation(member, deposit, allocationReq, sourceAccount, targets);
             allocations.add(allocation);
         }
 
-        deposit.setAllocations(allocations);
+        deposit.getAllocations().addAll(allocations);
         deposit.setStatus(DepositStatus.COMPLETED);
         deposit.setProcessedAt(LocalDateTime.now());
 
@@ -101,10 +161,57 @@ public class DepositService {
         return convertToDTO(savedDeposit);
     }
 
+    /**
+     * Targets referenced by a deposit's allocations, loaded in one IN query per type.
+     * Allocations that hit the same target share the same managed instance.
+     */
+    private static final class AllocationTargets {
+        final Map<UUID, SavingsAccount> savingsAccounts = new HashMap<>();
+        final Map<UUID, Loan> loans = new HashMap<>();
+        final Map<UUID, Fine> fines = new HashMap<>();
+        final Map<UUID, DepositProduct> products = new HashMap<>();
+    }
+
+    private AllocationTargets prefetchTargets(CreateDepositRequest request) {
+        Set<UUID> savingsIds = new HashSet<>();
+        Set<UUID> loanIds = new HashSet<>();
+        Set<UUID> fineIds = new HashSet<>();
+        Set<UUID> productIds = new HashSet<>();
+        for (AllocationRequest allocation : request.getAllocations()) {
+            if (allocation.getDestinationType() == null) continue;
+            switch (allocation.getDestinationType()) {
+                case SAVINGS_ACCOUNT -> addIfPresent(savingsIds, allocation.getSavingsAccountId());
+                case LOAN_REPAYMENT -> addIfPresent(loanIds, allocation.getLoanId());
+                case FINE_PAYMENT -> addIfPresent(fineIds, allocation.getFineId());
+                case CONTRIBUTION_PRODUCT -> addIfPresent(productIds, allocation.getDepositProductId());
+                default -> { }
+            }
+        }
+
+        AllocationTargets targets = new AllocationTargets();
+        if (!savingsIds.isEmpty()) {
+            savingsAccountRepository.findAllWithMemberByIdIn(savingsIds).forEach(a -> targets.savingsAccounts.put(a.getId(), a));
+        }
+        if (!loanIds.isEmpty()) {
+            loanRepository.findAllWithMemberByIdIn(loanIds).forEach(l -> targets.loans.put(l.getId(), l));
+        }
+        if (!fineIds.isEmpty()) {
+            fineRepository.findAllWithMemberByIdIn(fineIds).forEach(f -> targets.fines.put(f.getId(), f));
+        }
+        if (!productIds.isEmpty()) {
+            depositProductRepository.findAllWithCreatorByIdIn(productIds).forEach(p -> targets.products.put(p.getId(), p));
+        }
+        return targets;
+    }
+
+    private static void addIfPresent(Set<UUID> ids, UUID id) {
+        if (id != null) ids.add(id);
+    }
+
     /**
      * Process a single allocation
      */
-    private DepositAllocation processAllocation(Member member, Deposit deposit, AllocationRequest request, String sourceAccount) {
+    private DepositAllocation processAllocation(Member member, Deposit deposit, AllocationRequest request, String sourceAccount, AllocationTargets targets) {
         DepositAllocation allocation = DepositAllocation.builder()
                 .deposit(deposit)
                 .destinationType(request.getDestinationType())
@@ -115,16 +222,16 @@ public class DepositService {
 
         switch (request.getDestinationType()) {
             case SAVINGS_ACCOUNT:
-                processSavingsAllocation(member, allocation, request, sourceAccount);
+                processSavingsAllocation(member, allocation, request, sourceAccount, targets);
                 break;
             case LOAN_REPAYMENT:
-                processLoanAllocation(member, allocation, request, sourceAccount);
+                processLoanAllocation(member, allocation, request, sourceAccount, targets);
                 break;
             case FINE_PAYMENT:
-                processFineAllocation(member, allocation, request, sourceAccount);
+                processFineAllocation(member, allocation, request, sourceAccount, targets);
                 break;
             case CONTRIBUTION_PRODUCT:
-                processContributionAllocation(member, allocation, request, sourceAccount);
+                processContributionAllocation(member, allocation, request, sourceAccount, targets);
                 break;
             case SHARE_CAPITAL:
                 processShareCapitalAllocation(member, allocation, request, sourceAccount);
@@ -139,13 +246,13 @@ public class DepositService {
     /**
      * Route money to savings account
      */
-    private void processSavingsAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount) {
+    private void processSavingsAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount, AllocationTargets targets) {
         if (request.getSavingsAccountId() == null) {
             throw new IllegalArgumentException("Savings account ID is required");
         }
 
-        SavingsAccount account = savingsAccountRepository.findById(request.getSavingsAccountId())
-                .orElseThrow(() -> new RuntimeException("Savings account not found"));
+        SavingsAccount account = targets.savingsAccounts.get(request.getSavingsAccountId());
+        if (account == null) throw new RuntimeException("Savings account not found");
 
         if (!account.getMember().getId().equals(member.getId())) {
             throw new SecurityException("Cannot deposit to another member's account");
@@ -157,7 +264,7 @@ public class DepositService {
 
         // Deposit to savings account using the determined Source Account
         savingsService.deposit(
-            account.getAccountNumber(), 
+            account, 
             allocation.getAmount(), 
             "Multi-deposit allocation", 
             sourceAccount
@@ -172,13 +279,13 @@ public class DepositService {
     /**
      * Route money to loan repayment
      */
-    private void processLoanAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount) {
+    private void processLoanAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount, AllocationTargets targets) {
         if (request.getLoanId() == null) {
             throw new IllegalArgumentException("Loan ID is required");
         }
 
-        Loan loan = loanRepository.findById(request.getLoanId())
-                .orElseThrow(() -> new RuntimeException("Loan not found"));
+        Loan loan = targets.loans.get(request.getLoanId());
+        if (loan == null) throw new RuntimeException("Loan not found");
 
         if (!loan.getMember().getId().equals(member.getId())) {
             throw new SecurityException("Cannot pay another member's loan");
@@ -204,13 +311,13 @@ public class DepositService {
     /**
      * Route money to fine payment
      */
-    private void processFineAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount) {
+    private void processFineAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount, AllocationTargets targets) {
         if (request.getFineId() == null) {
             throw new IllegalArgumentException("Fine ID is required");
         }
 
-        Fine fine = fineRepository.findById(request.getFineId())
-                .orElseThrow(() -> new RuntimeException("Fine not found"));
+        Fine fine = targets.fines.get(request.getFineId());
+        if (fine == null) throw new RuntimeException("Fine not found");
 
         if (!fine.getMember().getId().equals(member.getId())) {
             throw new SecurityException("Cannot pay another member's fine");
@@ -227,7 +334,7 @@ public class DepositService {
         fineRepository.save(fine);
 
         // Create accounting entry using the determined Source Account
-        accountingService.postEvent(
+        postingOutboxService.postEvent(
                 "FINE_PAYMENT",
                 "Fine payment: " + fine.getDescription(),
                 allocation.getDeposit().getTransactionReference(),
@@ -256,31 +363,41 @@ public class DepositService {
     /**
      * Route money to contribution product
      */
-    private void processContributionAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount) {
+    private void processContributionAllocation(Member member, DepositAllocation allocation, AllocationRequest request, String sourceAccount, AllocationTargets targets) {
         if (request.getDepositProductId() == null) {
             throw new IllegalArgumentException("Deposit product ID is required");
         }
 
-        DepositProduct product = depositProductRepository.findById(request.getDepositProductId())
-                .orElseThrow(() -> new RuntimeException("Deposit product not found"));
+        DepositProduct product = targets.products.get(request.getDepositProductId());
+        if (product == null) throw new RuntimeException("Deposit product not found");
 
         if (product.getStatus() != DepositProductStatus.ACTIVE) {
             throw new IllegalStateException("Product is not accepting contributions");
         }
 
-        // Add to product's current amount
-        product.setCurrentAmount(product.getCurrentAmount().add(allocation.getAmount()));
-        
-        // Check if target reached
-        if (product.getTargetAmount() != null && 
-            product.getCurrentAmount().compareTo(product.getTargetAmount()) >= 0) {
-            product.setStatus(DepositProductStatus.COMPLETED);
+        // Add to the product's running total. Each member writes to a hashed shard row, so
+        // contributors to the same campaign don't queue on the deposit_products row.
+        productShardRepository.add(product.getId(),
+                Math.floorMod(member.getId().hashCode(), contributionShards), allocation.getAmount());
+        BigDecimal collected = productShardRepository.total(product.getId());
+
+        // Target reached: lock the product row and re-check under the lock (the only time the
+        // row is touched), so nothing lands on a product another contributor already completed
+        if (product.getTargetAmount() != null && collected.compareTo(product.getTargetAmount()) >= 0) {
+            String status = productShardRepository.lockProductStatus(product.getId());
+            if (!DepositProductStatus.ACTIVE.name().equals(status)) {
+                throw new IllegalStateException("Product has already reached its target and is not accepting contributions");
+            }
+            collected = productShardRepository.total(product.getId());
+            if (collected.compareTo(product.getTargetAmount()) >= 0) {
+                product.setCurrentAmount(collected);
+                product.setStatus(DepositProductStatus.COMPLETED);
+                depositProductRepository.save(product);
+            }
         }
-        
-        depositProductRepository.save(product);
 
         // Create accounting entry using the determined Source Account
-        accountingService.postEvent(
+        postingOutboxService.postEvent(
                 "CONTRIBUTION_RECEIVED",
                 "Contribution to: " + product.getName(),
                 allocation.getDeposit().getTransactionReference(),
@@ -296,7 +413,7 @@ public class DepositService {
                 .paymentMethod(convertPaymentMethod(allocation.getDeposit().getPaymentMethod()))
                 .referenceCode(referenceCodeService.generateReferenceCode())
                 .description("Contribution to " + product.getName())
-                .balanceAfter(product.getCurrentAmount())
+                .balanceAfter(collected)
                 .build();
         transactionRepository.save(transaction);
 
@@ -341,7 +458,7 @@ public class DepositService {
         memberRepository.save(member);
 
         // Create accounting entry using the determined Source Account
-        accountingService.postEvent(
+        postingOutboxService.postEvent(
                 "SHARE_CAPITAL_PURCHASE", 
                 "Share capital contribution",
                 allocation.getDeposit().getTransactionReference(),
@@ -471,24 +588,4 @@ public class DepositService {
                 return allocation.getDestinationType().toString();
         }
     }
-
-    /**
-     * ✅ Helper method to get the correct Debit Account based on Payment Method
-     * UPDATED: Accepts optional bankAccountCode to route to specific banks
-     */
-    private String getDebitAccountForPayment(String paymentMethod, String bankAccountCode) {
-        if (paymentMethod == null) return "1001"; // Default to Cash
-        
-        switch (paymentMethod.toUpperCase()) {
-            case "MPESA": return "1002"; // M-Pesa Paybill
-            case "BANK": 
-                // ✅ If user provided a specific bank code, USE IT.
-                if (bankAccountCode != null && !bankAccountCode.isEmpty()) {
-                    return bankAccountCode;
-                }
-                return "1010"; // Fallback to default Bank (Equity)
-            case "CASH": return "1001";  // Cash on Hand
-            default: return "1001";
-        }
-    }
 }
\ No newline at end of file
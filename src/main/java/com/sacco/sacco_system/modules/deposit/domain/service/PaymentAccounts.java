@@ -0,0 +1,26 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+/**
+ * GL cash account a member payment is debited to, by payment channel.
+ */
+public final class PaymentAccounts {
+
+    public static final String CASH = "1001";   // Cash on Hand
+    public static final String MPESA = "1002";  // M-Pesa Paybill
+    public static final String BANK = "1010";   // Default bank (Equity)
+
+    private PaymentAccounts() {
+    }
+
+    /**
+     * Debit account for the payment method; a BANK payment goes to the given bank account code when set
+     */
+    public static String debitAccountFor(String paymentMethod, String bankAccountCode) {
+        if (paymentMethod == null) return CASH;
+        return switch (paymentMethod.toUpperCase()) {
+            case "MPESA" -> MPESA;
+            case "BANK" -> bankAccountCode != null && !bankAccountCode.isEmpty() ? bankAccountCode : BANK;
+            default -> CASH;
+        };
+    }
+}
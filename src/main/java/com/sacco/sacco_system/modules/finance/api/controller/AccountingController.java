@@ -9,6 +9,9 @@ import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountReposit
 import com.sacco.sacco_system.modules.finance.domain.repository.GlMappingRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.JournalEntryRepository;
 import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.FiscalPeriodCloseService;
+import com.sacco.sacco_system.modules.finance.domain.service.GlReferenceCache;
+import com.sacco.sacco_system.modules.finance.domain.service.LedgerIntegrityService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +33,9 @@ public class AccountingController {
     private final AccountingService accountingService;
     private final GlMappingRepository glMappingRepository;
     private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final LedgerIntegrityService ledgerIntegrityService;
+    private final GlReferenceCache referenceCache;
+    private final FiscalPeriodCloseService fiscalPeriodCloseService;
 
     // --- 0. SETUP & INITIALIZATION ---
 
@@ -61,6 +67,7 @@ public class AccountingController {
         try {
             glMappingRepository.deleteAll();
             accountRepository.deleteAll();
+            referenceCache.invalidate();
             accountingService.initChartOfAccounts();
             accountingService.initDefaultMappings();
 
@@ -109,6 +116,17 @@ public class AccountingController {
         return ResponseEntity.ok(Map.of("success", true, "data", entries));
     }
 
+    // Paginated journal browser: pass back "nextCursor" until "last" is true
+    @GetMapping("/journal/page")
+    public ResponseEntity<Map<String, Object>> getJournalPage(
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(Map.of("success", true, "data", accountingService.getJournalPage(startDate, endDate, cursor, size)));
+    }
+
     @GetMapping("/report")
     public ResponseEntity<Map<String, Object>> getAccountingReport(
             @RequestParam(required = false) LocalDate startDate,
@@ -150,6 +168,15 @@ public class AccountingController {
         return ResponseEntity.ok(Map.of("success", true, "message", "Journal Entry Posted Successfully"));
     }
 
+    // Ledger integrity check: unbalanced entries + GL balance drift (repair=true rewrites drifted balances)
+    @PostMapping("/verify")
+    public ResponseEntity<Map<String, Object>> verifyLedger(
+            @RequestParam(defaultValue = "false") boolean fullScan,
+            @RequestParam(defaultValue = "false") boolean repair
+    ) {
+        return ResponseEntity.ok(Map.of("success", true, "data", ledgerIntegrityService.verify(fullScan, repair)));
+    }
+
     // --- 2. CONFIGURATION: GL MAPPINGS (UPDATED) ---
 
     @GetMapping("/config/mappings")
@@ -164,12 +191,14 @@ public class AccountingController {
             return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Mapping for '" + mapping.getEventName() + "' already exists."));
         }
         GlMapping saved = glMappingRepository.save(mapping);
+        referenceCache.invalidate();
         return ResponseEntity.ok(Map.of("success", true, "message", "Mapping Created Successfully", "data", saved));
     }
 
     @PutMapping("/config/mappings")
     public ResponseEntity<Map<String, Object>> updateGlMapping(@RequestBody GlMapping mapping) {
         GlMapping saved = glMappingRepository.save(mapping);
+        referenceCache.invalidate();
         return ResponseEntity.ok(Map.of("success", true, "message", "Mapping Updated", "data", saved));
     }
 
@@ -177,6 +206,7 @@ public class AccountingController {
    @DeleteMapping("/config/mappings/{eventName}") // Change from {id}
 public ResponseEntity<Map<String, Object>> deleteGlMapping(@PathVariable String eventName) { // Change UUID to String
     glMappingRepository.deleteById(eventName); // Fixes incompatible types error
+    referenceCache.invalidate();
     return ResponseEntity.ok(Map.of("success", true, "message", "Mapping Deleted"));
 }
 
@@ -210,4 +240,18 @@ public ResponseEntity<Map<String, Object>> deleteGlMapping(@PathVariable String
         fiscalPeriodRepository.save(period);
         return ResponseEntity.ok(Map.of("success", true, "message", "Status Changed"));
     }
+
+    // Year-end close: income/expense to retained earnings, opening balances, journal archiving
+    @PostMapping("/config/periods/{id}/close")
+    public ResponseEntity<Map<String, Object>> closeFiscalPeriod(@PathVariable UUID id) {
+        FiscalPeriod closed = fiscalPeriodCloseService.closePeriod(id);
+        return ResponseEntity.ok(Map.of("success", true, "message", "Fiscal period closed", "data", closed));
+    }
+
+    // Re-run archiving for a closed period (e.g. after an interrupted close)
+    @PostMapping("/config/periods/{id}/archive")
+    public ResponseEntity<Map<String, Object>> archiveFiscalPeriod(@PathVariable UUID id) {
+        int moved = fiscalPeriodCloseService.archivePeriod(id);
+        return ResponseEntity.ok(Map.of("success", true, "message", "Journal lines archived", "data", Map.of("linesArchived", moved)));
+    }
 }
\ No newline at end of file
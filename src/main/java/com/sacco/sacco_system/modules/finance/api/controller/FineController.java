@@ -1,18 +1,20 @@
 package com.sacco.sacco_system.modules.finance.api.controller;
 
 import com.sacco.sacco_system.modules.users.domain.entity.User;
+import com.sacco.sacco_system.modules.finance.api.dto.OverduePenaltyRunDTO;
 import com.sacco.sacco_system.modules.finance.domain.entity.Fine;
 import com.sacco.sacco_system.modules.finance.domain.service.FineService;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.Collections;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -208,16 +210,15 @@ public class FineController {
      * Process overdue payments and impose fines (admin/automated)
      */
     @PostMapping("/process-overdue")
-    public ResponseEntity<Map<String, Object>> processOverduePayments() {
+    public ResponseEntity<Map<String, Object>> processOverduePayments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            // ✅ FIX: Disabled temporarily for Skeleton Phase
-            // List<Fine> fines = fineService.processOverduePayments();
-            List<Fine> fines = Collections.emptyList();
+            OverduePenaltyRunDTO run = fineService.processOverduePayments(date);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "message", "Automatic fine processing is disabled in Skeleton Mode.",
-                    "data", fines
+                    "message", run.getFinesImposed() + " late payment fines imposed",
+                    "data", run
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -1,6 +1,7 @@
 package com.sacco.sacco_system.modules.finance.api.controller;
 
 import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
+import com.sacco.sacco_system.modules.savings.api.dto.SavingsInterestRunDTO;
 import com.sacco.sacco_system.modules.savings.domain.service.SavingsService;
 import com.sacco.sacco_system.modules.finance.domain.service.TransactionService;
 import lombok.Builder;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,9 +70,12 @@ public class TransactionController {
     }
 
     @PostMapping("/interest")
-    public ResponseEntity<?> applyInterest() {
-        savingsService.applyMonthlyInterest();
-        return ResponseEntity.ok(Map.of("success", true, "message", "Monthly Interest applied based on Product Rates"));
+    public ResponseEntity<?> applyInterest(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        SavingsInterestRunDTO run = savingsService.applyMonthlyInterest(period);
+        String message = "COMPLETED".equals(run.getStatus())
+                ? "Monthly Interest applied based on Product Rates"
+                : "Interest run incomplete (" + run.getChunksDone() + "/" + run.getChunks() + " chunks); run again to resume";
+        return ResponseEntity.ok(Map.of("success", true, "message", message, "data", run));
     }
 
     @GetMapping("/download")
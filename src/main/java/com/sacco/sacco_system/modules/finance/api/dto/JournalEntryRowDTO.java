@@ -0,0 +1,30 @@
+package com.sacco.sacco_system.modules.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Flat journal entry projection used by the paginated journal browser
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalEntryRowDTO {
+
+    private UUID id;
+    private LocalDateTime transactionDate;
+    private LocalDateTime postedDate;
+    private String description;
+    private String referenceNo;
+
+    @Builder.Default
+    private List<JournalLineRowDTO> lines = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.sacco.sacco_system.modules.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Flat journal line projection (no entity graph)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalLineRowDTO {
+
+    private UUID id;
+    private String accountCode;
+    private String accountName;
+    private BigDecimal debit;
+    private BigDecimal credit;
+}
@@ -0,0 +1,23 @@
+package com.sacco.sacco_system.modules.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of journal entries. Pass nextCursor back to get the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalPageDTO {
+
+    private List<JournalEntryRowDTO> content;
+    private int pageSize;
+    private String nextCursor; // null on the last page
+    private boolean last;
+}
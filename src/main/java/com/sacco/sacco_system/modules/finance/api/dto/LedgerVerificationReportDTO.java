@@ -0,0 +1,59 @@
+package com.sacco.sacco_system.modules.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of one ledger integrity run: unbalanced journal entries and GL balance drift.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerVerificationReportDTO {
+
+    private boolean fullScan;
+    private boolean repaired;
+    private LocalDateTime entriesPostedAfter;  // null on a full scan
+    private LocalDateTime entriesPostedBefore; // new checkpoint
+    private int rangesScanned;
+    private long durationMs;
+
+    @Builder.Default
+    private List<UnbalancedEntry> unbalancedEntries = new ArrayList<>();
+
+    @Builder.Default
+    private List<AccountDrift> accountDrifts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class UnbalancedEntry {
+        private UUID entryId;
+        private String referenceNo;
+        private BigDecimal totalDebit;
+        private BigDecimal totalCredit;
+        private long lineCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class AccountDrift {
+        private String accountCode;
+        private String accountName;
+        private BigDecimal recordedBalance; // gl_accounts.balance (+ unfolded STRIPED delta)
+        private BigDecimal ledgerBalance;   // recomputed from journal lines
+        private BigDecimal difference;      // ledger - recorded
+    }
+}
@@ -0,0 +1,26 @@
+package com.sacco.sacco_system.modules.finance.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Outcome of a late-payment penalty run for one day.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OverduePenaltyRunDTO {
+
+    private LocalDate date;
+    private int overdueLoans;
+    private int finesImposed;      // new fines; loans already fined that day are skipped
+    private BigDecimal totalPenalties;
+    private int failedPartitions;  // left for a re-run
+    private long durationMs;
+}
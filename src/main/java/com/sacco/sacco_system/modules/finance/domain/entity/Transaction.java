@@ -11,6 +11,7 @@ import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
 
 @Entity
 @Table(name = "transactions")
+@EntityListeners(TransactionIdListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -59,9 +60,6 @@ public class Transaction {
     @PrePersist
     protected void onCreate() {
         transactionDate = LocalDateTime.now();
-        if (transactionId == null) {
-            transactionId = "TXN" + System.currentTimeMillis();
-        }
     }
 
     public enum TransactionType {
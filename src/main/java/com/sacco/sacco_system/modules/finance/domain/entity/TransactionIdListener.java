@@ -0,0 +1,26 @@
+package com.sacco.sacco_system.modules.finance.domain.entity;
+
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import jakarta.persistence.PrePersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps new transactions with a node-unique transaction id. A Spring bean (Hibernate resolves
+ * entity listeners through the application context) so the id comes from the node's
+ * ReferenceCodeService; looked up lazily to stay out of the entity manager's startup.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionIdListener {
+
+    private final ObjectProvider<ReferenceCodeService> referenceCodeService;
+
+    @PrePersist
+    public void assignTransactionId(Transaction transaction) {
+        if (transaction.getTransactionId() == null) {
+            transaction.setTransactionId(referenceCodeService.getObject().nextTransactionId());
+        }
+    }
+}
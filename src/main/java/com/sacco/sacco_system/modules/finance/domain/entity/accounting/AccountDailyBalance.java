@@ -0,0 +1,41 @@
+package com.sacco.sacco_system.modules.finance.domain.entity.accounting;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * End-of-day ledger snapshot for one GL account.
+ * closingDebit/closingCredit are cumulative totals of all lines up to and including balanceDate,
+ * so an as-of balance is the latest snapshot plus the lines posted after it.
+ */
+@Entity
+@Table(name = "account_daily_balances",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_daily_balance", columnNames = {"account_code", "balance_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountDailyBalance {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "account_code", length = 20, nullable = false)
+    private String accountCode;
+
+    @Column(name = "balance_date", nullable = false)
+    private LocalDate balanceDate;
+
+    @Builder.Default
+    private BigDecimal dayDebit = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal dayCredit = BigDecimal.ZERO;
+
+    @Builder.Default
+    private BigDecimal closingDebit = BigDecimal.ZERO;
+    @Builder.Default
+    private BigDecimal closingCredit = BigDecimal.ZERO;
+}
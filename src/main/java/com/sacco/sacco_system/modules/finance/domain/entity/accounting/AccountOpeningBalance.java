@@ -0,0 +1,49 @@
+package com.sacco.sacco_system.modules.finance.domain.entity.accounting;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Balance brought forward into the period starting on openingDate, written when the
+ * previous fiscal period is closed (after its income/expense were closed to retained earnings).
+ * Totals are cumulative so they line up with account_daily_balances.
+ */
+@Entity
+@Table(name = "account_opening_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_opening_balance", columnNames = {"account_code", "opening_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountOpeningBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID fiscalPeriodId; // The closed period this was rolled forward from
+
+    @Column(nullable = false, length = 20)
+    private String accountCode;
+
+    @Column(nullable = false)
+    private LocalDate openingDate;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingDebit;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal openingCredit;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance; // Signed by the account's normal side
+}
@@ -10,6 +10,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
@@ -28,6 +29,9 @@ public class FiscalPeriod {
     private LocalDate endDate;
     private boolean active;
     private boolean closed; // If true, no transactions allowed
+    private LocalDateTime closedAt;
+    private boolean archived; // Journal lines moved to journal_lines_archive
+    private LocalDate archivedThrough; // Archive progress: lines dated on or before it have moved (set month by month)
 }
 
 
@@ -3,10 +3,12 @@ import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "gl_accounts")
+@DynamicUpdate // Edits to name/active must not rewrite a balance maintained by delta updates
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
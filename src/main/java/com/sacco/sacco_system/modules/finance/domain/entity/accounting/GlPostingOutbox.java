@@ -0,0 +1,66 @@
+package com.sacco.sacco_system.modules.finance.domain.entity.accounting;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A GL posting intent written in the same transaction as the business change.
+ * The outbox worker drains PENDING rows in id order into AccountingService.postBatch.
+ */
+@Entity
+@Table(name = "gl_posting_outbox", indexes = {
+        @Index(name = "idx_gl_outbox_status_id", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GlPostingOutbox {
+
+    public enum Status { PENDING, POSTED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Drain order
+
+    private String eventName; // e.g., "SAVINGS_DEPOSIT"
+    private String description;
+    private String referenceNo;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    private String debitAccountCode;  // Override, null = mapping default
+    private String creditAccountCode; // Override, null = mapping default
+
+    @Column(nullable = false)
+    private LocalDateTime transactionDate; // Business time, not drain time
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime postedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (transactionDate == null) transactionDate = createdAt;
+    }
+}
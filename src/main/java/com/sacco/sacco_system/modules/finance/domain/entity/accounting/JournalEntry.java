@@ -21,7 +21,8 @@ public class JournalEntry {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    private LocalDateTime transactionDate;
+    @Column(nullable = false)
+    private LocalDateTime transactionDate; // Partition key for journal_entries / journal_lines
     private LocalDateTime postedDate;
 
     private String description;
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
@@ -22,7 +23,7 @@ public class JournalLine {
     private UUID id;
 
     @ManyToOne
-    @JoinColumn(name = "journal_entry_id")
+    @JoinColumn(name = "journal_entry_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)) // Partitioned tables: no line -> entry FK
     @JsonIgnore // âœ… FIX: Stops infinite loop during JSON conversion
     @ToString.Exclude // âœ… FIX: Stops infinite loop in Logs
     private JournalEntry journalEntry;
@@ -33,6 +34,15 @@ public class JournalLine {
 
     private BigDecimal debit = BigDecimal.ZERO;
     private BigDecimal credit = BigDecimal.ZERO;
+
+    // Copy of the entry's transaction date: partition key, lets date filters skip the join
+    @Column(nullable = false)
+    private LocalDateTime transactionDate;
+
+    @PrePersist
+    protected void onCreate() {
+        if (transactionDate == null && journalEntry != null) transactionDate = journalEntry.getTransactionDate();
+    }
 }
 
 
@@ -0,0 +1,134 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountDailyBalance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access to account_daily_balances.
+ * Totals are returned as {debit, credit} pairs keyed by account code.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountDailyBalanceRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Callback for one (account, day) aggregate row
+     */
+    public interface DailyTotalConsumer {
+        void accept(String accountCode, LocalDate day, BigDecimal debit, BigDecimal credit);
+    }
+
+    /**
+     * Latest cumulative snapshot per account on or before the given day (one index seek per account)
+     */
+    public Map<String, BigDecimal[]> findLatestClosing(LocalDate onOrBefore) {
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT a.code, s.closing_debit, s.closing_credit FROM gl_accounts a " +
+                "JOIN LATERAL (SELECT b.closing_debit, b.closing_credit FROM account_daily_balances b " +
+                "              WHERE b.account_code = a.code AND b.balance_date <= ? " +
+                "              ORDER BY b.balance_date DESC LIMIT 1) s ON true",
+                rs -> {
+                    totals.put(rs.getString(1), new BigDecimal[]{rs.getBigDecimal(2), rs.getBigDecimal(3)});
+                },
+                Date.valueOf(onOrBefore));
+        return totals;
+    }
+
+    /**
+     * Raw line totals per account for [from, to). A null 'from' means from the beginning.
+     */
+    public Map<String, BigDecimal[]> sumLines(LocalDateTime from, LocalDateTime to) {
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        String sql = "SELECT jl.account_code, COALESCE(SUM(jl.debit), 0), COALESCE(SUM(jl.credit), 0) " +
+                "FROM journal_lines jl " +
+                "WHERE jl.transaction_date < ?" + (from != null ? " AND jl.transaction_date >= ?" : "") +
+                " GROUP BY jl.account_code";
+        Object[] args = (from != null)
+                ? new Object[]{Timestamp.valueOf(to), Timestamp.valueOf(from)}
+                : new Object[]{Timestamp.valueOf(to)};
+        jdbcTemplate.query(sql, rs -> {
+            totals.put(rs.getString(1), new BigDecimal[]{rs.getBigDecimal(2), rs.getBigDecimal(3)});
+        }, args);
+        return totals;
+    }
+
+    /**
+     * Stream per-account, per-day line totals for [from, to), ordered by day
+     */
+    public void forEachDailyTotal(LocalDateTime from, LocalDateTime to, DailyTotalConsumer consumer) {
+        jdbcTemplate.query(
+                "SELECT jl.account_code, CAST(jl.transaction_date AS DATE) AS day, " +
+                "       COALESCE(SUM(jl.debit), 0), COALESCE(SUM(jl.credit), 0) " +
+                "FROM journal_lines jl " +
+                "WHERE jl.transaction_date >= ? AND jl.transaction_date < ? " +
+                "GROUP BY jl.account_code, CAST(jl.transaction_date AS DATE) " +
+                "ORDER BY day",
+                rs -> {
+                    consumer.accept(rs.getString(1), rs.getDate(2).toLocalDate(), rs.getBigDecimal(3), rs.getBigDecimal(4));
+                },
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    public LocalDateTime findEarliestTransactionDate() {
+        Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(transaction_date) FROM journal_entries", Timestamp.class);
+        return earliest != null ? earliest.toLocalDateTime() : null;
+    }
+
+    public void upsert(List<AccountDailyBalance> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO account_daily_balances (id, account_code, balance_date, day_debit, day_credit, closing_debit, closing_credit) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (account_code, balance_date) DO UPDATE SET " +
+                "day_debit = EXCLUDED.day_debit, day_credit = EXCLUDED.day_credit, " +
+                "closing_debit = EXCLUDED.closing_debit, closing_credit = EXCLUDED.closing_credit",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, row.getId() != null ? row.getId() : UUID.randomUUID());
+                    ps.setString(2, row.getAccountCode());
+                    ps.setDate(3, Date.valueOf(row.getBalanceDate()));
+                    ps.setBigDecimal(4, row.getDayDebit());
+                    ps.setBigDecimal(5, row.getDayCredit());
+                    ps.setBigDecimal(6, row.getClosingDebit());
+                    ps.setBigDecimal(7, row.getClosingCredit());
+                });
+    }
+
+    /**
+     * Fold a back-dated movement into existing snapshots: make sure the day row exists,
+     * add to that day's totals, then shift every later cumulative snapshot.
+     */
+    public void applyAdjustment(String accountCode, LocalDate day, BigDecimal debit, BigDecimal credit) {
+        jdbcTemplate.update(
+                "INSERT INTO account_daily_balances (id, account_code, balance_date, day_debit, day_credit, closing_debit, closing_credit) " +
+                "SELECT ?, ?, ?, 0, 0, COALESCE(p.closing_debit, 0), COALESCE(p.closing_credit, 0) " +
+                "FROM (SELECT 1) x LEFT JOIN LATERAL (SELECT b.closing_debit, b.closing_credit FROM account_daily_balances b " +
+                "      WHERE b.account_code = ? AND b.balance_date < ? ORDER BY b.balance_date DESC LIMIT 1) p ON true " +
+                "ON CONFLICT (account_code, balance_date) DO NOTHING",
+                UUID.randomUUID(), accountCode, Date.valueOf(day), accountCode, Date.valueOf(day));
+        jdbcTemplate.update(
+                "UPDATE account_daily_balances SET day_debit = day_debit + ?, day_credit = day_credit + ? " +
+                "WHERE account_code = ? AND balance_date = ?",
+                debit, credit, accountCode, Date.valueOf(day));
+        jdbcTemplate.update(
+                "UPDATE account_daily_balances SET closing_debit = closing_debit + ?, closing_credit = closing_credit + ? " +
+                "WHERE account_code = ? AND balance_date >= ?",
+                debit, credit, accountCode, Date.valueOf(day));
+    }
+}
@@ -0,0 +1,22 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountOpeningBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountOpeningBalanceRepository extends JpaRepository<AccountOpeningBalance, UUID> {
+
+    List<AccountOpeningBalance> findByOpeningDate(LocalDate openingDate);
+
+    @Modifying
+    @Query("DELETE FROM AccountOpeningBalance o WHERE o.openingDate = :openingDate")
+    void deleteByOpeningDate(@Param("openingDate") LocalDate openingDate);
+}
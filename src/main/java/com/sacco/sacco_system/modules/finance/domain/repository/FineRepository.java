@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +22,9 @@ public interface FineRepository extends JpaRepository<Fine, UUID> {
 
     List<Fine> findByStatus(Fine.FineStatus status);
 
+    @Query("SELECT f FROM Fine f JOIN FETCH f.member LEFT JOIN FETCH f.loan fl LEFT JOIN FETCH fl.product WHERE f.id IN :ids")
+    List<Fine> findAllWithMemberByIdIn(@Param("ids") Collection<UUID> ids);
+
     @Query("SELECT SUM(f.amount) FROM Fine f WHERE f.member.id = :memberId AND f.status = 'PENDING'")
     BigDecimal getTotalPendingFinesByMember(@Param("memberId") UUID memberId);
 
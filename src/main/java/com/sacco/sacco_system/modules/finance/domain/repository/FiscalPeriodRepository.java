@@ -2,7 +2,9 @@ package com.sacco.sacco_system.modules.finance.domain.repository;
 
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.FiscalPeriod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -29,4 +31,34 @@ public interface FiscalPeriodRepository extends JpaRepository<FiscalPeriod, UUID
      * Find a period by exact dates (Good for preventing duplicates)
      */
     Optional<FiscalPeriod> findByStartDateAndEndDate(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Any earlier period still open? Periods must be closed in order.
+     */
+    boolean existsByClosedFalseAndEndDateBefore(LocalDate date);
+
+    /**
+     * Last day of the latest closed period (null if none). Postings on or before it are rejected.
+     */
+    @Query("SELECT MAX(f.endDate) FROM FiscalPeriod f WHERE f.closed = true")
+    LocalDate findClosedThrough();
+
+    /**
+     * Any closed period before this date whose lines are not all archived yet? Periods are archived in order.
+     */
+    boolean existsByClosedTrueAndArchivedFalseAndEndDateBefore(LocalDate date);
+
+    /**
+     * Last day whose journal lines have been archived (null if none). Lines on or before it live in
+     * journal_lines_archive. Follows archiving month by month, so it may fall inside a period.
+     */
+    @Query("SELECT MAX(f.archivedThrough) FROM FiscalPeriod f")
+    LocalDate findArchivedThrough();
+
+    /**
+     * Record archive progress; runs in the same transaction as the month's move
+     */
+    @Modifying
+    @Query("UPDATE FiscalPeriod f SET f.archivedThrough = :through WHERE f.id = :id")
+    void markArchivedThrough(@Param("id") UUID id, @Param("through") LocalDate through);
 }
\ No newline at end of file
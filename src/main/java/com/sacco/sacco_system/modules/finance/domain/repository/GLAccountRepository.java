@@ -2,12 +2,18 @@ package com.sacco.sacco_system.modules.finance.domain.repository;
 
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 @Repository
 public interface GLAccountRepository extends JpaRepository<GLAccount, String> {
 
     Optional<GLAccount> findByCode(String code);
+
+    @Query("SELECT a.balance FROM GLAccount a WHERE a.code = :code")
+    Optional<BigDecimal> findBalanceByCode(@Param("code") String code);
 }
@@ -0,0 +1,17 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlPostingOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GlPostingOutboxRepository extends JpaRepository<GlPostingOutbox, Long> {
+    // Oldest first so each account sees its postings in the order they were written;
+    // afterId pages past rows already looked at in this drain
+    List<GlPostingOutbox> findByStatusAndIdGreaterThanOrderByIdAsc(GlPostingOutbox.Status status, Long afterId, Pageable pageable);
+
+    long countByStatus(GlPostingOutbox.Status status);
+}
@@ -0,0 +1,32 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Moves journal lines of closed fiscal periods out of the live (partitioned) table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalArchiveRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Move lines dated in [from, to) to journal_lines_archive in one statement. Returns the number moved.
+     */
+    public int archiveLines(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.update(
+                "WITH moved AS (" +
+                "  DELETE FROM journal_lines WHERE transaction_date >= ? AND transaction_date < ? " +
+                "  RETURNING id, journal_entry_id, account_code, debit, credit, transaction_date" +
+                ") INSERT INTO journal_lines_archive (id, journal_entry_id, account_code, debit, credit, transaction_date) " +
+                "SELECT id, journal_entry_id, account_code, debit, credit, transaction_date FROM moved " +
+                "ON CONFLICT (id) DO NOTHING",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+}
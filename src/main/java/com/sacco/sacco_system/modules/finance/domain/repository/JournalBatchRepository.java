@@ -0,0 +1,78 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.JournalEntry;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.JournalLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch writer for journal entries, journal lines and GL balance deltas.
+ * Used by AccountingService.postBatch so bulk postings skip per-row JPA round trips.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert journal entry headers. Entries must already carry their ids.
+     */
+    public void insertEntries(List<JournalEntry> entries) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO journal_entries (id, transaction_date, posted_date, description, reference_no) VALUES (?, ?, ?, ?, ?)",
+                entries, BATCH_SIZE,
+                (ps, entry) -> {
+                    ps.setObject(1, entry.getId());
+                    ps.setTimestamp(2, Timestamp.valueOf(entry.getTransactionDate()));
+                    ps.setTimestamp(3, Timestamp.valueOf(entry.getPostedDate()));
+                    ps.setString(4, entry.getDescription());
+                    ps.setString(5, entry.getReferenceNo());
+                });
+    }
+
+    /**
+     * Insert the lines of the given entries. Lines must already carry their ids.
+     */
+    public void insertLines(List<JournalEntry> entries) {
+        List<JournalLine> lines = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            lines.addAll(entry.getLines());
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO journal_lines (id, journal_entry_id, account_code, debit, credit, transaction_date) VALUES (?, ?, ?, ?, ?, ?)",
+                lines, BATCH_SIZE,
+                (ps, line) -> {
+                    ps.setObject(1, line.getId());
+                    ps.setObject(2, line.getJournalEntry().getId());
+                    ps.setString(3, line.getAccount().getCode());
+                    ps.setBigDecimal(4, line.getDebit());
+                    ps.setBigDecimal(5, line.getCredit());
+                    ps.setTimestamp(6, Timestamp.valueOf(line.getJournalEntry().getTransactionDate()));
+                });
+    }
+
+    /**
+     * Apply one signed balance delta per account. Iterate in a stable key order
+     * so concurrent batches always lock GL rows in the same sequence.
+     */
+    public void applyBalanceDeltas(Map<String, BigDecimal> deltas) {
+        List<Map.Entry<String, BigDecimal>> rows = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE gl_accounts SET balance = balance + ? WHERE code = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getValue());
+                    ps.setString(2, row.getKey());
+                });
+    }
+}
@@ -0,0 +1,89 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import com.sacco.sacco_system.modules.finance.api.dto.JournalEntryRowDTO;
+import com.sacco.sacco_system.modules.finance.api.dto.JournalLineRowDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only projections for browsing the journal page by page.
+ * Keyset pagination on (transaction_date, id), newest first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalBrowseRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Entries in [from, to) strictly after the cursor position (in descending order)
+     */
+    public List<JournalEntryRowDTO> findEntryPage(LocalDateTime from, LocalDateTime to,
+                                                  LocalDateTime cursorDate, UUID cursorId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to))
+                .addValue("limit", limit);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, transaction_date, posted_date, description, reference_no FROM journal_entries " +
+                "WHERE transaction_date >= :from AND transaction_date < :to ");
+        if (cursorDate != null) {
+            sql.append("AND (transaction_date, id) < (:cursorDate, :cursorId) ");
+            params.addValue("cursorDate", Timestamp.valueOf(cursorDate)).addValue("cursorId", cursorId);
+        }
+        sql.append("ORDER BY transaction_date DESC, id DESC LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> JournalEntryRowDTO.builder()
+                .id(rs.getObject("id", UUID.class))
+                .transactionDate(rs.getTimestamp("transaction_date").toLocalDateTime())
+                .postedDate(rs.getTimestamp("posted_date") != null ? rs.getTimestamp("posted_date").toLocalDateTime() : null)
+                .description(rs.getString("description"))
+                .referenceNo(rs.getString("reference_no"))
+                .lines(new ArrayList<>())
+                .build());
+    }
+
+    /**
+     * Lines of the given entries. The date bounds let Postgres prune to the page's partitions.
+     * Rows are returned as {entryId, line}.
+     */
+    public List<Object[]> findLines(Collection<UUID> entryIds, LocalDateTime from, LocalDateTime to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", entryIds)
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        // Lines of closed, archived fiscal periods live in journal_lines_archive
+        return jdbcTemplate.query(
+                "SELECT jl.id, jl.journal_entry_id, jl.account_code, a.name AS account_name, jl.debit, jl.credit " +
+                "FROM (" +
+                "  SELECT id, journal_entry_id, account_code, debit, credit FROM journal_lines " +
+                "  WHERE journal_entry_id IN (:ids) AND transaction_date >= :from AND transaction_date <= :to " +
+                "  UNION ALL " +
+                "  SELECT id, journal_entry_id, account_code, debit, credit FROM journal_lines_archive " +
+                "  WHERE journal_entry_id IN (:ids) AND transaction_date >= :from AND transaction_date <= :to" +
+                ") jl LEFT JOIN gl_accounts a ON a.code = jl.account_code " +
+                "ORDER BY jl.debit DESC",
+                params,
+                (rs, rowNum) -> new Object[]{
+                        rs.getObject("journal_entry_id", UUID.class),
+                        JournalLineRowDTO.builder()
+                                .id(rs.getObject("id", UUID.class))
+                                .accountCode(rs.getString("account_code"))
+                                .accountName(rs.getString("account_name"))
+                                .debit(rs.getBigDecimal("debit"))
+                                .credit(rs.getBigDecimal("credit"))
+                                .build()
+                });
+    }
+}
@@ -17,9 +17,9 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
     /**
      * Count transactions for an account within a date range
      */
-    @Query("SELECT COUNT(jl) FROM JournalLine jl JOIN jl.journalEntry je " +
+    @Query("SELECT COUNT(jl) FROM JournalLine jl " +
            "WHERE jl.account.code = :accountCode " +
-           "AND je.transactionDate BETWEEN :startDate AND :endDate")
+           "AND jl.transactionDate BETWEEN :startDate AND :endDate")
     Long countByAccountCodeAndDateRange(
             @Param("accountCode") String accountCode,
             @Param("startDate") LocalDate startDate,
@@ -28,9 +28,9 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
     /**
      * Sum debit amounts for an account within a date range
      */
-    @Query("SELECT COALESCE(SUM(jl.debit), 0) FROM JournalLine jl JOIN jl.journalEntry je " +
+    @Query("SELECT COALESCE(SUM(jl.debit), 0) FROM JournalLine jl " +
            "WHERE jl.account.code = :accountCode " +
-           "AND je.transactionDate BETWEEN :startDate AND :endDate")
+           "AND jl.transactionDate BETWEEN :startDate AND :endDate")
     BigDecimal sumDebitsByAccountAndDateRange(
             @Param("accountCode") String accountCode,
             @Param("startDate") LocalDate startDate,
@@ -39,9 +39,9 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
     /**
      * Sum credit amounts for an account within a date range
      */
-    @Query("SELECT COALESCE(SUM(jl.credit), 0) FROM JournalLine jl JOIN jl.journalEntry je " +
+    @Query("SELECT COALESCE(SUM(jl.credit), 0) FROM JournalLine jl " +
            "WHERE jl.account.code = :accountCode " +
-           "AND je.transactionDate BETWEEN :startDate AND :endDate")
+           "AND jl.transactionDate BETWEEN :startDate AND :endDate")
     BigDecimal sumCreditsByAccountAndDateRange(
             @Param("accountCode") String accountCode,
             @Param("startDate") LocalDate startDate,
@@ -52,8 +52,8 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
      * Returns: account_code, total_debit, total_credit
      */
     @Query("SELECT jl.account.code, COALESCE(SUM(jl.debit), 0), COALESCE(SUM(jl.credit), 0) " +
-           "FROM JournalLine jl JOIN jl.journalEntry je " +
-           "WHERE je.transactionDate <= :endDate " +
+           "FROM JournalLine jl " +
+           "WHERE jl.transactionDate <= :endDate " +
            "GROUP BY jl.account.code")
     List<Object[]> getAccountTotalsUpToDate(@Param("endDate") LocalDateTime endDate);
 
@@ -63,8 +63,8 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
      * Returns: account_code, total_debit, total_credit
      */
     @Query("SELECT jl.account.code, COALESCE(SUM(jl.debit), 0), COALESCE(SUM(jl.credit), 0) " +
-           "FROM JournalLine jl JOIN jl.journalEntry je " +
-           "WHERE je.transactionDate < :startDate " +
+           "FROM JournalLine jl " +
+           "WHERE jl.transactionDate < :startDate " +
            "GROUP BY jl.account.code")
     List<Object[]> getAccountTotalsBeforeDate(@Param("startDate") LocalDate startDate);
 
@@ -73,8 +73,8 @@ public interface JournalLineRepository extends JpaRepository<JournalLine, Long>
      * Returns: account_code, total_debit, total_credit
      */
     @Query("SELECT jl.account.code, COALESCE(SUM(jl.debit), 0), COALESCE(SUM(jl.credit), 0) " +
-           "FROM JournalLine jl JOIN jl.journalEntry je " +
-           "WHERE je.transactionDate BETWEEN :startDate AND :endDate " +
+           "FROM JournalLine jl " +
+           "WHERE jl.transactionDate BETWEEN :startDate AND :endDate " +
            "GROUP BY jl.account.code")
     List<Object[]> getAccountTotalsInRange(
             @Param("startDate") LocalDateTime startDate,
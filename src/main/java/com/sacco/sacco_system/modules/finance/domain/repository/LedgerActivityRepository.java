@@ -0,0 +1,48 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass conditional aggregation over journal lines.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerActivityRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * One row per account touched in [scanFrom, periodEnd):
+     * account_code, opening_debit, opening_credit, period_debit, period_credit, period_line_count.
+     * Lines before periodStart count towards the opening columns. A null scanFrom scans from the beginning.
+     */
+    public List<Object[]> aggregate(LocalDateTime scanFrom, LocalDateTime periodStart, LocalDateTime periodEnd) {
+        String sql = "SELECT jl.account_code, " +
+                "  COALESCE(SUM(CASE WHEN jl.transaction_date <  ? THEN jl.debit  ELSE 0 END), 0), " +
+                "  COALESCE(SUM(CASE WHEN jl.transaction_date <  ? THEN jl.credit ELSE 0 END), 0), " +
+                "  COALESCE(SUM(CASE WHEN jl.transaction_date >= ? THEN jl.debit  ELSE 0 END), 0), " +
+                "  COALESCE(SUM(CASE WHEN jl.transaction_date >= ? THEN jl.credit ELSE 0 END), 0), " +
+                "  COUNT(CASE WHEN jl.transaction_date >= ? THEN 1 END) " +
+                "FROM journal_lines jl " +
+                "WHERE jl.transaction_date < ?" + (scanFrom != null ? " AND jl.transaction_date >= ?" : "") +
+                " GROUP BY jl.account_code";
+
+        Timestamp start = Timestamp.valueOf(periodStart);
+        List<Object> args = new ArrayList<>(List.of(start, start, start, start, start, Timestamp.valueOf(periodEnd)));
+        if (scanFrom != null) args.add(Timestamp.valueOf(scanFrom));
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Object[]{
+                rs.getString(1),
+                rs.getBigDecimal(2), rs.getBigDecimal(3),
+                rs.getBigDecimal(4), rs.getBigDecimal(5),
+                rs.getLong(6)
+        }, args.toArray());
+    }
+}
@@ -0,0 +1,140 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set-based checks for the ledger verifier. Everything is aggregated in the database;
+ * no entities are loaded.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerIntegrityRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * {min, max} posted_date of entries posted in (after, before), or null when there are none.
+     * A null "after" means from the beginning.
+     */
+    public LocalDateTime[] findPostedDateBounds(LocalDateTime after, LocalDateTime before) {
+        MapSqlParameterSource params = new MapSqlParameterSource("before", Timestamp.valueOf(before));
+        String sql = "SELECT MIN(posted_date), MAX(posted_date) FROM journal_entries WHERE posted_date < :before";
+        if (after != null) {
+            sql += " AND posted_date > :after";
+            params.addValue("after", Timestamp.valueOf(after));
+        }
+        return jdbcTemplate.query(sql, params, rs -> {
+            if (!rs.next() || rs.getTimestamp(1) == null) return null;
+            return new LocalDateTime[]{rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()};
+        });
+    }
+
+    /**
+     * {min, max} transaction_date over all journal lines, or null when the journal is empty
+     */
+    public LocalDateTime[] findLineDateBounds() {
+        return jdbcTemplate.query("SELECT MIN(transaction_date), MAX(transaction_date) FROM journal_lines",
+                new MapSqlParameterSource(), rs -> {
+                    if (!rs.next() || rs.getTimestamp(1) == null) return null;
+                    return new LocalDateTime[]{rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()};
+                });
+    }
+
+    /**
+     * Entries posted in [from, to) whose lines don't balance (or that have fewer than two lines).
+     * Entries dated before liveFrom (archived periods) are skipped. Rows of: entry id,
+     * reference_no, total debit, total credit, line count.
+     */
+    public List<Object[]> findUnbalancedEntries(LocalDateTime from, LocalDateTime to, LocalDateTime liveFrom) {
+        String sql = "SELECT e.id, e.reference_no, COALESCE(SUM(l.debit), 0), COALESCE(SUM(l.credit), 0), COUNT(l.id) " +
+                "FROM journal_entries e " +
+                "LEFT JOIN journal_lines l ON l.journal_entry_id = e.id AND l.transaction_date = e.transaction_date " +
+                "WHERE e.posted_date >= :from AND e.posted_date < :to " +
+                (liveFrom != null ? "AND e.transaction_date >= :liveFrom " : "") +
+                "GROUP BY e.id, e.reference_no " +
+                "HAVING COALESCE(SUM(l.debit), 0) <> COALESCE(SUM(l.credit), 0) OR COUNT(l.id) < 2";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+        if (liveFrom != null) params.addValue("liveFrom", Timestamp.valueOf(liveFrom));
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new Object[]{
+                rs.getObject(1, UUID.class),
+                rs.getString(2),
+                rs.getBigDecimal(3),
+                rs.getBigDecimal(4),
+                rs.getLong(5)
+        });
+    }
+
+    /**
+     * Per-account {debit, credit} totals for the given accounts over lines dated on or after
+     * "from" (null = whole history). Uses the (account_code, transaction_date) index.
+     */
+    public Map<String, BigDecimal[]> sumLinesForAccounts(Collection<String> codes, LocalDateTime from) {
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        if (codes.isEmpty()) return totals;
+
+        MapSqlParameterSource params = new MapSqlParameterSource("codes", codes);
+        String sql = "SELECT account_code, COALESCE(SUM(debit), 0), COALESCE(SUM(credit), 0) " +
+                "FROM journal_lines WHERE account_code IN (:codes)";
+        if (from != null) {
+            sql += " AND transaction_date >= :from";
+            params.addValue("from", Timestamp.valueOf(from));
+        }
+        sql += " GROUP BY account_code";
+        jdbcTemplate.query(sql, params, rs -> {
+            totals.put(rs.getString(1), new BigDecimal[]{rs.getBigDecimal(2), rs.getBigDecimal(3)});
+        });
+        return totals;
+    }
+
+    /**
+     * Rows of: code, name, type, balance for every GL account, ordered by code
+     */
+    public List<Object[]> findAllBalances() {
+        return jdbcTemplate.query("SELECT code, name, type, balance FROM gl_accounts ORDER BY code",
+                new MapSqlParameterSource(), (rs, rowNum) -> new Object[]{
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4)
+                });
+    }
+
+    /**
+     * Same rows for the given accounts, keyed by code. With forUpdate the rows stay locked
+     * (taken in code order) until the transaction ends.
+     */
+    public Map<String, Object[]> findBalances(Collection<String> codes, boolean forUpdate) {
+        Map<String, Object[]> rows = new LinkedHashMap<>();
+        if (codes.isEmpty()) return rows;
+        jdbcTemplate.query("SELECT code, name, type, balance FROM gl_accounts WHERE code IN (:codes) ORDER BY code"
+                        + (forUpdate ? " FOR UPDATE" : ""),
+                new MapSqlParameterSource("codes", codes), rs -> {
+                    rows.put(rs.getString(1), new Object[]{
+                            rs.getString(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4)
+                    });
+                });
+        return rows;
+    }
+
+    public void setBalances(Map<String, BigDecimal> balances) {
+        List<MapSqlParameterSource> batch = new ArrayList<>(balances.size());
+        balances.forEach((code, balance) -> batch.add(new MapSqlParameterSource()
+                .addValue("code", code)
+                .addValue("balance", balance)));
+        jdbcTemplate.batchUpdate("UPDATE gl_accounts SET balance = :balance WHERE code = :code",
+                batch.toArray(new MapSqlParameterSource[0]));
+    }
+}
@@ -0,0 +1,113 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access for the late-payment penalty job: overdue loans straight from the open
+ * installments of loan_schedule, and fines inserted in batches.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PenaltyBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class OverdueLoan {
+        private final UUID loanId;
+        private final UUID memberId;
+        private final String loanNumber;
+        private final BigDecimal penaltyRate;
+        private final BigDecimal amountOverdue;
+        private final LocalDate oldestDueDate;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class PenaltyRow {
+        private final UUID memberId;
+        private final UUID loanId;
+        private final BigDecimal amount;
+        private final String description;
+        private final int daysOverdue;
+    }
+
+    /**
+     * Next page of active loans with installments due before the day, in loan id order
+     */
+    public List<OverdueLoan> findOverdueLoans(LocalDate day, UUID afterLoanId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("day", Date.valueOf(day)).addValue("limit", limit);
+        String after = "";
+        if (afterLoanId != null) {
+            after = "AND s.loan_id > :after ";
+            params.addValue("after", afterLoanId);
+        }
+        return namedJdbcTemplate.query(
+                "SELECT o.loan_id, o.member_id, o.loan_number, p.penalty_rate, o.amount_overdue, o.oldest_due FROM (" +
+                "  SELECT s.loan_id, l.member_id, l.loan_number, l.product_id, " +
+                "         SUM(s.total_due - s.amount_paid) AS amount_overdue, MIN(s.due_date) AS oldest_due " +
+                "    FROM loan_schedule s JOIN loans l ON l.id = s.loan_id " +
+                "   WHERE s.status <> 'PAID' AND s.due_date < :day " + after +
+                "     AND l.status IN ('ACTIVE', 'IN_ARREARS', 'DISBURSED') " +
+                "   GROUP BY s.loan_id, l.member_id, l.loan_number, l.product_id " +
+                "   ORDER BY s.loan_id LIMIT :limit) o " +
+                "JOIN loan_products p ON p.id = o.product_id ORDER BY o.loan_id",
+                params,
+                (rs, i) -> new OverdueLoan(rs.getObject("loan_id", UUID.class), rs.getObject("member_id", UUID.class),
+                        rs.getString("loan_number"), nz(rs.getBigDecimal("penalty_rate")),
+                        nz(rs.getBigDecimal("amount_overdue")), rs.getDate("oldest_due").toLocalDate()));
+    }
+
+    /**
+     * Insert late-payment fines for the day; loans already fined that day are skipped
+     * (unique index on loan and day). Returns per-row counts in input order: 1 inserted, 0 skipped.
+     */
+    public int[] insertFines(List<PenaltyRow> rows, LocalDate day, LocalDateTime now) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "INSERT INTO fines (id, member_id, loan_id, type, amount, description, fine_date, status, days_overdue, " +
+                "created_at, updated_at) VALUES (?, ?, ?, 'LATE_LOAN_PAYMENT', ?, ?, ?, 'PENDING', ?, ?, ?) " +
+                "ON CONFLICT (loan_id, fine_date) WHERE type = 'LATE_LOAN_PAYMENT' AND loan_id IS NOT NULL DO NOTHING",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, row.getMemberId());
+                    ps.setObject(3, row.getLoanId());
+                    ps.setBigDecimal(4, row.getAmount());
+                    ps.setString(5, row.getDescription());
+                    ps.setDate(6, Date.valueOf(day));
+                    ps.setInt(7, row.getDaysOverdue());
+                    ps.setTimestamp(8, Timestamp.valueOf(now));
+                    ps.setTimestamp(9, Timestamp.valueOf(now));
+                });
+        int[] inserted = new int[rows.size()];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted[i++] = count > 0 ? 1 : 0;
+            }
+        }
+        return inserted;
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
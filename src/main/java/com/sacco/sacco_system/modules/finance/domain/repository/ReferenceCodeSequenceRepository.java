@@ -0,0 +1,46 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Per-node, per-day reference code sequence blocks (reference_code_sequences), so a restarted
+ * node carries on after the codes it already issued that day instead of starting over.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReferenceCodeSequenceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Reservation {
+        private final long seed;
+        private final long reservedThrough;
+    }
+
+    /**
+     * Reserve the next block of sequence numbers for the node and day. The first reservation of
+     * a day stores the seed; later ones return the stored seed.
+     */
+    public Reservation reserve(int nodeId, LocalDate day, long seed, long blockSize) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO reference_code_sequences (node_id, day, seed, reserved_through) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (node_id, day) DO UPDATE " +
+                "SET reserved_through = reference_code_sequences.reserved_through + EXCLUDED.reserved_through " +
+                "RETURNING seed, reserved_through",
+                (rs, i) -> new Reservation(rs.getLong("seed"), rs.getLong("reserved_through")),
+                nodeId, Date.valueOf(day), seed, blockSize);
+    }
+
+    public int deleteBefore(LocalDate day) {
+        return jdbcTemplate.update("DELETE FROM reference_code_sequences WHERE day < ?", Date.valueOf(day));
+    }
+}
@@ -0,0 +1,33 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Version counters for reference data cached on every node (reference_data_versions).
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReferenceDataVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long current(String name) {
+        Long version = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT version FROM reference_data_versions WHERE name = ?), 0)", Long.class, name);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Increment the version in the caller's transaction, so other nodes see it once the change commits
+     */
+    public long bump(String name) {
+        Long version = jdbcTemplate.queryForObject(
+                "INSERT INTO reference_data_versions (name, version) VALUES (?, 1) " +
+                "ON CONFLICT (name) DO UPDATE SET version = reference_data_versions.version + 1 " +
+                "RETURNING version",
+                Long.class, name);
+        return version == null ? 0 : version;
+    }
+}
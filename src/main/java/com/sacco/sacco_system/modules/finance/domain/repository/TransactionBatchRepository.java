@@ -0,0 +1,66 @@
+package com.sacco.sacco_system.modules.finance.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC batch writer for member transaction records, for bulk jobs (check-off imports,
+ * interest runs) that would otherwise save one Transaction entity per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class TransactionRow {
+        private final String transactionId;
+        private final UUID memberId;
+        private final UUID savingsAccountId;
+        private final UUID loanId;
+        private final String type;
+        private final BigDecimal amount;
+        private final String description;
+        private final String paymentMethod;
+        private final String referenceCode;
+        private final String externalReference;
+        private final BigDecimal balanceAfter;
+        private final LocalDateTime transactionDate;
+    }
+
+    public void insert(List<TransactionRow> transactions) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, transaction_id, member_id, savings_account_id, loan_id, type, amount, description, " +
+                "payment_method, reference_code, external_reference, balance_after, transaction_date) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                transactions, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setString(2, row.getTransactionId());
+                    ps.setObject(3, row.getMemberId());
+                    ps.setObject(4, row.getSavingsAccountId());
+                    ps.setObject(5, row.getLoanId());
+                    ps.setString(6, row.getType());
+                    ps.setBigDecimal(7, row.getAmount());
+                    ps.setString(8, row.getDescription());
+                    ps.setString(9, row.getPaymentMethod());
+                    ps.setString(10, row.getReferenceCode());
+                    ps.setString(11, row.getExternalReference());
+                    ps.setBigDecimal(12, row.getBalanceAfter());
+                    ps.setTimestamp(13, Timestamp.valueOf(row.getTransactionDate()));
+                });
+    }
+}
@@ -0,0 +1,223 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountDailyBalance;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily GL balance snapshots for as-of reporting.
+ * An end-of-day job writes one cumulative row per account per active day up to a watermark
+ * (kept in job_checkpoints). As-of totals are the latest snapshot plus the raw lines after
+ * the watermark, so report cost follows the days since the last snapshot, not ledger size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountBalanceSnapshotService {
+
+    public static final String JOB_NAME = "GL_DAILY_SNAPSHOT";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final int FLUSH_SIZE = 1000;
+    private static final long WATERMARK_TTL_MS = 5 * 60 * 1000;
+
+    private final AccountDailyBalanceRepository snapshotRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final AdvisoryLocks advisoryLocks;
+    private final BatchJobRunner batchJobRunner;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile LocalDate cachedWatermark;
+    private volatile long watermarkLoadedAt;
+
+    // ========================================================================
+    // 1. END-OF-DAY JOB
+    // ========================================================================
+
+    @Scheduled(cron = "${app.accounting.snapshot-cron:0 10 0 * * *}")
+    public void snapshotYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        batchJobRunner.submit(JOB_NAME, () -> transactionTemplate.executeWithoutResult(status -> snapshotThrough(yesterday)));
+    }
+
+    /**
+     * Write snapshots for every day after the watermark up to lastDay (catches up missed runs).
+     * Returns the number of snapshot rows written.
+     */
+    @Transactional
+    public int snapshotThrough(LocalDate lastDay) {
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+
+        LocalDate from;
+        if (checkpoint.getLastProcessedDate() != null) {
+            from = checkpoint.getLastProcessedDate().plusDays(1);
+        } else {
+            LocalDateTime earliest = snapshotRepository.findEarliestTransactionDate();
+            from = (earliest != null) ? earliest.toLocalDate() : lastDay.plusDays(1);
+        }
+
+        if (checkpoint.getLastProcessedDate() != null && from.isAfter(lastDay)) {
+            return 0;
+        }
+
+        Map<String, BigDecimal[]> running = snapshotRepository.findLatestClosing(from.minusDays(1));
+        List<AccountDailyBalance> buffer = new ArrayList<>();
+        int[] written = {0};
+
+        if (!from.isAfter(lastDay)) {
+            snapshotRepository.forEachDailyTotal(from.atStartOfDay(), lastDay.plusDays(1).atStartOfDay(),
+                    (code, day, debit, credit) -> {
+                        BigDecimal[] closing = running.computeIfAbsent(code, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                        closing[0] = closing[0].add(debit);
+                        closing[1] = closing[1].add(credit);
+
+                        buffer.add(AccountDailyBalance.builder()
+                                .id(UUID.randomUUID())
+                                .accountCode(code)
+                                .balanceDate(day)
+                                .dayDebit(debit)
+                                .dayCredit(credit)
+                                .closingDebit(closing[0])
+                                .closingCredit(closing[1])
+                                .build());
+
+                        if (buffer.size() >= FLUSH_SIZE) {
+                            snapshotRepository.upsert(buffer);
+                            written[0] += buffer.size();
+                            buffer.clear();
+                        }
+                    });
+        }
+        if (!buffer.isEmpty()) {
+            snapshotRepository.upsert(buffer);
+            written[0] += buffer.size();
+        }
+
+        checkpoint.setLastProcessedDate(lastDay);
+        checkpointRepository.save(checkpoint);
+        cachedWatermark = lastDay;
+        watermarkLoadedAt = System.currentTimeMillis();
+
+        log.info("GL snapshots written through {}: {} rows", lastDay, written[0]);
+        return written[0];
+    }
+
+    /**
+     * Keep snapshots exact when a journal is posted on a day the job has already covered.
+     * Called inside the posting transaction with per-account {debit, credit} totals.
+     */
+    @Transactional
+    public void applyBackdatedLines(LocalDate date, Map<String, BigDecimal[]> totals) {
+        if (totals.isEmpty() || !date.isBefore(LocalDate.now())) return;
+
+        // Serialize with the job so a posting can't slip between its aggregate and its watermark
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+        LocalDate watermark = checkpointRepository.findById(JOB_NAME)
+                .map(JobCheckpoint::getLastProcessedDate)
+                .orElse(null);
+        if (watermark == null || date.isAfter(watermark)) return;
+
+        totals.forEach((code, dc) -> snapshotRepository.applyAdjustment(code, date, dc[0], dc[1]));
+        log.info("Adjusted GL snapshots from {} for {} back-dated accounts", date, totals.size());
+    }
+
+    // ========================================================================
+    // 2. AS-OF TOTALS (rows of: account_code, total_debit, total_credit)
+    // ========================================================================
+
+    /**
+     * Cumulative totals of all lines dated on or before the given day
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getAccountTotalsThrough(LocalDate date) {
+        return toRows(totalsThrough(date));
+    }
+
+    /**
+     * Cumulative totals of all lines dated strictly before the given day (opening balances)
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getAccountTotalsBefore(LocalDate date) {
+        return toRows(totalsThrough(date.minusDays(1)));
+    }
+
+    /**
+     * Totals of lines dated within [startDate, endDate]
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> getAccountTotalsInRange(LocalDate startDate, LocalDate endDate) {
+        Map<String, BigDecimal[]> closing = totalsThrough(endDate);
+        Map<String, BigDecimal[]> opening = totalsThrough(startDate.minusDays(1));
+        opening.forEach((code, dc) -> {
+            BigDecimal[] c = closing.computeIfAbsent(code, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            c[0] = c[0].subtract(dc[0]);
+            c[1] = c[1].subtract(dc[1]);
+        });
+        return toRows(closing);
+    }
+
+    public LocalDate getWatermark() {
+        if (System.currentTimeMillis() - watermarkLoadedAt > WATERMARK_TTL_MS) {
+            cachedWatermark = checkpointRepository.findById(JOB_NAME)
+                    .map(JobCheckpoint::getLastProcessedDate)
+                    .orElse(null);
+            watermarkLoadedAt = System.currentTimeMillis();
+        }
+        return cachedWatermark;
+    }
+
+    private Map<String, BigDecimal[]> totalsThrough(LocalDate date) {
+        LocalDate watermark = getWatermark();
+        LocalDateTime tailTo = date.plusDays(1).atStartOfDay();
+
+        if (watermark == null) {
+            return snapshotRepository.sumLines(null, tailTo);
+        }
+
+        LocalDate snapDate = date.isBefore(watermark) ? date : watermark;
+        Map<String, BigDecimal[]> totals = snapshotRepository.findLatestClosing(snapDate);
+        LocalDateTime tailFrom = snapDate.plusDays(1).atStartOfDay();
+        if (tailFrom.isBefore(tailTo)) {
+            snapshotRepository.sumLines(tailFrom, tailTo).forEach((code, dc) -> {
+                BigDecimal[] t = totals.computeIfAbsent(code, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                t[0] = t[0].add(dc[0]);
+                t[1] = t[1].add(dc[1]);
+            });
+        }
+        return totals;
+    }
+
+    private List<Object[]> toRows(Map<String, BigDecimal[]> totals) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((code, dc) -> rows.add(new Object[]{code, dc[0], dc[1]}));
+        return rows;
+    }
+
+    /**
+     * Helper for posting paths: per-account {debit, credit} accumulator
+     */
+    public static void accumulate(Map<String, BigDecimal[]> totals, String accountCode, BigDecimal debit, BigDecimal credit) {
+        BigDecimal[] t = totals.computeIfAbsent(accountCode, k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+        t[0] = t[0].add(debit != null ? debit : BigDecimal.ZERO);
+        t[1] = t[1].add(credit != null ? credit : BigDecimal.ZERO);
+    }
+}
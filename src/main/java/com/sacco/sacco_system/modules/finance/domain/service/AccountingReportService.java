@@ -4,7 +4,6 @@ import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountTy
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount;
 import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.JournalEntryRepository;
-import com.sacco.sacco_system.modules.finance.domain.repository.JournalLineRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -27,8 +26,8 @@ import java.util.stream.Collectors;
 public class AccountingReportService {
 
     private final GLAccountRepository glAccountRepository;
-    private final JournalLineRepository journalLineRepository;
     private final JournalEntryRepository journalEntryRepository;
+    private final LedgerActivityService ledgerActivityService;
 
     /**
      * Generate Balance Sheet from GL Account Balances
@@ -227,57 +226,31 @@ public class AccountingReportService {
         List<GLAccount> allAccounts = glAccountRepository.findAll();
         List<Map<String, Object>> activityList = new ArrayList<>();
 
-        // 1. Fetch Opening Balances (Historical totals BEFORE startDate)
-        List<Object[]> historicalTotals = journalLineRepository.getAccountTotalsBeforeDate(startDate);
-        Map<String, BigDecimal> openingBalanceMap = new HashMap<>();
-
-        for (Object[] row : historicalTotals) {
-            String code = (String) row[0];
-            BigDecimal totalDebits = (BigDecimal) row[1];
-            BigDecimal totalCredits = (BigDecimal) row[2];
-            // Store raw difference (Debit - Credit)
-            openingBalanceMap.put(code, totalDebits.subtract(totalCredits));
-        }
+        // 1. Opening balances, period debits/credits and line counts for every account in one pass
+        Map<String, LedgerActivityService.AccountActivity> activityByAccount =
+                ledgerActivityService.getActivity(startDate, endDate);
 
         for (GLAccount account : allAccounts) {
             if (!account.isActive()) continue;
 
-            // 2. Get Period Activity (Between startDate and endDate)
-            Long transactionCount = journalLineRepository.countByAccountCodeAndDateRange(
-                    account.getCode(), startDate, endDate);
-
-            BigDecimal periodDebits = journalLineRepository.sumDebitsByAccountAndDateRange(
-                    account.getCode(), startDate, endDate);
-            if (periodDebits == null) periodDebits = BigDecimal.ZERO;
+            // 2. Hash lookup instead of three queries per account
+            LedgerActivityService.AccountActivity totals = activityByAccount.getOrDefault(
+                    account.getCode(), new LedgerActivityService.AccountActivity(account.getCode()));
 
-            BigDecimal periodCredits = journalLineRepository.sumCreditsByAccountAndDateRange(
-                    account.getCode(), startDate, endDate);
-            if (periodCredits == null) periodCredits = BigDecimal.ZERO;
-
-            // 3. Calculate Opening Balance for this specific account
-            BigDecimal rawOpeningBal = openingBalanceMap.getOrDefault(account.getCode(), BigDecimal.ZERO);
-            BigDecimal openingBalance;
-
-            // Adjust display based on Account Type
-            if (isDebitAccount(account.getType())) {
-                openingBalance = rawOpeningBal; // Asset/Expense: Positive is Debit
-            } else {
-                openingBalance = rawOpeningBal.negate(); // Liability/Equity/Income: Positive is Credit
-            }
+            long transactionCount = totals.getLineCount();
+            BigDecimal periodDebits = totals.getPeriodDebit();
+            BigDecimal periodCredits = totals.getPeriodCredit();
 
-            // 4. Calculate Net Change in Period
-            BigDecimal netChange;
-            if (isDebitAccount(account.getType())) {
-                netChange = periodDebits.subtract(periodCredits);
-            } else {
-                netChange = periodCredits.subtract(periodDebits);
-            }
+            // 3. Opening balance and net change, signed by account type
+            BigDecimal openingBalance = totals.openingBalance(account.getType());
+            BigDecimal netChange = totals.netChange(account.getType());
 
-            // 5. Calculate Closing Balance
+            // 4. Calculate Closing Balance
             BigDecimal closingBalance = openingBalance.add(netChange);
 
-            // Only add to list if there is activity or a non-zero balance
-            if (transactionCount > 0 || openingBalance.compareTo(BigDecimal.ZERO) != 0) {
+            // Only add to list if there is activity or a non-zero balance (archived days carry totals, not line counts)
+            if (transactionCount > 0 || openingBalance.compareTo(BigDecimal.ZERO) != 0
+                    || periodDebits.signum() != 0 || periodCredits.signum() != 0) {
                 Map<String, Object> activity = new HashMap<>();
                 activity.put("accountCode", account.getCode());
                 activity.put("accountName", account.getName());
@@ -313,22 +286,23 @@ public class AccountingReportService {
 
         String cashAccountCode = "1020"; // Cash account
 
-        BigDecimal cashInflows = journalLineRepository.sumDebitsByAccountAndDateRange(
-                cashAccountCode, startDate, endDate);
-        BigDecimal cashOutflows = journalLineRepository.sumCreditsByAccountAndDateRange(
-                cashAccountCode, startDate, endDate);
-
-        BigDecimal netCashFlow = (cashInflows != null ? cashInflows : BigDecimal.ZERO)
-                .subtract(cashOutflows != null ? cashOutflows : BigDecimal.ZERO);
+        // Same engine as the other statements, so archived (closed) periods still report their movement
+        LedgerActivityService.AccountActivity cash = ledgerActivityService.getActivity(startDate, endDate)
+                .getOrDefault(cashAccountCode, new LedgerActivityService.AccountActivity(cashAccountCode));
+        BigDecimal cashInflows = cash.getPeriodDebit();
+        BigDecimal cashOutflows = cash.getPeriodCredit();
+        BigDecimal netCashFlow = cash.netChange(AccountType.ASSET);
 
         // Get opening and closing balances
         GLAccount cashAccount = glAccountRepository.findByCode(cashAccountCode)
                 .orElseThrow(() -> new RuntimeException("Cash account not found"));
 
         Map<String, Object> cashFlow = new HashMap<>();
-        cashFlow.put("cashInflows", cashInflows != null ? cashInflows : BigDecimal.ZERO);
-        cashFlow.put("cashOutflows", cashOutflows != null ? cashOutflows : BigDecimal.ZERO);
+        cashFlow.put("cashInflows", cashInflows);
+        cashFlow.put("cashOutflows", cashOutflows);
         cashFlow.put("netCashFlow", netCashFlow);
+        cashFlow.put("openingCashBalance", cash.openingBalance(AccountType.ASSET));
+        cashFlow.put("closingCashBalance", cash.closingBalance(AccountType.ASSET));
         cashFlow.put("currentCashBalance", cashAccount.getBalance());
         cashFlow.put("startDate", startDate);
         cashFlow.put("endDate", endDate);
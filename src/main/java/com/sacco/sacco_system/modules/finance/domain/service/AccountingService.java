@@ -3,6 +3,10 @@ package com.sacco.sacco_system.modules.finance.domain.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sacco.sacco_system.modules.admin.domain.entity.Asset;
+import com.sacco.sacco_system.modules.core.exception.ValidationException;
+import com.sacco.sacco_system.modules.finance.api.dto.JournalEntryRowDTO;
+import com.sacco.sacco_system.modules.finance.api.dto.JournalLineRowDTO;
+import com.sacco.sacco_system.modules.finance.api.dto.JournalPageDTO;
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount;
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlMapping;
@@ -10,6 +14,8 @@ import com.sacco.sacco_system.modules.finance.domain.entity.accounting.JournalEn
 import com.sacco.sacco_system.modules.finance.domain.entity.accounting.JournalLine;
 import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.GlMappingRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBrowseRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.JournalEntryRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.JournalLineRepository;
 import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
@@ -23,13 +29,19 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import lombok.Builder;
 import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
@@ -48,6 +60,15 @@ public class AccountingService {
     private final GlMappingRepository glMappingRepository;
     private final JournalEntryRepository journalEntryRepository;
     private final JournalLineRepository journalLineRepository;
+    private final JournalBatchRepository journalBatchRepository;
+    private final GlBalanceUpdater balanceUpdater;
+    private final GlReferenceCache referenceCache;
+    private final ClosedPeriodGuard closedPeriodGuard;
+    private final AccountBalanceSnapshotService snapshotService;
+    private final LedgerActivityService ledgerActivityService;
+    private final JournalBrowseRepository journalBrowseRepository;
+
+    private static final int MAX_JOURNAL_PAGE_SIZE = 200;
     private final ObjectMapper objectMapper;
 
     /**
@@ -75,21 +96,39 @@ public class AccountingService {
         private BigDecimal credit = BigDecimal.ZERO;
     }
 
+    /**
+     * DTO for a single posting in a batch.
+     * Either set both account codes, or set eventName and let the GL mapping fill the gaps.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PostingRequest {
+        private String eventName;
+        private String description;
+        private String referenceNo;
+        private String debitAccountCode;
+        private String creditAccountCode;
+        private BigDecimal amount;
+        private LocalDateTime transactionDate; // Defaults to now
+    }
+
     /**
      * ✅ UPDATED: Master postEvent that accepts BOTH Debit and Credit overrides.
      * This is crucial for routing Loan Disbursements (Override Credit) and Deposits (Override Debit).
      */
     @Transactional
     public void postEvent(String eventName, String description, String referenceNo, BigDecimal amount, String overrideDebitAccount, String overrideCreditAccount) {
-        GlMapping mapping = glMappingRepository.findByEventName(eventName)
+        GlReferenceCache.Route route = referenceCache.findRoute(eventName)
                 .orElseThrow(() -> new RuntimeException("GL Mapping not found for event: " + eventName));
 
         // Use overrides if provided, otherwise fallback to defaults
         String debitCode = (overrideDebitAccount != null && !overrideDebitAccount.isEmpty())
-                ? overrideDebitAccount : mapping.getDebitAccountCode();
+                ? overrideDebitAccount : route.getDebitCode();
 
         String creditCode = (overrideCreditAccount != null && !overrideCreditAccount.isEmpty())
-                ? overrideCreditAccount : mapping.getCreditAccountCode();
+                ? overrideCreditAccount : route.getCreditCode();
 
         postDoubleEntry(description, referenceNo, debitCode, creditCode, amount);
     }
@@ -111,10 +150,13 @@ public class AccountingService {
      */
     @Transactional
     public void postDoubleEntry(String description, String referenceNo, String debitAccountCode, String creditAccountCode, BigDecimal amount) {
-        GLAccount debitAcct = glAccountRepository.findById(debitAccountCode)
+        closedPeriodGuard.assertOpen(LocalDate.now());
+
+        // Reference data comes from the cache; lines only need an id proxy, so no selects here
+        GlReferenceCache.AccountRef debitAcct = referenceCache.findAccount(debitAccountCode)
                 .orElseThrow(() -> new RuntimeException("Debit Account not found: " + debitAccountCode));
 
-        GLAccount creditAcct = glAccountRepository.findById(creditAccountCode)
+        GlReferenceCache.AccountRef creditAcct = referenceCache.findAccount(creditAccountCode)
                 .orElseThrow(() -> new RuntimeException("Credit Account not found: " + creditAccountCode));
 
         JournalEntry entry = JournalEntry.builder()
@@ -125,27 +167,109 @@ public class AccountingService {
 
         JournalLine debitLine = JournalLine.builder()
                 .journalEntry(entry)
-                .account(debitAcct)
+                .account(glAccountRepository.getReferenceById(debitAccountCode))
                 .debit(amount)
                 .credit(BigDecimal.ZERO)
                 .build();
 
         JournalLine creditLine = JournalLine.builder()
                 .journalEntry(entry)
-                .account(creditAcct)
+                .account(glAccountRepository.getReferenceById(creditAccountCode))
                 .debit(BigDecimal.ZERO)
                 .credit(amount)
                 .build();
 
         entry.setLines(List.of(debitLine, creditLine));
 
-        updateBalance(debitAcct, amount, true);
-        updateBalance(creditAcct, amount, false);
-
         journalEntryRepository.save(entry);
+
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        deltas.merge(debitAccountCode, signedDelta(debitAcct.getType(), amount, true), BigDecimal::add);
+        deltas.merge(creditAccountCode, signedDelta(creditAcct.getType(), amount, false), BigDecimal::add);
+        balanceUpdater.apply(deltas);
         log.debug("Posted journal entry: {} - DR: {} CR: {} Amount: {}", description, debitAccountCode, creditAccountCode, amount);
     }
 
+    /**
+     * Batched double-entry posting.
+     * Resolves all mappings and accounts in one query each, nets balance changes per account
+     * in memory and writes entries, lines and balances with JDBC batches.
+     * Returns the number of journal entries written.
+     */
+    @Transactional
+    public int postBatch(List<PostingRequest> postings) {
+        if (postings == null || postings.isEmpty()) return 0;
+
+        // 1. Resolve routes and accounts from the reference cache
+        List<String[]> routes = new ArrayList<>(postings.size());
+        Map<String, GlReferenceCache.AccountRef> accounts = new HashMap<>();
+        for (PostingRequest posting : postings) {
+            String[] route = resolveRoute(posting);
+            routes.add(route);
+            for (String code : route) {
+                if (!accounts.containsKey(code)) {
+                    accounts.put(code, referenceCache.findAccount(code)
+                            .orElseThrow(() -> new RuntimeException("Account not found: " + code)));
+                }
+            }
+        }
+
+        // 2. Build entries and net the balance movement per account
+        LocalDateTime now = LocalDateTime.now();
+        List<JournalEntry> entries = new ArrayList<>(postings.size());
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        Map<LocalDate, Map<String, BigDecimal[]>> backdated = new TreeMap<>();
+        LocalDate today = now.toLocalDate();
+        for (int i = 0; i < postings.size(); i++) {
+            PostingRequest posting = postings.get(i);
+            GlReferenceCache.AccountRef debitAcct = accounts.get(routes.get(i)[0]);
+            GlReferenceCache.AccountRef creditAcct = accounts.get(routes.get(i)[1]);
+            BigDecimal amount = posting.getAmount();
+
+            JournalEntry entry = JournalEntry.builder()
+                    .id(UUID.randomUUID())
+                    .transactionDate(posting.getTransactionDate() != null ? posting.getTransactionDate() : now)
+                    .postedDate(now)
+                    .description(posting.getDescription())
+                    .referenceNo(posting.getReferenceNo())
+                    .build();
+            entry.setLines(List.of(
+                    JournalLine.builder().id(UUID.randomUUID()).journalEntry(entry)
+                            .account(glAccountRepository.getReferenceById(debitAcct.getCode()))
+                            .debit(amount).credit(BigDecimal.ZERO).transactionDate(entry.getTransactionDate()).build(),
+                    JournalLine.builder().id(UUID.randomUUID()).journalEntry(entry)
+                            .account(glAccountRepository.getReferenceById(creditAcct.getCode()))
+                            .debit(BigDecimal.ZERO).credit(amount).transactionDate(entry.getTransactionDate()).build()));
+            entries.add(entry);
+
+            deltas.merge(debitAcct.getCode(), signedDelta(debitAcct.getType(), amount, true), BigDecimal::add);
+            deltas.merge(creditAcct.getCode(), signedDelta(creditAcct.getType(), amount, false), BigDecimal::add);
+
+            LocalDate entryDay = entry.getTransactionDate().toLocalDate();
+            if (entryDay.isBefore(today)) {
+                Map<String, BigDecimal[]> dayTotals = backdated.computeIfAbsent(entryDay, d -> new HashMap<>());
+                AccountBalanceSnapshotService.accumulate(dayTotals, debitAcct.getCode(), amount, BigDecimal.ZERO);
+                AccountBalanceSnapshotService.accumulate(dayTotals, creditAcct.getCode(), BigDecimal.ZERO, amount);
+            }
+        }
+        deltas.values().removeIf(delta -> delta.signum() == 0);
+
+        // 3. Flush pending JPA changes first so the JDBC writes land on top of them
+        glAccountRepository.flush();
+        journalBatchRepository.insertEntries(entries);
+        journalBatchRepository.insertLines(entries);
+        balanceUpdater.apply(deltas);
+        backdated.forEach(snapshotService::applyBackdatedLines);
+
+        log.debug("Posted journal batch: {} entries, {} accounts touched", entries.size(), deltas.size());
+        return entries.size();
+    }
+
+    @Transactional
+    public int postBatch(JournalBatch batch) {
+        return postBatch(batch.getPostings());
+    }
+
     /**
      * Post manual journal entry with multiple lines
      */
@@ -162,6 +286,7 @@ public class AccountingService {
         if (totalDebit.compareTo(totalCredit) != 0) {
             throw new RuntimeException("Journal Entry is unbalanced! Total Debit: " + totalDebit + ", Total Credit: " + totalCredit);
         }
+        closedPeriodGuard.assertOpen(request.getDate());
 
         JournalEntry entry = JournalEntry.builder()
                 .transactionDate(request.getDate().atStartOfDay())
@@ -171,47 +296,114 @@ public class AccountingService {
                 .lines(new ArrayList<>())
                 .build();
 
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        Map<String, BigDecimal[]> lineTotals = new HashMap<>();
         for (ManualEntryLine lineDto : request.getLines()) {
-            GLAccount account = glAccountRepository.findById(lineDto.getAccountCode())
+            GlReferenceCache.AccountRef account = referenceCache.findAccount(lineDto.getAccountCode())
                     .orElseThrow(() -> new RuntimeException("Account not found: " + lineDto.getAccountCode()));
 
             JournalLine line = JournalLine.builder()
                     .journalEntry(entry)
-                    .account(account)
+                    .account(glAccountRepository.getReferenceById(account.getCode()))
                     .debit(lineDto.getDebit())
                     .credit(lineDto.getCredit())
                     .build();
             entry.getLines().add(line);
+            AccountBalanceSnapshotService.accumulate(lineTotals, account.getCode(), lineDto.getDebit(), lineDto.getCredit());
 
             if (lineDto.getDebit().compareTo(BigDecimal.ZERO) > 0) {
-                updateBalance(account, lineDto.getDebit(), true);
+                deltas.merge(account.getCode(), signedDelta(account.getType(), lineDto.getDebit(), true), BigDecimal::add);
             } else {
-                updateBalance(account, lineDto.getCredit(), false);
+                deltas.merge(account.getCode(), signedDelta(account.getType(), lineDto.getCredit(), false), BigDecimal::add);
             }
         }
         journalEntryRepository.save(entry);
+        balanceUpdater.apply(deltas);
+        // ✅ Back-dated entries must also correct the daily snapshots they fall into
+        snapshotService.applyBackdatedLines(request.getDate(), lineTotals);
         log.info("Posted manual journal entry: {}", request.getDescription());
     }
 
     /**
-     * Update GL account balance based on account type and debit/credit
+     * Dry-run validation for a batch (no queries): one entry per posting, null when it would post,
+     * otherwise the reason postBatch would reject it. Lets callers (e.g. the outbox worker)
+     * set bad postings aside instead of failing the whole batch.
+     */
+    public List<String> findPostingProblems(List<PostingRequest> postings) {
+        List<String> problems = new ArrayList<>(postings.size());
+        for (PostingRequest posting : postings) {
+            String problem = null;
+            try {
+                String[] route = resolveRoute(posting);
+                if (referenceCache.findAccount(route[0]).isEmpty()) problem = "Account not found: " + route[0];
+                else if (referenceCache.findAccount(route[1]).isEmpty()) problem = "Account not found: " + route[1];
+            } catch (RuntimeException e) {
+                problem = e.getMessage();
+            }
+            problems.add(problem);
+        }
+        return problems;
+    }
+
+    /**
+     * GL accounts a posting would touch, as far as they can be worked out (no validation):
+     * explicit codes plus whatever the event mapping fills in. Empty if neither is known.
+     */
+    public List<String> findAffectedAccounts(PostingRequest posting) {
+        String debitCode = posting.getDebitAccountCode();
+        String creditCode = posting.getCreditAccountCode();
+        if (posting.getEventName() != null && !posting.getEventName().isEmpty()) {
+            Optional<GlReferenceCache.Route> route = referenceCache.findRoute(posting.getEventName());
+            if (route.isPresent()) {
+                if (debitCode == null || debitCode.isEmpty()) debitCode = route.get().getDebitCode();
+                if (creditCode == null || creditCode.isEmpty()) creditCode = route.get().getCreditCode();
+            }
+        }
+        List<String> accounts = new ArrayList<>(2);
+        if (debitCode != null && !debitCode.isEmpty()) accounts.add(debitCode);
+        if (creditCode != null && !creditCode.isEmpty() && !creditCode.equals(debitCode)) accounts.add(creditCode);
+        return accounts;
+    }
+
+    /**
+     * {debitCode, creditCode} for a posting: explicit codes win, the event mapping fills the gaps
      */
-    private void updateBalance(GLAccount account, BigDecimal amount, boolean isDebit) {
-        if (account.getType() == AccountType.ASSET || account.getType() == AccountType.EXPENSE) {
-            account.setBalance(isDebit ? account.getBalance().add(amount) : account.getBalance().subtract(amount));
-        } else {
-            account.setBalance(isDebit ? account.getBalance().subtract(amount) : account.getBalance().add(amount));
+    private String[] resolveRoute(PostingRequest posting) {
+        if (posting.getAmount() == null || posting.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Posting amount must be positive: " + posting.getDescription());
+        }
+        String debitCode = posting.getDebitAccountCode();
+        String creditCode = posting.getCreditAccountCode();
+        if (posting.getEventName() != null && !posting.getEventName().isEmpty()) {
+            GlReferenceCache.Route route = referenceCache.findRoute(posting.getEventName())
+                    .orElseThrow(() -> new RuntimeException("GL Mapping not found for event: " + posting.getEventName()));
+            if (debitCode == null || debitCode.isEmpty()) debitCode = route.getDebitCode();
+            if (creditCode == null || creditCode.isEmpty()) creditCode = route.getCreditCode();
         }
-        glAccountRepository.save(account);
+        if (debitCode == null || creditCode == null) {
+            throw new RuntimeException("Posting has no debit/credit account: " + posting.getDescription());
+        }
+        closedPeriodGuard.assertOpen(posting.getTransactionDate() != null
+                ? posting.getTransactionDate().toLocalDate() : LocalDate.now());
+        return new String[]{debitCode, creditCode};
+    }
+
+    /**
+     * Signed balance movement for a debit or credit on an account of the given type
+     */
+    private BigDecimal signedDelta(AccountType type, BigDecimal amount, boolean isDebit) {
+        boolean debitNormal = type == AccountType.ASSET || type == AccountType.EXPENSE;
+        return (debitNormal == isDebit) ? amount : amount.negate();
     }
 
     /**
      * Get account balance
      */
     public BigDecimal getAccountBalance(String glCode) {
-        GLAccount account = glAccountRepository.findById(glCode)
+        // Read the column directly: the managed entity may predate an atomic delta
+        BigDecimal balance = glAccountRepository.findBalanceByCode(glCode)
                 .orElseThrow(() -> new RuntimeException("GL Account not found: " + glCode));
-        return account.getBalance();
+        return balance.add(balanceUpdater.pendingDelta(glCode));
     }
 
     /**
@@ -222,7 +414,9 @@ public class AccountingService {
         GLAccount account = glAccountRepository.findById(code)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
         account.setActive(!account.isActive());
-        return glAccountRepository.save(account);
+        GLAccount saved = glAccountRepository.save(account);
+        referenceCache.invalidate();
+        return saved;
     }
 
     /**
@@ -235,7 +429,9 @@ public class AccountingService {
         }
         account.setBalance(BigDecimal.ZERO);
         account.setActive(true);
-        return glAccountRepository.save(account);
+        GLAccount saved = glAccountRepository.save(account);
+        referenceCache.invalidate();
+        return saved;
     }
 
     /**
@@ -243,23 +439,15 @@ public class AccountingService {
      */
     public List<GLAccount> getAccountsWithBalancesAsOf(LocalDate startDate, LocalDate endDate) {
         List<GLAccount> allAccounts = glAccountRepository.findAll();
-        List<Object[]> totals = (startDate == null)
-                ? journalLineRepository.getAccountTotalsUpToDate(endDate.atTime(LocalTime.MAX))
-                : journalLineRepository.getAccountTotalsInRange(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        Map<String, LedgerActivityService.AccountActivity> activity = (startDate == null)
+                ? ledgerActivityService.getBalancesThrough(endDate)
+                : ledgerActivityService.getActivity(startDate, endDate);
 
         for (GLAccount account : allAccounts) {
-            BigDecimal debitSum = BigDecimal.ZERO;
-            BigDecimal creditSum = BigDecimal.ZERO;
-
-            for (Object[] row : totals) {
-                if (row[0].equals(account.getCode())) {
-                    debitSum = (row[1] != null) ? (BigDecimal) row[1] : BigDecimal.ZERO;
-                    creditSum = (row[2] != null) ? (BigDecimal) row[2] : BigDecimal.ZERO;
-                    break;
-                }
-            }
-            BigDecimal netBalance = (account.getType() == AccountType.ASSET || account.getType() == AccountType.EXPENSE)
-                    ? debitSum.subtract(creditSum) : creditSum.subtract(debitSum);
+            LedgerActivityService.AccountActivity totals = activity.get(account.getCode());
+            // With a start date only the period movement counts; otherwise the cumulative balance
+            BigDecimal netBalance = (totals == null) ? BigDecimal.ZERO
+                    : (startDate == null) ? totals.openingBalance(account.getType()) : totals.netChange(account.getType());
             account.setBalance(netBalance);
         }
         return allAccounts;
@@ -273,48 +461,22 @@ public class AccountingService {
         List<GLAccount> accounts = glAccountRepository.findAll();
         List<Map<String, Object>> report = new ArrayList<>();
 
-        // 1. Get Opening Balances (Sum of all transactions BEFORE startDate)
-        List<Object[]> openingTotals = journalLineRepository.getAccountTotalsUpToDate(startDate.atStartOfDay());
-
-        // 2. Get Period Activity (Sum of transactions WITHIN range)
-        List<Object[]> periodTotals = journalLineRepository.getAccountTotalsInRange(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        // One pass for opening balances and period activity, joined by hash lookup
+        Map<String, LedgerActivityService.AccountActivity> activity = ledgerActivityService.getActivity(startDate, endDate);
 
         for (GLAccount account : accounts) {
-            BigDecimal openingBal = BigDecimal.ZERO;
-            BigDecimal periodDebit = BigDecimal.ZERO;
-            BigDecimal periodCredit = BigDecimal.ZERO;
-
-            // Find Opening Balance
-            for (Object[] row : openingTotals) {
-                if (row[0].equals(account.getCode())) {
-                    BigDecimal debit = (row[1] != null) ? (BigDecimal) row[1] : BigDecimal.ZERO;
-                    BigDecimal credit = (row[2] != null) ? (BigDecimal) row[2] : BigDecimal.ZERO;
-
-                    if (account.getType() == AccountType.ASSET || account.getType() == AccountType.EXPENSE) {
-                        openingBal = debit.subtract(credit);
-                    } else {
-                        openingBal = credit.subtract(debit);
-                    }
-                    break;
-                }
-            }
+            LedgerActivityService.AccountActivity totals = activity.getOrDefault(
+                    account.getCode(), new LedgerActivityService.AccountActivity(account.getCode()));
 
-            // Find Period Activity
-            for (Object[] row : periodTotals) {
-                if (row[0].equals(account.getCode())) {
-                    periodDebit = (row[1] != null) ? (BigDecimal) row[1] : BigDecimal.ZERO;
-                    periodCredit = (row[2] != null) ? (BigDecimal) row[2] : BigDecimal.ZERO;
-                    break;
-                }
-            }
+            BigDecimal openingBal = totals.openingBalance(account.getType());
+            BigDecimal periodDebit = totals.getPeriodDebit();
+            BigDecimal periodCredit = totals.getPeriodCredit();
 
             // Only add active accounts or accounts with non-zero activity/balance
             if (account.isActive() || openingBal.compareTo(BigDecimal.ZERO) != 0 ||
                     periodDebit.compareTo(BigDecimal.ZERO) != 0 || periodCredit.compareTo(BigDecimal.ZERO) != 0) {
 
-                BigDecimal netChange = (account.getType() == AccountType.ASSET || account.getType() == AccountType.EXPENSE)
-                        ? periodDebit.subtract(periodCredit)
-                        : periodCredit.subtract(periodDebit);
+                BigDecimal netChange = totals.netChange(account.getType());
 
                 Map<String, Object> row = new HashMap<>();
                 row.put("accountCode", account.getCode());
@@ -342,6 +504,59 @@ public class AccountingService {
         );
     }
 
+    /**
+     * Keyset page of journal entries (newest first) as flat DTOs.
+     * Cost per call is bounded by the page size no matter how wide the date range is.
+     */
+    @Transactional(readOnly = true)
+    public JournalPageDTO getJournalPage(LocalDate startDate, LocalDate endDate, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_JOURNAL_PAGE_SIZE));
+        LocalDateTime from = (startDate != null) ? startDate.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime to = (endDate != null) ? endDate.plusDays(1).atStartOfDay() : LocalDate.now().plusDays(1).atStartOfDay();
+
+        LocalDateTime cursorDate = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                cursorDate = LocalDateTime.parse(parts[0]);
+                cursorId = UUID.fromString(parts[1]);
+            } catch (RuntimeException e) {
+                throw new ValidationException("cursor", "Invalid journal cursor");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<JournalEntryRowDTO> entries = journalBrowseRepository.findEntryPage(from, to, cursorDate, cursorId, pageSize + 1);
+        boolean last = entries.size() <= pageSize;
+        if (!last) entries = new ArrayList<>(entries.subList(0, pageSize));
+
+        if (!entries.isEmpty()) {
+            Map<UUID, JournalEntryRowDTO> byId = new HashMap<>();
+            entries.forEach(e -> byId.put(e.getId(), e));
+            LocalDateTime newest = entries.get(0).getTransactionDate();
+            LocalDateTime oldest = entries.get(entries.size() - 1).getTransactionDate();
+            for (Object[] row : journalBrowseRepository.findLines(byId.keySet(), oldest, newest)) {
+                JournalEntryRowDTO entry = byId.get((UUID) row[0]);
+                if (entry != null) entry.getLines().add((JournalLineRowDTO) row[1]);
+            }
+        }
+
+        String nextCursor = null;
+        if (!last) {
+            JournalEntryRowDTO tail = entries.get(entries.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (tail.getTransactionDate() + "|" + tail.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        return JournalPageDTO.builder()
+                .content(entries)
+                .pageSize(pageSize)
+                .nextCursor(nextCursor)
+                .last(last)
+                .build();
+    }
+
     /**
      * Post asset purchase transaction
      */
@@ -373,6 +588,17 @@ public class AccountingService {
         postLoanDisbursement(loan, null);
     }
 
+    /**
+     * Put a loan's scheduled interest on the receivable against unearned interest, so the
+     * receivable matches the loan balance (principal plus interest) from disbursement
+     */
+    public void postLoanInterestCapitalised(Loan loan, BigDecimal interest) {
+        if (interest == null || interest.compareTo(BigDecimal.ZERO) <= 0) return;
+        log.info("Posting scheduled interest {} for loan {}", interest, loan.getLoanNumber());
+        postEvent("LOAN_INTEREST_CAPITALISED", "Scheduled Loan Interest - " + loan.getLoanNumber(),
+                loan.getLoanNumber(), interest);
+    }
+
     /**
      * Post loan repayment transaction (principal and interest)
      */
@@ -481,6 +707,7 @@ public class AccountingService {
                 }
             }
 
+            referenceCache.invalidate();
             log.info("✅ Verified/Initialized {} GL Accounts from accounts.json", accountsData.size());
         } catch (Exception e) {
             log.error("❌ Failed to initialize GL Accounts: {}", e.getMessage(), e);
@@ -501,12 +728,19 @@ public class AccountingService {
         // Loan Disbursement Mapping
         createMapping("LOAN_DISBURSEMENT", "1200", "1002", "Loan Disbursement");
 
+        // Loan Repayment Mapping (whole repayment to the receivable: counter, check-off)
+        createMapping("LOAN_REPAYMENT", "1002", "1200", "Loan Repayment");
+
         // Loan Repayment Mapping (Principal)
         createMapping("LOAN_REPAYMENT_PRINCIPAL", "1002", "1200", "Loan Principal Repayment");
 
         // Loan Repayment Mapping (Interest)
         createMapping("LOAN_REPAYMENT_INTEREST", "1002", "4002", "Loan Interest Income");
 
+        // Scheduled interest: receivable against unearned interest at disbursement, earned as repaid
+        createMapping("LOAN_INTEREST_CAPITALISED", "1200", "2007", "Scheduled Loan Interest");
+        createMapping("LOAN_INTEREST_EARNED", "2007", "4002", "Loan Interest Earned");
+
         // Registration Fee Mapping
         createMapping("REGISTRATION_FEE_CASH", "1001", "4001", "Registration Fee via Cash");
         createMapping("REGISTRATION_FEE_MPESA", "1002", "4001", "Registration Fee via M-Pesa");
@@ -533,6 +767,7 @@ public class AccountingService {
         // Credit: 4200 (Fee Income - Default)
         createMapping("LOAN_APPLICATION_FEE", "1002", "4200", "Loan Application Fee");
 
+        referenceCache.invalidate();
         log.info("✅ Created default GL Mappings");
     }
 
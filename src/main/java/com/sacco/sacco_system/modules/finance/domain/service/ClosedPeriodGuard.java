@@ -0,0 +1,83 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ValidationException;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceDataVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * Rejects postings dated inside a closed fiscal period.
+ * The closed-through date is cached so the posting path does not query for it. A close bumps the
+ * closed_periods row in reference_data_versions in its transaction; every node compares that
+ * version with the loaded one (at most once per app.accounting.reference-cache-check-ms) and
+ * reloads when it has moved, so a close reaches all nodes within about a second.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClosedPeriodGuard {
+
+    public static final String VERSION_NAME = "closed_periods";
+
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final ReferenceDataVersionRepository versionRepository;
+
+    @Value("${app.accounting.reference-cache-check-ms:1000}")
+    private long checkIntervalMs = 1000;
+
+    private volatile LocalDate closedThrough;
+    private volatile long loadedVersion = -1;
+    private volatile long lastVersionCheck;
+
+    public void assertOpen(LocalDate date) {
+        LocalDate through = getClosedThrough();
+        if (through != null && !date.isAfter(through)) {
+            throw new ValidationException("Fiscal period is closed for " + date + " (closed through " + through + ")");
+        }
+    }
+
+    public LocalDate getClosedThrough() {
+        long now = System.currentTimeMillis();
+        if (now - lastVersionCheck >= checkIntervalMs) {
+            lastVersionCheck = now;
+            // Read before the data: a close committed in between leaves the version ahead, so it is reloaded again
+            long version = versionRepository.current(VERSION_NAME);
+            if (version != loadedVersion) {
+                closedThrough = fiscalPeriodRepository.findClosedThrough();
+                loadedVersion = version;
+            }
+        }
+        return closedThrough;
+    }
+
+    /**
+     * Bump the shared version in the current transaction (a period was closed or reopened), so every
+     * node reloads once it commits; this node checks again right after the commit
+     */
+    public void invalidate() {
+        versionRepository.bump(VERSION_NAME);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Force a reload on the next check
+     */
+    public void refresh() {
+        loadedVersion = -1;
+        lastVersionCheck = 0;
+    }
+}
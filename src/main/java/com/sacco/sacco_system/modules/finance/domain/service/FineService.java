@@ -1,6 +1,7 @@
 package com.sacco.sacco_system.modules.finance.domain.service;
 
 import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.finance.api.dto.OverduePenaltyRunDTO;
 import com.sacco.sacco_system.modules.finance.domain.entity.Fine;
 import com.sacco.sacco_system.modules.finance.domain.repository.FineRepository;
 // ✅ REMOVED: Old LoanRepayment imports to fix compilation error
@@ -11,6 +12,7 @@ import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -35,6 +37,7 @@ public class FineService {
     // private final LoanRepaymentRepository loanRepaymentRepository; // ✅ Commented out for Skeleton Phase
     private final SystemSettingService systemSettingService;
     private final AccountingService accountingService;
+    private final OverduePenaltyJob overduePenaltyJob;
 
     /**
      * Impose a fine on a member
@@ -65,13 +68,12 @@ public class FineService {
         return saved;
     }
 
-    /* * ✅ DISABLED FOR SKELETON PHASE
-     * We will re-enable "Late Fine Calculation" when we build the Repayment Schedule module.
-     *
-    public Fine calculateLateFine(UUID loanRepaymentId) {
-       // ... logic removed to allow compilation ...
+    /**
+     * Late fine for one day on an overdue amount, from the loan product's penalty rate
+     */
+    public BigDecimal calculateLateFine(BigDecimal amountOverdue, BigDecimal penaltyRate) {
+        return overduePenaltyJob.dailyPenalty(amountOverdue, penaltyRate);
     }
-    */
 
     /**
      * Pay a fine
@@ -176,11 +178,12 @@ public class FineService {
         );
     }
 
-    /* * ✅ DISABLED FOR SKELETON PHASE
-     *
-    public List<Fine> processOverduePayments() {
-       // ... logic removed to allow compilation ...
-       return new java.util.ArrayList<>();
+    /**
+     * Impose the day's late-payment fines on every loan with overdue installments.
+     * Safe to re-run: loans already fined that day are skipped.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OverduePenaltyRunDTO processOverduePayments(LocalDate date) {
+        return overduePenaltyJob.run(date != null ? date : LocalDate.now());
     }
-    */
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ValidationException;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountOpeningBalance;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.FiscalPeriod;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalArchiveRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Fiscal period close.
+ *  1. Make sure daily snapshots cover the period (they carry its totals once lines are archived).
+ *  2. Close every income and expense balance into Retained Earnings with one journal entry.
+ *  3. Store one opening-balance row per account for the day after the period.
+ *  4. Mark the period closed, so postings dated inside it are rejected (every node's
+ *     ClosedPeriodGuard picks the close up through its shared version).
+ *  5. Move its journal lines to journal_lines_archive, one month per transaction. Each month
+ *     records archived_through in the same transaction, and readers go by that, never by a
+ *     half-done period.
+ * Step 5 can be re-run on its own (archivePeriod) if it is interrupted; it resumes after the last month moved.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FiscalPeriodCloseService {
+
+    public static final String RETAINED_EARNINGS_ACCOUNT = "3002";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf("FISCAL_PERIOD_CLOSE");
+
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final AccountOpeningBalanceRepository openingBalanceRepository;
+    private final JournalArchiveRepository journalArchiveRepository;
+    private final AccountingService accountingService;
+    private final LedgerActivityService ledgerActivityService;
+    private final AccountBalanceSnapshotService snapshotService;
+    private final GlReferenceCache referenceCache;
+    private final ClosedPeriodGuard closedPeriodGuard;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Close the period and archive its journal lines
+     */
+    public FiscalPeriod closePeriod(UUID periodId) {
+        transactionTemplate.executeWithoutResult(status -> close(periodId));
+        archivePeriod(periodId);
+        return fiscalPeriodRepository.findById(periodId).orElseThrow();
+    }
+
+    /**
+     * Move the journal lines of a closed period to the archive. Idempotent.
+     */
+    public int archivePeriod(UUID periodId) {
+        FiscalPeriod period = fiscalPeriodRepository.findById(periodId)
+                .orElseThrow(() -> new ValidationException("Fiscal period not found"));
+        if (!period.isClosed()) {
+            throw new ValidationException("Only closed periods can be archived: " + period.getName());
+        }
+        if (fiscalPeriodRepository.existsByClosedTrueAndArchivedFalseAndEndDateBefore(period.getStartDate())) {
+            throw new ValidationException("Archive earlier fiscal periods first");
+        }
+
+        int moved = 0;
+        LocalDate chunkStart = (period.getArchivedThrough() != null && !period.getArchivedThrough().isBefore(period.getStartDate()))
+                ? period.getArchivedThrough().plusDays(1) : period.getStartDate();
+        LocalDate end = period.getEndDate().plusDays(1);
+        while (chunkStart.isBefore(end)) {
+            LocalDate nextMonth = chunkStart.withDayOfMonth(1).plusMonths(1);
+            LocalDate chunkEnd = nextMonth.isBefore(end) ? nextMonth : end;
+            LocalDateTime from = chunkStart.atStartOfDay();
+            LocalDateTime to = chunkEnd.atStartOfDay();
+            LocalDate through = chunkEnd.minusDays(1);
+            Integer count = transactionTemplate.execute(status -> {
+                int lines = journalArchiveRepository.archiveLines(from, to);
+                fiscalPeriodRepository.markArchivedThrough(periodId, through);
+                return lines;
+            });
+            moved += (count != null) ? count : 0;
+            chunkStart = chunkEnd;
+        }
+
+        period.setArchived(true);
+        period.setArchivedThrough(period.getEndDate());
+        fiscalPeriodRepository.save(period);
+        log.info("Archived {} journal lines of fiscal period {}", moved, period.getName());
+        return moved;
+    }
+
+    private void close(UUID periodId) {
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+
+        FiscalPeriod period = fiscalPeriodRepository.findById(periodId)
+                .orElseThrow(() -> new ValidationException("Fiscal period not found"));
+        if (period.isClosed()) {
+            throw new ValidationException("Fiscal period is already closed: " + period.getName());
+        }
+        if (!period.getEndDate().isBefore(LocalDate.now())) {
+            throw new ValidationException("A fiscal period can only be closed after its end date");
+        }
+        if (fiscalPeriodRepository.existsByClosedFalseAndEndDateBefore(period.getStartDate())) {
+            throw new ValidationException("Close earlier fiscal periods first");
+        }
+        if (fiscalPeriodRepository.existsByClosedTrueAndArchivedFalseAndEndDateBefore(period.getStartDate())) {
+            throw new ValidationException("Finish archiving earlier fiscal periods first");
+        }
+        if (referenceCache.findAccount(RETAINED_EARNINGS_ACCOUNT).isEmpty()) {
+            throw new ValidationException("Retained Earnings account " + RETAINED_EARNINGS_ACCOUNT + " not found");
+        }
+
+        LocalDate end = period.getEndDate();
+
+        // 1. Snapshots through the period end (no-op if the nightly job already got there)
+        snapshotService.snapshotThrough(end);
+
+        // 2. Closing entry: income/expense balances through period end -> Retained Earnings
+        Map<String, LedgerActivityService.AccountActivity> balances = ledgerActivityService.getBalancesThrough(end);
+        Map<String, BigDecimal[]> closingLines = new TreeMap<>();
+        BigDecimal netIncome = BigDecimal.ZERO;
+        for (GlReferenceCache.AccountRef account : referenceCache.snapshot().getAccounts().values()) {
+            if (account.getType() != AccountType.INCOME && account.getType() != AccountType.EXPENSE) continue;
+            LedgerActivityService.AccountActivity totals = balances.get(account.getCode());
+            if (totals == null) continue;
+
+            BigDecimal balance = totals.openingBalance(account.getType());
+            if (balance.signum() == 0) continue;
+
+            if (account.getType() == AccountType.INCOME) {
+                // Credit-normal: debit it back to zero
+                addLine(closingLines, account.getCode(), balance, true);
+                netIncome = netIncome.add(balance);
+            } else {
+                addLine(closingLines, account.getCode(), balance, false);
+                netIncome = netIncome.subtract(balance);
+            }
+        }
+        if (netIncome.signum() != 0) {
+            addLine(closingLines, RETAINED_EARNINGS_ACCOUNT, netIncome, false);
+        }
+
+        if (!closingLines.isEmpty()) {
+            List<AccountingService.ManualEntryLine> lines = new ArrayList<>();
+            closingLines.forEach((code, dc) -> lines.add(new AccountingService.ManualEntryLine(code, dc[0], dc[1])));
+            accountingService.postManualJournalEntry(new AccountingService.ManualEntryRequest(
+                    "Period Close - " + period.getName() + " (Income & Expense to Retained Earnings)",
+                    "CLOSE-" + end,
+                    end,
+                    lines));
+        }
+
+        // 3. Opening balances for the day after: closing totals plus the closing entry
+        LocalDate openingDate = end.plusDays(1);
+        Map<String, BigDecimal[]> opening = new HashMap<>();
+        balances.forEach((code, totals) ->
+                AccountBalanceSnapshotService.accumulate(opening, code, totals.getOpeningDebit(), totals.getOpeningCredit()));
+        closingLines.forEach((code, dc) -> AccountBalanceSnapshotService.accumulate(opening, code, dc[0], dc[1]));
+
+        List<AccountOpeningBalance> rows = new ArrayList<>();
+        opening.forEach((code, dc) -> {
+            AccountType type = referenceCache.findAccount(code).map(GlReferenceCache.AccountRef::getType).orElse(null);
+            LedgerActivityService.AccountActivity carried = new LedgerActivityService.AccountActivity(code);
+            carried.setOpeningDebit(dc[0]);
+            carried.setOpeningCredit(dc[1]);
+            rows.add(AccountOpeningBalance.builder()
+                    .fiscalPeriodId(period.getId())
+                    .accountCode(code)
+                    .openingDate(openingDate)
+                    .openingDebit(dc[0])
+                    .openingCredit(dc[1])
+                    .balance(carried.openingBalance(type))
+                    .build());
+        });
+        openingBalanceRepository.deleteByOpeningDate(openingDate);
+        openingBalanceRepository.saveAll(rows);
+
+        // 4. Lock the period
+        period.setClosed(true);
+        period.setClosedAt(LocalDateTime.now());
+        period.setActive(false);
+        fiscalPeriodRepository.save(period);
+        closedPeriodGuard.invalidate();
+
+        log.info("Closed fiscal period {}: net income {} to retained earnings, {} opening balances",
+                period.getName(), netIncome, rows.size());
+    }
+
+    private static void addLine(Map<String, BigDecimal[]> lines, String code, BigDecimal signedAmount, boolean debitWhenPositive) {
+        boolean debit = (signedAmount.signum() > 0) == debitWhenPositive;
+        BigDecimal amount = signedAmount.abs();
+        AccountBalanceSnapshotService.accumulate(lines, code, debit ? amount : BigDecimal.ZERO, debit ? BigDecimal.ZERO : amount);
+    }
+}
@@ -0,0 +1,105 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies GL balance movements without read-modify-write on the account row.
+ *
+ * ATOMIC  - one "UPDATE gl_accounts SET balance = balance + ?" per touched account (default).
+ *           The row lock is held only for the delta, never across a read.
+ * STRIPED - deltas go to in-memory striped slots after commit and are folded into
+ *           gl_accounts on a short schedule, so hot accounts (1001, 1002, 2001) see no
+ *           row contention at all. Journal lines stay the source of truth; a crash
+ *           before a fold is recovered by the ledger verifier.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GlBalanceUpdater {
+
+    public enum Mode { ATOMIC, STRIPED }
+
+    private final JournalBatchRepository journalBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedBalanceAccumulator accumulator = new StripedBalanceAccumulator();
+
+    @Value("${app.accounting.balance-update-mode:ATOMIC}")
+    private Mode mode;
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Apply signed balance deltas (already adjusted for each account's normal side)
+     */
+    public void apply(Map<String, BigDecimal> deltas) {
+        if (deltas.isEmpty()) return;
+
+        if (mode == Mode.ATOMIC) {
+            journalBatchRepository.applyBalanceDeltas(deltas instanceof TreeMap ? deltas : new TreeMap<>(deltas));
+            return;
+        }
+
+        Map<String, BigDecimal> pending = new LinkedHashMap<>(deltas);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only count the movement once the journal lines are committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(accumulator::add);
+                }
+            });
+        } else {
+            pending.forEach(accumulator::add);
+        }
+    }
+
+    /**
+     * Delta posted but not yet folded into gl_accounts.balance (always zero in ATOMIC mode)
+     */
+    public BigDecimal pendingDelta(String accountCode) {
+        return StripedBalanceAccumulator.fromCents(accumulator.pending(accountCode));
+    }
+
+    /**
+     * Fold striped deltas into gl_accounts. Safe to call at any time; a failed fold
+     * puts the drained amounts back so nothing is lost.
+     */
+    @Scheduled(fixedDelayString = "${app.accounting.balance-fold-interval-ms:1000}")
+    public void fold() {
+        if (mode != Mode.STRIPED) return;
+
+        Map<String, Long> drained = accumulator.drain();
+        if (drained.isEmpty()) return;
+
+        Map<String, BigDecimal> deltas = new TreeMap<>();
+        drained.forEach((code, cents) -> deltas.put(code, StripedBalanceAccumulator.fromCents(cents)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> journalBatchRepository.applyBalanceDeltas(deltas));
+            log.debug("Folded balance deltas for {} GL accounts", deltas.size());
+        } catch (Exception e) {
+            accumulator.restore(drained);
+            log.error("Failed to fold GL balance deltas, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        fold();
+    }
+}
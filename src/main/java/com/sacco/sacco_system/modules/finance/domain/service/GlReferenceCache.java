@@ -0,0 +1,183 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlMapping;
+import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.GlMappingRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceDataVersionRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable, versioned snapshot of the chart of accounts and GL mappings for the posting hot path.
+ * Each mapping is pre-resolved into a debit/credit route. The snapshot is swapped atomically
+ * after any account or mapping change commits.
+ *
+ * Every change also bumps the gl_reference row in reference_data_versions in its transaction.
+ * Lookups compare that version with the loaded one (at most once per
+ * app.accounting.reference-cache-check-ms) and reload when it moved, so a change made on
+ * another node is seen within about a second. A miss (e.g. an account created on another node)
+ * triggers one throttled reload before the caller gives up, and a slow periodic reload catches
+ * edits made directly in the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GlReferenceCache {
+
+    static final String VERSION_NAME = "gl_reference";
+    private static final long MISS_RELOAD_INTERVAL_MS = 1000;
+
+    private final GLAccountRepository glAccountRepository;
+    private final GlMappingRepository glMappingRepository;
+    private final ReferenceDataVersionRepository versionRepository;
+
+    @Value("${app.accounting.reference-cache-check-ms:1000}")
+    private long checkIntervalMs = 1000;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final AtomicLong versions = new AtomicLong();
+    private volatile long loadedVersion = -1;
+    private volatile long lastVersionCheck;
+    private volatile long lastMissReload;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AccountRef {
+        private final String code;
+        private final String name;
+        private final AccountType type;
+        private final boolean active;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Route {
+        private final String eventName;
+        private final AccountRef debit;  // null if the mapped code does not exist
+        private final AccountRef credit; // null if the mapped code does not exist
+        private final String debitCode;
+        private final String creditCode;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, Map.of(), Map.of());
+
+        private final long version;
+        private final Map<String, AccountRef> accounts;
+        private final Map<String, Route> routes;
+    }
+
+    public Snapshot snapshot() {
+        return fresh();
+    }
+
+    public Optional<AccountRef> findAccount(String code) {
+        AccountRef account = fresh().getAccounts().get(code);
+        if (account == null && reloadOnMiss()) account = current.get().getAccounts().get(code);
+        return Optional.ofNullable(account);
+    }
+
+    public Optional<Route> findRoute(String eventName) {
+        Route route = fresh().getRoutes().get(eventName);
+        if (route == null && reloadOnMiss()) route = current.get().getRoutes().get(eventName);
+        return Optional.ofNullable(route);
+    }
+
+    /**
+     * Bump the shared version in the current transaction, so every node reloads once it commits,
+     * and reload this node right after the commit (immediately when there is no transaction)
+     */
+    public void invalidate() {
+        versionRepository.bump(VERSION_NAME);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.accounting.reference-cache-refresh-ms:300000}",
+               initialDelayString = "${app.accounting.reference-cache-refresh-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Build a fresh snapshot from the database and swap it in
+     */
+    public synchronized void reload() {
+        // Read before the data: a change committed while loading leaves the version ahead, so it is reloaded again
+        long version = versionRepository.current(VERSION_NAME);
+
+        Map<String, AccountRef> accounts = new HashMap<>();
+        for (GLAccount account : glAccountRepository.findAll()) {
+            accounts.put(account.getCode(),
+                    new AccountRef(account.getCode(), account.getName(), account.getType(), account.isActive()));
+        }
+
+        Map<String, Route> routes = new HashMap<>();
+        for (GlMapping mapping : glMappingRepository.findAll()) {
+            routes.put(mapping.getEventName(), new Route(
+                    mapping.getEventName(),
+                    accounts.get(mapping.getDebitAccountCode()),
+                    accounts.get(mapping.getCreditAccountCode()),
+                    mapping.getDebitAccountCode(),
+                    mapping.getCreditAccountCode()));
+        }
+
+        Snapshot snapshot = new Snapshot(versions.incrementAndGet(), Map.copyOf(accounts), Map.copyOf(routes));
+        current.set(snapshot);
+        loadedVersion = version;
+        lastVersionCheck = System.currentTimeMillis();
+        log.debug("GL reference cache v{}: {} accounts, {} mappings", snapshot.getVersion(), accounts.size(), routes.size());
+    }
+
+    /**
+     * The current snapshot, reloaded first if another node has changed the reference data
+     */
+    private Snapshot fresh() {
+        long now = System.currentTimeMillis();
+        if (now - lastVersionCheck >= checkIntervalMs) {
+            lastVersionCheck = now;
+            if (versionRepository.current(VERSION_NAME) != loadedVersion) reload();
+        }
+        return current.get();
+    }
+
+    private boolean reloadOnMiss() {
+        long now = System.currentTimeMillis();
+        if (now - lastMissReload < MISS_RELOAD_INTERVAL_MS) return false;
+        lastMissReload = now;
+        reload();
+        return true;
+    }
+}
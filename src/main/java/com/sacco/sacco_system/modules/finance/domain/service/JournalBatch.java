@@ -0,0 +1,62 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects postings so they can be written in one go via AccountingService.postBatch.
+ * Not thread-safe: build one batch per unit of work.
+ */
+public class JournalBatch {
+
+    private final List<AccountingService.PostingRequest> postings = new ArrayList<>();
+
+    /**
+     * Add a posting with explicit debit and credit accounts
+     */
+    public JournalBatch add(String description, String referenceNo, String debitAccountCode, String creditAccountCode, BigDecimal amount) {
+        postings.add(AccountingService.PostingRequest.builder()
+                .description(description)
+                .referenceNo(referenceNo)
+                .debitAccountCode(debitAccountCode)
+                .creditAccountCode(creditAccountCode)
+                .amount(amount)
+                .build());
+        return this;
+    }
+
+    /**
+     * Add a posting routed through a GL mapping. Non-null overrides win over the mapping.
+     */
+    public JournalBatch addEvent(String eventName, String description, String referenceNo, BigDecimal amount,
+                                 String overrideDebitAccount, String overrideCreditAccount) {
+        postings.add(AccountingService.PostingRequest.builder()
+                .eventName(eventName)
+                .description(description)
+                .referenceNo(referenceNo)
+                .debitAccountCode(overrideDebitAccount)
+                .creditAccountCode(overrideCreditAccount)
+                .amount(amount)
+                .build());
+        return this;
+    }
+
+    public JournalBatch add(AccountingService.PostingRequest posting) {
+        postings.add(posting);
+        return this;
+    }
+
+    public List<AccountingService.PostingRequest> getPostings() {
+        return Collections.unmodifiableList(postings);
+    }
+
+    public int size() {
+        return postings.size();
+    }
+
+    public boolean isEmpty() {
+        return postings.isEmpty();
+    }
+}
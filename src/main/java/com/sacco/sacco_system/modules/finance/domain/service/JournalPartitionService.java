@@ -0,0 +1,57 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintenance for the monthly journal partitions (see V3__partition_journal_tables.sql).
+ * Keeps partitions created ahead of time, and gives any month that landed in the DEFAULT partition
+ * (backdated postings, or the job not running in time) its own partition; ensure_journal_partition
+ * moves those rows across. Old months are archived by FiscalPeriodCloseService,
+ * which moves a closed period's lines to journal_lines_archive; partitions are never detached here.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalPartitionService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.accounting.partition-months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * Make sure this month and the next few months have partitions before rows arrive
+     */
+    @Scheduled(cron = "${app.accounting.partition-cron:0 30 1 * * *}")
+    @Transactional
+    public void ensureUpcomingPartitions() {
+        LocalDate from = LocalDate.now().withDayOfMonth(1);
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT ensure_journal_partitions(?, ?)", Integer.class,
+                Date.valueOf(from), Date.valueOf(from.plusMonths(monthsAhead)));
+        if (created != null && created > 0) {
+            log.info("Created {} journal partitions up to {}", created, from.plusMonths(monthsAhead));
+        }
+
+        List<Date> strayMonths = jdbcTemplate.queryForList(
+                "SELECT CAST(date_trunc('month', transaction_date) AS DATE) FROM journal_entries_default " +
+                "UNION SELECT CAST(date_trunc('month', transaction_date) AS DATE) FROM journal_lines_default",
+                Date.class);
+        for (Date month : strayMonths) {
+            Integer moved = jdbcTemplate.queryForObject(
+                    "SELECT ensure_journal_partitions(?, ?)", Integer.class, month, month);
+            log.warn("Journal rows for {} were in the default partition; created {} partitions and moved them",
+                    month.toLocalDate().withDayOfMonth(1), moved);
+        }
+    }
+}
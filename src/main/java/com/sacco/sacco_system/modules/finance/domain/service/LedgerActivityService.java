@@ -0,0 +1,177 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountOpeningBalance;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.LedgerActivityRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass ledger activity engine.
+ * Opening balances come from the latest daily snapshot; everything after it is read with
+ * one conditional-aggregation query (opening tail, period debits/credits, line count).
+ * Callers join the result to GL accounts with a hash lookup.
+ * Days up to the archive progress (FiscalPeriodRepository.findArchivedThrough, advanced month by
+ * month) are read from snapshot differences only, since their journal lines have moved to
+ * journal_lines_archive; when no snapshot covers that day, the opening balances rolled forward
+ * by the close (account_opening_balances) are used, or the snapshot at that day mid-period.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class LedgerActivityService {
+
+    private final LedgerActivityRepository ledgerActivityRepository;
+    private final AccountDailyBalanceRepository snapshotRepository;
+    private final AccountBalanceSnapshotService snapshotService;
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final AccountOpeningBalanceRepository openingBalanceRepository;
+
+    /**
+     * Opening totals and period activity for one account
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AccountActivity {
+        private String accountCode;
+        private BigDecimal openingDebit = BigDecimal.ZERO;
+        private BigDecimal openingCredit = BigDecimal.ZERO;
+        private BigDecimal periodDebit = BigDecimal.ZERO;
+        private BigDecimal periodCredit = BigDecimal.ZERO;
+        private long lineCount;
+
+        public AccountActivity(String accountCode) {
+            this.accountCode = accountCode;
+        }
+
+        public BigDecimal openingBalance(AccountType type) {
+            return isDebitNormal(type) ? openingDebit.subtract(openingCredit) : openingCredit.subtract(openingDebit);
+        }
+
+        public BigDecimal netChange(AccountType type) {
+            return isDebitNormal(type) ? periodDebit.subtract(periodCredit) : periodCredit.subtract(periodDebit);
+        }
+
+        public BigDecimal closingBalance(AccountType type) {
+            return openingBalance(type).add(netChange(type));
+        }
+
+        private static boolean isDebitNormal(AccountType type) {
+            return type == AccountType.ASSET || type == AccountType.EXPENSE;
+        }
+    }
+
+    /**
+     * Activity for [startDate, endDate], keyed by account code.
+     * Accounts with no history at all are absent from the map.
+     */
+    public Map<String, AccountActivity> getActivity(LocalDate startDate, LocalDate endDate) {
+        LocalDate openingDay = startDate.minusDays(1);
+        LocalDate watermark = snapshotService.getWatermark();
+
+        LocalDate archivedThrough = fiscalPeriodRepository.findArchivedThrough();
+
+        Map<String, AccountActivity> activity = new HashMap<>();
+        LocalDateTime scanFrom = null;
+        if (watermark != null) {
+            LocalDate snapDate = openingDay.isBefore(watermark) ? openingDay : watermark;
+            Map<String, BigDecimal[]> openingTotals = snapshotRepository.findLatestClosing(snapDate);
+            openingTotals.forEach((code, dc) -> {
+                AccountActivity a = new AccountActivity(code);
+                a.setOpeningDebit(dc[0]);
+                a.setOpeningCredit(dc[1]);
+                activity.put(code, a);
+            });
+            scanFrom = snapDate.plusDays(1).atStartOfDay();
+
+            // Archived part of the period: closing snapshot minus opening snapshot (no line counts)
+            if (archivedThrough != null && !archivedThrough.isBefore(startDate)
+                    && !endDate.isBefore(startDate) && snapDate.equals(openingDay)) {
+                LocalDate coveredEnd = endDate.isBefore(archivedThrough) ? endDate : archivedThrough;
+                snapshotRepository.findLatestClosing(coveredEnd).forEach((code, dc) -> {
+                    BigDecimal[] before = openingTotals.getOrDefault(code, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+                    AccountActivity a = activity.computeIfAbsent(code, AccountActivity::new);
+                    a.setPeriodDebit(a.getPeriodDebit().add(dc[0].subtract(before[0])));
+                    a.setPeriodCredit(a.getPeriodCredit().add(dc[1].subtract(before[1])));
+                });
+                scanFrom = coveredEnd.plusDays(1).atStartOfDay();
+            }
+        }
+
+        // The usable snapshot is older than the archive progress: start from the totals at that
+        // day instead, since the lines before it are archived
+        if (archivedThrough != null && !openingDay.isBefore(archivedThrough)) {
+            LocalDateTime afterClose = archivedThrough.plusDays(1).atStartOfDay();
+            if (scanFrom == null || scanFrom.isBefore(afterClose)) {
+                activity.clear();
+                archivedTotals(archivedThrough).forEach((code, dc) -> {
+                    AccountActivity a = new AccountActivity(code);
+                    a.setOpeningDebit(dc[0]);
+                    a.setOpeningCredit(dc[1]);
+                    activity.put(code, a);
+                });
+                scanFrom = afterClose;
+            }
+        }
+
+        LocalDateTime periodStart = startDate.atStartOfDay();
+        LocalDateTime periodEnd = endDate.plusDays(1).atStartOfDay();
+        if (periodEnd.isBefore(periodStart)) periodEnd = periodStart;
+
+        mergeRows(activity, ledgerActivityRepository.aggregate(scanFrom, periodStart, periodEnd));
+        return activity;
+    }
+
+    /**
+     * Cumulative {debit, credit} per account through the archive progress day: the opening balances
+     * a close rolled forward when it is a period end, otherwise (archiving stopped mid-period) the
+     * daily snapshot of that day, which the close took before archiving started.
+     */
+    Map<String, BigDecimal[]> archivedTotals(LocalDate archivedThrough) {
+        List<AccountOpeningBalance> openings = openingBalanceRepository.findByOpeningDate(archivedThrough.plusDays(1));
+        if (openings.isEmpty()) return snapshotRepository.findLatestClosing(archivedThrough);
+
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        for (AccountOpeningBalance row : openings) {
+            totals.put(row.getAccountCode(), new BigDecimal[]{row.getOpeningDebit(), row.getOpeningCredit()});
+        }
+        return totals;
+    }
+
+    /**
+     * Cumulative totals of everything dated on or before endDate (no period activity)
+     */
+    public Map<String, AccountActivity> getBalancesThrough(LocalDate endDate) {
+        return getActivity(endDate.plusDays(1), endDate);
+    }
+
+    /**
+     * Fold aggregate rows (code, openingDebit, openingCredit, periodDebit, periodCredit, count)
+     * into the activity map in O(rows).
+     */
+    static void mergeRows(Map<String, AccountActivity> activity, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            AccountActivity a = activity.computeIfAbsent((String) row[0], AccountActivity::new);
+            a.setOpeningDebit(a.getOpeningDebit().add((BigDecimal) row[1]));
+            a.setOpeningCredit(a.getOpeningCredit().add((BigDecimal) row[2]));
+            a.setPeriodDebit(a.getPeriodDebit().add((BigDecimal) row[3]));
+            a.setPeriodCredit(a.getPeriodCredit().add((BigDecimal) row[4]));
+            a.setLineCount(a.getLineCount() + ((Number) row[5]).longValue());
+        }
+    }
+}
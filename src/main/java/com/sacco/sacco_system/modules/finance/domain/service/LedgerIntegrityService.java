@@ -0,0 +1,338 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.finance.api.dto.LedgerVerificationReportDTO;
+import com.sacco.sacco_system.modules.finance.api.dto.LedgerVerificationReportDTO.AccountDrift;
+import com.sacco.sacco_system.modules.finance.api.dto.LedgerVerificationReportDTO.UnbalancedEntry;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountOpeningBalance;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.LedgerIntegrityRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+/**
+ * Ledger integrity verifier and GL balance rebuilder.
+ *
+ * Time ranges are split recursively on a fork/join pool and each leaf runs one
+ * aggregate query, so the database does the scanning and nothing is loaded as entities.
+ *  - Entry check: every journal entry posted since the checkpoint must balance.
+ *  - Balance check: ledger totals per account are compared with gl_accounts.balance.
+ *    Incremental runs start from the daily snapshots and only scan lines after the
+ *    snapshot watermark; a full scan re-derives every account from raw lines (starting
+ *    from the totals at the archive progress day, if anything is archived).
+ * Drifted accounts are re-checked inside one transaction before being reported, and
+ * repair mode rewrites their balances under row locks. Repair only runs in ATOMIC balance
+ * mode: in STRIPED mode other nodes hold unfolded deltas this node cannot see, so a rewrite
+ * would double-count them once they fold; drift is reported only.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerIntegrityService {
+
+    public static final String JOB_NAME = "LEDGER_VERIFIER";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final Duration MIN_RANGE = Duration.ofHours(1);
+    private static final int RANGES_PER_WORKER = 8;
+    private static final long TIMESTAMP_RESOLUTION_NANOS = 1_000;
+
+    private final LedgerIntegrityRepository integrityRepository;
+    private final AccountDailyBalanceRepository snapshotRepository;
+    private final AccountOpeningBalanceRepository openingBalanceRepository;
+    private final FiscalPeriodRepository fiscalPeriodRepository;
+    private final AccountBalanceSnapshotService snapshotService;
+    private final JobCheckpointRepository checkpointRepository;
+    private final GlBalanceUpdater balanceUpdater;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchJobRunner batchJobRunner;
+
+    @Value("${app.accounting.verifier-parallelism:4}")
+    private int parallelism;
+
+    // Entries posted in the last few minutes may belong to transactions still in flight
+    @Value("${app.accounting.verifier-lag-minutes:5}")
+    private long lagMinutes;
+
+    @Value("${app.accounting.verifier-auto-repair:false}")
+    private boolean autoRepair;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ForkJoinPool pool;
+
+    @Scheduled(cron = "${app.accounting.verifier-cron:0 40 1 * * *}")
+    public void verifyNightly() {
+        batchJobRunner.submit("LEDGER_VERIFIER", () -> verify(false, autoRepair));
+    }
+
+    /**
+     * Run the verifier. fullScan ignores the checkpoint and the snapshots; repair rewrites drifted balances
+     * (ATOMIC balance mode only, otherwise drift is just reported).
+     */
+    public LedgerVerificationReportDTO verify(boolean fullScan, boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Ledger verification is already running");
+        }
+        try {
+            // Unfolded STRIPED deltas would otherwise all show up as drift
+            balanceUpdater.fold();
+            boolean rewrite = repair && balanceUpdater.getMode() == GlBalanceUpdater.Mode.ATOMIC;
+            if (repair && !rewrite) {
+                log.warn("Ledger repair skipped: balances are folded per node in {} mode, reporting drift only",
+                        balanceUpdater.getMode());
+            }
+
+            // The advisory lock (held for the run) keeps other nodes out; scan queries use their own connections
+            return transactionTemplate.execute(status -> {
+                if (!advisoryLocks.tryLockForTransaction(LOCK_KEY)) {
+                    throw new RuntimeException("Ledger verification is already running on another node");
+                }
+                return runVerification(fullScan, rewrite);
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private LedgerVerificationReportDTO runVerification(boolean fullScan, boolean repair) {
+        long started = System.currentTimeMillis();
+        AtomicInteger ranges = new AtomicInteger();
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+        LocalDateTime postedAfter = fullScan ? null : checkpoint.getLastProcessedAt();
+        LocalDateTime postedBefore = LocalDateTime.now().minusMinutes(lagMinutes);
+
+        // Archived lines are out of journal_lines; their totals are in the opening balances (or snapshots mid-period)
+        LocalDate archivedThrough = fiscalPeriodRepository.findArchivedThrough();
+        LocalDateTime liveFrom = (archivedThrough != null) ? archivedThrough.plusDays(1).atStartOfDay() : null;
+
+        // 1. Entries posted since the checkpoint must balance
+        List<Object[]> unbalanced = new ArrayList<>();
+        LocalDateTime[] posted = integrityRepository.findPostedDateBounds(postedAfter, postedBefore);
+        if (posted != null) {
+            unbalanced = scanInParallel(posted[0], posted[1].plusNanos(TIMESTAMP_RESOLUTION_NANOS),
+                    (from, to) -> integrityRepository.findUnbalancedEntries(from, to, liveFrom),
+                    LedgerIntegrityService::concat, ranges);
+        }
+
+        // 2. Ledger totals per account: snapshot baseline (incremental) + parallel scan of the rest
+        LocalDate watermark = fullScan ? null : snapshotService.getWatermark();
+        LocalDateTime tailFrom = null;
+        Map<String, BigDecimal[]> baseline = new HashMap<>();
+        if (watermark != null && (archivedThrough == null || !watermark.isBefore(archivedThrough))) {
+            tailFrom = watermark.plusDays(1).atStartOfDay();
+            baseline = snapshotRepository.findLatestClosing(watermark);
+        } else if (archivedThrough != null) {
+            tailFrom = liveFrom;
+            List<AccountOpeningBalance> openings = openingBalanceRepository.findByOpeningDate(archivedThrough.plusDays(1));
+            if (openings.isEmpty()) {
+                // Archiving stopped mid-period: the close snapshotted through the period end first
+                baseline = snapshotRepository.findLatestClosing(archivedThrough);
+            }
+            for (AccountOpeningBalance row : openings) {
+                baseline.put(row.getAccountCode(), new BigDecimal[]{row.getOpeningDebit(), row.getOpeningCredit()});
+            }
+        }
+
+        Map<String, BigDecimal[]> ledgerTotals = new HashMap<>();
+        mergeTotals(ledgerTotals, baseline);
+        LocalDateTime[] lineDates = integrityRepository.findLineDateBounds();
+        if (lineDates != null) {
+            LocalDateTime from = (tailFrom != null && tailFrom.isAfter(lineDates[0])) ? tailFrom : lineDates[0];
+            LocalDateTime to = lineDates[1].plusNanos(TIMESTAMP_RESOLUTION_NANOS);
+            if (from.isBefore(to)) {
+                mergeTotals(ledgerTotals, scanInParallel(from, to,
+                        snapshotRepository::sumLines, LedgerIntegrityService::mergeTotals, ranges));
+            }
+        }
+
+        // 3. Candidate drift against the recorded balances
+        List<String> candidates = new ArrayList<>();
+        for (Object[] row : integrityRepository.findAllBalances()) {
+            String code = (String) row[0];
+            BigDecimal ledger = ledgerBalance((String) row[2], ledgerTotals.get(code));
+            if (ledger.compareTo(recordedBalance(code, (BigDecimal) row[3])) != 0) candidates.add(code);
+        }
+
+        // 4. Re-check candidates against lines committed since the scan (and repair if asked)
+        List<AccountDrift> drifts = confirmDrift(candidates, baseline, tailFrom, repair);
+
+        checkpoint.setLastProcessedAt(postedBefore);
+        checkpointRepository.save(checkpoint);
+
+        LedgerVerificationReportDTO report = LedgerVerificationReportDTO.builder()
+                .fullScan(fullScan)
+                .repaired(repair && !drifts.isEmpty())
+                .entriesPostedAfter(postedAfter)
+                .entriesPostedBefore(postedBefore)
+                .rangesScanned(ranges.get())
+                .unbalancedEntries(unbalanced.stream().map(row -> UnbalancedEntry.builder()
+                        .entryId((UUID) row[0])
+                        .referenceNo((String) row[1])
+                        .totalDebit((BigDecimal) row[2])
+                        .totalCredit((BigDecimal) row[3])
+                        .lineCount((Long) row[4])
+                        .build()).toList())
+                .accountDrifts(drifts)
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+
+        if (report.getUnbalancedEntries().isEmpty() && drifts.isEmpty()) {
+            log.info("Ledger verified ({}): {} ranges in {} ms, no issues",
+                    fullScan ? "full" : "incremental", report.getRangesScanned(), report.getDurationMs());
+        } else {
+            log.warn("Ledger verification ({}) found {} unbalanced entries and {} drifted accounts{}",
+                    fullScan ? "full" : "incremental", report.getUnbalancedEntries().size(), drifts.size(),
+                    report.isRepaired() ? " (balances repaired)" : "");
+        }
+        return report;
+    }
+
+    private List<AccountDrift> confirmDrift(List<String> candidates, Map<String, BigDecimal[]> baseline,
+                                            LocalDateTime tailFrom, boolean repair) {
+        if (candidates.isEmpty()) return List.of();
+
+        // Lock first (repair) so postings in flight apply their deltas on top of the rewritten balance
+        Map<String, Object[]> rows = integrityRepository.findBalances(candidates, repair);
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        for (String code : candidates) {
+            BigDecimal[] base = baseline.get(code);
+            if (base != null) totals.put(code, base.clone());
+        }
+        mergeTotals(totals, integrityRepository.sumLinesForAccounts(candidates, tailFrom));
+
+        List<AccountDrift> drifts = new ArrayList<>();
+        Map<String, BigDecimal> rewrites = new TreeMap<>();
+        for (Object[] row : rows.values()) {
+            String code = (String) row[0];
+            BigDecimal pending = balanceUpdater.pendingDelta(code);
+            BigDecimal recorded = recordedBalance(code, (BigDecimal) row[3]);
+            BigDecimal ledger = ledgerBalance((String) row[2], totals.get(code));
+            if (ledger.compareTo(recorded) == 0) continue;
+
+            drifts.add(AccountDrift.builder()
+                    .accountCode(code)
+                    .accountName((String) row[1])
+                    .recordedBalance(recorded)
+                    .ledgerBalance(ledger)
+                    .difference(ledger.subtract(recorded))
+                    .build());
+            rewrites.put(code, ledger.subtract(pending));
+        }
+
+        if (repair && !rewrites.isEmpty()) {
+            integrityRepository.setBalances(rewrites);
+            log.warn("Rebuilt GL balances from journal lines for accounts {}", rewrites.keySet());
+        }
+        return drifts;
+    }
+
+    private BigDecimal recordedBalance(String code, BigDecimal balance) {
+        return (balance != null ? balance : BigDecimal.ZERO).add(balanceUpdater.pendingDelta(code));
+    }
+
+    private static BigDecimal ledgerBalance(String type, BigDecimal[] dc) {
+        if (dc == null) return BigDecimal.ZERO;
+        boolean debitNormal = "ASSET".equals(type) || "EXPENSE".equals(type);
+        return debitNormal ? dc[0].subtract(dc[1]) : dc[1].subtract(dc[0]);
+    }
+
+    // ========================================================================
+    // FORK/JOIN RANGE SCAN
+    // ========================================================================
+
+    private <R> R scanInParallel(LocalDateTime from, LocalDateTime to,
+                                 BiFunction<LocalDateTime, LocalDateTime, R> leaf,
+                                 BinaryOperator<R> merge, AtomicInteger ranges) {
+        Duration leafSpan = Duration.between(from, to).dividedBy((long) parallelism * RANGES_PER_WORKER);
+        if (leafSpan.compareTo(MIN_RANGE) < 0) leafSpan = MIN_RANGE;
+        return pool().invoke(new RangeTask<>(from, to, leafSpan, leaf, merge, ranges));
+    }
+
+    /**
+     * Halves [from, to) until the span is small enough, then runs the leaf query
+     */
+    private static final class RangeTask<R> extends RecursiveTask<R> {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final Duration leafSpan;
+        private final BiFunction<LocalDateTime, LocalDateTime, R> leaf;
+        private final BinaryOperator<R> merge;
+        private final AtomicInteger ranges;
+
+        RangeTask(LocalDateTime from, LocalDateTime to, Duration leafSpan,
+                  BiFunction<LocalDateTime, LocalDateTime, R> leaf, BinaryOperator<R> merge, AtomicInteger ranges) {
+            this.from = from;
+            this.to = to;
+            this.leafSpan = leafSpan;
+            this.leaf = leaf;
+            this.merge = merge;
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected R compute() {
+            Duration span = Duration.between(from, to);
+            if (span.compareTo(leafSpan) <= 0) {
+                ranges.incrementAndGet();
+                return leaf.apply(from, to);
+            }
+            LocalDateTime mid = from.plus(span.dividedBy(2));
+            RangeTask<R> left = new RangeTask<>(from, mid, leafSpan, leaf, merge, ranges);
+            RangeTask<R> right = new RangeTask<>(mid, to, leafSpan, leaf, merge, ranges);
+            left.fork();
+            R rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) pool = new ForkJoinPool(Math.max(1, parallelism));
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private static List<Object[]> concat(List<Object[]> a, List<Object[]> b) {
+        List<Object[]> all = new ArrayList<>(a.size() + b.size());
+        all.addAll(a);
+        all.addAll(b);
+        return all;
+    }
+
+    private static Map<String, BigDecimal[]> mergeTotals(Map<String, BigDecimal[]> into, Map<String, BigDecimal[]> from) {
+        from.forEach((code, dc) -> AccountBalanceSnapshotService.accumulate(into, code, dc[0], dc[1]));
+        return into;
+    }
+}
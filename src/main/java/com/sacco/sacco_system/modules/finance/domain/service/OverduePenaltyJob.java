@@ -0,0 +1,193 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.finance.api.dto.OverduePenaltyRunDTO;
+import com.sacco.sacco_system.modules.finance.domain.repository.PenaltyBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.PenaltyBatchRepository.OverdueLoan;
+import com.sacco.sacco_system.modules.finance.domain.repository.PenaltyBatchRepository.PenaltyRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Nightly late-payment penalties.
+ *
+ * Overdue loans are read from the open installments of loan_schedule in keyset pages of loan ids;
+ * each page is a partition written by a bounded worker pool in its own transaction, with the
+ * fines inserted as one JDBC batch. One run at a time per node (flag) and across nodes (advisory
+ * lock); a unique index on (loan, day) makes the run idempotent, so a re-run after a failed
+ * partition skips loans already fined that day.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverduePenaltyJob {
+
+    public static final String JOB_NAME = "LATE_PAYMENT_PENALTIES";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final PenaltyBatchRepository penaltyRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchJobRunner batchJobRunner;
+    private final AdvisoryLocks advisoryLocks;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.loans.penalty-partition-size:1000}")
+    private int partitionSize;
+
+    @Value("${app.loans.penalty-workers:4}")
+    private int workerCount;
+
+    @Value("${app.loans.penalty-period-days:30}")
+    private int penaltyPeriodDays;
+
+    @Scheduled(cron = "${app.loans.penalty-cron:0 50 0 * * *}")
+    public void penaliseToday() {
+        LocalDate today = LocalDate.now();
+        batchJobRunner.submit(JOB_NAME, () -> run(today));
+    }
+
+    public OverduePenaltyRunDTO run(LocalDate day) {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Penalty run already in progress");
+        }
+        try {
+            // The advisory lock (held for the run) keeps other nodes out; partitions commit in their own transactions
+            return transactionTemplate.execute(status -> {
+                if (!advisoryLocks.tryLockForTransaction(LOCK_KEY)) {
+                    throw new RuntimeException("Penalty run already in progress on another node");
+                }
+                return execute(day);
+            });
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private OverduePenaltyRunDTO execute(LocalDate day) {
+        long started = System.currentTimeMillis();
+        int workers = Math.max(1, workerCount);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        // Reader stays at most two partitions per worker ahead of the writers
+        Semaphore inFlight = new Semaphore(workers * 2);
+        AtomicInteger imposed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<BigDecimal> total = new AtomicReference<>(BigDecimal.ZERO);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        int overdue = 0;
+
+        try {
+            UUID cursor = null;
+            while (true) {
+                List<OverdueLoan> partition = penaltyRepository.findOverdueLoans(day, cursor, Math.max(1, partitionSize));
+                if (partition.isEmpty()) break;
+                cursor = partition.get(partition.size() - 1).getLoanId();
+                overdue += partition.size();
+
+                inFlight.acquireUninterruptibly();
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        BigDecimal charged = transactionTemplate.execute(status -> writePartition(partition, day, imposed));
+                        if (charged != null) total.accumulateAndGet(charged, BigDecimal::add);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.error("Penalty partition starting at loan {} failed, re-run to retry: {}",
+                                partition.get(0).getLoanId(), e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                }, pool));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        if (failed.get() == 0) {
+            transactionTemplate.executeWithoutResult(status -> {
+                JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                        .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+                checkpoint.setLastProcessedDate(day);
+                checkpoint.setLastProcessedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            });
+        }
+
+        OverduePenaltyRunDTO summary = OverduePenaltyRunDTO.builder()
+                .date(day)
+                .overdueLoans(overdue)
+                .finesImposed(imposed.get())
+                .totalPenalties(total.get())
+                .failedPartitions(failed.get())
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+        log.info("Late-payment penalties for {}: {} overdue loans, {} fines ({}), {} failed partitions in {} ms",
+                day, overdue, summary.getFinesImposed(), summary.getTotalPenalties(), failed.get(), summary.getDurationMs());
+        return summary;
+    }
+
+    private BigDecimal writePartition(List<OverdueLoan> partition, LocalDate day, AtomicInteger imposed) {
+        List<PenaltyRow> rows = new ArrayList<>(partition.size());
+        for (OverdueLoan loan : partition) {
+            BigDecimal amount = dailyPenalty(loan.getAmountOverdue(), loan.getPenaltyRate(), penaltyPeriodDays);
+            if (amount.signum() <= 0) continue;
+            int daysOverdue = (int) ChronoUnit.DAYS.between(loan.getOldestDueDate(), day);
+            rows.add(new PenaltyRow(loan.getMemberId(), loan.getLoanId(), amount,
+                    "Late payment penalty - " + loan.getLoanNumber() + " (" + daysOverdue + " days overdue)", daysOverdue));
+        }
+        if (rows.isEmpty()) return BigDecimal.ZERO;
+
+        int[] inserted = penaltyRepository.insertFines(rows, day, LocalDateTime.now());
+        BigDecimal charged = BigDecimal.ZERO;
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] > 0) {
+                charged = charged.add(rows.get(i).getAmount());
+                imposed.incrementAndGet();
+            }
+        }
+        return charged;
+    }
+
+    /**
+     * One day's penalty on an overdue amount with the configured penalty period
+     */
+    public BigDecimal dailyPenalty(BigDecimal amountOverdue, BigDecimal penaltyRate) {
+        return dailyPenalty(amountOverdue, penaltyRate, penaltyPeriodDays);
+    }
+
+    /**
+     * One day's penalty: penaltyRate is a percentage of the amount overdue per penalty period
+     * (app.loans.penalty-period-days), charged a day at a time
+     */
+    public static BigDecimal dailyPenalty(BigDecimal amountOverdue, BigDecimal penaltyRate, int periodDays) {
+        if (amountOverdue == null || penaltyRate == null || amountOverdue.signum() <= 0 || penaltyRate.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return amountOverdue.multiply(penaltyRate)
+                .divide(HUNDRED.multiply(BigDecimal.valueOf(Math.max(1, periodDays))), 2, RoundingMode.HALF_UP);
+    }
+}
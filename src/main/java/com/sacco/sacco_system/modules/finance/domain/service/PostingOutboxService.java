@@ -0,0 +1,315 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlPostingOutbox;
+import com.sacco.sacco_system.modules.finance.domain.repository.GlPostingOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Transactional outbox in front of AccountingService for member-facing postings.
+ *
+ * With app.accounting.async-posting=false (default) postEvent posts straight to the GL,
+ * exactly as before. With it on, postEvent only writes a compact intent row inside the
+ * caller's transaction, and a single-flight worker drains the outbox in id order into
+ * postBatch. If the batch post throws, the rows are re-posted one at a time so the failing
+ * intent can be isolated; it is retried with backoff and parked as FAILED after
+ * app.accounting.outbox-max-attempts, while later intents for the same reference wait behind
+ * it so a transaction's postings still land in order. Everything else carries on, and a tick
+ * pages past deferred rows (keyset on id) rather than re-reading them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostingOutboxService {
+
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf("GL_POSTING_OUTBOX");
+    private static final int MAX_ROUNDS_PER_TICK = 20;
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final GlPostingOutboxRepository outboxRepository;
+    private final AccountingService accountingService;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.accounting.async-posting:false}")
+    private boolean asyncPosting;
+
+    @Value("${app.accounting.outbox-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.accounting.outbox-max-attempts:10}")
+    private int maxAttempts;
+
+    // ========================================================================
+    // 1. WRITE SIDE (same signatures as AccountingService.postEvent)
+    // ========================================================================
+
+    @Transactional
+    public void postEvent(String eventName, String description, String referenceNo, BigDecimal amount, String overrideDebitAccount, String overrideCreditAccount) {
+        if (!asyncPosting) {
+            accountingService.postEvent(eventName, description, referenceNo, amount, overrideDebitAccount, overrideCreditAccount);
+            return;
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Posting amount must be positive: " + description);
+        }
+        outboxRepository.save(GlPostingOutbox.builder()
+                .eventName(eventName)
+                .description(description)
+                .referenceNo(referenceNo)
+                .amount(amount)
+                .debitAccountCode(blankToNull(overrideDebitAccount))
+                .creditAccountCode(blankToNull(overrideCreditAccount))
+                .transactionDate(LocalDateTime.now())
+                .build());
+    }
+
+    public void postEvent(String eventName, String description, String referenceNo, BigDecimal amount, String overrideDebitAccount) {
+        postEvent(eventName, description, referenceNo, amount, overrideDebitAccount, null);
+    }
+
+    public void postEvent(String eventName, String description, String referenceNo, BigDecimal amount) {
+        postEvent(eventName, description, referenceNo, amount, null, null);
+    }
+
+    public boolean isAsync() {
+        return asyncPosting;
+    }
+
+    public long countPending() {
+        return outboxRepository.countByStatus(GlPostingOutbox.Status.PENDING);
+    }
+
+    // ========================================================================
+    // 2. WORKER
+    // ========================================================================
+
+    /**
+     * Drain the outbox in batches. Also runs after a switch back to synchronous posting
+     * so intents written while async was on are never stranded.
+     */
+    @Scheduled(fixedDelayString = "${app.accounting.outbox-poll-interval-ms:500}")
+    public void drain() {
+        if (!asyncPosting && outboxRepository.countByStatus(GlPostingOutbox.Status.PENDING) == 0) return;
+
+        // Keys held back by a deferred or failing intent stay blocked for the rest of the tick
+        Set<String> blocked = new HashSet<>();
+        long afterId = 0;
+        for (int round = 0; round < MAX_ROUNDS_PER_TICK; round++) {
+            long from = afterId;
+            Set<String> pageBlocked = new HashSet<>(blocked);
+            Long lastId;
+            try {
+                lastId = transactionTemplate.execute(status -> drainBatch(from, pageBlocked));
+            } catch (Exception e) {
+                // The batch post rolled back as a whole; find the offending rows one by one
+                log.warn("GL outbox batch failed, posting rows individually: {}", e.getMessage());
+                drainIndividually(from, blocked);
+                return;
+            }
+            if (lastId == null) return;
+            blocked = pageBlocked;
+            afterId = lastId;
+        }
+    }
+
+    /**
+     * One page of pending rows after the given id, in one transaction. Returns the last id looked at
+     * when the page was full (more may follow), null when done or another node holds the lock.
+     */
+    private Long drainBatch(long afterId, Set<String> blocked) {
+        if (!advisoryLocks.tryLockForTransaction(LOCK_KEY)) return null;
+
+        List<GlPostingOutbox> rows = outboxRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                GlPostingOutbox.Status.PENDING, afterId, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) return null;
+
+        List<AccountingService.PostingRequest> requests = new ArrayList<>(rows.size());
+        for (GlPostingOutbox row : rows) requests.add(toRequest(row));
+        List<String> problems = accountingService.findPostingProblems(requests);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<GlPostingOutbox> ready = new ArrayList<>();
+        List<AccountingService.PostingRequest> readyRequests = new ArrayList<>();
+        int failed = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            GlPostingOutbox row = rows.get(i);
+            List<String> keys = orderingKeys(requests.get(i));
+
+            if (isDeferred(row, keys, blocked, now)) {
+                blocked.addAll(keys);
+                continue;
+            }
+
+            String problem = problems.get(i);
+            if (problem != null) {
+                markAttemptFailed(row, problem, now);
+                if (row.getStatus() == GlPostingOutbox.Status.PENDING) blocked.addAll(keys);
+                failed++;
+                continue;
+            }
+
+            ready.add(row);
+            readyRequests.add(requests.get(i));
+        }
+
+        if (!readyRequests.isEmpty()) {
+            accountingService.postBatch(readyRequests);
+            for (GlPostingOutbox row : ready) markPosted(row, now);
+        }
+        outboxRepository.saveAll(rows);
+
+        log.debug("GL outbox drained: {} posted, {} failed, {} deferred",
+                ready.size(), failed, rows.size() - ready.size() - failed);
+        return rows.size() < batchSize ? null : rows.get(rows.size() - 1).getId();
+    }
+
+    /**
+     * Fallback after a failed batch: each pending row is posted in its own transaction, and a
+     * row that fails has its attempt recorded in a separate transaction, so one bad intent backs
+     * off (and is eventually parked as FAILED) instead of blocking everything queued behind it.
+     */
+    private void drainIndividually(long afterId, Set<String> blocked) {
+        List<Long> ids = transactionTemplate.execute(status -> outboxRepository
+                .findByStatusAndIdGreaterThanOrderByIdAsc(GlPostingOutbox.Status.PENDING, afterId, PageRequest.of(0, batchSize))
+                .stream().map(GlPostingOutbox::getId).toList());
+        if (ids == null) return;
+
+        int posted = 0;
+        int failed = 0;
+        for (Long id : ids) {
+            try {
+                Boolean done = transactionTemplate.execute(status -> postIndividually(id, blocked));
+                if (done == null) return; // another node holds the outbox
+                if (done) posted++;
+            } catch (Exception e) {
+                failed++;
+                recordFailure(id, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), blocked);
+            }
+        }
+        log.info("GL outbox individual drain: {} posted, {} failed of {}", posted, failed, ids.size());
+    }
+
+    /**
+     * Post one intent. Returns true if posted, false if skipped or failed validation, null if the lock is held elsewhere.
+     */
+    private Boolean postIndividually(Long id, Set<String> blocked) {
+        if (!advisoryLocks.tryLockForTransaction(LOCK_KEY)) return null;
+
+        GlPostingOutbox row = outboxRepository.findById(id).orElse(null);
+        if (row == null || row.getStatus() != GlPostingOutbox.Status.PENDING) return false;
+
+        LocalDateTime now = LocalDateTime.now();
+        AccountingService.PostingRequest request = toRequest(row);
+        List<String> keys = orderingKeys(request);
+        if (isDeferred(row, keys, blocked, now)) {
+            blocked.addAll(keys);
+            return false;
+        }
+
+        String problem = accountingService.findPostingProblems(List.of(request)).get(0);
+        if (problem != null) {
+            markAttemptFailed(row, problem, now);
+            if (row.getStatus() == GlPostingOutbox.Status.PENDING) blocked.addAll(keys);
+            outboxRepository.save(row);
+            return false;
+        }
+
+        accountingService.postBatch(List.of(request));
+        markPosted(row, now);
+        outboxRepository.save(row);
+        return true;
+    }
+
+    /**
+     * Record a failed attempt in its own transaction (the posting's transaction has rolled back)
+     */
+    private void recordFailure(Long id, String error, Set<String> blocked) {
+        try {
+            requiresNew().executeWithoutResult(status -> outboxRepository.findById(id).ifPresent(row -> {
+                markAttemptFailed(row, error, LocalDateTime.now());
+                outboxRepository.save(row);
+                if (row.getStatus() == GlPostingOutbox.Status.PENDING) blocked.addAll(orderingKeys(toRequest(row)));
+            }));
+        } catch (Exception e) {
+            log.error("Could not record GL outbox failure for intent {}: {}", id, e.getMessage());
+        }
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private static boolean isDeferred(GlPostingOutbox row, List<String> keys, Set<String> blocked, LocalDateTime now) {
+        boolean waiting = row.getNextAttemptAt() != null && row.getNextAttemptAt().isAfter(now);
+        return waiting || keys.stream().anyMatch(blocked::contains);
+    }
+
+    private static void markPosted(GlPostingOutbox row, LocalDateTime now) {
+        row.setStatus(GlPostingOutbox.Status.POSTED);
+        row.setPostedAt(now);
+        row.setLastError(null);
+    }
+
+    private void markAttemptFailed(GlPostingOutbox row, String error, LocalDateTime now) {
+        row.setAttempts(row.getAttempts() + 1);
+        row.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (row.getAttempts() >= maxAttempts) {
+            row.setStatus(GlPostingOutbox.Status.FAILED);
+            log.error("GL outbox intent {} failed permanently after {} attempts: {}", row.getId(), row.getAttempts(), error);
+        } else {
+            long backoff = Math.min(1L << Math.min(row.getAttempts(), 20), MAX_BACKOFF_SECONDS);
+            row.setNextAttemptAt(now.plusSeconds(backoff));
+            log.warn("GL outbox intent {} failed (attempt {}), retrying in {}s: {}", row.getId(), row.getAttempts(), backoff, error);
+        }
+    }
+
+    /**
+     * What a failing intent holds back. Journal entries carry the intent's business time and
+     * balances are sums, so only one transaction's own intents (same reference) need to post in
+     * order; keying by event or by hot control accounts would stall every deposit behind one bad
+     * row. Intents without a reference fall back to the GL accounts they would post to.
+     */
+    private List<String> orderingKeys(AccountingService.PostingRequest request) {
+        if (request.getReferenceNo() != null && !request.getReferenceNo().isEmpty()) {
+            return List.of("reference:" + request.getReferenceNo());
+        }
+        List<String> keys = new ArrayList<>(2);
+        for (String account : accountingService.findAffectedAccounts(request)) keys.add("account:" + account);
+        return keys;
+    }
+
+    private AccountingService.PostingRequest toRequest(GlPostingOutbox row) {
+        return AccountingService.PostingRequest.builder()
+                .eventName(row.getEventName())
+                .description(row.getDescription())
+                .referenceNo(row.getReferenceNo())
+                .amount(row.getAmount())
+                .debitAccountCode(row.getDebitAccountCode())
+                .creditAccountCode(row.getCreditAccountCode())
+                .transactionDate(row.getTransactionDate())
+                .build();
+    }
+
+    private static String blankToNull(String value) {
+        return (value == null || value.isEmpty()) ? null : value;
+    }
+}
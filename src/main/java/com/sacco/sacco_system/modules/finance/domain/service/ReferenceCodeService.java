@@ -1,12 +1,20 @@
 package com.sacco.sacco_system.modules.finance.domain.service;
 
-import lombok.RequiredArgsConstructor;
+import com.sacco.sacco_system.modules.core.util.NodeIdentity;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceCodeSequenceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceCodeSequenceRepository.Reservation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Centralized Reference Code Generator
@@ -20,12 +28,16 @@ import java.time.LocalDateTime;
  *   - P = Year offset from 2000 in Base36 (2025-2000=25='P')
  *   - C = Month in Base36 (12='C')
  *   - M = Day in Base36 (22='M')
- * - Random (8 chars): 7K9H2R5X (cryptographically secure)
+ * - Suffix (8 chars): 7K9H2R5X = node + scrambled daily sequence + secure random bits
  * 
  * Benefits:
  * - Compact and easy to communicate verbally
  * - Sortable by date (year/month/day)
- * - Non-guessable (random suffix)
+ * - Unique per node and day (sequence), not sequential-looking (scrambled, random bits)
+ * - Survives restarts: the day's sequence is reserved in blocks in reference_code_sequences
+ *   and the scramble is seeded from the same row, so a restarted node never reissues a code
+ * - Each block is reserved in its own short transaction, so the sequence row is never locked
+ *   for the length of a caller's posting and a rolled-back caller cannot undo a reservation
  * - No separators (easier to type)
  * 
  * These reference codes are displayed in:
@@ -42,63 +54,191 @@ public class ReferenceCodeService {
     private static final int BASE_YEAR = 2000; // Year offset base
     // Using alphanumeric chars excluding confusing ones: 0, O, 1, I
     private static final String ALPHANUMERIC = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
-    
-    private final SecureRandom secureRandom = new SecureRandom();
+    private static final char[] SYMBOLS = ALPHANUMERIC.toCharArray();
+
+    // Suffix = 8 symbols x 5 bits = 40 bits: node (5) | scrambled daily sequence (25) | random (10)
+    private static final int NODE_BITS = NodeIdentity.NODE_BITS;
+    private static final int SEQUENCE_BITS = 25;
+    private static final int RANDOM_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int RANDOM_BUFFER_BYTES = 512;
+    private static final long BLOCK_SIZE = 10_000;
+    private static final int KEEP_DAYS = 7;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final ThreadLocal<RandomBuffer> RANDOM = ThreadLocal.withInitial(RandomBuffer::new);
+
+    private final NodeIdentity nodeIdentity;
+    private final ReferenceCodeSequenceRepository sequenceRepository;
+    private final TransactionTemplate reservations;
+    private final AtomicLong lastTransactionId = new AtomicLong();
+    private final AtomicReference<Day> currentDay = new AtomicReference<>();
+
+    public ReferenceCodeService(NodeIdentity nodeIdentity, ReferenceCodeSequenceRepository sequenceRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.nodeIdentity = nodeIdentity;
+        this.sequenceRepository = sequenceRepository;
+        this.reservations = new TransactionTemplate(transactionManager);
+        this.reservations.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
-     * Generate next unique reference code
-     * Thread-safe using synchronized and SecureRandom for cryptographic randomness
-     * 
+     * Generate next unique reference code. Lock-free apart from one block reservation every
+     * 10,000 codes: the date prefix is cached per day, the sequence is an atomic counter and
+     * random bits come from a per-thread buffer. Unique for 2^25 codes per node a day.
+     *
      * @return Unique reference code (e.g., PCM7K9H2R5X)
      */
-    @Transactional
-    public synchronized String generateReferenceCode() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // Encode date in Base36 (3 characters)
-        String dateEncoded = encodeDateBase36(now);
-        
-        // Generate cryptographically secure random suffix (8 characters)
-        String randomSuffix = generateRandomString(RANDOM_LENGTH);
-        
-        // Combine: PCM7K9H2R5X (11 chars total)
-        String referenceCode = dateEncoded + randomSuffix;
-        
-        log.debug("Generated reference code: {} (Date: {}-{}-{})", 
-                  referenceCode, now.getYear(), now.getMonthValue(), now.getDayOfMonth());
-        return referenceCode;
+    public String generateReferenceCode() {
+        Day day = today();
+        long sequence = day.sequence.getAndIncrement();
+        if (sequence >= day.reservedThrough) reserveThrough(day, sequence);
+        if (sequence == SEQUENCE_MASK + 1) {
+            log.warn("Reference code sequence for {} wrapped; codes are no longer guaranteed unique today", day.date);
+        }
+
+        long bits = ((long) day.node << (SEQUENCE_BITS + RANDOM_BITS))
+                | (day.scramble(sequence & SEQUENCE_MASK) << RANDOM_BITS)
+                | RANDOM.get().nextBits(RANDOM_BITS);
+
+        char[] code = new char[3 + RANDOM_LENGTH];
+        code[0] = day.prefix[0];
+        code[1] = day.prefix[1];
+        code[2] = day.prefix[2];
+        for (int i = code.length - 1; i >= 3; i--) {
+            code[i] = SYMBOLS[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        return new String(code);
+    }
+
+    /**
+     * Process-unique transaction id: "TXN" + microsecond-scale clock + two-digit node.
+     * The clock part is strictly increasing within the process (it runs ahead of the clock if
+     * more than 1000 ids are taken in a millisecond), replacing "TXN" + currentTimeMillis().
+     */
+    public String nextTransactionId() {
+        long candidate = System.currentTimeMillis() * 1000;
+        long id = lastTransactionId.accumulateAndGet(candidate, (last, now) -> Math.max(last + 1, now));
+        int node = nodeIdentity.getNodeId();
+        return "TXN" + id + (node < 10 ? "0" : "") + node;
+    }
+
+    private Day today() {
+        Day day = currentDay.get();
+        if (day != null && System.currentTimeMillis() < day.endMillis && day.node == nodeIdentity.getNodeId()) return day;
+        return startDay();
+    }
+
+    /**
+     * New day (or new node number): reserve the first block, which also fixes the day's scramble seed
+     */
+    private synchronized Day startDay() {
+        Day day = currentDay.get();
+        LocalDate date = LocalDate.now();
+        int node = nodeIdentity.getNodeId();
+        // Only ever move forward, so a day's sequence is never restarted
+        if (day != null && day.node == node && !date.isAfter(day.date)) return day;
+
+        Reservation reservation = reserve(node, date, SECURE_RANDOM.nextLong());
+        Day fresh = new Day(date, node, reservation);
+        currentDay.set(fresh);
+        if (day == null || date.isAfter(day.date)) {
+            reservations.executeWithoutResult(status -> sequenceRepository.deleteBefore(date.minusDays(KEEP_DAYS)));
+        }
+        return fresh;
+    }
+
+    private void reserveThrough(Day day, long sequence) {
+        synchronized (day) {
+            while (day.reservedThrough <= sequence) {
+                Reservation reservation = reserve(day.node, day.date, day.seed);
+                if (reservation.getReservedThrough() - BLOCK_SIZE != day.reservedThrough) {
+                    log.error("Reference code block for node {} on {} was also reserved elsewhere; is app.node-id shared?", day.node, day.date);
+                }
+                day.reservedThrough = reservation.getReservedThrough();
+            }
+        }
     }
-    
+
+    /**
+     * Reserve the next block and commit it straight away, whatever transaction the caller is in
+     */
+    private Reservation reserve(int node, LocalDate date, long seed) {
+        return reservations.execute(status -> sequenceRepository.reserve(node, date, seed, BLOCK_SIZE));
+    }
+
     /**
      * Encode date as 3-character Base36 string
      * Format: YMD where Y=year offset, M=month, D=day
      * Example: 2025-12-22 → PCM (P=25, C=12, M=22)
      */
-    private String encodeDateBase36(LocalDateTime dateTime) {
-        int yearOffset = dateTime.getYear() - BASE_YEAR; // 2025 - 2000 = 25
-        int month = dateTime.getMonthValue(); // 1-12
-        int day = dateTime.getDayOfMonth(); // 1-31
-        
+    private static char[] encodeDateBase36(LocalDate date) {
+        int yearOffset = date.getYear() - BASE_YEAR; // 2025 - 2000 = 25
+        int month = date.getMonthValue(); // 1-12
+        int day = date.getDayOfMonth(); // 1-31
+
         // Convert to Base36 (0-9, A-Z)
-        char yearChar = Character.forDigit(yearOffset, 36);
-        char monthChar = Character.forDigit(month, 36);
-        char dayChar = Character.forDigit(day, 36);
-        
-        return String.valueOf(yearChar).toUpperCase() 
-             + String.valueOf(monthChar).toUpperCase()
-             + String.valueOf(dayChar).toUpperCase();
+        return new char[] {
+                Character.toUpperCase(Character.forDigit(yearOffset, 36)),
+                Character.toUpperCase(Character.forDigit(month, 36)),
+                Character.toUpperCase(Character.forDigit(day, 36))
+        };
     }
 
     /**
-     * Generates a cryptographically secure random alphanumeric string
+     * One calendar day on one node: its prefix, its sequence (continuing after blocks reserved
+     * before a restart), and a seeded bijection over the sequence space so consecutive codes do
+     * not look consecutive
      */
-    private String generateRandomString(int length) {
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            int randomIndex = secureRandom.nextInt(ALPHANUMERIC.length());
-            sb.append(ALPHANUMERIC.charAt(randomIndex));
+    private static final class Day {
+        private final LocalDate date;
+        private final int node;
+        private final long endMillis;
+        private final char[] prefix;
+        private final AtomicLong sequence;
+        private volatile long reservedThrough;
+        private final long seed;
+        private final long multiplier;
+        private final long key;
+
+        Day(LocalDate date, int node, Reservation reservation) {
+            this.date = date;
+            this.node = node;
+            this.endMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            this.prefix = encodeDateBase36(date);
+            this.sequence = new AtomicLong(reservation.getReservedThrough() - BLOCK_SIZE);
+            this.reservedThrough = reservation.getReservedThrough();
+            this.seed = reservation.getSeed();
+            // Same seed after a restart, so the scramble stays the same bijection all day
+            SplittableRandom random = new SplittableRandom(seed);
+            this.multiplier = random.nextLong() | 1; // odd, so multiplication is invertible
+            this.key = random.nextLong() & SEQUENCE_MASK;
+        }
+
+        long scramble(long value) {
+            long x = (value * multiplier) & SEQUENCE_MASK;
+            x ^= x >>> 13;
+            return ((x * multiplier) & SEQUENCE_MASK) ^ key;
+        }
+    }
+
+    /**
+     * Random bytes pulled from SecureRandom in blocks, so most calls touch no shared state
+     */
+    private static final class RandomBuffer {
+        private final byte[] bytes = new byte[RANDOM_BUFFER_BYTES];
+        private int position = RANDOM_BUFFER_BYTES;
+
+        long nextBits(int count) {
+            if (position + 2 > bytes.length) {
+                SECURE_RANDOM.nextBytes(bytes);
+                position = 0;
+            }
+            int value = ((bytes[position] & 0xFF) << 8) | (bytes[position + 1] & 0xFF);
+            position += 2;
+            return value & ((1 << count) - 1);
         }
-        return sb.toString();
     }
 
     /**
@@ -113,8 +253,8 @@ public class ReferenceCodeService {
         }
         
         // Check format: YMD + 8 random chars = 11 total chars
-        // Pattern: 3 alphanumeric (date) + 8 alphanumeric (random)
-        String pattern = "^[A-Z2-9]{11}$";
+        // Pattern: 3 base36 (date, e.g. '1' for January) + 8 alphanumeric (random)
+        String pattern = "^[0-9A-Z]{3}[A-Z2-9]{8}$";
         return referenceCode.matches(pattern);
     }
 
@@ -135,7 +275,6 @@ public class ReferenceCodeService {
      * Kept for backward compatibility
      */
     @Deprecated
-    @Transactional
     public void resetCounter(long startValue) {
         log.warn("resetCounter() is deprecated - reference codes are now timestamp+random based");
     }
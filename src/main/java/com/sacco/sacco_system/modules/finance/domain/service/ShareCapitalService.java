@@ -4,6 +4,7 @@ import com.sacco.sacco_system.modules.finance.domain.entity.ShareCapital;
 import com.sacco.sacco_system.modules.finance.domain.repository.ShareCapitalRepository;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
 import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,12 +31,14 @@ public class ShareCapitalService {
     private final MemberRepository memberRepository;
     private final AccountingService accountingService;
     private final SystemSettingService systemSettingService;
+    private final MemberLockService memberLockService;
 
     /**
      * Purchase shares for a member
      * Creates journal entry: DEBIT Cash, CREDIT Share Capital
      */
     public ShareCapital purchaseShares(UUID memberId, BigDecimal amount, String paymentReference) {
+        memberLockService.lock(memberId);
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
@@ -0,0 +1,65 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory per-account balance delta slots (in cents).
+ * Each account gets a LongAdder, which stripes concurrent adds across cells,
+ * so writers to the same hot account never contend on a single row or lock.
+ * Pending deltas are drained and folded into gl_accounts by GlBalanceUpdater.
+ */
+public class StripedBalanceAccumulator {
+
+    private final ConcurrentHashMap<String, LongAdder> slots = new ConcurrentHashMap<>();
+
+    public void add(String accountCode, long cents) {
+        if (cents == 0) return;
+        slots.computeIfAbsent(accountCode, k -> new LongAdder()).add(cents);
+    }
+
+    public void add(String accountCode, BigDecimal amount) {
+        add(accountCode, toCents(amount));
+    }
+
+    /**
+     * Pending (not yet folded) delta for an account
+     */
+    public long pending(String accountCode) {
+        LongAdder slot = slots.get(accountCode);
+        return slot == null ? 0L : slot.sum();
+    }
+
+    /**
+     * Take every non-zero pending delta, ordered by account code.
+     * sumThenReset swaps each cell to zero individually, so an add racing the drain
+     * is either included here or left behind for the next drain - never lost.
+     */
+    public Map<String, Long> drain() {
+        Map<String, Long> drained = new TreeMap<>();
+        slots.forEach((code, slot) -> {
+            long cents = slot.sumThenReset();
+            if (cents != 0) drained.put(code, cents);
+        });
+        return drained;
+    }
+
+    /**
+     * Put drained deltas back, e.g. after a failed fold
+     */
+    public void restore(Map<String, Long> drained) {
+        drained.forEach(this::add);
+    }
+
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
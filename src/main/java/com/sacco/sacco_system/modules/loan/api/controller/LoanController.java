@@ -3,19 +3,23 @@ package com.sacco.sacco_system.modules.loan.api.controller;
 import com.sacco.sacco_system.modules.core.dto.ApiResponse;
 import com.sacco.sacco_system.modules.loan.api.dto.LoanRequestDTO;
 import com.sacco.sacco_system.modules.loan.domain.entity.LoanProduct;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorExposureService;
 import com.sacco.sacco_system.modules.loan.domain.service.LoanApplicationService;
 import com.sacco.sacco_system.modules.loan.domain.service.LoanEligibilityService;
 import com.sacco.sacco_system.modules.loan.domain.service.LoanProductService;
 import com.sacco.sacco_system.modules.loan.domain.service.LoanReadService;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleService;
 import com.sacco.sacco_system.modules.users.domain.entity.User;
 import com.sacco.sacco_system.modules.users.domain.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,6 +32,8 @@ public class LoanController {
     private final LoanApplicationService applicationService;
     private final LoanReadService readService;
     private final LoanProductService productService;
+    private final LoanScheduleService scheduleService;
+    private final GuarantorExposureService exposureService;
     private final UserService userService;
 
     // --- 1. Dashboard & Member Data ---
@@ -134,8 +140,31 @@ public class LoanController {
 
     @PostMapping("/{loanId}/disburse")
     public ResponseEntity<ApiResponse<Object>> disburse(@PathVariable UUID loanId, @RequestParam(required = false) String checkNumber) {
-        // In future: applicationService.disburseLoan(loanId, checkNumber);
-        return ResponseEntity.ok(new ApiResponse<>(true, "Funds Disbursed"));
+        applicationService.disburseLoan(loanId, checkNumber);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Funds Disbursed", scheduleService.getSchedule(loanId)));
+    }
+
+    // --- Repayment Schedule ---
+
+    @GetMapping("/{loanId}/schedule")
+    public ResponseEntity<ApiResponse<Object>> getSchedule(@PathVariable UUID loanId) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Schedule fetched", scheduleService.getSchedule(loanId)));
+    }
+
+    /**
+     * Open installments due on or before the date (default today), overdue first.
+     * Next page: pass the last row's dueDate, loanId and installmentNo as after*.
+     */
+    @GetMapping("/schedule/due")
+    public ResponseEntity<ApiResponse<Object>> getDueInstallments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+            @RequestParam(required = false) UUID afterLoanId,
+            @RequestParam(required = false) Integer afterInstallmentNo,
+            @RequestParam(defaultValue = "200") int limit) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(new ApiResponse<>(true, "Due installments fetched",
+                scheduleService.getDueThrough(day, afterDueDate, afterLoanId, afterInstallmentNo, limit)));
     }
 
     // --- 5. Voting & Requests Data ---
@@ -152,6 +181,32 @@ public class LoanController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Requests fetched", readService.getGuarantorRequests(user.getEmail())));
     }
 
+    @PostMapping("/guarantors/{requestId}/respond")
+    public ResponseEntity<ApiResponse<Object>> respondToGuarantee(@PathVariable UUID requestId,
+                                                                  @RequestBody Map<String, Boolean> body,
+                                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        boolean accept = Boolean.TRUE.equals(body.get("accept"));
+        applicationService.respondToGuarantee(requestId, userDetails.getUsername(), accept);
+        return ResponseEntity.ok(new ApiResponse<>(true, accept ? "Guarantee Accepted" : "Guarantee Declined"));
+    }
+
+    // Members who qualify to guarantee the caller's loan, most free capacity first
+    @GetMapping("/guarantors/candidates")
+    public ResponseEntity<ApiResponse<Object>> findGuarantorCandidates(@AuthenticationPrincipal UserDetails userDetails,
+                                                                       @RequestParam(required = false) BigDecimal minSavings,
+                                                                       @RequestParam(required = false) Integer minMonths,
+                                                                       @RequestParam(required = false) Integer maxActiveGuarantees,
+                                                                       @RequestParam(required = false) BigDecimal amount,
+                                                                       @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Candidates fetched", exposureService.findCandidates(
+                userDetails.getUsername(), minSavings, minMonths, maxActiveGuarantees, amount, limit)));
+    }
+
+    @GetMapping("/guarantors/exposure/{memberId}")
+    public ResponseEntity<ApiResponse<Object>> getGuarantorExposure(@PathVariable UUID memberId) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Exposure fetched", exposureService.getExposure(memberId)));
+    }
+
     @PostMapping("/{loanId}/vote")
     public ResponseEntity<ApiResponse<Object>> voteOnLoan(@PathVariable UUID loanId, @RequestBody Map<String, Boolean> body) {
         return ResponseEntity.ok(new ApiResponse<>(true, "Vote Cast"));
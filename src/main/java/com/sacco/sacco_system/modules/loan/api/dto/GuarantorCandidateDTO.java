@@ -0,0 +1,20 @@
+package com.sacco.sacco_system.modules.loan.api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+public class GuarantorCandidateDTO {
+    private UUID memberId;
+    private String memberNumber;
+    private String fullName;
+    private BigDecimal totalSavings;
+    private long membershipMonths;
+    private int activeGuarantees;
+    private BigDecimal outstandingGuaranteed;
+    private BigDecimal remainingCapacity; // savings x MAX_GUARANTOR_LIMIT_RATIO less outstanding guarantees
+}
@@ -0,0 +1,19 @@
+package com.sacco.sacco_system.modules.loan.api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@Builder
+public class GuarantorExposureDTO {
+    private UUID memberId;
+    private BigDecimal totalSavings;
+    private BigDecimal totalGuaranteed;       // accepted guarantees on loans not yet finished
+    private BigDecimal outstandingGuaranteed; // share of those loans still owed
+    private int activeGuarantees;
+    private BigDecimal guaranteeLimit;        // savings x MAX_GUARANTOR_LIMIT_RATIO
+    private BigDecimal remainingCapacity;
+}
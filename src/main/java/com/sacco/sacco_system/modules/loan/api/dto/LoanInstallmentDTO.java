@@ -0,0 +1,26 @@
+package com.sacco.sacco_system.modules.loan.api.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+public class LoanInstallmentDTO {
+    private UUID loanId;
+    private String loanNumber;
+    private UUID memberId;
+    private int installmentNo;
+    private LocalDate dueDate;
+    private BigDecimal principalDue;
+    private BigDecimal interestDue;
+    private BigDecimal totalDue;
+    private BigDecimal amountPaid;
+    private BigDecimal amountOutstanding;
+    private String status; // PENDING, PARTIAL, PAID
+    private LocalDate paidDate;
+    private long daysOverdue;
+}
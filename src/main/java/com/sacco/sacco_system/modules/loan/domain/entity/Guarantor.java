@@ -28,5 +28,8 @@ public class Guarantor {
     @Enumerated(EnumType.STRING)
     private GuarantorStatus status;
 
+    // Share of the guarantee still at risk; null unless accepted on a loan not yet paid off
+    private BigDecimal exposure;
+
     public enum GuarantorStatus { PENDING, ACCEPTED, DECLINED }
 }
\ No newline at end of file
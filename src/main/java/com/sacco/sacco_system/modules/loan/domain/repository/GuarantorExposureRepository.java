@@ -0,0 +1,184 @@
+package com.sacco.sacco_system.modules.loan.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * JDBC access for guarantor_exposures and the per-guarantee exposure on loan_guarantors,
+ * plus the candidate rows behind the guarantor match index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class GuarantorExposureRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * A member's ledger row with their savings (members row), read in one query
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Exposure {
+        private final UUID memberId;
+        private final BigDecimal totalSavings;
+        private final BigDecimal totalGuaranteed;
+        private final BigDecimal outstandingGuaranteed;
+        private final int activeGuarantees;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class GuaranteeLine {
+        private final UUID guarantorId;
+        private final UUID loanId;
+        private final UUID memberId;
+        private final BigDecimal guaranteeAmount;
+        private final BigDecimal exposure;
+        private final BigDecimal repayable; // principal plus scheduled interest (principal if no schedule)
+    }
+
+    /**
+     * Signed change to one member's ledger row
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Delta {
+        private final UUID memberId;
+        private final BigDecimal totalGuaranteed;
+        private final BigDecimal outstandingGuaranteed;
+        private final int activeGuarantees;
+    }
+
+    /**
+     * An active member as a potential guarantor (savings, join date and ledger standing)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class CandidateRow {
+        private final UUID memberId;
+        private final String memberNumber;
+        private final String fullName;
+        private final BigDecimal totalSavings;
+        private final LocalDate joinedOn;
+        private final int activeGuarantees;
+        private final BigDecimal outstandingGuaranteed;
+    }
+
+    private static final String CANDIDATE_SELECT =
+            "SELECT m.id, m.member_number, m.first_name, m.last_name, m.total_savings, " +
+            "COALESCE(m.registration_date, m.created_at) AS joined, e.active_guarantees, e.outstanding_guaranteed " +
+            "FROM members m LEFT JOIN guarantor_exposures e ON e.member_id = m.id WHERE m.status = 'ACTIVE' ";
+
+    public Optional<Exposure> find(UUID memberId) {
+        List<Exposure> rows = jdbcTemplate.query(
+                "SELECT m.id, m.total_savings, e.total_guaranteed, e.outstanding_guaranteed, e.active_guarantees " +
+                "FROM members m LEFT JOIN guarantor_exposures e ON e.member_id = m.id WHERE m.id = ?",
+                (rs, i) -> new Exposure(rs.getObject("id", UUID.class), nz(rs.getBigDecimal("total_savings")),
+                        nz(rs.getBigDecimal("total_guaranteed")), nz(rs.getBigDecimal("outstanding_guaranteed")),
+                        rs.getInt("active_guarantees")),
+                memberId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Guarantees in the ledger for the loans, row-locked
+     */
+    public List<GuaranteeLine> lockLoanGuarantees(Collection<UUID> loanIds) {
+        if (loanIds.isEmpty()) return List.of();
+        return namedJdbcTemplate.query(
+                "SELECT g.id, g.loan_id, g.member_id, g.guarantee_amount, g.exposure, " +
+                "COALESCE((SELECT SUM(s.total_due) FROM loan_schedule s WHERE s.loan_id = g.loan_id), l.principal_amount) AS repayable " +
+                "FROM loan_guarantors g JOIN loans l ON l.id = g.loan_id " +
+                "WHERE g.loan_id IN (:ids) AND g.exposure IS NOT NULL ORDER BY g.id FOR UPDATE OF g",
+                new MapSqlParameterSource("ids", loanIds),
+                (rs, i) -> new GuaranteeLine(rs.getObject("id", UUID.class), rs.getObject("loan_id", UUID.class),
+                        rs.getObject("member_id", UUID.class), nz(rs.getBigDecimal("guarantee_amount")),
+                        nz(rs.getBigDecimal("exposure")), nz(rs.getBigDecimal("repayable"))));
+    }
+
+    /**
+     * rows: {guarantorId, exposure (null releases the guarantee from the ledger)}
+     */
+    public void updateExposures(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE loan_guarantors SET exposure = ? WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, (BigDecimal) row[1]);
+                    ps.setObject(2, row[0]);
+                });
+    }
+
+    /**
+     * Apply ledger changes in member id order (so concurrent repayments lock rows in the same order)
+     */
+    public void applyDeltas(Collection<Delta> deltas, LocalDateTime now) {
+        List<Delta> ordered = new ArrayList<>(deltas);
+        ordered.sort(Comparator.comparing(Delta::getMemberId));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO guarantor_exposures (member_id, total_guaranteed, outstanding_guaranteed, active_guarantees, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?) ON CONFLICT (member_id) DO UPDATE SET " +
+                "total_guaranteed = guarantor_exposures.total_guaranteed + EXCLUDED.total_guaranteed, " +
+                "outstanding_guaranteed = guarantor_exposures.outstanding_guaranteed + EXCLUDED.outstanding_guaranteed, " +
+                "active_guarantees = guarantor_exposures.active_guarantees + EXCLUDED.active_guarantees, " +
+                "updated_at = EXCLUDED.updated_at",
+                ordered, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, row.getMemberId());
+                    ps.setBigDecimal(2, row.getTotalGuaranteed());
+                    ps.setBigDecimal(3, row.getOutstandingGuaranteed());
+                    ps.setInt(4, row.getActiveGuarantees());
+                    ps.setTimestamp(5, Timestamp.valueOf(now));
+                });
+    }
+
+    /**
+     * Every active member, for a full rebuild of the guarantor match index
+     */
+    public List<CandidateRow> findAllCandidates() {
+        return jdbcTemplate.query(CANDIDATE_SELECT, (rs, i) -> mapCandidate(rs));
+    }
+
+    /**
+     * The members that are still active among the ids (missing ones have left or been suspended)
+     */
+    public List<CandidateRow> findCandidates(Collection<UUID> memberIds) {
+        if (memberIds.isEmpty()) return List.of();
+        return namedJdbcTemplate.query(CANDIDATE_SELECT + "AND m.id IN (:ids)",
+                new MapSqlParameterSource("ids", memberIds), (rs, i) -> mapCandidate(rs));
+    }
+
+    private static CandidateRow mapCandidate(ResultSet rs) throws SQLException {
+        Timestamp joined = rs.getTimestamp("joined");
+        String name = ((rs.getString("first_name") != null ? rs.getString("first_name") : "") + " " +
+                (rs.getString("last_name") != null ? rs.getString("last_name") : "")).trim();
+        return new CandidateRow(rs.getObject("id", UUID.class), rs.getString("member_number"), name,
+                nz(rs.getBigDecimal("total_savings")), joined != null ? joined.toLocalDateTime().toLocalDate() : null,
+                rs.getInt("active_guarantees"), nz(rs.getBigDecimal("outstanding_guaranteed")));
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,221 @@
+package com.sacco.sacco_system.modules.loan.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access for loan_aging (per-loan classification) and loan_aging_buckets (running totals).
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanAgingRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Aging {
+        private final UUID loanId;
+        private final String bucket; // null until first classified
+        private final int daysPastDue;
+        private final LocalDate oldestDueDate;
+        private final BigDecimal outstandingBalance;
+        private final BigDecimal amountOverdue;
+        private final LocalDate reviewOn;
+    }
+
+    /**
+     * What the classifier needs about a loan: its status and balance, and its open installments
+     * summarised around the day (oldest overdue, amount overdue, next due)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class LoanState {
+        private final UUID loanId;
+        private final String status;
+        private final BigDecimal balance;
+        private final LocalDate oldestOverdue;
+        private final BigDecimal amountOverdue;
+        private final LocalDate nextDue;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class BucketTotals {
+        private final String bucket;
+        private final int loans;
+        private final BigDecimal outstandingBalance;
+        private final BigDecimal amountOverdue;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AgedLoan {
+        private final UUID loanId;
+        private final String loanNumber;
+        private final UUID memberId;
+        private final String memberName;
+        private final String loanStatus;
+        private final String bucket;
+        private final int daysPastDue;
+        private final LocalDate oldestDueDate;
+        private final BigDecimal outstandingBalance;
+        private final BigDecimal amountOverdue;
+    }
+
+    /**
+     * New loan to classify from the day given (disbursement)
+     */
+    public void insertForReview(UUID loanId, LocalDate day) {
+        jdbcTemplate.update(
+                "INSERT INTO loan_aging (loan_id, review_on) VALUES (?, ?) ON CONFLICT (loan_id) DO UPDATE SET review_on = EXCLUDED.review_on",
+                loanId, Date.valueOf(day));
+    }
+
+    /**
+     * The loans changed on the day: bring their next review forward to it
+     */
+    public void markForReview(Collection<UUID> loanIds, LocalDate day) {
+        if (loanIds.isEmpty()) return;
+        namedJdbcTemplate.update(
+                "UPDATE loan_aging SET review_on = :day WHERE loan_id IN (:ids) AND (review_on IS NULL OR review_on > :day)",
+                new MapSqlParameterSource("ids", loanIds).addValue("day", Date.valueOf(day)));
+    }
+
+    public List<UUID> findDueForReview(LocalDate day, int limit) {
+        return jdbcTemplate.query(
+                "SELECT loan_id FROM loan_aging WHERE review_on <= ? ORDER BY review_on, loan_id LIMIT ?",
+                (rs, i) -> rs.getObject("loan_id", UUID.class), Date.valueOf(day), limit);
+    }
+
+    /**
+     * Current classifications, row-locked so a concurrent repayment's review mark is not lost
+     */
+    public Map<UUID, Aging> lockAging(Collection<UUID> loanIds) {
+        Map<UUID, Aging> rows = new HashMap<>();
+        if (loanIds.isEmpty()) return rows;
+        namedJdbcTemplate.query(
+                "SELECT loan_id, bucket, days_past_due, oldest_due_date, outstanding_balance, amount_overdue, review_on " +
+                "FROM loan_aging WHERE loan_id IN (:ids) ORDER BY loan_id FOR UPDATE",
+                new MapSqlParameterSource("ids", loanIds),
+                rs -> {
+                    Date oldest = rs.getDate("oldest_due_date");
+                    Date review = rs.getDate("review_on");
+                    UUID id = rs.getObject("loan_id", UUID.class);
+                    rows.put(id, new Aging(id, rs.getString("bucket"), rs.getInt("days_past_due"),
+                            oldest != null ? oldest.toLocalDate() : null, rs.getBigDecimal("outstanding_balance"),
+                            rs.getBigDecimal("amount_overdue"), review != null ? review.toLocalDate() : null));
+                });
+        return rows;
+    }
+
+    public Map<UUID, LoanState> findLoanStates(Collection<UUID> loanIds, LocalDate day) {
+        Map<UUID, LoanState> states = new HashMap<>();
+        if (loanIds.isEmpty()) return states;
+        namedJdbcTemplate.query(
+                "SELECT l.id, l.status, l.loan_balance, s.oldest_overdue, s.amount_overdue, s.next_due FROM loans l " +
+                "LEFT JOIN (SELECT loan_id, " +
+                "       MIN(due_date) FILTER (WHERE due_date < :day) AS oldest_overdue, " +
+                "       SUM(total_due - amount_paid) FILTER (WHERE due_date < :day) AS amount_overdue, " +
+                "       MIN(due_date) FILTER (WHERE due_date >= :day) AS next_due " +
+                "     FROM loan_schedule WHERE loan_id IN (:ids) AND status <> 'PAID' GROUP BY loan_id) s ON s.loan_id = l.id " +
+                "WHERE l.id IN (:ids)",
+                new MapSqlParameterSource("ids", loanIds).addValue("day", Date.valueOf(day)),
+                rs -> {
+                    Date oldest = rs.getDate("oldest_overdue");
+                    Date next = rs.getDate("next_due");
+                    UUID id = rs.getObject("id", UUID.class);
+                    states.put(id, new LoanState(id, rs.getString("status"), nz(rs.getBigDecimal("loan_balance")),
+                            oldest != null ? oldest.toLocalDate() : null, nz(rs.getBigDecimal("amount_overdue")),
+                            next != null ? next.toLocalDate() : null));
+                });
+        return states;
+    }
+
+    public void saveAging(List<Aging> rows, LocalDate day) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE loan_aging SET bucket = ?, days_past_due = ?, oldest_due_date = ?, outstanding_balance = ?, " +
+                "amount_overdue = ?, review_on = ?, evaluated_on = ? WHERE loan_id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setString(1, row.getBucket());
+                    ps.setInt(2, row.getDaysPastDue());
+                    ps.setDate(3, row.getOldestDueDate() != null ? Date.valueOf(row.getOldestDueDate()) : null);
+                    ps.setBigDecimal(4, row.getOutstandingBalance());
+                    ps.setBigDecimal(5, row.getAmountOverdue());
+                    ps.setDate(6, row.getReviewOn() != null ? Date.valueOf(row.getReviewOn()) : null);
+                    ps.setDate(7, Date.valueOf(day));
+                    ps.setObject(8, row.getLoanId());
+                });
+    }
+
+    public void delete(Collection<UUID> loanIds) {
+        if (loanIds.isEmpty()) return;
+        namedJdbcTemplate.update("DELETE FROM loan_aging WHERE loan_id IN (:ids)", new MapSqlParameterSource("ids", loanIds));
+    }
+
+    /**
+     * Add signed deltas to the bucket totals
+     */
+    public void addToBuckets(Collection<BucketTotals> deltas) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE loan_aging_buckets SET loans = loans + ?, outstanding_balance = outstanding_balance + ?, " +
+                "amount_overdue = amount_overdue + ? WHERE bucket = ?",
+                new ArrayList<>(deltas), BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setInt(1, row.getLoans());
+                    ps.setBigDecimal(2, row.getOutstandingBalance());
+                    ps.setBigDecimal(3, row.getAmountOverdue());
+                    ps.setString(4, row.getBucket());
+                });
+    }
+
+    public List<BucketTotals> findBuckets() {
+        return jdbcTemplate.query(
+                "SELECT bucket, loans, outstanding_balance, amount_overdue FROM loan_aging_buckets",
+                (rs, i) -> new BucketTotals(rs.getString("bucket"), rs.getInt("loans"),
+                        nz(rs.getBigDecimal("outstanding_balance")), nz(rs.getBigDecimal("amount_overdue"))));
+    }
+
+    /**
+     * Classified loans past due, most overdue first
+     */
+    public List<AgedLoan> findPastDue() {
+        return jdbcTemplate.query(
+                "SELECT a.loan_id, l.loan_number, l.member_id, m.first_name, m.last_name, l.status, a.bucket, " +
+                "a.days_past_due, a.oldest_due_date, a.outstanding_balance, a.amount_overdue " +
+                "FROM loan_aging a JOIN loans l ON l.id = a.loan_id LEFT JOIN members m ON m.id = l.member_id " +
+                "WHERE a.bucket IS NOT NULL AND a.bucket <> 'CURRENT' ORDER BY a.days_past_due DESC, a.loan_id",
+                (rs, i) -> {
+                    Date oldest = rs.getDate("oldest_due_date");
+                    String name = ((rs.getString("first_name") != null ? rs.getString("first_name") : "") + " " +
+                            (rs.getString("last_name") != null ? rs.getString("last_name") : "")).trim();
+                    return new AgedLoan(rs.getObject("loan_id", UUID.class), rs.getString("loan_number"),
+                            rs.getObject("member_id", UUID.class), name, rs.getString("status"), rs.getString("bucket"),
+                            rs.getInt("days_past_due"), oldest != null ? oldest.toLocalDate() : null,
+                            nz(rs.getBigDecimal("outstanding_balance")), nz(rs.getBigDecimal("amount_overdue")));
+                });
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
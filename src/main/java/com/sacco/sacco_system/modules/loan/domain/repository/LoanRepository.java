@@ -34,6 +34,10 @@ public interface LoanRepository extends JpaRepository<Loan, UUID> {
     // Simple single-status fetch
     List<Loan> findByStatus(LoanStatus status);
 
+    // Batch lookup with member and product in one query (deposit allocations)
+    @Query("SELECT l FROM Loan l JOIN FETCH l.member JOIN FETCH l.product WHERE l.id IN :ids")
+    List<Loan> findAllWithMemberByIdIn(@Param("ids") Collection<UUID> ids);
+
     // --- 3. DASHBOARD METRICS ---
 
     /**
@@ -0,0 +1,145 @@
+package com.sacco.sacco_system.modules.loan.domain.repository;
+
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleEngine.Installment;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access for loan_schedule. Open installments are read through the partial due-date index,
+ * so the due/overdue list costs a range scan over unpaid rows only.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoanScheduleRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String COLUMNS =
+            "s.loan_id, s.installment_no, s.due_date, s.principal_due, s.interest_due, s.total_due, " +
+            "s.amount_paid, s.status, s.paid_date";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class InstallmentRow {
+        private final UUID loanId;
+        private final int installmentNo;
+        private final LocalDate dueDate;
+        private final BigDecimal principalDue;
+        private final BigDecimal interestDue;
+        private final BigDecimal totalDue;
+        private final BigDecimal amountPaid;
+        private final String status;
+        private final LocalDate paidDate;
+        private final String loanNumber; // only on the due list
+        private final UUID memberId;     // only on the due list
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class InstallmentPayment {
+        private final UUID loanId;
+        private final int installmentNo;
+        private final BigDecimal amountPaid;
+        private final String status;
+        private final LocalDate paidDate;
+    }
+
+    public void insert(UUID loanId, List<Installment> installments) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO loan_schedule (loan_id, installment_no, due_date, principal_due, interest_due, total_due) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                installments, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setObject(1, loanId);
+                    ps.setInt(2, row.getNumber());
+                    ps.setDate(3, Date.valueOf(row.getDueDate()));
+                    ps.setBigDecimal(4, row.getPrincipal());
+                    ps.setBigDecimal(5, row.getInterest());
+                    ps.setBigDecimal(6, row.getTotal());
+                });
+    }
+
+    public boolean existsForLoan(UUID loanId) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM loan_schedule WHERE loan_id = ?)", Boolean.class, loanId);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public List<InstallmentRow> findByLoan(UUID loanId) {
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM loan_schedule s WHERE s.loan_id = ? ORDER BY s.installment_no",
+                (rs, i) -> row(rs, null, null), loanId);
+    }
+
+    /**
+     * Unpaid installments of the loans, oldest first per loan, row-locked (callers hold the member lanes)
+     */
+    public List<InstallmentRow> lockOpen(Collection<UUID> loanIds) {
+        if (loanIds.isEmpty()) return List.of();
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM loan_schedule s WHERE s.loan_id IN (:ids) AND s.status <> 'PAID' " +
+                "ORDER BY s.loan_id, s.installment_no FOR UPDATE",
+                new MapSqlParameterSource("ids", loanIds),
+                (rs, i) -> row(rs, null, null));
+    }
+
+    public void updatePayments(List<InstallmentPayment> payments) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE loan_schedule SET amount_paid = ?, status = ?, paid_date = ? WHERE loan_id = ? AND installment_no = ?",
+                payments, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getAmountPaid());
+                    ps.setString(2, row.getStatus());
+                    ps.setDate(3, row.getPaidDate() != null ? Date.valueOf(row.getPaidDate()) : null);
+                    ps.setObject(4, row.getLoanId());
+                    ps.setInt(5, row.getInstallmentNo());
+                });
+    }
+
+    /**
+     * Open installments due on or before the day (overdue first), keyset-paged after
+     * (afterDueDate, afterLoanId, afterInstallmentNo); pass null afterDueDate for the first page
+     */
+    public List<InstallmentRow> findOpenDueThrough(LocalDate day, LocalDate afterDueDate, UUID afterLoanId,
+                                                   int afterInstallmentNo, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("day", Date.valueOf(day)).addValue("limit", limit);
+        String after = "";
+        if (afterDueDate != null) {
+            after = "AND (s.due_date, s.loan_id, s.installment_no) > (:afterDate, :afterLoan, :afterNo) ";
+            params.addValue("afterDate", Date.valueOf(afterDueDate))
+                    .addValue("afterLoan", afterLoanId)
+                    .addValue("afterNo", afterInstallmentNo);
+        }
+        return namedJdbcTemplate.query(
+                "SELECT " + COLUMNS + ", l.loan_number, l.member_id FROM loan_schedule s JOIN loans l ON l.id = s.loan_id " +
+                "WHERE s.status <> 'PAID' AND s.due_date <= :day " + after +
+                "ORDER BY s.due_date, s.loan_id, s.installment_no LIMIT :limit",
+                params,
+                (rs, i) -> row(rs, rs.getString("loan_number"), rs.getObject("member_id", UUID.class)));
+    }
+
+    private static InstallmentRow row(ResultSet rs, String loanNumber, UUID memberId) throws SQLException {
+        Date paidDate = rs.getDate("paid_date");
+        return new InstallmentRow(rs.getObject("loan_id", UUID.class), rs.getInt("installment_no"),
+                rs.getDate("due_date").toLocalDate(), rs.getBigDecimal("principal_due"), rs.getBigDecimal("interest_due"),
+                rs.getBigDecimal("total_due"), rs.getBigDecimal("amount_paid"), rs.getString("status"),
+                paidDate != null ? paidDate.toLocalDate() : null, loanNumber, memberId);
+    }
+}
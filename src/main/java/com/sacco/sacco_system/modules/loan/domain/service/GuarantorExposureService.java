@@ -0,0 +1,153 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.loan.api.dto.GuarantorCandidateDTO;
+import com.sacco.sacco_system.modules.loan.api.dto.GuarantorExposureDTO;
+import com.sacco.sacco_system.modules.loan.domain.entity.Guarantor;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.Delta;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.Exposure;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.GuaranteeLine;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex.Criteria;
+import com.sacco.sacco_system.modules.member.domain.entity.Member;
+import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maintained guarantor exposure per member (guarantor_exposures). A guarantee enters the ledger
+ * at its full amount when accepted; once the loan is disbursed its share at risk follows the
+ * loan balance (amount x balance / repayable, where repayable is principal plus scheduled
+ * interest, the balance the loan started from), and it leaves the ledger
+ * when the loan is paid off. Eligibility and exit checks read one row instead of joining
+ * guarantors to loans.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuarantorExposureService {
+
+    private final GuarantorExposureRepository exposureRepository;
+    private final SystemSettingService systemSettingService;
+    private final GuarantorMatchIndex matchIndex;
+    private final MemberRepository memberRepository;
+
+    @Transactional(readOnly = true)
+    public GuarantorExposureDTO getExposure(UUID memberId) {
+        Exposure exposure = exposureRepository.find(memberId)
+                .orElseThrow(() -> new ApiException("Member not found", 404));
+        BigDecimal limit = exposure.getTotalSavings().multiply(limitRatio()).setScale(2, RoundingMode.HALF_UP);
+        return GuarantorExposureDTO.builder()
+                .memberId(memberId)
+                .totalSavings(exposure.getTotalSavings())
+                .totalGuaranteed(exposure.getTotalGuaranteed())
+                .outstandingGuaranteed(exposure.getOutstandingGuaranteed())
+                .activeGuarantees(exposure.getActiveGuarantees())
+                .guaranteeLimit(limit)
+                .remainingCapacity(limit.subtract(exposure.getOutstandingGuaranteed()).max(BigDecimal.ZERO))
+                .build();
+    }
+
+    public boolean hasActiveGuarantees(UUID memberId) {
+        return exposureRepository.find(memberId).map(e -> e.getActiveGuarantees() > 0).orElse(false);
+    }
+
+    /**
+     * Members who could guarantee the caller's loan, ranked by remaining capacity. Savings and
+     * membership filters default to the guarantor settings; amount is the guarantee needed.
+     */
+    public List<GuarantorCandidateDTO> findCandidates(String email, BigDecimal minSavings, Integer minMonths,
+                                                      Integer maxActiveGuarantees, BigDecimal amount, int limit) {
+        UUID self = memberRepository.findByEmail(email).map(Member::getId).orElse(null);
+        if (minSavings == null) {
+            minSavings = new BigDecimal(systemSettingService.getString("MIN_SAVINGS_TO_GUARANTEE", "10000"));
+        }
+        if (minMonths == null) {
+            minMonths = Integer.parseInt(systemSettingService.getString("MIN_MONTHS_TO_GUARANTEE", "6"));
+        }
+        return matchIndex.search(new Criteria(minSavings, minMonths, maxActiveGuarantees, amount, self), limit);
+    }
+
+    /**
+     * Savings and capacity checks for a member about to guarantee the amount
+     */
+    @Transactional(readOnly = true)
+    public void assertCanGuarantee(UUID memberId, BigDecimal amount) {
+        GuarantorExposureDTO exposure = getExposure(memberId);
+        BigDecimal minSavings = new BigDecimal(systemSettingService.getString("MIN_SAVINGS_TO_GUARANTEE", "10000"));
+        if (exposure.getTotalSavings().compareTo(minSavings) < 0) {
+            throw new ApiException("Guarantor needs savings of at least " + minSavings, 400);
+        }
+        if (amount.compareTo(exposure.getRemainingCapacity()) > 0) {
+            throw new ApiException("Guarantee exceeds the guarantor's remaining capacity of " + exposure.getRemainingCapacity(), 400);
+        }
+    }
+
+    /**
+     * Put an accepted guarantee on its member's ledger (caller saves the guarantor)
+     */
+    @Transactional
+    public void onAccepted(Guarantor guarantor) {
+        BigDecimal amount = guarantor.getGuaranteeAmount();
+        guarantor.setExposure(amount);
+        exposureRepository.applyDeltas(List.of(new Delta(guarantor.getMember().getId(), amount, amount, 1)), LocalDateTime.now());
+        matchIndex.invalidate(List.of(guarantor.getMember().getId()));
+    }
+
+    /**
+     * Loans whose balance changed (loanId -> new balance): move their guarantees' share at risk,
+     * and release them from the ledger when the loan is paid off
+     */
+    @Transactional
+    public void onLoanBalances(Map<UUID, BigDecimal> balances) {
+        if (balances.isEmpty()) return;
+        List<Object[]> lines = new ArrayList<>();
+        Map<UUID, Delta> deltas = new HashMap<>();
+        for (GuaranteeLine line : exposureRepository.lockLoanGuarantees(balances.keySet())) {
+            BigDecimal balance = balances.get(line.getLoanId());
+            if (balance == null) continue;
+            if (balance.signum() <= 0) {
+                lines.add(new Object[] {line.getGuarantorId(), null});
+                merge(deltas, new Delta(line.getMemberId(), line.getGuaranteeAmount().negate(), line.getExposure().negate(), -1));
+                continue;
+            }
+            BigDecimal exposure = shareAtRisk(line.getGuaranteeAmount(), balance, line.getRepayable());
+            if (exposure.compareTo(line.getExposure()) == 0) continue;
+            lines.add(new Object[] {line.getGuarantorId(), exposure});
+            merge(deltas, new Delta(line.getMemberId(), BigDecimal.ZERO, exposure.subtract(line.getExposure()), 0));
+        }
+        if (lines.isEmpty()) return;
+        exposureRepository.updateExposures(lines);
+        exposureRepository.applyDeltas(deltas.values(), LocalDateTime.now());
+        matchIndex.invalidate(deltas.keySet());
+    }
+
+    static BigDecimal shareAtRisk(BigDecimal guaranteeAmount, BigDecimal balance, BigDecimal repayable) {
+        if (repayable.signum() <= 0 || balance.compareTo(repayable) >= 0) return guaranteeAmount;
+        if (balance.signum() <= 0) return BigDecimal.ZERO;
+        return guaranteeAmount.multiply(balance).divide(repayable, 2, RoundingMode.HALF_UP);
+    }
+
+    private BigDecimal limitRatio() {
+        return BigDecimal.valueOf(systemSettingService.getDouble("MAX_GUARANTOR_LIMIT_RATIO", 2));
+    }
+
+    private static void merge(Map<UUID, Delta> deltas, Delta delta) {
+        deltas.merge(delta.getMemberId(), delta, (a, b) -> new Delta(a.getMemberId(),
+                a.getTotalGuaranteed().add(b.getTotalGuaranteed()),
+                a.getOutstandingGuaranteed().add(b.getOutstandingGuaranteed()),
+                a.getActiveGuarantees() + b.getActiveGuarantees()));
+    }
+}
@@ -0,0 +1,233 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.loan.api.dto.GuarantorCandidateDTO;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.CandidateRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory index of active members ranked by free guarantee capacity, for the guarantor search.
+ *
+ * The snapshot is an immutable array sorted by capacity (highest first), so a search walks it
+ * from the top and stops once capacity drops below what the borrower needs. Savings and
+ * guarantee changes mark their members dirty after commit; dirty members are re-read and merged
+ * into a new snapshot on a short delay, and a periodic full rebuild picks up anything else
+ * (status changes, settings, other nodes).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GuarantorMatchIndex {
+
+    private static final int MAX_RESULTS = 100;
+    private static final int REFRESH_CHUNK = 1000;
+
+    private static final Comparator<Candidate> BY_CAPACITY = Comparator
+            .comparing(Candidate::getCapacity).reversed()
+            .thenComparing(Candidate::getMemberId);
+
+    private final GuarantorExposureRepository exposureRepository;
+    private final SystemSettingService systemSettingService;
+    private final BatchJobRunner batchJobRunner;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Candidate {
+        private final UUID memberId;
+        private final String memberNumber;
+        private final String fullName;
+        private final BigDecimal totalSavings;
+        private final LocalDate joinedOn;
+        private final int activeGuarantees;
+        private final BigDecimal outstandingGuaranteed;
+        private final BigDecimal capacity;
+    }
+
+    /**
+     * Search filters; null fields are not applied
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Criteria {
+        private final BigDecimal minSavings;
+        private final Integer minMonths;
+        private final Integer maxActiveGuarantees;
+        private final BigDecimal minCapacity;
+        private final UUID excludeMemberId;
+    }
+
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(BigDecimal.ZERO, new Candidate[0]);
+
+        final BigDecimal limitRatio;
+        final Candidate[] byCapacity;
+
+        Snapshot(BigDecimal limitRatio, Candidate[] byCapacity) {
+            this.limitRatio = limitRatio;
+            this.byCapacity = byCapacity;
+        }
+
+        static Snapshot build(Collection<CandidateRow> rows, BigDecimal limitRatio) {
+            Candidate[] candidates = rows.stream().map(row -> toCandidate(row, limitRatio)).toArray(Candidate[]::new);
+            Arrays.sort(candidates, BY_CAPACITY);
+            return new Snapshot(limitRatio, candidates);
+        }
+
+        /**
+         * New snapshot with the members replaced by their fresh rows (members absent from rows are dropped)
+         */
+        Snapshot withUpdates(Set<UUID> memberIds, Collection<CandidateRow> rows) {
+            Candidate[] fresh = rows.stream().map(row -> toCandidate(row, limitRatio)).toArray(Candidate[]::new);
+            Arrays.sort(fresh, BY_CAPACITY);
+
+            Candidate[] merged = new Candidate[byCapacity.length + fresh.length];
+            int n = 0, j = 0;
+            for (Candidate existing : byCapacity) {
+                if (memberIds.contains(existing.getMemberId())) continue;
+                while (j < fresh.length && BY_CAPACITY.compare(fresh[j], existing) < 0) merged[n++] = fresh[j++];
+                merged[n++] = existing;
+            }
+            while (j < fresh.length) merged[n++] = fresh[j++];
+            return new Snapshot(limitRatio, Arrays.copyOf(merged, n));
+        }
+
+        List<Candidate> search(Criteria criteria, LocalDate today, int limit) {
+            LocalDate joinedBy = criteria.getMinMonths() != null ? today.minusMonths(criteria.getMinMonths()) : null;
+            List<Candidate> matches = new ArrayList<>(limit);
+            for (Candidate c : byCapacity) {
+                if (criteria.getMinCapacity() != null && c.getCapacity().compareTo(criteria.getMinCapacity()) < 0) break;
+                if (c.getMemberId().equals(criteria.getExcludeMemberId())) continue;
+                if (criteria.getMinSavings() != null && c.getTotalSavings().compareTo(criteria.getMinSavings()) < 0) continue;
+                if (joinedBy != null && (c.getJoinedOn() == null || c.getJoinedOn().isAfter(joinedBy))) continue;
+                if (criteria.getMaxActiveGuarantees() != null && c.getActiveGuarantees() > criteria.getMaxActiveGuarantees()) continue;
+                matches.add(c);
+                if (matches.size() >= limit) break;
+            }
+            return matches;
+        }
+
+        int size() {
+            return byCapacity.length;
+        }
+    }
+
+    /**
+     * Members ranked by free guarantee capacity, highest first
+     */
+    public List<GuarantorCandidateDTO> search(Criteria criteria, int limit) {
+        LocalDate today = LocalDate.now();
+        return current.get().search(criteria, today, Math.max(1, Math.min(limit, MAX_RESULTS))).stream()
+                .map(c -> GuarantorCandidateDTO.builder()
+                        .memberId(c.getMemberId())
+                        .memberNumber(c.getMemberNumber())
+                        .fullName(c.getFullName())
+                        .totalSavings(c.getTotalSavings())
+                        .membershipMonths(c.getJoinedOn() != null ? ChronoUnit.MONTHS.between(c.getJoinedOn(), today) : 0)
+                        .activeGuarantees(c.getActiveGuarantees())
+                        .outstandingGuaranteed(c.getOutstandingGuaranteed())
+                        .remainingCapacity(c.getCapacity())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Re-read these members once the current transaction commits (immediately when there is none)
+     */
+    public void invalidate(Collection<UUID> memberIds) {
+        if (memberIds.isEmpty()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<UUID> ids = List.copyOf(memberIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.addAll(ids);
+                }
+            });
+        } else {
+            dirty.addAll(memberIds);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.loans.guarantor-index-rebuild-ms:900000}",
+               initialDelayString = "${app.loans.guarantor-index-rebuild-ms:900000}")
+    public void scheduledRebuild() {
+        batchJobRunner.submit("GUARANTOR_INDEX_REBUILD", this::rebuild);
+    }
+
+    /**
+     * Merge the members changed since the last refresh into a new snapshot
+     */
+    @Scheduled(fixedDelayString = "${app.loans.guarantor-index-refresh-ms:1000}")
+    public synchronized void refreshDirty() {
+        if (dirty.isEmpty()) return;
+        Set<UUID> changed = new HashSet<>(dirty);
+        dirty.removeAll(changed);
+
+        Snapshot snapshot = current.get();
+        if (limitRatio().compareTo(snapshot.limitRatio) != 0) {
+            rebuild();
+            return;
+        }
+        List<CandidateRow> rows = new ArrayList<>(changed.size());
+        List<UUID> ids = new ArrayList<>(changed);
+        for (int i = 0; i < ids.size(); i += REFRESH_CHUNK) {
+            rows.addAll(exposureRepository.findCandidates(ids.subList(i, Math.min(i + REFRESH_CHUNK, ids.size()))));
+        }
+        current.set(snapshot.withUpdates(changed, rows));
+    }
+
+    /**
+     * Build a fresh snapshot of every active member and swap it in
+     */
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Snapshot snapshot = Snapshot.build(exposureRepository.findAllCandidates(), limitRatio());
+        current.set(snapshot);
+        log.debug("Guarantor match index: {} members in {} ms", snapshot.size(), System.currentTimeMillis() - started);
+    }
+
+    private static Candidate toCandidate(CandidateRow row, BigDecimal limitRatio) {
+        BigDecimal capacity = row.getTotalSavings().multiply(limitRatio).setScale(2, RoundingMode.HALF_UP)
+                .subtract(row.getOutstandingGuaranteed()).max(BigDecimal.ZERO);
+        return new Candidate(row.getMemberId(), row.getMemberNumber(), row.getFullName(), row.getTotalSavings(),
+                row.getJoinedOn(), row.getActiveGuarantees(), row.getOutstandingGuaranteed(), capacity);
+    }
+
+    private BigDecimal limitRatio() {
+        return BigDecimal.valueOf(systemSettingService.getDouble("MAX_GUARANTOR_LIMIT_RATIO", 2));
+    }
+}
@@ -0,0 +1,233 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanAgingRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanAgingRepository.Aging;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanAgingRepository.BucketTotals;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanAgingRepository.LoanState;
+import com.sacco.sacco_system.modules.reporting.api.dto.LoanAgingDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Nightly loan aging. Each scheduled loan is bucketed by days past due (oldest open installment)
+ * in loan_aging, and loan_aging_buckets keeps the totals per bucket by applying the difference
+ * of every reclassification. A run only reads loans whose review_on has come: a bucket boundary,
+ * an installment falling due, or a repayment that day. PAR is read from the bucket totals.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanAgingService {
+
+    public static final String JOB_NAME = "LOAN_AGING";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final int PAGE_SIZE = 1000;
+    private static final Set<String> AGED_STATUSES = Set.of("ACTIVE", "IN_ARREARS", "DISBURSED");
+
+    private final LoanAgingRepository agingRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchJobRunner batchJobRunner;
+
+    public enum AgingBucket {
+        CURRENT(0, 0, "Current"),
+        D1_30(1, 30, "1-30 days"),
+        D31_60(31, 60, "31-60 days"),
+        D61_90(61, 90, "61-90 days"),
+        D90_PLUS(91, Integer.MAX_VALUE, "Over 90 days");
+
+        private final int fromDays;
+        private final int toDays;
+        private final String label;
+
+        AgingBucket(int fromDays, int toDays, String label) {
+            this.fromDays = fromDays;
+            this.toDays = toDays;
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static AgingBucket of(int daysPastDue) {
+            for (AgingBucket bucket : values()) {
+                if (daysPastDue <= bucket.toDays) return bucket;
+            }
+            return D90_PLUS;
+        }
+    }
+
+    @Scheduled(cron = "${app.loans.aging-cron:0 40 0 * * *}")
+    public void classifyToday() {
+        LocalDate today = LocalDate.now();
+        batchJobRunner.submit(JOB_NAME, () -> classify(today));
+    }
+
+    /**
+     * Reclassify every loan due for review on or before the day, one transaction per page.
+     * Returns the number of loans re-evaluated.
+     */
+    public int classify(LocalDate day) {
+        int evaluated = 0;
+        while (true) {
+            Integer page = transactionTemplate.execute(status -> classifyPage(day));
+            if (page == null || page == 0) break;
+            evaluated += page;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+            checkpoint.setLastProcessedDate(day);
+            checkpointRepository.save(checkpoint);
+        });
+        log.info("Loan aging for {}: {} loans re-evaluated", day, evaluated);
+        return evaluated;
+    }
+
+    private int classifyPage(LocalDate day) {
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+        List<UUID> ids = agingRepository.findDueForReview(day, PAGE_SIZE);
+        if (ids.isEmpty()) return 0;
+
+        Map<UUID, Aging> previous = agingRepository.lockAging(ids);
+        Map<UUID, LoanState> states = agingRepository.findLoanStates(previous.keySet(), day);
+        Map<AgingBucket, BigDecimal[]> deltas = new EnumMap<>(AgingBucket.class);
+        List<Aging> updated = new ArrayList<>(previous.size());
+        List<UUID> closed = new ArrayList<>();
+
+        for (Aging old : previous.values()) {
+            if (old.getBucket() != null) {
+                addDelta(deltas, AgingBucket.valueOf(old.getBucket()), -1, old.getOutstandingBalance(), old.getAmountOverdue());
+            }
+            LoanState state = states.get(old.getLoanId());
+            if (state == null || !AGED_STATUSES.contains(state.getStatus()) || state.getBalance().signum() <= 0) {
+                closed.add(old.getLoanId());
+                continue;
+            }
+            Aging aging = evaluate(state, day);
+            addDelta(deltas, AgingBucket.valueOf(aging.getBucket()), 1, aging.getOutstandingBalance(), aging.getAmountOverdue());
+            updated.add(aging);
+        }
+
+        agingRepository.saveAging(updated, day);
+        agingRepository.delete(closed);
+        agingRepository.addToBuckets(deltas.entrySet().stream()
+                .map(e -> new BucketTotals(e.getKey().name(), e.getValue()[0].intValueExact(), e.getValue()[1], e.getValue()[2]))
+                .toList());
+        return previous.size();
+    }
+
+    /**
+     * Classification as of the day, with the next day it can change without a repayment
+     */
+    static Aging evaluate(LoanState state, LocalDate day) {
+        int daysPastDue = state.getOldestOverdue() != null
+                ? (int) ChronoUnit.DAYS.between(state.getOldestOverdue(), day) : 0;
+        AgingBucket bucket = AgingBucket.of(daysPastDue);
+
+        LocalDate reviewOn = state.getNextDue() != null ? state.getNextDue().plusDays(1) : null;
+        if (daysPastDue > 0 && bucket != AgingBucket.D90_PLUS) {
+            LocalDate nextBoundary = state.getOldestOverdue().plusDays(bucket.toDays + 1L);
+            if (reviewOn == null || nextBoundary.isBefore(reviewOn)) reviewOn = nextBoundary;
+        }
+        return new Aging(state.getLoanId(), bucket.name(), daysPastDue, state.getOldestOverdue(),
+                state.getBalance(), state.getAmountOverdue(), reviewOn);
+    }
+
+    private static void addDelta(Map<AgingBucket, BigDecimal[]> deltas, AgingBucket bucket, int sign,
+                                 BigDecimal outstanding, BigDecimal overdue) {
+        BigDecimal[] delta = deltas.computeIfAbsent(bucket, b -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+        BigDecimal s = BigDecimal.valueOf(sign);
+        delta[0] = delta[0].add(s);
+        delta[1] = delta[1].add(outstanding.multiply(s));
+        delta[2] = delta[2].add(overdue.multiply(s));
+    }
+
+    /**
+     * Past-due loans from the aging table, most overdue first
+     */
+    @Transactional(readOnly = true)
+    public List<LoanAgingDTO> getAgingReport() {
+        return agingRepository.findPastDue().stream()
+                .map(loan -> LoanAgingDTO.builder()
+                        .loanId(loan.getLoanId().toString())
+                        .loanNumber(loan.getLoanNumber())
+                        .memberId(loan.getMemberId() != null ? loan.getMemberId().toString() : null)
+                        .memberName(loan.getMemberName())
+                        .outstandingBalance(loan.getOutstandingBalance())
+                        .amountOutstanding(loan.getAmountOverdue())
+                        .daysOverdue(loan.getDaysPastDue())
+                        .dueDate(loan.getOldestDueDate())
+                        .status(loan.getLoanStatus())
+                        .category(AgingBucket.valueOf(loan.getBucket()).getLabel())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Bucket totals and PAR ratios (outstanding balance of loans more than 0 / 30 / 90 days past due
+     * over the classified portfolio), as of the last run
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPortfolioAtRisk() {
+        Map<String, Object> buckets = new LinkedHashMap<>();
+        Map<AgingBucket, BigDecimal> outstanding = new EnumMap<>(AgingBucket.class);
+        BigDecimal total = BigDecimal.ZERO;
+        for (BucketTotals totals : agingRepository.findBuckets()) {
+            AgingBucket bucket = AgingBucket.valueOf(totals.getBucket());
+            outstanding.put(bucket, totals.getOutstandingBalance());
+            total = total.add(totals.getOutstandingBalance());
+            buckets.put(bucket.getLabel(), Map.of(
+                    "loans", totals.getLoans(),
+                    "outstandingBalance", totals.getOutstandingBalance(),
+                    "amountOverdue", totals.getAmountOverdue()));
+        }
+
+        BigDecimal par1 = BigDecimal.ZERO;
+        BigDecimal par30 = BigDecimal.ZERO;
+        for (Map.Entry<AgingBucket, BigDecimal> e : outstanding.entrySet()) {
+            if (e.getKey() != AgingBucket.CURRENT) par1 = par1.add(e.getValue());
+            if (e.getKey().fromDays > 30) par30 = par30.add(e.getValue());
+        }
+        BigDecimal par90 = outstanding.getOrDefault(AgingBucket.D90_PLUS, BigDecimal.ZERO);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("buckets", buckets);
+        result.put("totalOutstanding", total);
+        result.put("par1", par1);
+        result.put("par30", par30);
+        result.put("par90", par90);
+        result.put("par1Percentage", percent(par1, total));
+        result.put("par30Percentage", percent(par30, total));
+        result.put("par90Percentage", percent(par90, total));
+        result.put("asOf", checkpointRepository.findById(JOB_NAME).map(JobCheckpoint::getLastProcessedDate).orElse(null));
+        return result;
+    }
+
+    private static double percent(BigDecimal part, BigDecimal total) {
+        return total.signum() > 0
+                ? part.divide(total, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100)).doubleValue() : 0;
+    }
+}
@@ -1,6 +1,9 @@
 package com.sacco.sacco_system.modules.loan.domain.service;
 
+import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
 import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.core.util.NumberSequences;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
 import com.sacco.sacco_system.modules.finance.domain.service.TransactionService;
 import com.sacco.sacco_system.modules.loan.api.dto.LoanRequestDTO;
 import com.sacco.sacco_system.modules.loan.domain.entity.Guarantor;
@@ -11,6 +14,7 @@ import com.sacco.sacco_system.modules.loan.domain.repository.LoanProductReposito
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +23,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -34,6 +40,12 @@ public class LoanApplicationService {
     private final SavingsAccountRepository savingsRepository;
     private final LoanEligibilityService eligibilityService;
     private final TransactionService transactionService;
+    private final NumberSequences numberSequences;
+    private final LoanScheduleService scheduleService;
+    private final AccountingService accountingService;
+    private final MemberLockService memberLockService;
+    private final GuarantorExposureService exposureService;
+    private final SystemSettingService systemSettingService;
 
 
     @Transactional(rollbackFor = Exception.class)
@@ -81,7 +93,7 @@ public class LoanApplicationService {
         }
 
         // 6. Save Draft
-        String loanNumber = "LN-" + (int)(Math.random() * 1000000);
+        String loanNumber = numberSequences.next(NumberSequences.Prefix.LN);
 
         Loan loan = Loan.builder()
                 .member(member)
@@ -102,6 +114,70 @@ public class LoanApplicationService {
     @Transactional
     public void addGuarantor(UUID loanId, UUID guarantorMemberId, BigDecimal amount) {
         Loan loan = loanRepository.findById(loanId).orElseThrow();
+        if (loan.getStatus() != Loan.LoanStatus.DRAFT && loan.getStatus() != Loan.LoanStatus.PENDING_GUARANTORS) {
+            throw new ApiException("Guarantors can only be added before the application is submitted", 400);
+        }
+        if (amount == null || amount.signum() <= 0) {
+            throw new ApiException("Guarantee amount must be positive", 400);
+        }
+        Member guarantor = memberRepository.findById(guarantorMemberId)
+                .orElseThrow(() -> new ApiException("Guarantor not found", 404));
+        if (guarantor.getId().equals(loan.getMember().getId())) {
+            throw new ApiException("You cannot guarantee your own loan", 400);
+        }
+        if (guarantor.getStatus() != Member.MemberStatus.ACTIVE) {
+            throw new ApiException("Only active members can guarantee loans", 400);
+        }
+        if (guarantorRepository.existsByLoanAndMember(loan, guarantor)) {
+            throw new ApiException("This member has already been asked to guarantee the loan", 400);
+        }
+
+        int minMonths = Integer.parseInt(systemSettingService.getString("MIN_MONTHS_TO_GUARANTEE", "6"));
+        LocalDate joined = guarantor.getRegistrationDate() != null ? guarantor.getRegistrationDate().toLocalDate()
+                : guarantor.getCreatedAt() != null ? guarantor.getCreatedAt().toLocalDate() : LocalDate.now();
+        if (ChronoUnit.MONTHS.between(joined, LocalDate.now()) < minMonths) {
+            throw new ApiException("Guarantor must have been a member for at least " + minMonths + " months", 400);
+        }
+        exposureService.assertCanGuarantee(guarantor.getId(), amount);
+
+        guarantorRepository.save(Guarantor.builder()
+                .loan(loan)
+                .member(guarantor)
+                .guaranteeAmount(amount)
+                .status(Guarantor.GuarantorStatus.PENDING)
+                .build());
+        if (loan.getStatus() == Loan.LoanStatus.DRAFT) {
+            loan.setStatus(Loan.LoanStatus.PENDING_GUARANTORS);
+            loanRepository.save(loan);
+        }
+    }
+
+    /**
+     * The guarantor accepts or declines a request; acceptance re-checks capacity and goes on the exposure ledger
+     */
+    @Transactional
+    public void respondToGuarantee(UUID requestId, String email, boolean accept) {
+        Guarantor request = guarantorRepository.findById(requestId)
+                .orElseThrow(() -> new ApiException("Guarantor request not found", 404));
+        Member member = memberRepository.findByEmail(email)
+                .orElseThrow(() -> new ApiException("Member profile not found", 400));
+        if (!request.getMember().getId().equals(member.getId())) {
+            throw new ApiException("This request is not addressed to you", 403);
+        }
+        if (request.getStatus() != Guarantor.GuarantorStatus.PENDING) {
+            throw new ApiException("Request already answered", 400);
+        }
+        // Serialize with the member's other guarantees and balance changes
+        memberLockService.lock(member.getId(), request);
+
+        if (accept) {
+            exposureService.assertCanGuarantee(member.getId(), request.getGuaranteeAmount());
+            request.setStatus(Guarantor.GuarantorStatus.ACCEPTED);
+            exposureService.onAccepted(request);
+        } else {
+            request.setStatus(Guarantor.GuarantorStatus.DECLINED);
+        }
+        guarantorRepository.save(request);
     }
 
     @Transactional
@@ -110,4 +186,39 @@ public class LoanApplicationService {
         loan.setStatus(Loan.LoanStatus.SUBMITTED);
         loanRepository.save(loan);
     }
-}
\ No newline at end of file
+
+    /**
+     * Disburse an approved loan: generate its repayment schedule, set the balance to the total
+     * repayable (principal + scheduled interest) and activate it.
+     */
+    @Transactional
+    public Loan disburseLoan(UUID loanId, String checkNumber) {
+        Loan loan = loanRepository.findById(loanId)
+                .orElseThrow(() -> new ApiException("Loan not found", 404));
+        memberLockService.lock(loan.getMember().getId(), loan);
+
+        if (loan.getStatus() != Loan.LoanStatus.APPROVED) {
+            throw new ApiException("Only approved loans can be disbursed (status " + loan.getStatus() + ")", 400);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<LoanScheduleEngine.Installment> schedule = scheduleService.generate(loan, today);
+        BigDecimal totalRepayable = schedule.stream()
+                .map(LoanScheduleEngine.Installment::getTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        loan.setDurationWeeks(schedule.size());
+        loan.setWeeklyRepaymentAmount(schedule.get(0).getTotal());
+        loan.setLoanBalance(totalRepayable);
+        loan.setDisbursementDate(today);
+        loan.setStatus(Loan.LoanStatus.ACTIVE);
+        loanRepository.save(loan);
+
+        accountingService.postLoanDisbursement(loan);
+        // The balance carries the scheduled interest, so the receivable does too; it is earned as repaid
+        accountingService.postLoanInterestCapitalised(loan, totalRepayable.subtract(loan.getPrincipalAmount()));
+        log.info("Disbursed loan {} (cheque {}): {} weekly installments, {} repayable",
+                loan.getLoanNumber(), checkNumber, schedule.size(), totalRepayable);
+        return loan;
+    }
+}
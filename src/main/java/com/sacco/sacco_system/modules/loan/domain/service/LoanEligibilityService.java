@@ -2,6 +2,7 @@ package com.sacco.sacco_system.modules.loan.domain.service;
 
 import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
 import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.loan.api.dto.GuarantorExposureDTO;
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
@@ -27,6 +28,7 @@ public class LoanEligibilityService {
     private final SavingsAccountRepository savingsAccountRepository;
     private final LoanRepository loanRepository;
     private final SystemSettingService systemSettingService;
+    private final GuarantorExposureService exposureService;
 
     public Map<String, Object> checkEligibility(String email) {
 
@@ -85,6 +87,12 @@ public class LoanEligibilityService {
         response.put("membershipMonths", monthsMember);
         response.put("requiredMonths", minMembershipMonths);
 
+        // Guarantor standing, read from the exposure ledger
+        GuarantorExposureDTO exposure = exposureService.getExposure(member.getId());
+        response.put("outstandingGuarantees", exposure.getOutstandingGuaranteed());
+        response.put("activeGuarantees", exposure.getActiveGuarantees());
+        response.put("remainingGuaranteeCapacity", exposure.getRemainingCapacity());
+
         return response;
     }
 }
\ No newline at end of file
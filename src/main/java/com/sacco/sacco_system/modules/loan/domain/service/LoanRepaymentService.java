@@ -2,17 +2,20 @@ package com.sacco.sacco_system.modules.loan.domain.service;
 
 import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
 import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
-import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.PostingOutboxService;
 import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
 import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -20,15 +23,21 @@ import java.time.LocalDateTime;
 public class LoanRepaymentService {
 
     private final LoanRepository loanRepository;
-    private final AccountingService accountingService;
+    private final PostingOutboxService postingOutboxService;
     private final TransactionRepository transactionRepository;
     private final ReferenceCodeService referenceCodeService;
+    private final MemberLockService memberLockService;
+    private final LoanScheduleService scheduleService;
+    private final GuarantorExposureService exposureService;
 
     /**
      * Process a loan repayment from the Deposit Service (or other sources)
      */
     @Transactional
     public void processPayment(Loan loan, BigDecimal amount, String sourceAccountCode) {
+        // Serialize with other balance changes for this member (re-reads the loan if it was loaded before)
+        memberLockService.lock(loan.getMember().getId(), loan);
+
         // 1. Update Balance
         // Using the new clean Loan entity fields
         BigDecimal currentBalance = loan.getLoanBalance();
@@ -48,13 +57,18 @@ public class LoanRepaymentService {
 
         loanRepository.save(loan);
 
+        // Match against the repayment schedule, oldest installment first
+        BigDecimal interestPaid = scheduleService.applyRepayments(Map.of(loan.getId(), amount), LocalDate.now())
+                .getOrDefault(loan.getId(), BigDecimal.ZERO);
+        exposureService.onLoanBalances(Map.of(loan.getId(), newBalance));
+
         // 3. Accounting Entry
         // We link the repayment to the GL Account defined in the Loan Product
         String receivableAccount = loan.getProduct().getReceivableAccountCode();
         if (receivableAccount == null) receivableAccount = "1201"; // Default Asset Account
 
         // Post Event: Credit Loan Receivable (Asset), Debit Source (Cash/Bank)
-        accountingService.postEvent(
+        postingOutboxService.postEvent(
                 "LOAN_REPAYMENT",
                 "Repayment - " + loan.getLoanNumber(),
                 loan.getLoanNumber(),
@@ -62,6 +76,16 @@ public class LoanRepaymentService {
                 sourceAccountCode
         );
 
+        // Interest in this repayment moves from unearned to income
+        if (interestPaid.signum() > 0) {
+            postingOutboxService.postEvent(
+                    "LOAN_INTEREST_EARNED",
+                    "Interest earned - " + loan.getLoanNumber(),
+                    loan.getLoanNumber(),
+                    interestPaid
+            );
+        }
+
         // 4. Create Transaction Record
         Transaction txn = Transaction.builder()
                 .member(loan.getMember())
@@ -0,0 +1,92 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.loan.domain.entity.LoanProduct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weekly repayment schedules for both interest types.
+ *
+ * FLAT_RATE: interest on the full principal for the whole term, spread evenly.
+ * REDUCING_BALANCE: equal (annuity) installments, interest on the outstanding principal each week.
+ * Rounding differences go to the last installment, so principal always sums to the amount lent.
+ */
+public final class LoanScheduleEngine {
+
+    private static final BigDecimal WEEKS_PER_YEAR = BigDecimal.valueOf(52);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final MathContext MC = MathContext.DECIMAL64;
+
+    private LoanScheduleEngine() {
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Installment {
+        private final int number;
+        private final LocalDate dueDate;
+        private final BigDecimal principal;
+        private final BigDecimal interest;
+
+        public BigDecimal getTotal() {
+            return principal.add(interest);
+        }
+    }
+
+    /**
+     * @param annualRate annual interest in percent
+     * @param start      disbursement date; the first installment falls due a week later
+     */
+    public static List<Installment> build(BigDecimal principal, BigDecimal annualRate, LoanProduct.InterestType type,
+                                          int weeks, LocalDate start) {
+        if (weeks <= 0) throw new IllegalArgumentException("Loan term must be at least one week");
+        if (principal == null || principal.signum() <= 0) throw new IllegalArgumentException("Principal must be positive");
+
+        BigDecimal weeklyRate = (annualRate == null ? BigDecimal.ZERO : annualRate).divide(HUNDRED, MC).divide(WEEKS_PER_YEAR, MC);
+        return (type == LoanProduct.InterestType.REDUCING_BALANCE && weeklyRate.signum() > 0)
+                ? reducingBalance(principal, weeklyRate, weeks, start)
+                : flatRate(principal, weeklyRate, weeks, start);
+    }
+
+    private static List<Installment> flatRate(BigDecimal principal, BigDecimal weeklyRate, int weeks, LocalDate start) {
+        BigDecimal n = BigDecimal.valueOf(weeks);
+        BigDecimal totalInterest = principal.multiply(weeklyRate, MC).multiply(n).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal principalPart = principal.divide(n, 2, RoundingMode.DOWN);
+        BigDecimal interestPart = totalInterest.divide(n, 2, RoundingMode.DOWN);
+
+        List<Installment> schedule = new ArrayList<>(weeks);
+        BigDecimal principalLeft = principal;
+        BigDecimal interestLeft = totalInterest;
+        for (int i = 1; i <= weeks; i++) {
+            BigDecimal p = (i == weeks) ? principalLeft : principalPart;
+            BigDecimal r = (i == weeks) ? interestLeft : interestPart;
+            schedule.add(new Installment(i, start.plusWeeks(i), p, r));
+            principalLeft = principalLeft.subtract(p);
+            interestLeft = interestLeft.subtract(r);
+        }
+        return schedule;
+    }
+
+    private static List<Installment> reducingBalance(BigDecimal principal, BigDecimal weeklyRate, int weeks, LocalDate start) {
+        // payment = P * r / (1 - (1 + r)^-n)
+        BigDecimal discount = BigDecimal.ONE.subtract(BigDecimal.ONE.divide(BigDecimal.ONE.add(weeklyRate).pow(weeks, MC), MC));
+        BigDecimal payment = principal.multiply(weeklyRate, MC).divide(discount, 2, RoundingMode.HALF_UP);
+
+        List<Installment> schedule = new ArrayList<>(weeks);
+        BigDecimal balance = principal;
+        for (int i = 1; i <= weeks; i++) {
+            BigDecimal interest = balance.multiply(weeklyRate, MC).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal p = (i == weeks) ? balance : payment.subtract(interest).min(balance).max(BigDecimal.ZERO);
+            schedule.add(new Installment(i, start.plusWeeks(i), p, interest));
+            balance = balance.subtract(p);
+        }
+        return schedule;
+    }
+}
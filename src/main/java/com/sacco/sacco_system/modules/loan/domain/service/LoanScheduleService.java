@@ -0,0 +1,137 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.loan.api.dto.LoanInstallmentDTO;
+import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanAgingRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanScheduleRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanScheduleRepository.InstallmentPayment;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanScheduleRepository.InstallmentRow;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleEngine.Installment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loan repayment schedules: generated once at disbursement, then repayments are matched against
+ * the open installments oldest first, so arrears, aging and reminders read loan_schedule
+ * instead of recomputing expected payments.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanScheduleService {
+
+    public static final String PENDING = "PENDING";
+    public static final String PARTIAL = "PARTIAL";
+    public static final String PAID = "PAID";
+
+    private static final int MAX_PAGE = 1000;
+
+    private final LoanScheduleRepository scheduleRepository;
+    private final LoanAgingRepository agingRepository;
+
+    /**
+     * Build and store the schedule for a loan being disbursed. Returns the installments.
+     */
+    @Transactional
+    public List<Installment> generate(Loan loan, LocalDate disbursementDate) {
+        if (scheduleRepository.existsForLoan(loan.getId())) {
+            throw new IllegalStateException("Loan " + loan.getLoanNumber() + " already has a repayment schedule");
+        }
+        Integer weeks = loan.getDurationWeeks() != null ? loan.getDurationWeeks() : loan.getProduct().getMaxDurationWeeks();
+        if (weeks == null || weeks <= 0) {
+            throw new ApiException("Loan " + loan.getLoanNumber() + " has no repayment term; set its duration before disbursing", 400);
+        }
+        List<Installment> schedule = LoanScheduleEngine.build(loan.getPrincipalAmount(), loan.getInterestRate(),
+                loan.getProduct().getInterestType(), weeks, disbursementDate);
+        scheduleRepository.insert(loan.getId(), schedule);
+        agingRepository.insertForReview(loan.getId(), disbursementDate);
+        log.info("Generated {} installments for loan {}", schedule.size(), loan.getLoanNumber());
+        return schedule;
+    }
+
+    /**
+     * Match repayments (loanId -> amount) against open installments, oldest first, interest before
+     * principal within an installment. Runs inside the caller's transaction, which must already hold
+     * the borrowers' member locks. Anything paid beyond the last installment is left on the loan
+     * balance only. Returns the interest paid per loan, which the caller recognises as income.
+     */
+    @Transactional
+    public Map<UUID, BigDecimal> applyRepayments(Map<UUID, BigDecimal> amounts, LocalDate paidOn) {
+        Map<UUID, BigDecimal> remaining = new HashMap<>();
+        amounts.forEach((loanId, amount) -> {
+            if (amount != null && amount.signum() > 0) remaining.put(loanId, amount);
+        });
+        Map<UUID, BigDecimal> interestPaid = new HashMap<>();
+        if (remaining.isEmpty()) return interestPaid;
+
+        List<InstallmentPayment> payments = new ArrayList<>();
+        for (InstallmentRow row : scheduleRepository.lockOpen(remaining.keySet())) {
+            BigDecimal left = remaining.get(row.getLoanId());
+            if (left.signum() == 0) continue;
+
+            BigDecimal open = row.getTotalDue().subtract(row.getAmountPaid());
+            BigDecimal applied = left.min(open);
+            BigDecimal paid = row.getAmountPaid().add(applied);
+            BigDecimal interest = paid.min(row.getInterestDue()).subtract(row.getAmountPaid().min(row.getInterestDue()));
+            if (interest.signum() > 0) interestPaid.merge(row.getLoanId(), interest, BigDecimal::add);
+            boolean settled = paid.compareTo(row.getTotalDue()) >= 0;
+            payments.add(new InstallmentPayment(row.getLoanId(), row.getInstallmentNo(), paid,
+                    settled ? PAID : PARTIAL, settled ? paidOn : null));
+            remaining.put(row.getLoanId(), left.subtract(applied));
+        }
+        scheduleRepository.updatePayments(payments);
+        // Aging re-evaluates these loans on the next run
+        agingRepository.markForReview(remaining.keySet(), paidOn);
+        return interestPaid;
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoanInstallmentDTO> getSchedule(UUID loanId) {
+        LocalDate today = LocalDate.now();
+        return scheduleRepository.findByLoan(loanId).stream().map(row -> toDTO(row, today)).toList();
+    }
+
+    /**
+     * Open installments due on or before the day, overdue first. Page with the last row's
+     * (dueDate, loanId, installmentNo).
+     */
+    @Transactional(readOnly = true)
+    public List<LoanInstallmentDTO> getDueThrough(LocalDate day, LocalDate afterDueDate, UUID afterLoanId,
+                                                  Integer afterInstallmentNo, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE));
+        return scheduleRepository.findOpenDueThrough(day, afterDueDate, afterLoanId,
+                        afterInstallmentNo != null ? afterInstallmentNo : 0, pageSize)
+                .stream().map(row -> toDTO(row, day)).toList();
+    }
+
+    private static LoanInstallmentDTO toDTO(InstallmentRow row, LocalDate asOf) {
+        boolean open = !PAID.equals(row.getStatus());
+        return LoanInstallmentDTO.builder()
+                .loanId(row.getLoanId())
+                .loanNumber(row.getLoanNumber())
+                .memberId(row.getMemberId())
+                .installmentNo(row.getInstallmentNo())
+                .dueDate(row.getDueDate())
+                .principalDue(row.getPrincipalDue())
+                .interestDue(row.getInterestDue())
+                .totalDue(row.getTotalDue())
+                .amountPaid(row.getAmountPaid())
+                .amountOutstanding(row.getTotalDue().subtract(row.getAmountPaid()))
+                .status(row.getStatus())
+                .paidDate(row.getPaidDate())
+                .daysOverdue(open && row.getDueDate().isBefore(asOf) ? ChronoUnit.DAYS.between(row.getDueDate(), asOf) : 0)
+                .build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.sacco.sacco_system.modules.member.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-member execution lane for balance-mutating operations (member totals, savings
+ * balances, loan balances, share capital).
+ *
+ * A lane is held for the rest of the current transaction: a striped in-process lock keeps
+ * same-node requests queued in the JVM, and a transaction-scoped Postgres advisory lock
+ * extends the guarantee across nodes. Unrelated members only contend on a shared stripe
+ * (1 in 1024). Re-entrant within a transaction, so nested services can lock the same member.
+ * Read balances only after taking the lane, or pass already-loaded entities to be refreshed.
+ *
+ * Online requests wait at most app.members.lock-timeout-ms for a lane and then fail with 409
+ * instead of queueing behind a batch. Bulk jobs take only the advisory locks (no stripes), so a
+ * batch never blocks unrelated members that happen to share a stripe.
+ *
+ * A transaction should make one lock() or lockAll() call for new members: lanes are not ordered
+ * across calls, so two transactions locking A then B and B then A can deadlock (Postgres aborts
+ * one of them). Nested calls for members the transaction already holds are fine.
+ */
+@Service
+@Slf4j
+public class MemberLockService {
+
+    static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.members.lock-timeout-ms:10000}")
+    private long lockTimeoutMs = 10000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public MemberLockService(AdvisoryLocks advisoryLocks, TransactionTemplate transactionTemplate) {
+        this.advisoryLocks = advisoryLocks;
+        this.transactionTemplate = transactionTemplate;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Run the work in a transaction that holds the member's lane (joins an existing transaction)
+     */
+    public <T> T execute(UUID memberId, Supplier<T> work) {
+        return transactionTemplate.execute(status -> {
+            lock(memberId);
+            return work.get();
+        });
+    }
+
+    /**
+     * Take the member's lane until the current transaction completes. Entities passed in are
+     * refreshed if the lane was not already held, since they may have been read before it.
+     *
+     * @return true if this call acquired the lane, false if the transaction already held it
+     */
+    public boolean lock(UUID memberId, Object... loadedEntities) {
+        Set<UUID> held = heldByTransaction();
+        if (held.contains(memberId)) return false;
+
+        long deadline = System.currentTimeMillis() + lockTimeoutMs;
+        acquireStripe(memberId);
+        if (!advisoryLocks.tryLockForTransaction(advisoryKey(memberId), Math.max(0, deadline - System.currentTimeMillis()))) {
+            throw busy(memberId);
+        }
+        held.add(memberId);
+
+        for (Object entity : loadedEntities) {
+            if (entity != null && entityManager != null && entityManager.contains(entity)) {
+                entityManager.refresh(entity);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take several lanes at once (bulk jobs). Only the advisory locks are taken, in key order so
+     * two bulk transactions can never deadlock on each other; online requests for these members
+     * still queue behind them through the advisory lock.
+     */
+    public void lockAll(Collection<UUID> memberIds) {
+        Set<UUID> held = heldByTransaction();
+        TreeMap<Long, UUID> byKey = new TreeMap<>();
+        for (UUID memberId : memberIds) {
+            if (!held.contains(memberId)) byKey.put(advisoryKey(memberId), memberId);
+        }
+
+        byKey.forEach((key, memberId) -> {
+            advisoryLocks.lockForTransaction(key);
+            held.add(memberId);
+        });
+    }
+
+    public boolean isLocked(UUID memberId) {
+        return TransactionSynchronizationManager.isSynchronizationActive() && heldByTransaction().contains(memberId);
+    }
+
+    static int stripeOf(UUID memberId) {
+        return Math.floorMod(memberId.hashCode(), STRIPES);
+    }
+
+    private static long advisoryKey(UUID memberId) {
+        return AdvisoryLocks.keyOf("MEMBER:" + memberId);
+    }
+
+    /**
+     * Lock the member's stripe and release it when the transaction completes (same thread)
+     */
+    private void acquireStripe(UUID memberId) {
+        ReentrantLock stripe = stripes[stripeOf(memberId)];
+        try {
+            if (!stripe.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) throw busy(memberId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy(memberId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+    }
+
+    private ApiException busy(UUID memberId) {
+        log.warn("Timed out after {} ms waiting for member lane {}", lockTimeoutMs, memberId);
+        return new ApiException("Another operation on this member's account is in progress, please retry", 409);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<UUID> heldByTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Member lanes can only be taken inside a transaction");
+        }
+        Set<UUID> held = (Set<UUID>) TransactionSynchronizationManager.getResource(this);
+        if (held == null) {
+            Set<UUID> fresh = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, fresh);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberLockService.this);
+                }
+            });
+            held = fresh;
+        }
+        return held;
+    }
+}
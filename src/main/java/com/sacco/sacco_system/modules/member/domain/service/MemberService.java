@@ -1,6 +1,7 @@
 package com.sacco.sacco_system.modules.member.domain.service;
 
 import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.core.util.NumberSequences;
 
 import com.sacco.sacco_system.modules.member.api.dto.BeneficiaryDTO;
 import com.sacco.sacco_system.modules.member.api.dto.EmploymentDetailsDTO;
@@ -12,7 +13,7 @@ import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
 import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
-import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.PostingOutboxService;
 import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
 import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
@@ -45,8 +46,9 @@ public class MemberService {
     private final TransactionRepository transactionRepository;
     private final SystemSettingService systemSettingService;
     private final SavingsAccountRepository savingsAccountRepository;
-    private final AccountingService accountingService;
+    private final PostingOutboxService postingOutboxService;
     private final ReferenceCodeService referenceCodeService;
+    private final NumberSequences numberSequences;
 
     @Value("${app.upload.dir:uploads/profiles/}")
     private String uploadDir;
@@ -217,7 +219,7 @@ public class MemberService {
                 sourceAccount = "1001"; // Cash on Hand
             }
 
-            accountingService.postEvent(
+            postingOutboxService.postEvent(
                     "REGISTRATION_FEE",
                     "Registration Fee - " + member.getMemberNumber(),
                     systemRef,
@@ -289,13 +291,11 @@ public class MemberService {
     }
 
     private String generateMemberNumber() {
-        long count = memberRepository.count();
-        return "MEM" + String.format("%06d", count + 1);
+        return numberSequences.next(NumberSequences.Prefix.MEM);
     }
 
     private String generateSavingsAccountNumber() {
-        long count = savingsAccountRepository.count();
-        return "SAV" + String.format("%05d", count + 1);
+        return numberSequences.next(NumberSequences.Prefix.SAV);
     }
 
     public MemberDTO convertToDTO(Member member) {
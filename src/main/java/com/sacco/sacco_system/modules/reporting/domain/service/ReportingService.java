@@ -8,6 +8,7 @@ import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanAgingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +29,7 @@ public class ReportingService {
     private final TransactionRepository transactionRepository;
     private final MemberRepository memberRepository;
     private final SystemSettingRepository systemSettingRepository;
+    private final LoanAgingService loanAgingService;
 
     @Transactional(readOnly = true)
     public MemberStatementDTO getMemberStatement(UUID memberId, LocalDate startDate, LocalDate endDate) {
@@ -174,6 +176,6 @@ public class ReportingService {
 
     @Transactional(readOnly = true)
     public List<LoanAgingDTO> getLoanAgingReport() {
-        return new ArrayList<>();
+        return loanAgingService.getAgingReport();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.sacco.sacco_system.modules.savings.domain.entity.Withdrawal;
 import com.sacco.sacco_system.modules.savings.api.dto.SavingsAccountDTO;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.users.domain.entity.User;
+import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
 import com.sacco.sacco_system.modules.savings.domain.entity.SavingsProduct;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
@@ -60,9 +61,10 @@ public class SavingsController {
     public ResponseEntity<Map<String, Object>> openAccount(
             @RequestParam UUID memberId,
             @RequestParam UUID productId,
-            @RequestParam(required = false, defaultValue = "0") BigDecimal initialDeposit) {
+            @RequestParam(required = false, defaultValue = "0") BigDecimal initialDeposit,
+            @RequestParam(required = false) SavingsAccount.MaturityInstruction maturityInstruction) {
         try {
-            SavingsAccountDTO account = savingsService.openAccount(memberId, productId, initialDeposit);
+            SavingsAccountDTO account = savingsService.openAccount(memberId, productId, initialDeposit, maturityInstruction);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", account);
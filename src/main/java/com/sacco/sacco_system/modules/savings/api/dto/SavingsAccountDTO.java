@@ -27,6 +27,7 @@ public class SavingsAccountDTO {
     // âœ… NEW FIELDS FOR UI
     private String productName;
     private BigDecimal interestRate;
+    private String maturityInstruction; // ROLLOVER or TRANSFER (fixed deposits)
     private LocalDate maturityDate;    private BigDecimal accruedInterest;}
 
 
@@ -0,0 +1,28 @@
+package com.sacco.sacco_system.modules.savings.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of a monthly savings interest run (one per period).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavingsInterestRunDTO {
+
+    private String period; // yyyy-MM
+    private String status; // RUNNING, COMPLETED
+    private int chunks;
+    private int chunksDone;
+    private int accountsCredited;
+    private BigDecimal totalInterest;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -56,6 +56,10 @@ public class SavingsAccount {
     // âœ… NEW: For Fixed/Restricted Accounts
     private LocalDate maturityDate;
 
+    // Fixed deposits: what the maturity run does with principal + interest (null = lock-in just ends)
+    @Enumerated(EnumType.STRING)
+    private MaturityInstruction maturityInstruction;
+
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private AccountStatus status = AccountStatus.ACTIVE;
@@ -83,6 +87,11 @@ public class SavingsAccount {
     public enum AccountStatus {
         ACTIVE, DORMANT, CLOSED, FROZEN, MATURED
     }
+
+    public enum MaturityInstruction {
+        ROLLOVER, // renew for another term
+        TRANSFER  // move to the member's ordinary savings account and mark MATURED
+    }
 }
 
 
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +21,10 @@ public interface SavingsAccountRepository extends JpaRepository<SavingsAccount,
 
     Optional<SavingsAccount> findByAccountNumber(String accountNumber);
 
+    // Batch lookup with owner and product in one query (deposit allocations)
+    @Query("SELECT s FROM SavingsAccount s JOIN FETCH s.member LEFT JOIN FETCH s.product WHERE s.id IN :ids")
+    List<SavingsAccount> findAllWithMemberByIdIn(@Param("ids") Collection<UUID> ids);
+
     List<SavingsAccount> findByStatus(SavingsAccount.AccountStatus status);
 
     // --- 2. FOR LOAN MODULE (Single Member Total) ---
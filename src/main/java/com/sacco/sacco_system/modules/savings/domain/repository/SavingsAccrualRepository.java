@@ -0,0 +1,129 @@
+package com.sacco.sacco_system.modules.savings.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access for the average-daily-balance accrual ledger (savings_interest_accruals and
+ * savings_interest_accrual_closings) and the daily balance-change feed it is built from.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SavingsAccrualRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class BalanceChange {
+        private final UUID accountId;
+        private final BigDecimal endOfDayBalance;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class AccrualState {
+        private final UUID accountId;
+        private final String period;
+        private final BigDecimal balance;
+        private final LocalDate asOf;
+        private final BigDecimal balanceDays;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Closing {
+        private final UUID accountId;
+        private final String period;
+        private final BigDecimal balanceDays;
+        private final BigDecimal closingBalance;
+    }
+
+    /**
+     * Day the ledger was started from (fallback watermark when the job has never run)
+     */
+    public LocalDate findEarliestAsOf() {
+        return jdbcTemplate.queryForObject("SELECT MIN(as_of) FROM savings_interest_accruals", LocalDate.class);
+    }
+
+    /**
+     * Next page of accounts whose balance changed on the day, with their last balance_after that day.
+     * Same-timestamp rows (bulk imports) are deposits applied in order, so the larger balance is the later one.
+     */
+    public List<BalanceChange> findEndOfDayBalances(LocalDate day, UUID after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(day.atStartOfDay()))
+                .addValue("to", Timestamp.valueOf(day.plusDays(1).atStartOfDay()))
+                .addValue("after", after)
+                .addValue("limit", limit);
+        return namedJdbcTemplate.query(
+                "SELECT DISTINCT ON (savings_account_id) savings_account_id, balance_after FROM transactions " +
+                "WHERE transaction_date >= :from AND transaction_date < :to " +
+                "AND savings_account_id IS NOT NULL AND balance_after IS NOT NULL" +
+                (after != null ? " AND savings_account_id > :after" : "") +
+                " ORDER BY savings_account_id, transaction_date DESC, balance_after DESC LIMIT :limit",
+                params,
+                (rs, i) -> new BalanceChange(rs.getObject("savings_account_id", UUID.class), rs.getBigDecimal("balance_after")));
+    }
+
+    public Map<UUID, AccrualState> findStates(Collection<UUID> accountIds) {
+        Map<UUID, AccrualState> states = new HashMap<>();
+        if (accountIds.isEmpty()) return states;
+        namedJdbcTemplate.query(
+                "SELECT account_id, period, balance, as_of, balance_days FROM savings_interest_accruals WHERE account_id IN (:ids)",
+                new MapSqlParameterSource("ids", accountIds),
+                rs -> {
+                    UUID id = rs.getObject("account_id", UUID.class);
+                    states.put(id, new AccrualState(id, rs.getString("period"), rs.getBigDecimal("balance"),
+                            rs.getDate("as_of").toLocalDate(), rs.getBigDecimal("balance_days")));
+                });
+        return states;
+    }
+
+    public void saveStates(List<AccrualState> states) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO savings_interest_accruals (account_id, period, balance, as_of, balance_days) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT (account_id) DO UPDATE SET period = EXCLUDED.period, balance = EXCLUDED.balance, " +
+                "as_of = EXCLUDED.as_of, balance_days = EXCLUDED.balance_days",
+                states, BATCH_SIZE,
+                (ps, state) -> {
+                    ps.setObject(1, state.getAccountId());
+                    ps.setString(2, state.getPeriod());
+                    ps.setBigDecimal(3, state.getBalance());
+                    ps.setDate(4, Date.valueOf(state.getAsOf()));
+                    ps.setBigDecimal(5, state.getBalanceDays());
+                });
+    }
+
+    public void saveClosings(List<Closing> closings) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO savings_interest_accrual_closings (account_id, period, balance_days, closing_balance) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (account_id, period) DO UPDATE SET balance_days = EXCLUDED.balance_days, " +
+                "closing_balance = EXCLUDED.closing_balance",
+                closings, BATCH_SIZE,
+                (ps, closing) -> {
+                    ps.setObject(1, closing.getAccountId());
+                    ps.setString(2, closing.getPeriod());
+                    ps.setBigDecimal(3, closing.getBalanceDays());
+                    ps.setBigDecimal(4, closing.getClosingBalance());
+                });
+    }
+}
@@ -0,0 +1,266 @@
+package com.sacco.sacco_system.modules.savings.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC access for the monthly interest run: run/chunk bookkeeping (savings_interest_runs,
+ * savings_interest_chunks), keyset paging over account ids and batched balance credits.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SavingsInterestRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Balance-days of account a over the period through :through, from the accrual ledger: the
+     * closed period if the account changed after it ended, else the running sum filled to the
+     * through day, else the unchanged balance for every day
+     */
+    private static final String BALANCE_DAYS =
+            "COALESCE(c.balance_days, CASE " +
+            "WHEN s.period = :period THEN s.balance_days + s.balance * (CAST(:through AS DATE) - s.as_of) " +
+            "WHEN s.period < :period THEN s.balance * :days " +
+            "WHEN s.period > :period THEN 0 " +
+            "ELSE a.balance * :days END)";
+    private static final String BALANCE_DAYS_JOINS =
+            "LEFT JOIN savings_interest_accrual_closings c ON c.account_id = a.id AND c.period = :period " +
+            "LEFT JOIN savings_interest_accruals s ON s.account_id = a.id ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Chunk {
+        private final int chunkNo;
+        private final UUID firstAccountId;
+        private final UUID lastAccountId;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class InterestAccount {
+        private final UUID id;
+        private final UUID memberId;
+        private final String accountNumber;
+        private final UUID productId;
+        private final String productName;
+        private final BigDecimal balance;
+        private final BigDecimal interestRate;
+        private final BigDecimal balanceDays; // sum of end-of-day balances over the period
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class RunSummary {
+        private final String period;
+        private final String status;
+        private final int chunks;
+        private final int chunksDone;
+        private final int accountsCredited;
+        private final BigDecimal totalInterest;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime completedAt;
+    }
+
+    // ========================================================================
+    // 1. RUN PLANNING
+    // ========================================================================
+
+    public Optional<String> findRunStatus(String period) {
+        return jdbcTemplate.query("SELECT status FROM savings_interest_runs WHERE period = ?",
+                rs -> rs.next() ? Optional.of(rs.getString("status")) : Optional.<String>empty(), period);
+    }
+
+    /**
+     * Next page of candidate account ids after the cursor (null = from the start)
+     */
+    public List<UUID> findAccountIdsAfter(UUID after, int limit) {
+        String sql = "SELECT id FROM savings_accounts WHERE status = 'ACTIVE'" +
+                (after != null ? " AND id > ?" : "") + " ORDER BY id LIMIT ?";
+        Object[] args = (after != null) ? new Object[] {after, limit} : new Object[] {limit};
+        return jdbcTemplate.queryForList(sql, UUID.class, args);
+    }
+
+    public void insertRun(String period, List<Chunk> chunks, LocalDateTime now) {
+        jdbcTemplate.update(
+                "INSERT INTO savings_interest_runs (period, status, chunks, started_at) VALUES (?, 'RUNNING', ?, ?)",
+                period, chunks.size(), Timestamp.valueOf(now));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO savings_interest_chunks (period, chunk_no, first_account_id, last_account_id) VALUES (?, ?, ?, ?)",
+                chunks, BATCH_SIZE,
+                (ps, chunk) -> {
+                    ps.setString(1, period);
+                    ps.setInt(2, chunk.getChunkNo());
+                    ps.setObject(3, chunk.getFirstAccountId());
+                    ps.setObject(4, chunk.getLastAccountId());
+                });
+    }
+
+    public List<Chunk> findPendingChunks(String period) {
+        return jdbcTemplate.query(
+                "SELECT chunk_no, first_account_id, last_account_id FROM savings_interest_chunks " +
+                "WHERE period = ? AND status = 'PENDING' ORDER BY chunk_no",
+                (rs, i) -> new Chunk(rs.getInt("chunk_no"),
+                        rs.getObject("first_account_id", UUID.class), rs.getObject("last_account_id", UUID.class)),
+                period);
+    }
+
+    // ========================================================================
+    // 2. CHUNK PROCESSING (one transaction per chunk)
+    // ========================================================================
+
+    /**
+     * Lock a chunk that is still pending. False if it is done, or being worked on by another node.
+     */
+    public boolean claimChunk(String period, int chunkNo) {
+        return !jdbcTemplate.queryForList(
+                "SELECT chunk_no FROM savings_interest_chunks WHERE period = ? AND chunk_no = ? AND status = 'PENDING' " +
+                "FOR UPDATE SKIP LOCKED", Integer.class, period, chunkNo).isEmpty();
+    }
+
+    public List<UUID> findMemberIds(Chunk chunk) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT member_id FROM savings_accounts WHERE id BETWEEN ? AND ?",
+                UUID.class, chunk.getFirstAccountId(), chunk.getLastAccountId());
+    }
+
+    /**
+     * Interest-bearing accounts in the chunk, row-locked (taken after the member lanes), with
+     * their balance-days for the period (see BALANCE_DAYS)
+     */
+    public List<InterestAccount> lockInterestAccounts(Chunk chunk, YearMonth period) {
+        MapSqlParameterSource params = balanceDaysParams(period, period.atEndOfMonth())
+                .addValue("first", chunk.getFirstAccountId())
+                .addValue("last", chunk.getLastAccountId());
+        return namedJdbcTemplate.query(
+                "SELECT a.id, a.member_id, a.account_number, a.balance, p.id AS product_id, p.name AS product_name, p.interest_rate, " +
+                BALANCE_DAYS + " AS balance_days " +
+                "FROM savings_accounts a JOIN savings_products p ON p.id = a.product_id " + BALANCE_DAYS_JOINS +
+                "WHERE a.id BETWEEN :first AND :last AND a.status = 'ACTIVE' AND p.interest_rate > 0 " +
+                "ORDER BY a.id FOR UPDATE OF a",
+                params,
+                (rs, i) -> new InterestAccount(rs.getObject("id", UUID.class), rs.getObject("member_id", UUID.class),
+                        rs.getString("account_number"), rs.getObject("product_id", UUID.class),
+                        rs.getString("product_name"), rs.getBigDecimal("balance"), rs.getBigDecimal("interest_rate"),
+                        rs.getBigDecimal("balance_days")));
+    }
+
+    /**
+     * id -> balance-days of the period up to and including the through day (fixed-deposit maturities)
+     */
+    public Map<UUID, BigDecimal> findBalanceDays(Collection<UUID> accountIds, YearMonth period, LocalDate through) {
+        Map<UUID, BigDecimal> balanceDays = new HashMap<>();
+        if (accountIds.isEmpty()) return balanceDays;
+        namedJdbcTemplate.query(
+                "SELECT a.id, " + BALANCE_DAYS + " AS balance_days FROM savings_accounts a " + BALANCE_DAYS_JOINS +
+                "WHERE a.id IN (:ids)",
+                balanceDaysParams(period, through).addValue("ids", accountIds),
+                rs -> { balanceDays.put(rs.getObject("id", UUID.class), rs.getBigDecimal("balance_days")); });
+        return balanceDays;
+    }
+
+    /**
+     * Accounts among ids whose interest for the period has been credited by the monthly run
+     */
+    public Set<UUID> findCreditedAccountIds(Collection<UUID> accountIds, String period) {
+        Set<UUID> credited = new HashSet<>();
+        if (accountIds.isEmpty()) return credited;
+        namedJdbcTemplate.query(
+                "SELECT a.id FROM savings_accounts a WHERE a.id IN (:ids) AND EXISTS (" +
+                "SELECT 1 FROM savings_interest_chunks c WHERE c.period = :period AND c.status = 'DONE' " +
+                "AND a.id BETWEEN c.first_account_id AND c.last_account_id)",
+                new MapSqlParameterSource("ids", accountIds).addValue("period", period),
+                rs -> { credited.add(rs.getObject("id", UUID.class)); });
+        return credited;
+    }
+
+    /**
+     * rows: {accountId, interest}
+     */
+    public void creditInterest(List<Object[]> rows, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE savings_accounts SET balance = balance + ?, accrued_interest = COALESCE(accrued_interest, 0) + ?, " +
+                "updated_at = ? WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, (BigDecimal) row[1]);
+                    ps.setBigDecimal(2, (BigDecimal) row[1]);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setObject(4, row[0]);
+                });
+    }
+
+    public void completeChunk(String period, int chunkNo, int accountsCredited, BigDecimal totalInterest, LocalDateTime now) {
+        jdbcTemplate.update(
+                "UPDATE savings_interest_chunks SET status = 'DONE', accounts_credited = ?, total_interest = ?, completed_at = ? " +
+                "WHERE period = ? AND chunk_no = ?",
+                accountsCredited, totalInterest, Timestamp.valueOf(now), period, chunkNo);
+    }
+
+    // ========================================================================
+    // 3. COMPLETION
+    // ========================================================================
+
+    /**
+     * Close the run once every chunk is done; returns false while chunks are still pending
+     */
+    public boolean completeRun(String period, LocalDateTime now) {
+        return jdbcTemplate.update(
+                "UPDATE savings_interest_runs r SET status = 'COMPLETED', completed_at = ?, " +
+                "accounts_credited = (SELECT COALESCE(SUM(c.accounts_credited), 0) FROM savings_interest_chunks c WHERE c.period = r.period), " +
+                "total_interest = (SELECT COALESCE(SUM(c.total_interest), 0) FROM savings_interest_chunks c WHERE c.period = r.period) " +
+                "WHERE r.period = ? AND r.status <> 'COMPLETED' " +
+                "AND NOT EXISTS (SELECT 1 FROM savings_interest_chunks c WHERE c.period = r.period AND c.status <> 'DONE')",
+                Timestamp.valueOf(now), period) > 0;
+    }
+
+    public Optional<RunSummary> findRun(String period) {
+        List<RunSummary> runs = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT r.period, r.status, r.chunks, r.started_at, r.completed_at, " +
+                "COUNT(c.chunk_no) FILTER (WHERE c.status = 'DONE') AS chunks_done, " +
+                "COALESCE(SUM(c.accounts_credited), 0) AS accounts_credited, COALESCE(SUM(c.total_interest), 0) AS total_interest " +
+                "FROM savings_interest_runs r LEFT JOIN savings_interest_chunks c ON c.period = r.period " +
+                "WHERE r.period = ? GROUP BY r.period, r.status, r.chunks, r.started_at, r.completed_at",
+                rs -> {
+                    Timestamp completed = rs.getTimestamp("completed_at");
+                    runs.add(new RunSummary(rs.getString("period"), rs.getString("status"), rs.getInt("chunks"),
+                            rs.getInt("chunks_done"), rs.getInt("accounts_credited"), rs.getBigDecimal("total_interest"),
+                            rs.getTimestamp("started_at").toLocalDateTime(),
+                            completed != null ? completed.toLocalDateTime() : null));
+                },
+                period);
+        return runs.stream().findFirst();
+    }
+
+    private static MapSqlParameterSource balanceDaysParams(YearMonth period, LocalDate through) {
+        return new MapSqlParameterSource()
+                .addValue("period", period.toString())
+                .addValue("through", Date.valueOf(through))
+                .addValue("days", through.getDayOfMonth());
+    }
+}
@@ -0,0 +1,162 @@
+package com.sacco.sacco_system.modules.savings.domain.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC access for fixed-deposit maturity processing. Due accounts are read through the partial
+ * index on savings_accounts(maturity_date) (ACTIVE, dated), so a day reads only what matures.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SavingsMaturityRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class DueAccount {
+        private final UUID id;
+        private final UUID memberId;
+        private final String accountNumber;
+        private final BigDecimal balance;
+        private final LocalDate maturityDate;
+        private final String maturityInstruction;
+        private final UUID productId;
+        private final String productName;
+        private final String productType;
+        private final BigDecimal interestRate;
+        private final Integer termMonths;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class TransferTarget {
+        private final UUID id;
+        private final String accountNumber;
+        private final BigDecimal balance;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class MaturedAccount {
+        private final UUID id;
+        private final BigDecimal balance;
+        private final BigDecimal interest;
+        private final BigDecimal transferredOut;
+        private final LocalDate maturityDate; // null once released
+        private final String status;
+    }
+
+    /**
+     * Next accounts due on or before the day, oldest maturity first: {id, memberId}
+     */
+    public List<UUID[]> findDue(LocalDate day, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, member_id FROM savings_accounts WHERE status = 'ACTIVE' AND maturity_date IS NOT NULL " +
+                "AND maturity_date <= ? ORDER BY maturity_date, id LIMIT ?",
+                (rs, i) -> new UUID[] {rs.getObject("id", UUID.class), rs.getObject("member_id", UUID.class)},
+                Date.valueOf(day), limit);
+    }
+
+    /**
+     * Due accounts row-locked (after the member lanes), re-checked against the day
+     */
+    public List<DueAccount> lockDue(Collection<UUID> ids, LocalDate day) {
+        if (ids.isEmpty()) return List.of();
+        return namedJdbcTemplate.query(
+                "SELECT a.id, a.member_id, a.account_number, a.balance, a.maturity_date, a.maturity_instruction, " +
+                "p.id AS product_id, p.name AS product_name, p.type AS product_type, p.interest_rate, p.min_duration_months " +
+                "FROM savings_accounts a LEFT JOIN savings_products p ON p.id = a.product_id " +
+                "WHERE a.id IN (:ids) AND a.status = 'ACTIVE' AND a.maturity_date <= :day " +
+                "ORDER BY a.id FOR UPDATE OF a",
+                new MapSqlParameterSource("ids", ids).addValue("day", Date.valueOf(day)),
+                (rs, i) -> new DueAccount(rs.getObject("id", UUID.class), rs.getObject("member_id", UUID.class),
+                        rs.getString("account_number"), nz(rs.getBigDecimal("balance")),
+                        rs.getDate("maturity_date").toLocalDate(), rs.getString("maturity_instruction"),
+                        rs.getObject("product_id", UUID.class), rs.getString("product_name"), rs.getString("product_type"),
+                        nz(rs.getBigDecimal("interest_rate")), (Integer) rs.getObject("min_duration_months")));
+    }
+
+    /**
+     * memberId -> the member's ordinary savings account (oldest active account without a maturity date), row-locked
+     */
+    public Map<UUID, TransferTarget> lockTransferTargets(Collection<UUID> memberIds) {
+        Map<UUID, TransferTarget> targets = new HashMap<>();
+        if (memberIds.isEmpty()) return targets;
+        Map<UUID, UUID> memberByAccount = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT DISTINCT ON (member_id) id, member_id FROM savings_accounts " +
+                "WHERE member_id IN (:ids) AND status = 'ACTIVE' AND maturity_date IS NULL " +
+                "ORDER BY member_id, account_open_date, id",
+                new MapSqlParameterSource("ids", memberIds),
+                rs -> { memberByAccount.put(rs.getObject("id", UUID.class), rs.getObject("member_id", UUID.class)); });
+        if (memberByAccount.isEmpty()) return targets;
+
+        namedJdbcTemplate.query(
+                "SELECT id, account_number, balance FROM savings_accounts WHERE id IN (:ids) AND status = 'ACTIVE' " +
+                "ORDER BY id FOR UPDATE",
+                new MapSqlParameterSource("ids", memberByAccount.keySet()),
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    targets.put(memberByAccount.get(id),
+                            new TransferTarget(id, rs.getString("account_number"), nz(rs.getBigDecimal("balance"))));
+                });
+        return targets;
+    }
+
+    public void updateMatured(List<MaturedAccount> accounts, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE savings_accounts SET balance = ?, accrued_interest = COALESCE(accrued_interest, 0) + ?, " +
+                "total_withdrawals = COALESCE(total_withdrawals, 0) + ?, maturity_date = ?, status = ?, updated_at = ? WHERE id = ?",
+                accounts, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, row.getBalance());
+                    ps.setBigDecimal(2, row.getInterest());
+                    ps.setBigDecimal(3, row.getTransferredOut());
+                    ps.setDate(4, row.getMaturityDate() != null ? Date.valueOf(row.getMaturityDate()) : null);
+                    ps.setString(5, row.getStatus());
+                    ps.setTimestamp(6, Timestamp.valueOf(now));
+                    ps.setObject(7, row.getId());
+                });
+    }
+
+    /**
+     * rows: {accountId, amount}
+     */
+    public void creditTransfers(List<Object[]> rows, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE savings_accounts SET balance = balance + ?, total_deposits = COALESCE(total_deposits, 0) + ?, " +
+                "updated_at = ? WHERE id = ?",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setBigDecimal(1, (BigDecimal) row[1]);
+                    ps.setBigDecimal(2, (BigDecimal) row[1]);
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    ps.setObject(4, row[0]);
+                });
+    }
+
+    private static BigDecimal nz(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
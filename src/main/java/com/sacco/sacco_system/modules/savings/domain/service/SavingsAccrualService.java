@@ -0,0 +1,149 @@
+package com.sacco.sacco_system.modules.savings.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository.AccrualState;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository.BalanceChange;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository.Closing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily average-daily-balance accrual.
+ *
+ * Each account keeps a running sum of end-of-day balances for the current period
+ * (savings_interest_accruals). The end-of-day job reads only the accounts whose balance
+ * changed that day (transactions.balance_after) and rolls their sums forward, so a day costs
+ * O(accounts touched). Unchanged days are filled in arithmetically when the account next
+ * changes or when the period is capitalised; a period is closed into
+ * savings_interest_accrual_closings when an account first changes after it ended.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavingsAccrualService {
+
+    public static final String JOB_NAME = "SAVINGS_ADB_ACCRUAL";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final int PAGE_SIZE = 1000;
+
+    private final SavingsAccrualRepository accrualRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchJobRunner batchJobRunner;
+
+    @Scheduled(cron = "${app.savings.accrual-cron:0 20 0 * * *}")
+    public void accrueYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        batchJobRunner.submit(JOB_NAME, () -> accrueThrough(yesterday));
+    }
+
+    /**
+     * Accrue every day after the watermark up to lastDay (catches up missed runs), one transaction per day.
+     * Returns the number of account-days applied.
+     */
+    public int accrueThrough(LocalDate lastDay) {
+        int applied = 0;
+        while (true) {
+            Integer touched = transactionTemplate.execute(status -> accrueNextDay(lastDay));
+            if (touched == null || touched < 0) return applied;
+            applied += touched;
+        }
+    }
+
+    /**
+     * Accounts rolled for the day after the watermark, or -1 once the watermark has reached lastDay
+     */
+    private int accrueNextDay(LocalDate lastDay) {
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+        LocalDate watermark = checkpoint.getLastProcessedDate();
+        if (watermark == null) {
+            LocalDate started = accrualRepository.findEarliestAsOf();
+            watermark = (started != null) ? started : lastDay.minusDays(1);
+        }
+        LocalDate day = watermark.plusDays(1);
+        if (day.isAfter(lastDay)) return -1;
+
+        int touched = 0;
+        UUID cursor = null;
+        while (true) {
+            List<BalanceChange> page = accrualRepository.findEndOfDayBalances(day, cursor, PAGE_SIZE);
+            if (page.isEmpty()) break;
+            cursor = page.get(page.size() - 1).getAccountId();
+
+            Map<UUID, AccrualState> states = accrualRepository.findStates(page.stream().map(BalanceChange::getAccountId).toList());
+            List<AccrualState> updated = new ArrayList<>(page.size());
+            List<Closing> closings = new ArrayList<>();
+            for (BalanceChange change : page) {
+                AccrualState state = roll(states.get(change.getAccountId()), change, day, closings);
+                if (state != null) updated.add(state);
+            }
+            accrualRepository.saveClosings(closings);
+            accrualRepository.saveStates(updated);
+            touched += updated.size();
+        }
+
+        checkpoint.setLastProcessedDate(day);
+        checkpointRepository.save(checkpoint);
+        log.debug("ADB accrual for {}: {} accounts", day, touched);
+        return touched;
+    }
+
+    /**
+     * Move an account's running sum to the end of day with its new closing balance.
+     * Null if the day is already included (re-run after a partial failure).
+     */
+    static AccrualState roll(AccrualState state, BalanceChange change, LocalDate day, List<Closing> closings) {
+        YearMonth month = YearMonth.from(day);
+        UUID accountId = change.getAccountId();
+
+        if (state == null) {
+            // New account: zero until its first change
+            state = new AccrualState(accountId, month.toString(), BigDecimal.ZERO, month.atDay(1).minusDays(1), BigDecimal.ZERO);
+        }
+        if (!state.getAsOf().isBefore(day)) return null;
+
+        YearMonth statePeriod = YearMonth.parse(state.getPeriod());
+        if (statePeriod.isBefore(month)) {
+            LocalDate periodEnd = statePeriod.atEndOfMonth();
+            closings.add(new Closing(accountId, statePeriod.toString(),
+                    state.getBalanceDays().add(state.getBalance().multiply(days(state.getAsOf(), periodEnd))),
+                    state.getBalance()));
+            // Whole months without a change carry the same balance every day
+            for (YearMonth idle = statePeriod.plusMonths(1); idle.isBefore(month); idle = idle.plusMonths(1)) {
+                closings.add(new Closing(accountId, idle.toString(),
+                        state.getBalance().multiply(BigDecimal.valueOf(idle.lengthOfMonth())), state.getBalance()));
+            }
+            state = new AccrualState(accountId, month.toString(), state.getBalance(), month.atDay(1).minusDays(1), BigDecimal.ZERO);
+        }
+
+        // Days after as_of and before today kept the old balance; today closes on the new one
+        BigDecimal balanceDays = state.getBalanceDays()
+                .add(state.getBalance().multiply(days(state.getAsOf(), day.minusDays(1))))
+                .add(change.getEndOfDayBalance());
+        return new AccrualState(accountId, month.toString(), change.getEndOfDayBalance(), day, balanceDays);
+    }
+
+    private static BigDecimal days(LocalDate afterDay, LocalDate throughDay) {
+        return BigDecimal.valueOf(ChronoUnit.DAYS.between(afterDay, throughDay));
+    }
+}
@@ -0,0 +1,236 @@
+package com.sacco.sacco_system.modules.savings.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
+import com.sacco.sacco_system.modules.finance.domain.repository.TransactionBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.JournalBatch;
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
+import com.sacco.sacco_system.modules.savings.api.dto.SavingsInterestRunDTO;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsInterestRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsInterestRepository.Chunk;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsInterestRepository.InterestAccount;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Monthly savings interest, run once per period after it ends, on the average daily balance
+ * kept by SavingsAccrualService (all products with an interest rate, fixed deposits included).
+ *
+ * The first call for a period plans it: account ids are paged by keyset and cut into chunks
+ * (savings_interest_chunks). Chunks are then credited on parallel workers, one transaction
+ * each: member lanes, row locks, JDBC-batched balance updates and transaction records, one
+ * GL journal per product, and the chunk marked DONE in the same commit. A crashed or failed
+ * run is resumed by calling it again for the same period; done chunks are never re-credited.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavingsInterestJob {
+
+    public static final String JOB_NAME = "SAVINGS_MONTHLY_INTEREST";
+    private static final BigDecimal DAYS_PERCENT = BigDecimal.valueOf(36500); // annual % on actual/365
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private final SavingsInterestRepository interestRepository;
+    private final SavingsAccrualService accrualService;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final AccountingService accountingService;
+    private final ReferenceCodeService referenceCodeService;
+    private final MemberLockService memberLockService;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.savings.interest-chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.savings.interest-workers:4}")
+    private int workerCount;
+
+    /**
+     * Bring the accrual ledger to month end, plan (first call only), credit every pending chunk,
+     * and close the period when all are done
+     */
+    public SavingsInterestRunDTO run(YearMonth yearMonth) {
+        if (!yearMonth.isBefore(YearMonth.now())) {
+            throw new RuntimeException("Interest for " + yearMonth + " can only be applied after the month has ended");
+        }
+        String period = yearMonth.toString();
+        long started = System.currentTimeMillis();
+
+        accrualService.accrueThrough(yearMonth.atEndOfMonth());
+        transactionTemplate.executeWithoutResult(status -> plan(period));
+
+        List<Chunk> pending = interestRepository.findPendingChunks(period);
+        AtomicInteger failed = new AtomicInteger();
+        if (!pending.isEmpty()) {
+            ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(workerCount, pending.size())));
+            try {
+                List<CompletableFuture<Void>> futures = new ArrayList<>(pending.size());
+                for (Chunk chunk : pending) {
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            transactionTemplate.executeWithoutResult(status -> creditChunk(yearMonth, chunk));
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            log.error("Interest chunk {}/{} failed, it stays pending for the next run: {}",
+                                    period, chunk.getChunkNo(), e.getMessage());
+                        }
+                    }, workers));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            } finally {
+                workers.shutdown();
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (interestRepository.completeRun(period, LocalDateTime.now())) {
+                JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                        .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+                checkpoint.setLastProcessedKey(period);
+                checkpoint.setLastProcessedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            }
+        });
+
+        SavingsInterestRunDTO summary = getRun(yearMonth);
+        log.info("Savings interest {}: {} chunks processed in {} ms, {} failed, status {}",
+                period, pending.size(), System.currentTimeMillis() - started, failed.get(), summary.getStatus());
+        return summary;
+    }
+
+    public SavingsInterestRunDTO getRun(YearMonth yearMonth) {
+        return interestRepository.findRun(yearMonth.toString())
+                .map(run -> SavingsInterestRunDTO.builder()
+                        .period(run.getPeriod())
+                        .status(run.getStatus())
+                        .chunks(run.getChunks())
+                        .chunksDone(run.getChunksDone())
+                        .accountsCredited(run.getAccountsCredited())
+                        .totalInterest(run.getTotalInterest())
+                        .startedAt(run.getStartedAt())
+                        .completedAt(run.getCompletedAt())
+                        .build())
+                .orElseThrow(() -> new RuntimeException("No interest run for " + yearMonth));
+    }
+
+    // ========================================================================
+    // 1. PLANNING
+    // ========================================================================
+
+    /**
+     * Cut the account id space into chunks of about chunkSize accounts. The outer chunks are
+     * open-ended so accounts opened after planning still fall into exactly one chunk.
+     */
+    private void plan(String period) {
+        advisoryLocks.lockForTransaction(AdvisoryLocks.keyOf(JOB_NAME + ":" + period));
+        if (interestRepository.findRunStatus(period).isPresent()) return;
+
+        List<UUID> boundaries = new ArrayList<>();
+        UUID cursor = null;
+        while (true) {
+            List<UUID> page = interestRepository.findAccountIdsAfter(cursor, Math.max(1, chunkSize));
+            if (page.isEmpty()) break;
+            cursor = page.get(page.size() - 1);
+            boundaries.add(cursor);
+        }
+
+        List<Chunk> chunks = new ArrayList<>(boundaries.size());
+        for (int i = 0; i < boundaries.size(); i++) {
+            UUID first = (i == 0) ? MIN_ID : successor(boundaries.get(i - 1));
+            UUID last = (i == boundaries.size() - 1) ? MAX_ID : boundaries.get(i);
+            chunks.add(new Chunk(i + 1, first, last));
+        }
+
+        interestRepository.insertRun(period, chunks, LocalDateTime.now());
+        log.info("Savings interest {} planned: {} chunks", period, chunks.size());
+    }
+
+    /**
+     * Next UUID in Postgres (unsigned byte) order
+     */
+    static UUID successor(UUID id) {
+        long low = id.getLeastSignificantBits() + 1;
+        long high = id.getMostSignificantBits() + (low == 0 ? 1 : 0);
+        return new UUID(high, low);
+    }
+
+    // ========================================================================
+    // 2. ONE CHUNK (one transaction)
+    // ========================================================================
+
+    /**
+     * Interest = balance-days x annual rate / 36500, i.e. the sum of the daily accruals on the
+     * average daily balance, capitalised in one credit per account
+     */
+    private void creditChunk(YearMonth yearMonth, Chunk chunk) {
+        String period = yearMonth.toString();
+        if (!interestRepository.claimChunk(period, chunk.getChunkNo())) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        memberLockService.lockAll(interestRepository.findMemberIds(chunk));
+        List<InterestAccount> accounts = interestRepository.lockInterestAccounts(chunk, yearMonth);
+
+        List<Object[]> credits = new ArrayList<>(accounts.size());
+        List<TransactionBatchRepository.TransactionRow> transactions = new ArrayList<>(accounts.size());
+        Map<UUID, BigDecimal> interestByProduct = new LinkedHashMap<>();
+        Map<UUID, String> productNames = new LinkedHashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (InterestAccount account : accounts) {
+            if (account.getBalanceDays() == null) continue;
+            BigDecimal interest = account.getBalanceDays().multiply(account.getInterestRate())
+                    .divide(DAYS_PERCENT, 2, RoundingMode.HALF_UP);
+            if (interest.signum() <= 0) continue;
+
+            BigDecimal balanceAfter = account.getBalance().add(interest);
+            credits.add(new Object[] {account.getId(), interest});
+            transactions.add(new TransactionBatchRepository.TransactionRow(
+                    referenceCodeService.nextTransactionId(), account.getMemberId(), account.getId(), null,
+                    Transaction.TransactionType.INTEREST_EARNED.name(), interest,
+                    "Monthly Interest " + period + " - " + account.getAccountNumber(),
+                    Transaction.PaymentMethod.SYSTEM.name(), referenceCodeService.generateReferenceCode(),
+                    null, balanceAfter, now));
+            interestByProduct.merge(account.getProductId(), interest, BigDecimal::add);
+            productNames.putIfAbsent(account.getProductId(), account.getProductName());
+            total = total.add(interest);
+        }
+
+        if (!credits.isEmpty()) {
+            interestRepository.creditInterest(credits, now);
+            transactionBatchRepository.insert(transactions);
+
+            // ✅ One journal per product per chunk instead of a posting per account
+            JournalBatch journal = new JournalBatch();
+            String reference = "INT-" + period + "-" + chunk.getChunkNo();
+            interestByProduct.forEach((productId, amount) -> journal.add(
+                    "Monthly Interest " + period + " - " + productNames.get(productId), reference, "5006", "2001", amount));
+            accountingService.postBatch(journal);
+        }
+
+        interestRepository.completeChunk(period, chunk.getChunkNo(), credits.size(), total, now);
+    }
+}
@@ -0,0 +1,270 @@
+package com.sacco.sacco_system.modules.savings.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.entity.JobCheckpoint;
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
+import com.sacco.sacco_system.modules.finance.domain.repository.TransactionBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.JournalBatch;
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
+import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
+import com.sacco.sacco_system.modules.savings.domain.entity.SavingsProduct;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository.AccrualState;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccrualRepository.Closing;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsInterestRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsMaturityRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsMaturityRepository.DueAccount;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsMaturityRepository.MaturedAccount;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsMaturityRepository.TransferTarget;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Fixed-deposit maturity engine.
+ *
+ * Each run reads only the accounts due on or before today (partial index on maturity_date),
+ * so its cost follows the day's maturities; accounts left over from missed days are simply
+ * still due and are picked up by the next run. Per page, in one transaction:
+ *  - interest accrued and not yet credited by the monthly run (average daily balance through
+ *    yesterday) is capitalised, and the account's accrual restarts from today;
+ *  - ROLLOVER renews the deposit for another term from its maturity date;
+ *  - TRANSFER moves principal + interest to the member's ordinary savings account and marks
+ *    the deposit MATURED;
+ *  - accounts without an instruction (lock-in savings) are just released;
+ *  - one GL journal per product for the interest.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SavingsMaturityService {
+
+    public static final String JOB_NAME = "FD_MATURITY";
+    private static final long LOCK_KEY = AdvisoryLocks.keyOf(JOB_NAME);
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_UNCREDITED_MONTHS = 12;
+    private static final BigDecimal DAYS_PERCENT = BigDecimal.valueOf(36500); // annual % on actual/365
+
+    private final SavingsMaturityRepository maturityRepository;
+    private final SavingsInterestRepository interestRepository;
+    private final SavingsAccrualRepository accrualRepository;
+    private final SavingsAccrualService accrualService;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final AccountingService accountingService;
+    private final ReferenceCodeService referenceCodeService;
+    private final MemberLockService memberLockService;
+    private final AdvisoryLocks advisoryLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchJobRunner batchJobRunner;
+
+    @Scheduled(cron = "${app.savings.maturity-cron:0 30 0 * * *}")
+    public void processTodaysMaturities() {
+        LocalDate today = LocalDate.now();
+        batchJobRunner.submit(JOB_NAME, () -> processMaturities(today));
+    }
+
+    /**
+     * Mature every account due on or before the day. Returns the number of accounts processed.
+     */
+    public int processMaturities(LocalDate today) {
+        accrualService.accrueThrough(today.minusDays(1));
+
+        int processed = 0;
+        while (true) {
+            Integer page = transactionTemplate.execute(status -> processPage(today));
+            if (page == null || page == 0) break;
+            processed += page;
+        }
+
+        int total = processed;
+        transactionTemplate.executeWithoutResult(status -> {
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                    .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).build());
+            checkpoint.setLastProcessedDate(today);
+            checkpoint.setLastProcessedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+        if (total > 0) log.info("Fixed-deposit maturities through {}: {} accounts", today, total);
+        return total;
+    }
+
+    // ========================================================================
+    // 1. ONE PAGE (one transaction)
+    // ========================================================================
+
+    private int processPage(LocalDate today) {
+        // Single-flight across nodes; pages are short, so the lock is only held for one of them
+        advisoryLocks.lockForTransaction(LOCK_KEY);
+
+        List<UUID[]> due = maturityRepository.findDue(today, PAGE_SIZE);
+        if (due.isEmpty()) return 0;
+
+        memberLockService.lockAll(due.stream().map(row -> row[1]).toList());
+        List<DueAccount> accounts = maturityRepository.lockDue(due.stream().map(row -> row[0]).toList(), today);
+        if (accounts.isEmpty()) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate through = today.minusDays(1);
+        Map<UUID, BigDecimal> interest = uncreditedInterest(accounts, through);
+        Map<UUID, TransferTarget> targets = maturityRepository.lockTransferTargets(accounts.stream()
+                .filter(account -> instructionOf(account) == SavingsAccount.MaturityInstruction.TRANSFER)
+                .map(DueAccount::getMemberId).distinct().toList());
+
+        List<MaturedAccount> matured = new ArrayList<>(accounts.size());
+        List<Object[]> transferCredits = new ArrayList<>();
+        List<TransactionBatchRepository.TransactionRow> transactions = new ArrayList<>();
+        List<AccrualState> restarts = new ArrayList<>();
+        Map<UUID, BigDecimal> interestByProduct = new LinkedHashMap<>();
+        Map<UUID, String> productNames = new HashMap<>();
+
+        for (DueAccount account : accounts) {
+            SavingsAccount.MaturityInstruction instruction = instructionOf(account);
+            if (instruction == null) {
+                // Lock-in savings: the restriction ends, interest stays with the monthly run
+                matured.add(new MaturedAccount(account.getId(), account.getBalance(), BigDecimal.ZERO, BigDecimal.ZERO,
+                        null, SavingsAccount.AccountStatus.ACTIVE.name()));
+                continue;
+            }
+
+            BigDecimal earned = interest.getOrDefault(account.getId(), BigDecimal.ZERO);
+            BigDecimal value = account.getBalance().add(earned);
+            if (earned.signum() > 0) {
+                transactions.add(row(account.getMemberId(), account.getId(), Transaction.TransactionType.INTEREST_EARNED,
+                        earned, "Fixed deposit interest at maturity - " + account.getAccountNumber(), value, now));
+                interestByProduct.merge(account.getProductId(), earned, BigDecimal::add);
+                productNames.putIfAbsent(account.getProductId(), account.getProductName());
+            }
+
+            TransferTarget target = targets.get(account.getMemberId());
+            if (instruction == SavingsAccount.MaturityInstruction.TRANSFER && target == null) {
+                log.warn("Fixed deposit {} has no ordinary savings account to mature into, rolling it over", account.getAccountNumber());
+            }
+            if (instruction == SavingsAccount.MaturityInstruction.TRANSFER && target != null) {
+                BigDecimal targetBalance = target.getBalance().add(value);
+                targets.put(account.getMemberId(), new TransferTarget(target.getId(), target.getAccountNumber(), targetBalance));
+                transferCredits.add(new Object[] {target.getId(), value});
+                transactions.add(row(account.getMemberId(), account.getId(), Transaction.TransactionType.TRANSFER,
+                        value, "Fixed deposit matured to " + target.getAccountNumber(), BigDecimal.ZERO, now));
+                transactions.add(row(account.getMemberId(), target.getId(), Transaction.TransactionType.TRANSFER,
+                        value, "Matured fixed deposit " + account.getAccountNumber(), targetBalance, now));
+                matured.add(new MaturedAccount(account.getId(), BigDecimal.ZERO, earned, value,
+                        account.getMaturityDate(), SavingsAccount.AccountStatus.MATURED.name()));
+                restarts.add(restart(account.getId(), BigDecimal.ZERO, today));
+            } else {
+                matured.add(new MaturedAccount(account.getId(), value, earned, BigDecimal.ZERO,
+                        nextMaturity(account, today), SavingsAccount.AccountStatus.ACTIVE.name()));
+                restarts.add(restart(account.getId(), value, today));
+            }
+        }
+
+        maturityRepository.updateMatured(matured, now);
+        maturityRepository.creditTransfers(transferCredits, now);
+        transactionBatchRepository.insert(transactions);
+        accrualRepository.saveStates(restarts);
+
+        if (!interestByProduct.isEmpty()) {
+            JournalBatch journal = new JournalBatch();
+            String reference = "FDM-" + today;
+            interestByProduct.forEach((productId, amount) -> journal.add(
+                    "Fixed deposit interest at maturity - " + productNames.get(productId), reference, "5006", "2001", amount));
+            accountingService.postBatch(journal);
+        }
+        return accounts.size();
+    }
+
+    // ========================================================================
+    // 2. HELPERS
+    // ========================================================================
+
+    /**
+     * Interest on the average daily balance for every recent month the monthly run has not yet
+     * credited to the account, through yesterday. Capitalised months are zeroed in the accrual
+     * ledger (closings) so the monthly run does not pay them again.
+     */
+    private Map<UUID, BigDecimal> uncreditedInterest(List<DueAccount> accounts, LocalDate through) {
+        Map<UUID, BigDecimal> interest = new HashMap<>();
+        List<DueAccount> deposits = accounts.stream().filter(account -> instructionOf(account) != null).toList();
+        if (deposits.isEmpty()) return interest;
+
+        YearMonth last = YearMonth.from(through);
+        YearMonth first = last.minusMonths(MAX_UNCREDITED_MONTHS - 1);
+        LocalDate ledgerStart = accrualRepository.findEarliestAsOf();
+        if (ledgerStart != null && YearMonth.from(ledgerStart).isAfter(first)) first = YearMonth.from(ledgerStart);
+
+        List<UUID> ids = deposits.stream().map(DueAccount::getId).toList();
+        List<Closing> consumed = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            Set<UUID> credited = interestRepository.findCreditedAccountIds(ids, month.toString());
+            LocalDate monthThrough = month.equals(last) ? through : month.atEndOfMonth();
+            Map<UUID, BigDecimal> balanceDays = interestRepository.findBalanceDays(ids, month, monthThrough);
+
+            for (DueAccount account : deposits) {
+                if (credited.contains(account.getId())) continue;
+                BigDecimal days = balanceDays.get(account.getId());
+                if (days == null || days.signum() <= 0) continue;
+                BigDecimal earned = days.multiply(account.getInterestRate()).divide(DAYS_PERCENT, 2, RoundingMode.HALF_UP);
+                interest.merge(account.getId(), earned, BigDecimal::add);
+                if (month.isBefore(YearMonth.from(through.plusDays(1)))) {
+                    consumed.add(new Closing(account.getId(), month.toString(), BigDecimal.ZERO, account.getBalance()));
+                }
+            }
+        }
+        accrualRepository.saveClosings(consumed);
+        return interest;
+    }
+
+    private static SavingsAccount.MaturityInstruction instructionOf(DueAccount account) {
+        if (account.getMaturityInstruction() != null) {
+            return SavingsAccount.MaturityInstruction.valueOf(account.getMaturityInstruction());
+        }
+        return SavingsProduct.ProductType.FIXED_DEPOSIT.name().equals(account.getProductType())
+                ? SavingsAccount.MaturityInstruction.ROLLOVER : null;
+    }
+
+    /**
+     * Next term end on the original schedule, skipping terms missed while the job was down.
+     * Null (released) if the product has no term.
+     */
+    private static LocalDate nextMaturity(DueAccount account, LocalDate today) {
+        Integer term = account.getTermMonths();
+        if (term == null || term <= 0) return null;
+        LocalDate next = account.getMaturityDate();
+        while (!next.isAfter(today)) next = next.plusMonths(term);
+        return next;
+    }
+
+    /**
+     * Accrual restarts today: earlier days are capitalised above
+     */
+    private static AccrualState restart(UUID accountId, BigDecimal balance, LocalDate today) {
+        return new AccrualState(accountId, YearMonth.from(today).toString(), balance, today.minusDays(1), BigDecimal.ZERO);
+    }
+
+    private TransactionBatchRepository.TransactionRow row(UUID memberId, UUID accountId, Transaction.TransactionType type,
+                                                          BigDecimal amount, String description, BigDecimal balanceAfter,
+                                                          LocalDateTime now) {
+        return new TransactionBatchRepository.TransactionRow(referenceCodeService.nextTransactionId(), memberId, accountId, null,
+                type.name(), amount, description, Transaction.PaymentMethod.SYSTEM.name(),
+                referenceCodeService.generateReferenceCode(), null, balanceAfter, now);
+    }
+}
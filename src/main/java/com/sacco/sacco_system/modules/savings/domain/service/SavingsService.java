@@ -2,26 +2,32 @@ package com.sacco.sacco_system.modules.savings.domain.service;
 
 import com.sacco.sacco_system.modules.savings.domain.entity.Withdrawal;
 import com.sacco.sacco_system.modules.savings.api.dto.SavingsAccountDTO;
+import com.sacco.sacco_system.modules.savings.api.dto.SavingsInterestRunDTO;
 import com.sacco.sacco_system.modules.finance.domain.entity.Transaction;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import com.sacco.sacco_system.modules.core.util.NumberSequences;
 import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
 import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.PostingOutboxService;
 import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
 import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
-import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorRepository;
 import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorExposureService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex;
 import com.sacco.sacco_system.modules.member.domain.entity.Member;
 import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
 import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
 import com.sacco.sacco_system.modules.savings.domain.entity.SavingsProduct;
 import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
@@ -37,25 +43,35 @@ public class SavingsService {
     private final MemberRepository memberRepository;
     private final SavingsProductRepository savingsProductRepository;
     private final AccountingService accountingService;
+    private final PostingOutboxService postingOutboxService;
     private final ReferenceCodeService referenceCodeService;
+    private final MemberLockService memberLockService;
+    private final SavingsInterestJob savingsInterestJob;
+    private final NumberSequences numberSequences;
     
     // ✅ ADDED: Dependencies to check liabilities
     private final LoanRepository loanRepository;
-    private final GuarantorRepository guarantorRepository;
+    private final GuarantorExposureService guarantorExposureService;
+    private final GuarantorMatchIndex guarantorMatchIndex;
 
     // ========================================================================
     // 1. ACCOUNT MANAGEMENT
     // ========================================================================
 
     public SavingsAccountDTO openAccount(UUID memberId, UUID productId, BigDecimal initialDeposit) {
+        return openAccount(memberId, productId, initialDeposit, null);
+    }
+
+    public SavingsAccountDTO openAccount(UUID memberId, UUID productId, BigDecimal initialDeposit,
+                                         SavingsAccount.MaturityInstruction maturityInstruction) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
         SavingsProduct product = savingsProductRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        String prefix = product.getType() == SavingsProduct.ProductType.FIXED_DEPOSIT ? "FD" : "SAV";
-        String accNumber = prefix + String.format("%06d", savingsAccountRepository.count() + 1);
+        String accNumber = numberSequences.next(product.getType() == SavingsProduct.ProductType.FIXED_DEPOSIT
+                ? NumberSequences.Prefix.FD : NumberSequences.Prefix.SAV);
 
         SavingsAccount account = SavingsAccount.builder()
                 .member(member)
@@ -69,6 +85,10 @@ public class SavingsService {
 
         if (product.getMinDurationMonths() != null && product.getMinDurationMonths() > 0) {
             account.setMaturityDate(LocalDate.now().plusMonths(product.getMinDurationMonths()));
+            if (product.getType() == SavingsProduct.ProductType.FIXED_DEPOSIT) {
+                account.setMaturityInstruction(maturityInstruction != null
+                        ? maturityInstruction : SavingsAccount.MaturityInstruction.ROLLOVER);
+            }
         }
 
         SavingsAccount savedAccount = savingsAccountRepository.save(account);
@@ -128,6 +148,18 @@ public class SavingsService {
         SavingsAccount account = savingsAccountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new RuntimeException("Account not found"));
 
+        return deposit(account, amount, description, sourceAccountCode);
+    }
+
+    /**
+     * Deposit into an account the caller has already loaded (e.g. prefetched by DepositService)
+     */
+    public SavingsAccountDTO deposit(SavingsAccount account, BigDecimal amount, String description, String sourceAccountCode) {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) throw new RuntimeException("Amount must be positive");
+
+        // Serialize with other balance changes for this member (re-reads the account if it was loaded before)
+        memberLockService.lock(account.getMember().getId(), account, account.getMember());
+
         account.setBalance(account.getBalance().add(amount));
         account.setTotalDeposits(account.getTotalDeposits().add(amount));
         SavingsAccount savedAccount = savingsAccountRepository.save(account);
@@ -135,6 +167,7 @@ public class SavingsService {
         Member member = account.getMember();
         member.setTotalSavings(member.getTotalSavings().add(amount));
         memberRepository.save(member);
+        guarantorMatchIndex.invalidate(List.of(member.getId()));
 
         // Determine Payment Method for Transaction Record
         Transaction.PaymentMethod paymentMethod = Transaction.PaymentMethod.CASH;
@@ -156,7 +189,7 @@ public class SavingsService {
         transactionRepository.save(tx);
 
         // ✅ POST TO ACCOUNTING with Source Account Override
-        accountingService.postEvent(
+        postingOutboxService.postEvent(
             "SAVINGS_DEPOSIT",
             description != null ? description : "Savings Deposit - " + member.getMemberNumber(),
             "DEP-" + savedAccount.getId(), 
@@ -172,6 +205,7 @@ public class SavingsService {
      * Prevents exit if member has active loans or is a guarantor.
      */
     public SavingsAccountDTO processMemberExit(UUID memberId, String reason) {
+        memberLockService.lock(memberId);
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
@@ -190,14 +224,7 @@ public class SavingsService {
         }
 
         // 2. ✅ Check for Active Guarantees (Others)
-        boolean isActiveGuarantor = guarantorRepository.existsByMemberIdAndLoanStatusIn(
-                memberId,
-                List.of(
-                    Loan.LoanStatus.ACTIVE,
-                    Loan.LoanStatus.IN_ARREARS,
-                    Loan.LoanStatus.DISBURSED
-                )
-        );
+        boolean isActiveGuarantor = guarantorExposureService.hasActiveGuarantees(memberId);
 
         if (isActiveGuarantor) {
             throw new RuntimeException("Cannot exit SACCO: You are guaranteeing active loans for other members. You must be replaced as a guarantor before you can exit.");
@@ -226,6 +253,7 @@ public class SavingsService {
         member.setTotalSavings(BigDecimal.ZERO);
         member.setStatus(Member.MemberStatus.INACTIVE); 
         memberRepository.save(member);
+        guarantorMatchIndex.invalidate(List.of(member.getId()));
 
         Transaction tx = Transaction.builder()
                 .member(member)
@@ -259,38 +287,14 @@ public class SavingsService {
     // 3. INTEREST CALCULATION
     // ========================================================================
 
-    public void applyMonthlyInterest() {
-        List<SavingsAccount> accounts = savingsAccountRepository.findAll();
-        for (SavingsAccount acc : accounts) {
-            if (acc.getBalance().compareTo(BigDecimal.ZERO) > 0 && acc.getStatus() == SavingsAccount.AccountStatus.ACTIVE) {
-                if (acc.getProduct() == null || acc.getProduct().getInterestRate() == null) continue;
-
-                BigDecimal annualRate = acc.getProduct().getInterestRate();
-                BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(1200), 8, RoundingMode.HALF_UP);
-                BigDecimal interest = acc.getBalance().multiply(monthlyRate).setScale(2, RoundingMode.HALF_UP);
-
-                if (interest.compareTo(BigDecimal.ZERO) > 0) {
-                    acc.setBalance(acc.getBalance().add(interest));
-                    if(acc.getAccruedInterest() != null) acc.setAccruedInterest(acc.getAccruedInterest().add(interest));
-                    savingsAccountRepository.save(acc);
-
-                    Transaction tx = Transaction.builder()
-                            .member(acc.getMember())
-                            .type(Transaction.TransactionType.INTEREST_EARNED)
-                            .amount(interest)
-                            .paymentMethod(Transaction.PaymentMethod.SYSTEM)
-                            .referenceCode(referenceCodeService.generateReferenceCode())
-                            .description("Monthly Interest - " + acc.getAccountNumber())
-                            .balanceAfter(acc.getBalance())
-                            .build();
-                    transactionRepository.save(tx);
-
-                    try {
-                        accountingService.postDoubleEntry("Interest " + acc.getAccountNumber(), null, "5006", "2001", interest);
-                    } catch (Exception e) {}
-                }
-            }
-        }
+    /**
+     * Capitalises a finished month's interest (default: last month) through the chunked
+     * SavingsInterestJob. Runs outside any transaction so each chunk commits on its own;
+     * calling it again resumes or is a no-op.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SavingsInterestRunDTO applyMonthlyInterest(YearMonth period) {
+        return savingsInterestJob.run(period != null ? period : YearMonth.now().minusMonths(1));
     }
 
     // ========================================================================
@@ -313,6 +317,7 @@ public class SavingsService {
                 .productName(productName)
                 .interestRate(rate)
                 .maturityDate(account.getMaturityDate())
+                .maturityInstruction(account.getMaturityInstruction() != null ? account.getMaturityInstruction().name() : null)
                 .accruedInterest(account.getAccruedInterest())
                 .build();
     }
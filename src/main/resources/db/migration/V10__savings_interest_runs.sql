@@ -0,0 +1,23 @@
+-- Monthly savings interest runs. Chunks are planned once per period (keyset ranges of account ids)
+-- and marked DONE in the same transaction that credits them, so a restarted run skips them.
+CREATE TABLE IF NOT EXISTS savings_interest_runs (
+    period            VARCHAR(7)     PRIMARY KEY, -- yyyy-MM
+    status            VARCHAR(20)    NOT NULL,
+    chunks            INTEGER        NOT NULL DEFAULT 0,
+    accounts_credited INTEGER        NOT NULL DEFAULT 0,
+    total_interest    NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    started_at        TIMESTAMP      NOT NULL,
+    completed_at      TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS savings_interest_chunks (
+    period            VARCHAR(7)     NOT NULL,
+    chunk_no          INTEGER        NOT NULL,
+    first_account_id  UUID           NOT NULL,
+    last_account_id   UUID           NOT NULL,
+    status            VARCHAR(20)    NOT NULL DEFAULT 'PENDING',
+    accounts_credited INTEGER        NOT NULL DEFAULT 0,
+    total_interest    NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    completed_at      TIMESTAMP,
+    CONSTRAINT pk_savings_interest_chunks PRIMARY KEY (period, chunk_no)
+);
@@ -0,0 +1,38 @@
+-- Average-daily-balance accrual ledger, fed day by day from savings transactions (balance_after).
+-- balance_days = sum of end-of-day balances from the start of the period through as_of;
+-- a period's interest is balance_days * annual rate / 36500.
+CREATE TABLE IF NOT EXISTS savings_interest_accruals (
+    account_id   UUID           PRIMARY KEY,
+    period       VARCHAR(7)     NOT NULL, -- yyyy-MM the running sum belongs to
+    balance      NUMERIC(19, 2) NOT NULL, -- end-of-day balance on as_of
+    as_of        DATE           NOT NULL,
+    balance_days NUMERIC(24, 2) NOT NULL
+);
+
+-- Closed periods of accounts that changed after the period ended (untouched accounts need no row)
+CREATE TABLE IF NOT EXISTS savings_interest_accrual_closings (
+    account_id      UUID           NOT NULL,
+    period          VARCHAR(7)     NOT NULL,
+    balance_days    NUMERIC(24, 2) NOT NULL,
+    closing_balance NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_savings_interest_accrual_closings PRIMARY KEY (account_id, period)
+);
+
+-- On a fresh database transactions does not exist yet; RequiredIndexes creates the index at startup
+DO $$
+BEGIN
+    IF to_regclass('transactions') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_transactions_savings_day
+            ON transactions (transaction_date, savings_account_id)
+            WHERE savings_account_id IS NOT NULL;
+    END IF;
+
+    -- Start the ledger yesterday; days of the current month before that are assumed at today's balance
+    IF to_regclass('savings_accounts') IS NOT NULL THEN
+        INSERT INTO savings_interest_accruals (account_id, period, balance, as_of, balance_days)
+        SELECT id, to_char(CURRENT_DATE - 1, 'YYYY-MM'), COALESCE(balance, 0), CURRENT_DATE - 1,
+               COALESCE(balance, 0) * EXTRACT(DAY FROM CURRENT_DATE - 1)
+          FROM savings_accounts
+        ON CONFLICT (account_id) DO NOTHING;
+    END IF;
+END $$;
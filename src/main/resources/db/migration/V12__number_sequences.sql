@@ -0,0 +1,29 @@
+-- Block-allocated business numbers (NumberSequences): one nextval reserves INCREMENT BY numbers
+-- for a node, handed out from memory. Each sequence continues after the highest existing number.
+DO $$
+DECLARE
+    next_mem BIGINT := 1;
+    next_sav BIGINT := 1;
+    next_fd  BIGINT := 1;
+    next_ln  BIGINT := 1;
+BEGIN
+    IF to_regclass('members') IS NOT NULL THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(member_number FROM 4) AS BIGINT)), 0) + 1 INTO next_mem
+          FROM members WHERE member_number ~ '^MEM[0-9]{1,18}$';
+    END IF;
+    IF to_regclass('savings_accounts') IS NOT NULL THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(account_number FROM 4) AS BIGINT)), 0) + 1 INTO next_sav
+          FROM savings_accounts WHERE account_number ~ '^SAV[0-9]{1,18}$';
+        SELECT COALESCE(MAX(CAST(SUBSTRING(account_number FROM 3) AS BIGINT)), 0) + 1 INTO next_fd
+          FROM savings_accounts WHERE account_number ~ '^FD[0-9]{1,18}$';
+    END IF;
+    IF to_regclass('loans') IS NOT NULL THEN
+        SELECT COALESCE(MAX(CAST(SUBSTRING(loan_number FROM 4) AS BIGINT)), 0) + 1 INTO next_ln
+          FROM loans WHERE loan_number ~ '^LN-[0-9]{1,18}$';
+    END IF;
+
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS seq_number_mem START WITH %s INCREMENT BY 100', next_mem);
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS seq_number_sav START WITH %s INCREMENT BY 100', next_sav);
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS seq_number_fd START WITH %s INCREMENT BY 100', next_fd);
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS seq_number_ln START WITH %s INCREMENT BY 100', next_ln);
+END $$;
@@ -0,0 +1,23 @@
+-- Fixed-deposit maturity processing: what to do at maturity, and a date index over the accounts
+-- still waiting to mature so each day's run only reads the ones due. On a fresh database the
+-- table does not exist yet; RequiredIndexes creates the index at startup.
+DO $$
+BEGIN
+    IF to_regclass('savings_accounts') IS NOT NULL THEN
+        ALTER TABLE savings_accounts ADD COLUMN IF NOT EXISTS maturity_instruction VARCHAR(20);
+
+        IF to_regclass('savings_products') IS NOT NULL THEN
+            UPDATE savings_accounts a
+               SET maturity_instruction = 'ROLLOVER'
+              FROM savings_products p
+             WHERE p.id = a.product_id
+               AND p.type = 'FIXED_DEPOSIT'
+               AND a.maturity_date IS NOT NULL
+               AND a.maturity_instruction IS NULL;
+        END IF;
+
+        CREATE INDEX IF NOT EXISTS idx_savings_accounts_maturity
+            ON savings_accounts (maturity_date, id)
+            WHERE status = 'ACTIVE' AND maturity_date IS NOT NULL;
+    END IF;
+END $$;
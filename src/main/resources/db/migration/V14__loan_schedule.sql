@@ -0,0 +1,19 @@
+-- Loan repayment schedule, generated once at disbursement. Repayments are matched against the
+-- oldest open installment first; open installments are indexed by due date so "due or overdue
+-- by day X" is a range scan over what is still unpaid.
+CREATE TABLE IF NOT EXISTS loan_schedule (
+    loan_id        UUID           NOT NULL,
+    installment_no INTEGER        NOT NULL,
+    due_date       DATE           NOT NULL,
+    principal_due  NUMERIC(19, 2) NOT NULL,
+    interest_due   NUMERIC(19, 2) NOT NULL,
+    total_due      NUMERIC(19, 2) NOT NULL,
+    amount_paid    NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    status         VARCHAR(10)    NOT NULL DEFAULT 'PENDING', -- PENDING, PARTIAL, PAID
+    paid_date      DATE,
+    CONSTRAINT pk_loan_schedule PRIMARY KEY (loan_id, installment_no)
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_schedule_open_due
+    ON loan_schedule (due_date, loan_id, installment_no)
+    WHERE status <> 'PAID';
@@ -0,0 +1,36 @@
+-- Loan aging: one row per scheduled loan with its days-past-due bucket, and running totals per
+-- bucket for PAR. review_on is the next day the classification can change on its own (a bucket
+-- boundary or an installment falling due); repayments pull it forward to the day they happen,
+-- so the nightly classifier only reads loans with review_on <= today.
+CREATE TABLE IF NOT EXISTS loan_aging (
+    loan_id             UUID           PRIMARY KEY,
+    bucket              VARCHAR(10),                -- NULL until first classified
+    days_past_due       INTEGER        NOT NULL DEFAULT 0,
+    oldest_due_date     DATE,
+    outstanding_balance NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    amount_overdue      NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    review_on           DATE,
+    evaluated_on        DATE
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_aging_review ON loan_aging (review_on, loan_id) WHERE review_on IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_loan_aging_bucket ON loan_aging (bucket, days_past_due);
+
+CREATE TABLE IF NOT EXISTS loan_aging_buckets (
+    bucket              VARCHAR(10)    PRIMARY KEY, -- CURRENT, D1_30, D31_60, D61_90, D90_PLUS
+    loans               INTEGER        NOT NULL DEFAULT 0,
+    outstanding_balance NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    amount_overdue      NUMERIC(19, 2) NOT NULL DEFAULT 0
+);
+
+INSERT INTO loan_aging_buckets (bucket)
+VALUES ('CURRENT'), ('D1_30'), ('D31_60'), ('D61_90'), ('D90_PLUS')
+ON CONFLICT (bucket) DO NOTHING;
+
+-- Loans already on a schedule are classified by the first run
+INSERT INTO loan_aging (loan_id, review_on)
+SELECT DISTINCT s.loan_id, CURRENT_DATE
+  FROM loan_schedule s
+  JOIN loans l ON l.id = s.loan_id
+ WHERE l.status IN ('ACTIVE', 'IN_ARREARS', 'DISBURSED')
+ON CONFLICT (loan_id) DO NOTHING;
@@ -0,0 +1,12 @@
+-- At most one automatic late-payment penalty per loan per day, so the nightly penalty job can be
+-- re-run (or run on two nodes) without charging twice.
+-- If fines does not exist yet (fresh database, Hibernate creates it later), RequiredIndexes creates
+-- the index at startup, so the penalty job never runs without it.
+DO $$
+BEGIN
+    IF to_regclass('fines') IS NOT NULL THEN
+        CREATE UNIQUE INDEX IF NOT EXISTS uq_fines_late_payment_loan_day
+            ON fines (loan_id, fine_date)
+            WHERE type = 'LATE_LOAN_PAYMENT' AND loan_id IS NOT NULL;
+    END IF;
+END $$;
@@ -0,0 +1,49 @@
+-- Guarantor exposure ledger: one row per guarantor member with what they have guaranteed on live
+-- loans and how much of it is still at risk. loan_guarantors.exposure holds each guarantee's
+-- share at risk (NULL when it is not part of the ledger: pending, declined or released), so a
+-- repayment only touches the guarantees of the loan it reduces.
+CREATE TABLE IF NOT EXISTS guarantor_exposures (
+    member_id              UUID           PRIMARY KEY,
+    total_guaranteed       NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    outstanding_guaranteed NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    active_guarantees      INTEGER        NOT NULL DEFAULT 0,
+    updated_at             TIMESTAMP
+);
+
+-- On a fresh database loan_guarantors does not exist yet; RequiredIndexes creates the index at startup
+DO $$
+BEGIN
+    IF to_regclass('loan_guarantors') IS NOT NULL AND to_regclass('loans') IS NOT NULL THEN
+        ALTER TABLE loan_guarantors ADD COLUMN IF NOT EXISTS exposure NUMERIC(19, 2);
+
+        CREATE INDEX IF NOT EXISTS idx_loan_guarantors_loan_exposure
+            ON loan_guarantors (loan_id)
+            WHERE exposure IS NOT NULL;
+
+        -- Accepted guarantees on loans that are not finished: full amount until disbursed,
+        -- then in proportion to the balance still owed out of what was repayable (principal plus
+        -- scheduled interest, or the principal for loans disbursed before schedules existed)
+        UPDATE loan_guarantors g
+           SET exposure = CASE
+                   WHEN l.status IN ('ACTIVE', 'IN_ARREARS', 'DISBURSED', 'DEFAULTED') AND r.repayable > 0
+                       THEN ROUND(g.guarantee_amount * LEAST(1, COALESCE(l.loan_balance, 0) / r.repayable), 2)
+                   ELSE g.guarantee_amount
+               END
+          FROM loans l
+          CROSS JOIN LATERAL (
+                SELECT COALESCE((SELECT SUM(s.total_due) FROM loan_schedule s WHERE s.loan_id = l.id),
+                                l.principal_amount) AS repayable
+          ) r
+         WHERE l.id = g.loan_id
+           AND g.status = 'ACCEPTED'
+           AND g.exposure IS NULL
+           AND l.status NOT IN ('REJECTED', 'COMPLETED');
+
+        INSERT INTO guarantor_exposures (member_id, total_guaranteed, outstanding_guaranteed, active_guarantees, updated_at)
+        SELECT member_id, SUM(guarantee_amount), SUM(exposure), COUNT(*), now()
+          FROM loan_guarantors
+         WHERE exposure IS NOT NULL
+         GROUP BY member_id
+        ON CONFLICT (member_id) DO NOTHING;
+    END IF;
+END $$;
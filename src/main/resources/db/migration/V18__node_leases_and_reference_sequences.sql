@@ -0,0 +1,16 @@
+-- Node numbers (0-31) leased by running nodes that have no app.node-id (NodeIdentity)
+CREATE TABLE IF NOT EXISTS node_leases (
+    node_id    INT          PRIMARY KEY,
+    holder     VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMPTZ  NOT NULL
+);
+
+-- Reference code sequence blocks reserved per node and day, with the day's scramble seed,
+-- so a restarted node continues its sequence instead of reissuing codes (ReferenceCodeService)
+CREATE TABLE IF NOT EXISTS reference_code_sequences (
+    node_id          INT    NOT NULL,
+    day              DATE   NOT NULL,
+    seed             BIGINT NOT NULL,
+    reserved_through BIGINT NOT NULL,
+    PRIMARY KEY (node_id, day)
+);
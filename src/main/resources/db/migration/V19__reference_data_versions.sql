@@ -0,0 +1,9 @@
+-- Version counters for reference data cached in memory on every node; a change bumps its row in
+-- the same transaction and the other nodes reload when they see a new version (GlReferenceCache)
+CREATE TABLE IF NOT EXISTS reference_data_versions (
+    name    VARCHAR(50) PRIMARY KEY,
+    version BIGINT      NOT NULL DEFAULT 0
+);
+
+INSERT INTO reference_data_versions (name, version) VALUES ('gl_reference', 0)
+ON CONFLICT (name) DO NOTHING;
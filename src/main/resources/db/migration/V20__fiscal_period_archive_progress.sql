@@ -0,0 +1,14 @@
+-- Archive progress per fiscal period: journal lines dated on or before archived_through have moved to
+-- journal_lines_archive. Advanced month by month in the same transaction as each move, so readers never
+-- see lines gone from journal_lines without the progress that accounts for them.
+DO $$
+BEGIN
+    IF to_regclass('fiscal_periods') IS NOT NULL THEN
+        ALTER TABLE fiscal_periods ADD COLUMN IF NOT EXISTS archived_through DATE;
+        UPDATE fiscal_periods SET archived_through = end_date WHERE archived AND archived_through IS NULL;
+    END IF;
+END $$;
+
+-- Closing a period bumps this so every node's ClosedPeriodGuard reloads
+INSERT INTO reference_data_versions (name, version) VALUES ('closed_periods', 0)
+ON CONFLICT (name) DO NOTHING;
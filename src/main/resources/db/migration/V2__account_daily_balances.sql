@@ -0,0 +1,33 @@
+-- Restart points for background jobs (daily snapshots, verifiers, interest runs, ...)
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    job_name            VARCHAR(100) PRIMARY KEY,
+    last_processed_date DATE,
+    last_processed_at   TIMESTAMP,
+    last_processed_key  VARCHAR(255),
+    updated_at          TIMESTAMP
+);
+
+-- One cumulative end-of-day snapshot per GL account per day with activity.
+-- As-of balances = latest snapshot <= day + journal lines after the snapshot watermark.
+CREATE TABLE IF NOT EXISTS account_daily_balances (
+    id             UUID PRIMARY KEY,
+    account_code   VARCHAR(20)    NOT NULL,
+    balance_date   DATE           NOT NULL,
+    day_debit      NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    day_credit     NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    closing_debit  NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    closing_credit NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_account_daily_balance UNIQUE (account_code, balance_date)
+);
+
+-- Date-bounded journal scans used by the snapshot job and the post-watermark tail
+-- (on a fresh database V3 creates the journal tables with these indexes)
+DO $$
+BEGIN
+    IF to_regclass('journal_entries') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_journal_entries_transaction_date ON journal_entries (transaction_date);
+    END IF;
+    IF to_regclass('journal_lines') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_journal_lines_entry ON journal_lines (journal_entry_id);
+    END IF;
+END $$;
@@ -0,0 +1,134 @@
+-- Monthly range partitioning of journal_entries / journal_lines on transaction_date.
+-- journal_lines gets its own copy of transaction_date so date-bounded aggregates prune
+-- partitions without joining journal_entries. Primary keys include the partition key,
+-- and the line -> entry foreign key is dropped so partitions can be detached independently.
+
+-- Creates the partition of parent_table for the month starting at m, if missing. Rows for that
+-- month already sitting in the DEFAULT partition (the month was not created in time) would make a
+-- plain CREATE ... PARTITION OF fail, so the default is detached, the partition created, the
+-- month's rows moved across and the default reattached. Returns 1 if the partition was created.
+CREATE OR REPLACE FUNCTION ensure_journal_partition(parent_table TEXT, m DATE) RETURNS INTEGER AS $$
+DECLARE
+    partition_name TEXT := parent_table || '_' || to_char(m, '"y"YYYY"m"MM');
+    default_name   TEXT := parent_table || '_default';
+    next_month     DATE := (m + INTERVAL '1 month')::DATE;
+    stray          BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN 0;
+    END IF;
+
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('SELECT COUNT(*) FROM %I WHERE transaction_date >= %L AND transaction_date < %L',
+                       default_name, m, next_month) INTO stray;
+    END IF;
+
+    IF COALESCE(stray, 0) = 0 THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, m, next_month);
+        RETURN 1;
+    END IF;
+
+    RAISE WARNING '% rows for % found in %, moving them to %', stray, to_char(m, 'YYYY-MM'), default_name, partition_name;
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent_table, default_name);
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent_table, m, next_month);
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I WHERE transaction_date >= %L AND transaction_date < %L',
+                   partition_name, default_name, m, next_month);
+    EXECUTE format('DELETE FROM %I WHERE transaction_date >= %L AND transaction_date < %L',
+                   default_name, m, next_month);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent_table, default_name);
+    RETURN 1;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Creates any missing monthly partitions for [from_month, to_month] on both tables
+CREATE OR REPLACE FUNCTION ensure_journal_partitions(from_month DATE, to_month DATE) RETURNS INTEGER AS $$
+DECLARE
+    m       DATE := date_trunc('month', from_month)::DATE;
+    created INTEGER := 0;
+BEGIN
+    WHILE m <= date_trunc('month', to_month)::DATE LOOP
+        created := created + ensure_journal_partition('journal_entries', m);
+        created := created + ensure_journal_partition('journal_lines', m);
+        m := (m + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    had_data  BOOLEAN := to_regclass('journal_entries') IS NOT NULL;
+    min_month DATE;
+BEGIN
+    -- Already partitioned (re-run on a restored schema): nothing to do
+    IF had_data AND EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'journal_entries'::regclass) THEN
+        RETURN;
+    END IF;
+
+    IF had_data THEN
+        ALTER TABLE journal_entries RENAME TO journal_entries_legacy;
+        IF to_regclass('journal_lines') IS NOT NULL THEN
+            ALTER TABLE journal_lines RENAME TO journal_lines_legacy;
+        END IF;
+    END IF;
+
+    CREATE TABLE journal_entries (
+        id               UUID         NOT NULL,
+        transaction_date TIMESTAMP(6) NOT NULL,
+        posted_date      TIMESTAMP(6),
+        description      VARCHAR(255),
+        reference_no     VARCHAR(255),
+        PRIMARY KEY (id, transaction_date)
+    ) PARTITION BY RANGE (transaction_date);
+
+    CREATE TABLE journal_lines (
+        id               UUID         NOT NULL,
+        journal_entry_id UUID,
+        account_code     VARCHAR(20),
+        debit            NUMERIC(38, 2),
+        credit           NUMERIC(38, 2),
+        transaction_date TIMESTAMP(6) NOT NULL,
+        PRIMARY KEY (id, transaction_date)
+    ) PARTITION BY RANGE (transaction_date);
+
+    -- Catch-all for anything outside the pre-created months
+    CREATE TABLE journal_entries_default PARTITION OF journal_entries DEFAULT;
+    CREATE TABLE journal_lines_default PARTITION OF journal_lines DEFAULT;
+
+    IF had_data THEN
+        SELECT date_trunc('month', MIN(transaction_date))::DATE INTO min_month FROM journal_entries_legacy;
+    END IF;
+    PERFORM ensure_journal_partitions(COALESCE(min_month, date_trunc('month', now())::DATE),
+                                      (date_trunc('month', now()) + INTERVAL '3 months')::DATE);
+
+    IF had_data THEN
+        INSERT INTO journal_entries (id, transaction_date, posted_date, description, reference_no)
+        SELECT id, COALESCE(transaction_date, posted_date, now()), posted_date, description, reference_no
+        FROM journal_entries_legacy;
+
+        IF to_regclass('journal_lines_legacy') IS NOT NULL THEN
+            INSERT INTO journal_lines (id, journal_entry_id, account_code, debit, credit, transaction_date)
+            SELECT jl.id, jl.journal_entry_id, jl.account_code, jl.debit, jl.credit,
+                   COALESCE(je.transaction_date, je.posted_date, now())
+            FROM journal_lines_legacy jl
+            LEFT JOIN journal_entries_legacy je ON je.id = jl.journal_entry_id;
+
+            DROP TABLE journal_lines_legacy CASCADE;
+        END IF;
+        DROP TABLE journal_entries_legacy CASCADE;
+    END IF;
+
+    -- Lines still reference GL accounts (regular table) when it exists
+    IF to_regclass('gl_accounts') IS NOT NULL THEN
+        ALTER TABLE journal_lines ADD CONSTRAINT fk_journal_lines_account
+            FOREIGN KEY (account_code) REFERENCES gl_accounts (code);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_journal_entries_transaction_date ON journal_entries (transaction_date);
+CREATE INDEX IF NOT EXISTS idx_journal_entries_reference_no ON journal_entries (reference_no);
+CREATE INDEX IF NOT EXISTS idx_journal_lines_entry ON journal_lines (journal_entry_id);
+CREATE INDEX IF NOT EXISTS idx_journal_lines_account_date ON journal_lines (account_code, transaction_date);
+CREATE INDEX IF NOT EXISTS idx_journal_lines_date ON journal_lines (transaction_date);
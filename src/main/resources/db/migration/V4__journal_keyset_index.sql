@@ -0,0 +1,2 @@
+-- Keyset pagination of the journal: ORDER BY transaction_date DESC, id DESC with a (date, id) cursor
+CREATE INDEX IF NOT EXISTS idx_journal_entries_date_id ON journal_entries (transaction_date DESC, id DESC);
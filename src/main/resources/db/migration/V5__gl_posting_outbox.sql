@@ -0,0 +1,20 @@
+-- GL posting intents written alongside deposits, repayments and fees when
+-- app.accounting.async-posting=true; drained in id order by PostingOutboxService.
+CREATE TABLE IF NOT EXISTS gl_posting_outbox (
+    id                  BIGSERIAL PRIMARY KEY,
+    event_name          VARCHAR(255),
+    description         VARCHAR(255),
+    reference_no        VARCHAR(255),
+    amount              NUMERIC(19, 2) NOT NULL,
+    debit_account_code  VARCHAR(255),
+    credit_account_code VARCHAR(255),
+    transaction_date    TIMESTAMP      NOT NULL,
+    status              VARCHAR(20)    NOT NULL DEFAULT 'PENDING',
+    attempts            INTEGER        NOT NULL DEFAULT 0,
+    next_attempt_at     TIMESTAMP,
+    last_error          VARCHAR(1000),
+    created_at          TIMESTAMP,
+    posted_at           TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_gl_outbox_status_id ON gl_posting_outbox (status, id);
@@ -0,0 +1,2 @@
+-- Incremental ledger verification walks entries by posted_date from its checkpoint
+CREATE INDEX IF NOT EXISTS idx_journal_entries_posted_date ON journal_entries (posted_date);
@@ -0,0 +1,32 @@
+-- Fiscal period close: lifecycle columns, balances brought forward, archived journal lines
+DO $$
+BEGIN
+    IF to_regclass('fiscal_periods') IS NOT NULL THEN
+        ALTER TABLE fiscal_periods ADD COLUMN IF NOT EXISTS closed_at TIMESTAMP;
+        ALTER TABLE fiscal_periods ADD COLUMN IF NOT EXISTS archived BOOLEAN NOT NULL DEFAULT FALSE;
+    END IF;
+END $$;
+
+CREATE TABLE IF NOT EXISTS account_opening_balances (
+    id               UUID PRIMARY KEY,
+    fiscal_period_id UUID           NOT NULL,
+    account_code     VARCHAR(20)    NOT NULL,
+    opening_date     DATE           NOT NULL,
+    opening_debit    NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    opening_credit   NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    balance          NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_account_opening_balance UNIQUE (account_code, opening_date)
+);
+
+-- Same shape as journal_lines; closed-period totals are carried by snapshots and opening balances
+CREATE TABLE IF NOT EXISTS journal_lines_archive (
+    id               UUID PRIMARY KEY,
+    journal_entry_id UUID           NOT NULL,
+    account_code     VARCHAR(20),
+    debit            NUMERIC(38, 2),
+    credit           NUMERIC(38, 2),
+    transaction_date TIMESTAMP      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_journal_lines_archive_entry ON journal_lines_archive (journal_entry_id);
+CREATE INDEX IF NOT EXISTS idx_journal_lines_archive_account_date ON journal_lines_archive (account_code, transaction_date);
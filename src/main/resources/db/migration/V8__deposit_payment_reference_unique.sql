@@ -0,0 +1,35 @@
+-- One deposit per external payment (M-Pesa code, bank reference) per channel.
+-- DepositService stores payment_method upper-cased and payment_reference trimmed.
+-- Duplicates stop the migration: they are double-credited payments and need a person to reverse them.
+-- On a database where Hibernate has not created deposits yet, RequiredIndexes creates the index at startup.
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    IF to_regclass('deposits') IS NOT NULL THEN
+        UPDATE deposits
+           SET payment_method = UPPER(TRIM(payment_method)),
+               payment_reference = NULLIF(TRIM(payment_reference), '')
+         WHERE payment_method <> UPPER(TRIM(payment_method))
+            OR payment_reference <> TRIM(payment_reference)
+            OR payment_reference = '';
+
+        SELECT string_agg(payment_method || '/' || payment_reference || ' x' || n, ', ')
+          INTO duplicates
+          FROM (SELECT payment_method, payment_reference, COUNT(*) AS n
+                  FROM deposits
+                 WHERE payment_reference IS NOT NULL
+                 GROUP BY payment_method, payment_reference
+                HAVING COUNT(*) > 1
+                 ORDER BY payment_method, payment_reference
+                 LIMIT 20) d;
+
+        IF duplicates IS NOT NULL THEN
+            RAISE EXCEPTION 'deposits has duplicate (payment_method, payment_reference) rows: %. Reverse the extra deposits (or clear their payment_reference) and re-run the migration', duplicates;
+        END IF;
+
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_deposits_payment_reference
+            ON deposits (payment_method, payment_reference)
+            WHERE payment_reference IS NOT NULL;
+    END IF;
+END $$;
@@ -0,0 +1,20 @@
+-- Contribution totals per deposit product, split over shard rows so concurrent contributors
+-- to one campaign do not queue on the deposit_products row. The total is the sum of the shards.
+CREATE TABLE IF NOT EXISTS deposit_product_shards (
+    product_id UUID           NOT NULL,
+    shard      SMALLINT       NOT NULL,
+    amount     NUMERIC(19, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT pk_deposit_product_shards PRIMARY KEY (product_id, shard)
+);
+
+-- Carry existing totals into shard 0
+DO $$
+BEGIN
+    IF to_regclass('deposit_products') IS NOT NULL THEN
+        INSERT INTO deposit_product_shards (product_id, shard, amount)
+        SELECT id, 0, current_amount
+          FROM deposit_products
+         WHERE current_amount IS NOT NULL AND current_amount <> 0
+        ON CONFLICT (product_id, shard) DO NOTHING;
+    END IF;
+END $$;
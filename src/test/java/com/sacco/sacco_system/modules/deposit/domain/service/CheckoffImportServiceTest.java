@@ -0,0 +1,422 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+import com.sacco.sacco_system.modules.deposit.api.dto.CheckoffImportStatusDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sacco.sacco_system.modules.deposit.domain.repository.CheckoffBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlMapping;
+import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.GlMappingRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBrowseRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalEntryRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalLineRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.TransactionBatchRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountBalanceSnapshotService;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.ClosedPeriodGuard;
+import com.sacco.sacco_system.modules.finance.domain.service.GlBalanceUpdater;
+import com.sacco.sacco_system.modules.finance.domain.service.GlReferenceCache;
+import com.sacco.sacco_system.modules.finance.domain.service.LedgerActivityService;
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorExposureService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleService;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Check-off imports run through the real pipeline against an in-memory stand-in for the
+ * check-off tables that commits or rolls back with each partition's transaction.
+ */
+class CheckoffImportServiceTest {
+
+    private static final String HEADER = "member_number,amount,destination,account,reference\n";
+
+    private final InMemoryCheckoffTables tables = new InMemoryCheckoffTables();
+    private final AccountingService accountingService = mock(AccountingService.class);
+    private final List<AccountingService.PostingRequest> postings = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, UUID> members = new HashMap<>();
+    private final Map<String, UUID> savingsAccounts = new HashMap<>();
+    private final Map<String, UUID> loans = new HashMap<>();
+
+    private CheckoffImportService service;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            UUID memberId = UUID.randomUUID();
+            UUID accountId = UUID.randomUUID();
+            members.put("M" + i, memberId);
+            savingsAccounts.put("SAV" + i, accountId);
+            tables.members.put("M" + i, memberId);
+            tables.memberSavings.put(memberId, BigDecimal.ZERO);
+            tables.savings.put(accountId, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            tables.savingsRefs.add(new CheckoffBatchRepository.AccountRef(accountId, memberId, "SAV" + i));
+        }
+        addLoan("LN4", "M4", new BigDecimal("1000.00"));
+        addLoan("LN5", "M5", BigDecimal.ZERO);
+
+        when(accountingService.postBatch(anyList())).thenAnswer(inv -> {
+            List<AccountingService.PostingRequest> batch = inv.getArgument(0);
+            postings.addAll(batch);
+            return batch.size();
+        });
+
+        service = new CheckoffImportService(tables, mock(TransactionBatchRepository.class), accountingService,
+                mock(ReferenceCodeService.class), new TransactionTemplate(new TablesTransactionManager(tables)),
+                mock(MemberLockService.class), mock(LoanScheduleService.class), mock(GuarantorExposureService.class),
+                mock(GuarantorMatchIndex.class));
+        ReflectionTestUtils.setField(service, "chunkSize", 1000);
+        ReflectionTestUtils.setField(service, "workerCount", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void failingPartitionIsRetriedRowByRow() throws Exception {
+        tables.failingMembers.add(members.get("M3"));
+
+        CheckoffImportStatusDTO status = runImport(HEADER
+                + "M1,100,SAVINGS,,\n"
+                + "M2,200,SAVINGS,,\n"
+                + "M3,300,SAVINGS,,\n"
+                + "M4,50,LOAN,,\n", "BANK");
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(4, status.getRowsRead());
+        assertEquals(3, status.getRowsPosted());
+        assertEquals(1, status.getRowsFailed());
+        assertEquals(0, new BigDecimal("350").compareTo(status.getAmountPosted()));
+        assertEquals(1, status.getErrors().size());
+        assertEquals(4, status.getErrors().get(0).getRow());
+        assertEquals("M3", status.getErrors().get(0).getMemberNumber());
+        assertEquals("deposits insert rejected", status.getErrors().get(0).getMessage());
+
+        // The failed whole-partition attempt left nothing behind; only the good rows are written
+        assertEquals(0, new BigDecimal("100").compareTo(savingsBalance("SAV1")));
+        assertEquals(0, new BigDecimal("200").compareTo(savingsBalance("SAV2")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(savingsBalance("SAV3")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(tables.memberSavings.get(members.get("M3"))));
+        assertEquals(0, new BigDecimal("950").compareTo(tables.loanBalances.get(loans.get("LN4"))));
+        assertEquals(3, tables.deposits.size());
+
+        assertEquals(0, new BigDecimal("300").compareTo(postedTotal("SAVINGS_DEPOSIT")));
+        assertEquals(0, new BigDecimal("50").compareTo(postedTotal("LOAN_REPAYMENT")));
+        assertTrue(postings.stream().allMatch(p -> PaymentAccounts.BANK.equals(p.getDebitAccountCode())));
+    }
+
+    @Test
+    void duplicateRowsAreImportedOnce() throws Exception {
+        String file = HEADER
+                + "M1,100,SAVINGS,,PAY-2026-01\n"
+                + "M2,200,SAVINGS,,PAY-2026-01\n"
+                + "M1,100,SAVINGS,,PAY-2026-01\n"
+                + "M1,100,SAVINGS,SAV1,PAY-2026-02\n";
+
+        CheckoffImportStatusDTO first = runImport(file, "mpesa");
+        assertEquals(3, first.getRowsPosted());
+        assertEquals(1, first.getRowsFailed());
+        assertEquals(4, first.getErrors().get(0).getRow());
+        assertEquals("Already imported (payment reference PAY-2026-01/M1/SAV1)", first.getErrors().get(0).getMessage());
+        assertEquals(Set.of("PAY-2026-01/M1/SAV1", "PAY-2026-01/M2/SAV2", "PAY-2026-02/M1/SAV1"),
+                Set.copyOf(tables.paymentReferences("MPESA")));
+
+        CheckoffImportStatusDTO second = runImport(file, "MPESA");
+        assertEquals("COMPLETED", second.getStatus());
+        assertEquals(0, second.getRowsPosted());
+        assertEquals(4, second.getRowsFailed());
+        assertTrue(second.getErrors().stream().allMatch(e -> e.getMessage().startsWith("Already imported")));
+
+        assertEquals(0, new BigDecimal("200").compareTo(savingsBalance("SAV1")));
+        assertEquals(0, new BigDecimal("200").compareTo(savingsBalance("SAV2")));
+        assertEquals(0, new BigDecimal("200").compareTo(tables.memberSavings.get(members.get("M1"))));
+        assertEquals(3, tables.deposits.size());
+        assertTrue(postings.stream().allMatch(p -> PaymentAccounts.MPESA.equals(p.getDebitAccountCode())));
+    }
+
+    @Test
+    void reportListsEveryRejectedRow() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 3);
+        ReflectionTestUtils.setField(service, "workerCount", 2);
+
+        CheckoffImportStatusDTO status = runImport(HEADER
+                + "M1,\"1,500.00\",SAVINGS,SAV1,\n"   // row 2
+                + "M9,100,,,\n"                       // row 3
+                + "M2,abc,,,\n"                       // row 4
+                + "M2,-5,,,\n"                        // row 5
+                + "M2,10.505,,,\n"                    // row 6
+                + "M2,100,LOAN,,\n"                   // row 7
+                + "M1,100,LOAN,LN4,\n"                // row 8
+                + "M4,300,LOAN,,\n"                   // row 9
+                + "M1,50,SHARES,,\n"                  // row 10
+                + "\n"                                // row 11, blank
+                + "M3,25,,,\n"                        // row 12
+                + "M5,10,LOAN,,\n", "BANK");          // row 13
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(11, status.getRowsRead());
+        assertEquals(3, status.getRowsPosted());
+        assertEquals(8, status.getRowsFailed());
+        assertEquals(0, new BigDecimal("1825").compareTo(status.getAmountPosted()));
+        assertFalse(status.isErrorsTruncated());
+
+        Map<Long, String> errors = new TreeMap<>();
+        status.getErrors().forEach(e -> errors.put(e.getRow(), e.getMemberNumber() + ": " + e.getMessage()));
+        Map<Long, String> expected = new TreeMap<>();
+        expected.put(3L, "M9: Unknown member number");
+        expected.put(4L, "M2: Invalid amount");
+        expected.put(5L, "M2: Amount must be positive");
+        expected.put(6L, "M2: Amount has more than 2 decimal places");
+        expected.put(7L, "M2: Member has no active loan");
+        expected.put(8L, "M1: LN4 belongs to another member");
+        expected.put(10L, "M1: Unsupported destination SHARES");
+        expected.put(13L, "M5: Loan LN5 has no outstanding balance");
+        assertEquals(expected, errors);
+
+        assertEquals(0, new BigDecimal("1500.00").compareTo(savingsBalance("SAV1")));
+        assertEquals(0, new BigDecimal("25").compareTo(savingsBalance("SAV3")));
+        assertEquals(0, new BigDecimal("700").compareTo(tables.loanBalances.get(loans.get("LN4"))));
+    }
+
+    @Test
+    void summaryPostingsResolveAgainstTheDefaultMappings() throws Exception {
+        CheckoffImportStatusDTO status = runImport(HEADER
+                + "M1,100,SAVINGS,,\n"
+                + "M4,250,LOAN,LN4,\n", "BANK");
+        assertEquals(2, status.getRowsPosted());
+
+        Map<String, GlMapping> defaults = defaultMappings();
+        assertEquals(0, new BigDecimal("250").compareTo(postedTotal("LOAN_REPAYMENT")));
+        for (AccountingService.PostingRequest posting : postings) {
+            assertNotNull(defaults.get(posting.getEventName()), "No default GL mapping for " + posting.getEventName());
+        }
+        // The repayment comes off the loan receivable
+        assertEquals("1200", defaults.get("LOAN_REPAYMENT").getCreditAccountCode());
+        assertEquals(0, new BigDecimal("750").compareTo(tables.loanBalances.get(loans.get("LN4"))));
+    }
+
+    /**
+     * The mappings AccountingService.initDefaultMappings creates on a fresh install, by event name
+     */
+    private static Map<String, GlMapping> defaultMappings() {
+        GlMappingRepository mappingRepository = mock(GlMappingRepository.class);
+        when(mappingRepository.findByEventName(anyString())).thenReturn(Optional.empty());
+        new AccountingService(mock(GLAccountRepository.class), mappingRepository, mock(JournalEntryRepository.class),
+                mock(JournalLineRepository.class), mock(JournalBatchRepository.class), mock(GlBalanceUpdater.class),
+                mock(GlReferenceCache.class), mock(ClosedPeriodGuard.class), mock(AccountBalanceSnapshotService.class),
+                mock(LedgerActivityService.class), mock(JournalBrowseRepository.class), new ObjectMapper())
+                .initDefaultMappings();
+
+        ArgumentCaptor<GlMapping> saved = ArgumentCaptor.forClass(GlMapping.class);
+        verify(mappingRepository, atLeastOnce()).save(saved.capture());
+        Map<String, GlMapping> mappings = new HashMap<>();
+        saved.getAllValues().forEach(mapping -> mappings.put(mapping.getEventName(), mapping));
+        return mappings;
+    }
+
+    private CheckoffImportStatusDTO runImport(String csv, String paymentMethod) throws InterruptedException {
+        MockMultipartFile file = new MockMultipartFile("file", "payroll.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        UUID jobId = service.startImport(file, paymentMethod, null).getJobId();
+        for (int i = 0; i < 500; i++) {
+            CheckoffImportStatusDTO status = service.getStatus(jobId).orElseThrow();
+            if (status.getFinishedAt() != null) return status;
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Check-off import did not finish");
+    }
+
+    private void addLoan(String number, String memberNumber, BigDecimal balance) {
+        UUID loanId = UUID.randomUUID();
+        loans.put(number, loanId);
+        tables.loanBalances.put(loanId, balance);
+        tables.loanRefs.add(new CheckoffBatchRepository.AccountRef(loanId, members.get(memberNumber), number));
+    }
+
+    private BigDecimal savingsBalance(String accountNumber) {
+        return tables.savings.get(savingsAccounts.get(accountNumber))[0];
+    }
+
+    private BigDecimal postedTotal(String event) {
+        return postings.stream().filter(p -> event.equals(p.getEventName()))
+                .map(AccountingService.PostingRequest::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Check-off tables with per-transaction pending writes, applied on commit and dropped on rollback.
+     * Deposits for a member in failingMembers are rejected, like a constraint violation would be.
+     */
+    private static final class InMemoryCheckoffTables extends CheckoffBatchRepository {
+        final Map<String, UUID> members = new HashMap<>();
+        final List<AccountRef> savingsRefs = new ArrayList<>();
+        final List<AccountRef> loanRefs = new ArrayList<>();
+        final Map<UUID, BigDecimal[]> savings = new HashMap<>();
+        final Map<UUID, BigDecimal> loanBalances = new HashMap<>();
+        final Map<UUID, BigDecimal> memberSavings = new HashMap<>();
+        final List<DepositRow> deposits = new ArrayList<>();
+        final Set<UUID> failingMembers = new HashSet<>();
+
+        private final ThreadLocal<Pending> pending = ThreadLocal.withInitial(Pending::new);
+
+        private static final class Pending {
+            final Map<UUID, BigDecimal[]> savings = new HashMap<>();
+            final Map<UUID, BigDecimal> loans = new HashMap<>();
+            final Map<UUID, BigDecimal> memberSavings = new HashMap<>();
+            final List<DepositRow> deposits = new ArrayList<>();
+        }
+
+        InMemoryCheckoffTables() {
+            super(null, null);
+        }
+
+        @Override
+        public Map<String, UUID> loadMemberIndex() {
+            return Map.copyOf(members);
+        }
+
+        @Override
+        public List<AccountRef> loadActiveSavingsAccounts() {
+            return List.copyOf(savingsRefs);
+        }
+
+        @Override
+        public List<AccountRef> loadActiveLoans() {
+            return List.copyOf(loanRefs);
+        }
+
+        @Override
+        public synchronized Map<UUID, BigDecimal[]> lockSavingsBalances(Collection<UUID> ids) {
+            Map<UUID, BigDecimal[]> balances = new HashMap<>();
+            ids.forEach(id -> balances.put(id, savings.get(id).clone()));
+            return balances;
+        }
+
+        @Override
+        public synchronized Map<UUID, BigDecimal> lockLoanBalances(Collection<UUID> ids) {
+            Map<UUID, BigDecimal> balances = new HashMap<>();
+            ids.forEach(id -> balances.put(id, loanBalances.get(id)));
+            return balances;
+        }
+
+        @Override
+        public void updateSavingsBalances(Map<UUID, BigDecimal[]> balances, LocalDateTime now) {
+            balances.forEach((id, balance) -> pending.get().savings.put(id, balance.clone()));
+        }
+
+        @Override
+        public void updateLoanBalances(Map<UUID, BigDecimal> balances) {
+            pending.get().loans.putAll(balances);
+        }
+
+        @Override
+        public void addMemberSavings(Map<UUID, BigDecimal> deltas, LocalDateTime now) {
+            deltas.forEach((id, delta) -> pending.get().memberSavings.merge(id, delta, BigDecimal::add));
+        }
+
+        @Override
+        public synchronized Set<String> findExistingPaymentReferences(String paymentMethod, Collection<String> references) {
+            Set<String> existing = new HashSet<>(paymentReferences(paymentMethod));
+            existing.retainAll(references);
+            return existing;
+        }
+
+        @Override
+        public void insertDeposits(List<DepositRow> rows) {
+            for (DepositRow row : rows) {
+                if (failingMembers.contains(row.getMemberId())) {
+                    throw new DataIntegrityViolationException("deposits insert rejected");
+                }
+            }
+            pending.get().deposits.addAll(rows);
+        }
+
+        @Override
+        public void insertAllocations(List<AllocationRow> allocations) {
+        }
+
+        synchronized List<String> paymentReferences(String paymentMethod) {
+            return deposits.stream()
+                    .filter(d -> paymentMethod.equals(d.getPaymentMethod()) && d.getPaymentReference() != null)
+                    .map(DepositRow::getPaymentReference)
+                    .toList();
+        }
+
+        synchronized void commit() {
+            Pending writes = pending.get();
+            savings.putAll(writes.savings);
+            loanBalances.putAll(writes.loans);
+            writes.memberSavings.forEach((id, delta) -> memberSavings.merge(id, delta, BigDecimal::add));
+            deposits.addAll(writes.deposits);
+            pending.remove();
+        }
+
+        void rollback() {
+            pending.remove();
+        }
+    }
+
+    private static final class TablesTransactionManager extends AbstractPlatformTransactionManager {
+        private final InMemoryCheckoffTables tables;
+
+        TablesTransactionManager(InMemoryCheckoffTables tables) {
+            this.tables = tables;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            tables.commit();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            tables.rollback();
+        }
+    }
+}
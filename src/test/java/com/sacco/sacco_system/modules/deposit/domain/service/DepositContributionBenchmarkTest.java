@@ -0,0 +1,134 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductShardRepository;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contended contributions to one campaign: the old running total on the deposit_products row
+ * against the shard rows DepositService writes, at 1 and 8 threads. Every contribution is one
+ * transaction that moves the counter and then writes its deposit row, so the counter row stays
+ * locked until the contribution commits.
+ *
+ * Opt-in, PostgreSQL only (the shard upsert is ON CONFLICT ... DO UPDATE):
+ * mvn test -Dbenchmarks=true -Dtest=DepositContributionBenchmarkTest -Dbenchmark.jdbc-url=jdbc:postgresql://...
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = TestDataSources.BENCHMARKS, matches = "true")
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class DepositContributionBenchmarkTest {
+
+    private static final int[] THREAD_COUNTS = {1, 8};
+    private static final int CONTRIBUTIONS_PER_THREAD = 2_000;
+    private static final int SHARDS = 16;
+    private static final BigDecimal AMOUNT = new BigDecimal("100.00");
+
+    @Test
+    void shardedTotalOutScalesTheProductRow() throws Exception {
+        DataSource dataSource = TestDataSources.benchmark("deposit-bench");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE deposit_products (id UUID PRIMARY KEY, status VARCHAR(20) NOT NULL, " +
+                "current_amount NUMERIC(19, 2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE deposit_product_shards (product_id UUID NOT NULL, shard SMALLINT NOT NULL, " +
+                "amount NUMERIC(19, 2) NOT NULL DEFAULT 0, PRIMARY KEY (product_id, shard))");
+        jdbcTemplate.execute("CREATE TABLE deposits (id UUID PRIMARY KEY, product_id UUID NOT NULL, member_id UUID NOT NULL, " +
+                "amount NUMERIC(19, 2) NOT NULL)");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        DepositProductShardRepository shards = new DepositProductShardRepository(jdbcTemplate,
+                new NamedParameterJdbcTemplate(jdbcTemplate));
+
+        double[] productRow = new double[THREAD_COUNTS.length];
+        double[] sharded = new double[THREAD_COUNTS.length];
+        for (int i = 0; i < THREAD_COUNTS.length; i++) {
+            UUID rowProduct = product(jdbcTemplate);
+            productRow[i] = run(transactionTemplate, THREAD_COUNTS[i], member -> {
+                jdbcTemplate.update("UPDATE deposit_products SET current_amount = current_amount + ? WHERE id = ?",
+                        AMOUNT, rowProduct);
+                deposit(jdbcTemplate, rowProduct, member);
+            });
+            UUID shardProduct = product(jdbcTemplate);
+            sharded[i] = run(transactionTemplate, THREAD_COUNTS[i], member -> {
+                shards.add(shardProduct, Math.floorMod(member.hashCode(), SHARDS), AMOUNT);
+                shards.total(shardProduct);
+                deposit(jdbcTemplate, shardProduct, member);
+            });
+
+            // Nothing lost on either side
+            BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf((long) THREAD_COUNTS[i] * CONTRIBUTIONS_PER_THREAD));
+            assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject(
+                    "SELECT current_amount FROM deposit_products WHERE id = ?", BigDecimal.class, rowProduct)));
+            assertEquals(0, expected.compareTo(shards.total(shardProduct)));
+        }
+
+        System.out.printf("Contributions to one product (contributions/s), %d per thread:%n", CONTRIBUTIONS_PER_THREAD);
+        System.out.printf("%-12s", "threads");
+        for (int threads : THREAD_COUNTS) System.out.printf("%10d", threads);
+        System.out.printf("%n%-12s", "product row");
+        for (double value : productRow) System.out.printf("%10.0f", value);
+        System.out.printf("%n%-12s", "sharded");
+        for (double value : sharded) System.out.printf("%10.0f", value);
+        System.out.println();
+
+        int last = THREAD_COUNTS.length - 1;
+        assertTrue(sharded[last] > productRow[last], "Shard rows should out-contribute the product row at "
+                + THREAD_COUNTS[last] + " threads");
+        assertTrue(sharded[last] / sharded[0] > productRow[last] / productRow[0],
+                "Shard rows should scale better with threads than the product row");
+    }
+
+    private interface Contribution {
+        void apply(UUID member);
+    }
+
+    /**
+     * Contributions per second with the given number of concurrent contributors, each a distinct member
+     */
+    private static double run(TransactionTemplate transactionTemplate, int threads, Contribution contribution) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < CONTRIBUTIONS_PER_THREAD; i++) {
+                    UUID member = UUID.randomUUID();
+                    transactionTemplate.executeWithoutResult(status -> contribution.apply(member));
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - started;
+        return (double) threads * CONTRIBUTIONS_PER_THREAD / (elapsed / 1e9);
+    }
+
+    private static UUID product(JdbcTemplate jdbcTemplate) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO deposit_products (id, status, current_amount) VALUES (?, 'ACTIVE', 0)", id);
+        return id;
+    }
+
+    private static void deposit(JdbcTemplate jdbcTemplate, UUID productId, UUID member) {
+        jdbcTemplate.update("INSERT INTO deposits (id, product_id, member_id, amount) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID(), productId, member, AMOUNT);
+    }
+}
@@ -0,0 +1,55 @@
+package com.sacco.sacco_system.modules.deposit.domain.service;
+
+import com.sacco.sacco_system.modules.deposit.api.dto.DepositProductDTO;
+import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProduct;
+import com.sacco.sacco_system.modules.deposit.domain.entity.DepositProductStatus;
+import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductRepository;
+import com.sacco.sacco_system.modules.deposit.domain.repository.DepositProductShardRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Closing a product freezes its total under the same product-row lock a completing contributor takes.
+ */
+class DepositProductServiceTest {
+
+    private final DepositProductRepository productRepository = mock(DepositProductRepository.class);
+    private final DepositProductShardRepository shardRepository = mock(DepositProductShardRepository.class);
+    private final DepositProductService service = new DepositProductService(productRepository, shardRepository);
+
+    @Test
+    void closeLocksTheProductRowBeforeFreezingTheTotal() {
+        UUID id = UUID.randomUUID();
+        DepositProduct product = DepositProduct.builder()
+                .id(id)
+                .name("Harambee")
+                .targetAmount(new BigDecimal("5000.00"))
+                .currentAmount(BigDecimal.ZERO)
+                .status(DepositProductStatus.ACTIVE)
+                .build();
+        when(productRepository.findById(id)).thenReturn(Optional.of(product));
+        when(productRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(shardRepository.lockProductStatus(id)).thenReturn(DepositProductStatus.ACTIVE.name());
+        when(shardRepository.total(id)).thenReturn(new BigDecimal("4200.00"));
+
+        DepositProductDTO closed = service.closeProduct(id);
+
+        InOrder order = inOrder(shardRepository, productRepository);
+        order.verify(shardRepository).lockProductStatus(id);
+        order.verify(shardRepository).total(id);
+        order.verify(productRepository).save(product);
+        assertEquals(DepositProductStatus.CLOSED, closed.getStatus());
+        assertEquals(new BigDecimal("4200.00"), closed.getCurrentAmount());
+        assertEquals(new BigDecimal("4200.00"), product.getCurrentAmount());
+    }
+}
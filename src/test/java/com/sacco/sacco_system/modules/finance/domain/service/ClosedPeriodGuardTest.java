@@ -0,0 +1,44 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ValidationException;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceDataVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A close made on another node reaches this node's guard through the shared version.
+ */
+class ClosedPeriodGuardTest {
+
+    private final FiscalPeriodRepository fiscalPeriodRepository = mock(FiscalPeriodRepository.class);
+    private final ReferenceDataVersionRepository versionRepository = mock(ReferenceDataVersionRepository.class);
+    private final ClosedPeriodGuard guard = new ClosedPeriodGuard(fiscalPeriodRepository, versionRepository);
+
+    @Test
+    void closeOnAnotherNodeIsPickedUpByVersion() {
+        ReflectionTestUtils.setField(guard, "checkIntervalMs", 0L);
+        when(versionRepository.current(ClosedPeriodGuard.VERSION_NAME)).thenReturn(3L);
+        when(fiscalPeriodRepository.findClosedThrough()).thenReturn(LocalDate.of(2025, 12, 31));
+
+        guard.assertOpen(LocalDate.of(2026, 3, 31));
+        guard.assertOpen(LocalDate.of(2026, 3, 31));
+        verify(fiscalPeriodRepository, times(1)).findClosedThrough();
+
+        // Q1 closed elsewhere: version bumped in the close transaction
+        when(versionRepository.current(ClosedPeriodGuard.VERSION_NAME)).thenReturn(4L);
+        when(fiscalPeriodRepository.findClosedThrough()).thenReturn(LocalDate.of(2026, 3, 31));
+
+        assertThrows(ValidationException.class, () -> guard.assertOpen(LocalDate.of(2026, 3, 31)));
+        guard.assertOpen(LocalDate.of(2026, 4, 1));
+        verify(fiscalPeriodRepository, times(2)).findClosedThrough();
+    }
+}
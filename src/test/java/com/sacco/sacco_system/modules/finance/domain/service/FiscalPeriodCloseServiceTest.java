@@ -0,0 +1,90 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ValidationException;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.FiscalPeriod;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Archiving a closed period month by month, with the progress recorded alongside each move.
+ */
+class FiscalPeriodCloseServiceTest {
+
+    private final FiscalPeriodRepository fiscalPeriodRepository = mock(FiscalPeriodRepository.class);
+    private final JournalArchiveRepository journalArchiveRepository = mock(JournalArchiveRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final FiscalPeriodCloseService service = new FiscalPeriodCloseService(fiscalPeriodRepository,
+            mock(AccountOpeningBalanceRepository.class), journalArchiveRepository, mock(AccountingService.class),
+            mock(LedgerActivityService.class), mock(AccountBalanceSnapshotService.class), mock(GlReferenceCache.class),
+            mock(ClosedPeriodGuard.class), mock(AdvisoryLocks.class), transactionTemplate);
+    private final UUID periodId = UUID.randomUUID();
+    private final FiscalPeriod period = FiscalPeriod.builder()
+            .id(periodId)
+            .name("Q1 2026")
+            .startDate(LocalDate.of(2026, 1, 1))
+            .endDate(LocalDate.of(2026, 3, 31))
+            .closed(true)
+            .build();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(fiscalPeriodRepository.findById(periodId)).thenReturn(Optional.of(period));
+        when(journalArchiveRepository.archiveLines(any(), any())).thenReturn(10);
+    }
+
+    @Test
+    void eachMonthRecordsItsProgressAfterItsMove() {
+        assertEquals(30, service.archivePeriod(periodId));
+
+        InOrder order = inOrder(journalArchiveRepository, fiscalPeriodRepository);
+        for (int month = 1; month <= 3; month++) {
+            LocalDate first = LocalDate.of(2026, month, 1);
+            order.verify(journalArchiveRepository).archiveLines(first.atStartOfDay(), first.plusMonths(1).atStartOfDay());
+            order.verify(fiscalPeriodRepository).markArchivedThrough(periodId, first.plusMonths(1).minusDays(1));
+        }
+        assertTrue(period.isArchived());
+        assertEquals(LocalDate.of(2026, 3, 31), period.getArchivedThrough());
+    }
+
+    @Test
+    void interruptedArchiveResumesAfterTheLastMonthMoved() {
+        period.setArchivedThrough(LocalDate.of(2026, 2, 28));
+
+        assertEquals(10, service.archivePeriod(periodId));
+
+        verify(journalArchiveRepository).archiveLines(LocalDate.of(2026, 3, 1).atStartOfDay(), LocalDate.of(2026, 4, 1).atStartOfDay());
+        verify(fiscalPeriodRepository).markArchivedThrough(periodId, LocalDate.of(2026, 3, 31));
+    }
+
+    @Test
+    void earlierPeriodsAreArchivedFirst() {
+        when(fiscalPeriodRepository.existsByClosedTrueAndArchivedFalseAndEndDateBefore(period.getStartDate())).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> service.archivePeriod(periodId));
+        verify(journalArchiveRepository, never()).archiveLines(any(), any());
+    }
+}
@@ -0,0 +1,146 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contended posting throughput, ATOMIC vs STRIPED, at 1-8 threads. Every posting is one
+ * transaction that moves the three hot accounts and then writes its journal lines, so in ATOMIC
+ * mode the hot rows stay locked until the posting commits, as they do behind a deposit.
+ *
+ * Opt-in: mvn test -Dbenchmarks=true -Dtest=GlBalanceThroughputBenchmarkTest
+ * (add -Dbenchmark.jdbc-url=jdbc:postgresql://... to measure on PostgreSQL instead of H2).
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = TestDataSources.BENCHMARKS, matches = "true")
+class GlBalanceThroughputBenchmarkTest {
+
+    private static final String[] HOT_ACCOUNTS = {"1001", "1002", "2001"};
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int POSTINGS_PER_THREAD = 2_000;
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    @Test
+    void stripedScalesWithThreadsWhereAtomicDoesNot() throws Exception {
+        DataSource dataSource = TestDataSources.benchmark("gl-bench");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE gl_accounts (code VARCHAR(20) PRIMARY KEY, balance NUMERIC(19, 2) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE journal_lines (id UUID PRIMARY KEY, account_code VARCHAR(20) NOT NULL, " +
+                "amount NUMERIC(19, 2) NOT NULL, transaction_date TIMESTAMP NOT NULL)");
+        for (String code : HOT_ACCOUNTS) jdbcTemplate.update("INSERT INTO gl_accounts (code, balance) VALUES (?, 0)", code);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        Map<GlBalanceUpdater.Mode, double[]> throughput = new EnumMap<>(GlBalanceUpdater.Mode.class);
+        long postings = 0;
+        for (GlBalanceUpdater.Mode mode : GlBalanceUpdater.Mode.values()) {
+            GlBalanceUpdater updater = new GlBalanceUpdater(new JournalBatchRepository(jdbcTemplate), transactionTemplate);
+            ReflectionTestUtils.setField(updater, "mode", mode);
+            run(updater, jdbcTemplate, transactionTemplate, 2); // warm-up
+            postings += 2L * POSTINGS_PER_THREAD;
+
+            double[] perSecond = new double[THREAD_COUNTS.length];
+            for (int i = 0; i < THREAD_COUNTS.length; i++) {
+                perSecond[i] = run(updater, jdbcTemplate, transactionTemplate, THREAD_COUNTS[i]);
+                postings += (long) THREAD_COUNTS[i] * POSTINGS_PER_THREAD;
+            }
+            updater.fold();
+            throughput.put(mode, perSecond);
+        }
+
+        System.out.printf("GL posting throughput (postings/s), %d postings per thread:%n", POSTINGS_PER_THREAD);
+        System.out.printf("%-8s", "threads");
+        for (int threads : THREAD_COUNTS) System.out.printf("%10d", threads);
+        System.out.println();
+        throughput.forEach((mode, perSecond) -> {
+            System.out.printf("%-8s", mode);
+            for (double value : perSecond) System.out.printf("%10.0f", value);
+            System.out.println();
+        });
+
+        // Nothing lost along the way, in either mode
+        BigDecimal expected = CENT.multiply(BigDecimal.valueOf(postings));
+        for (String code : HOT_ACCOUNTS) {
+            assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject(
+                    "SELECT balance FROM gl_accounts WHERE code = ?", BigDecimal.class, code)), "Balance of " + code);
+        }
+
+        int last = THREAD_COUNTS.length - 1;
+        double[] atomic = throughput.get(GlBalanceUpdater.Mode.ATOMIC);
+        double[] striped = throughput.get(GlBalanceUpdater.Mode.STRIPED);
+        assertTrue(striped[last] > atomic[last], "STRIPED should out-post ATOMIC at " + THREAD_COUNTS[last] + " threads");
+        assertTrue(striped[last] / striped[0] > atomic[last] / atomic[0], "STRIPED should scale better with threads than ATOMIC");
+    }
+
+    /**
+     * Postings per second with the given number of concurrent posters (a folder runs alongside)
+     */
+    private static double run(GlBalanceUpdater updater, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              int threads) throws Exception {
+        Map<String, BigDecimal> deposit = new TreeMap<>();
+        for (String code : HOT_ACCOUNTS) deposit.put(code, CENT);
+
+        AtomicBoolean posting = new AtomicBoolean(true);
+        Thread folder = new Thread(() -> {
+            while (posting.get()) {
+                updater.fold();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        folder.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        updater.apply(deposit);
+                        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                        for (String code : HOT_ACCOUNTS) {
+                            jdbcTemplate.update("INSERT INTO journal_lines (id, account_code, amount, transaction_date) VALUES (?, ?, ?, ?)",
+                                    UUID.randomUUID(), code, CENT, now);
+                        }
+                    });
+                }
+                return null;
+            });
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - started;
+        posting.set(false);
+        folder.join();
+        return (double) threads * POSTINGS_PER_THREAD / (elapsed / 1e9);
+    }
+}
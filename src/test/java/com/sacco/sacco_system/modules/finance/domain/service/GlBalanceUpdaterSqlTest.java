@@ -0,0 +1,94 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Both balance modes against a real gl_accounts table: concurrent posting transactions, some of
+ * them rolled back, must leave exactly the committed deltas in the stored balances.
+ */
+class GlBalanceUpdaterSqlTest {
+
+    private static final String[] HOT_ACCOUNTS = {"1001", "1002", "2001"};
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private GlBalanceUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = TestDataSources.h2("gl-" + UUID.randomUUID());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE gl_accounts (code VARCHAR(20) PRIMARY KEY, balance NUMERIC(19, 2) NOT NULL)");
+        for (String code : HOT_ACCOUNTS) jdbcTemplate.update("INSERT INTO gl_accounts (code, balance) VALUES (?, 0)", code);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        updater = new GlBalanceUpdater(new JournalBatchRepository(jdbcTemplate), transactionTemplate);
+    }
+
+    @ParameterizedTest
+    @EnumSource(GlBalanceUpdater.Mode.class)
+    void storedBalancesMatchCommittedPostings(GlBalanceUpdater.Mode mode) throws Exception {
+        ReflectionTestUtils.setField(updater, "mode", mode);
+        int threads = 8;
+        int postingsPerThread = 250;
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread folder = new Thread(() -> {
+            while (writing.get()) updater.fold();
+        });
+        folder.start();
+
+        Map<String, BigDecimal> deposit = new TreeMap<>();
+        for (String code : HOT_ACCOUNTS) deposit.put(code, CENT);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < postingsPerThread; i++) {
+                    boolean rollBack = i % 10 == 9;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        updater.apply(deposit);
+                        if (rollBack) status.setRollbackOnly();
+                    });
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        writing.set(false);
+        folder.join();
+        updater.fold();
+
+        BigDecimal expected = CENT.multiply(BigDecimal.valueOf((long) threads * (postingsPerThread - postingsPerThread / 10)));
+        for (String code : HOT_ACCOUNTS) {
+            BigDecimal stored = jdbcTemplate.queryForObject("SELECT balance FROM gl_accounts WHERE code = ?", BigDecimal.class, code);
+            assertEquals(0, expected.compareTo(stored), "Stored balance of " + code);
+            assertEquals(0, updater.pendingDelta(code).signum());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GLAccount;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlMapping;
+import com.sacco.sacco_system.modules.finance.domain.repository.GLAccountRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.GlMappingRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceDataVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes' caches over one database: a mapping changed through one node reaches the other
+ * through the shared version row, not the periodic reload.
+ */
+class GlReferenceCacheTest {
+
+    private final List<GLAccount> accounts = new ArrayList<>();
+    private final List<GlMapping> mappings = new ArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final GLAccountRepository glAccountRepository = mock(GLAccountRepository.class);
+    private final GlMappingRepository glMappingRepository = mock(GlMappingRepository.class);
+    private final ReferenceDataVersionRepository versionRepository = mock(ReferenceDataVersionRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        accounts.add(GLAccount.builder().code("1020").name("Bank").type(AccountType.ASSET).active(true).build());
+        accounts.add(GLAccount.builder().code("1030").name("M-Pesa").type(AccountType.ASSET).active(true).build());
+        accounts.add(GLAccount.builder().code("2010").name("Member Savings").type(AccountType.LIABILITY).active(true).build());
+        mappings.add(GlMapping.builder().eventName("SAVINGS_DEPOSIT").debitAccountCode("1020").creditAccountCode("2010").build());
+
+        when(glAccountRepository.findAll()).thenAnswer(inv -> List.copyOf(accounts));
+        when(glMappingRepository.findAll()).thenAnswer(inv -> List.copyOf(mappings));
+        when(versionRepository.current(anyString())).thenAnswer(inv -> version.get());
+        when(versionRepository.bump(anyString())).thenAnswer(inv -> version.incrementAndGet());
+    }
+
+    @Test
+    void changeOnOneNodeIsSeenByTheOther() {
+        GlReferenceCache nodeA = node(0);
+        GlReferenceCache nodeB = node(0);
+        assertEquals("1020", nodeB.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebitCode());
+
+        mappings.set(0, GlMapping.builder().eventName("SAVINGS_DEPOSIT").debitAccountCode("1030").creditAccountCode("2010").build());
+        nodeA.invalidate();
+
+        assertEquals("1030", nodeA.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebitCode());
+        assertEquals("1030", nodeB.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebitCode());
+        assertEquals("M-Pesa", nodeB.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebit().getName());
+    }
+
+    @Test
+    void versionIsCheckedAtMostOncePerInterval() {
+        GlReferenceCache nodeB = node(60_000);
+
+        mappings.set(0, GlMapping.builder().eventName("SAVINGS_DEPOSIT").debitAccountCode("1030").creditAccountCode("2010").build());
+        version.incrementAndGet();
+        assertEquals("1020", nodeB.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebitCode());
+
+        ReflectionTestUtils.setField(nodeB, "lastVersionCheck", 0L);
+        assertEquals("1030", nodeB.findRoute("SAVINGS_DEPOSIT").orElseThrow().getDebitCode());
+    }
+
+    private GlReferenceCache node(long checkIntervalMs) {
+        GlReferenceCache cache = new GlReferenceCache(glAccountRepository, glMappingRepository, versionRepository);
+        ReflectionTestUtils.setField(cache, "checkIntervalMs", checkIntervalMs);
+        cache.onStartup();
+        return cache;
+    }
+}
@@ -0,0 +1,222 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.LedgerActivityRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.LedgerActivityService.AccountActivity;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Before/after comparison for account activity on a large chart of accounts.
+ * Queries: the old report shape (opening totals, then a count, a debit sum and a credit sum per
+ * account) against the engine's one conditional aggregation. Join: the old nested scan of the
+ * totals lists per account against the engine's hash merge.
+ *
+ * Opt-in: mvn test -Dbenchmarks=true -Dtest=LedgerActivityBenchmarkTest
+ * (add -Dbenchmark.jdbc-url=jdbc:postgresql://... to measure on PostgreSQL instead of H2).
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = TestDataSources.BENCHMARKS, matches = "true")
+class LedgerActivityBenchmarkTest {
+
+    private static final int ACCOUNTS = 5_000;
+    private static final int LINES = 200_000;
+    private static final int JOIN_ACCOUNTS = 10_000;
+    private static final int ROUNDS = 3;
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate END = LocalDate.of(2026, 3, 31);
+
+    @Test
+    void singleAggregationBeatsPerAccountQueries() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(TestDataSources.benchmark("activity-bench"));
+        jdbcTemplate.execute("CREATE TABLE journal_lines (id UUID PRIMARY KEY, account_code VARCHAR(20) NOT NULL, " +
+                "transaction_date TIMESTAMP NOT NULL, debit NUMERIC(19, 2) NOT NULL, credit NUMERIC(19, 2) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_bench_lines_account_date ON journal_lines (account_code, transaction_date)");
+
+        Random random = new Random(42);
+        List<String> codes = codes(ACCOUNTS);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            boolean debit = random.nextBoolean();
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            batch.add(new Object[]{UUID.randomUUID(), codes.get(random.nextInt(ACCOUNTS)),
+                    Timestamp.valueOf(LocalDate.of(2026, 1, 1).plusDays(random.nextInt(120)).atStartOfDay().plusSeconds(random.nextInt(86_400))),
+                    debit ? amount : BigDecimal.ZERO, debit ? BigDecimal.ZERO : amount});
+            if (batch.size() == 5_000) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insert(jdbcTemplate, batch);
+
+        // No snapshots, nothing archived: the engine aggregates the raw lines, like the old queries
+        LedgerActivityService engine = new LedgerActivityService(new LedgerActivityRepository(jdbcTemplate),
+                mock(AccountDailyBalanceRepository.class), mock(AccountBalanceSnapshotService.class),
+                mock(FiscalPeriodRepository.class), mock(AccountOpeningBalanceRepository.class));
+
+        Map<String, BigDecimal> before = null;
+        Map<String, BigDecimal> after = null;
+        long beforeNanos = Long.MAX_VALUE;
+        long afterNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            before = perAccountQueries(jdbcTemplate, codes);
+            beforeNanos = Math.min(beforeNanos, System.nanoTime() - t0);
+
+            long t1 = System.nanoTime();
+            Map<String, AccountActivity> activity = engine.getActivity(START, END);
+            after = new HashMap<>();
+            for (String code : codes) {
+                AccountActivity a = activity.get(code);
+                if (a != null) after.put(code, a.getOpeningDebit().subtract(a.getOpeningCredit())
+                        .add(a.getPeriodDebit()).subtract(a.getPeriodCredit()).setScale(2));
+            }
+            afterNanos = Math.min(afterNanos, System.nanoTime() - t1);
+        }
+
+        System.out.printf("Account activity, %,d accounts / %,d lines: per-account queries %,d ms -> single aggregation %,d ms%n",
+                ACCOUNTS, LINES, beforeNanos / 1_000_000, afterNanos / 1_000_000);
+
+        assertEquals(before, after);
+        assertTrue(afterNanos < beforeNanos, "One aggregation should be faster than three queries per account");
+    }
+
+    @Test
+    void hashMergeBeatsNestedScan() {
+        Random random = new Random(42);
+        List<String> codes = codes(JOIN_ACCOUNTS);
+        List<Object[]> openingRows = new ArrayList<>();
+        List<Object[]> periodRows = new ArrayList<>();
+        List<Object[]> engineRows = new ArrayList<>();
+        for (String code : codes) {
+            BigDecimal od = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            BigDecimal oc = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            BigDecimal pd = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            BigDecimal pc = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            openingRows.add(new Object[]{code, od, oc});
+            periodRows.add(new Object[]{code, pd, pc});
+            engineRows.add(new Object[]{code, od, oc, pd, pc, 3L});
+        }
+        Collections.shuffle(openingRows, random);
+        Collections.shuffle(periodRows, random);
+        Collections.shuffle(engineRows, random);
+
+        Map<String, BigDecimal> before = null;
+        Map<String, BigDecimal> after = null;
+        long beforeNanos = Long.MAX_VALUE;
+        long afterNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long t0 = System.nanoTime();
+            before = nestedScan(codes, openingRows, periodRows);
+            beforeNanos = Math.min(beforeNanos, System.nanoTime() - t0);
+
+            long t1 = System.nanoTime();
+            after = hashMerge(codes, engineRows);
+            afterNanos = Math.min(afterNanos, System.nanoTime() - t1);
+        }
+
+        System.out.printf("Account activity join, %,d accounts: nested scan %,d ms -> hash merge %,d ms%n",
+                JOIN_ACCOUNTS, beforeNanos / 1_000_000, afterNanos / 1_000_000);
+
+        assertEquals(before, after);
+        assertTrue(afterNanos < beforeNanos, "Hash merge should be faster than the nested scan");
+    }
+
+    /**
+     * The pre-engine report: totals before the period, then three queries per account
+     */
+    private static Map<String, BigDecimal> perAccountQueries(JdbcTemplate jdbcTemplate, List<String> codes) {
+        Timestamp from = Timestamp.valueOf(START.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(END.plusDays(1).atStartOfDay());
+        Map<String, BigDecimal> opening = new HashMap<>();
+        jdbcTemplate.query("SELECT account_code, SUM(debit) - SUM(credit) FROM journal_lines " +
+                "WHERE transaction_date < ? GROUP BY account_code", rs -> {
+            opening.put(rs.getString(1), rs.getBigDecimal(2));
+        }, from);
+
+        Map<String, BigDecimal> closing = new HashMap<>();
+        for (String code : codes) {
+            Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM journal_lines " +
+                    "WHERE account_code = ? AND transaction_date >= ? AND transaction_date < ?", Long.class, code, from, to);
+            BigDecimal debits = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(debit), 0) FROM journal_lines " +
+                    "WHERE account_code = ? AND transaction_date >= ? AND transaction_date < ?", BigDecimal.class, code, from, to);
+            BigDecimal credits = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(credit), 0) FROM journal_lines " +
+                    "WHERE account_code = ? AND transaction_date >= ? AND transaction_date < ?", BigDecimal.class, code, from, to);
+            BigDecimal openingBal = opening.get(code);
+            if (openingBal == null && (count == null || count == 0)) continue;
+            closing.put(code, (openingBal != null ? openingBal : BigDecimal.ZERO).add(debits).subtract(credits).setScale(2));
+        }
+        return closing;
+    }
+
+    /**
+     * The pre-engine join: for each account, scan both totals lists linearly (O(accounts x rows))
+     */
+    private static Map<String, BigDecimal> nestedScan(List<String> codes, List<Object[]> openingTotals, List<Object[]> periodTotals) {
+        Map<String, BigDecimal> closing = new HashMap<>();
+        for (String code : codes) {
+            BigDecimal openingBal = BigDecimal.ZERO;
+            BigDecimal periodDebit = BigDecimal.ZERO;
+            BigDecimal periodCredit = BigDecimal.ZERO;
+            for (Object[] row : openingTotals) {
+                if (row[0].equals(code)) {
+                    openingBal = ((BigDecimal) row[1]).subtract((BigDecimal) row[2]);
+                    break;
+                }
+            }
+            for (Object[] row : periodTotals) {
+                if (row[0].equals(code)) {
+                    periodDebit = (BigDecimal) row[1];
+                    periodCredit = (BigDecimal) row[2];
+                    break;
+                }
+            }
+            closing.put(code, openingBal.add(periodDebit.subtract(periodCredit)));
+        }
+        return closing;
+    }
+
+    /**
+     * The engine's join: merge rows into a map once, then one lookup per account (O(accounts + rows))
+     */
+    private static Map<String, BigDecimal> hashMerge(List<String> codes, List<Object[]> rows) {
+        Map<String, AccountActivity> activity = new HashMap<>();
+        LedgerActivityService.mergeRows(activity, rows);
+        Map<String, BigDecimal> closing = new HashMap<>();
+        for (String code : codes) {
+            AccountActivity a = activity.get(code);
+            closing.put(code, a.getOpeningDebit().subtract(a.getOpeningCredit()).add(a.getPeriodDebit().subtract(a.getPeriodCredit())));
+        }
+        return closing;
+    }
+
+    private static List<String> codes(int count) {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < count; i++) codes.add(String.valueOf(100000 + i));
+        return codes;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO journal_lines (id, account_code, transaction_date, debit, credit) VALUES (?, ?, ?, ?, ?)", batch);
+    }
+}
@@ -0,0 +1,355 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountOpeningBalance;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.AccountType;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.LedgerActivityRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.LedgerActivityService.AccountActivity;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The joined activity rows (LedgerActivityService.mergeRows) must give every account the same
+ * totals as working each account out on its own from the rows that belong to it, and getActivity
+ * (aggregate SQL on journal_lines, snapshots, archived periods, rolled-forward openings) must give
+ * the same answer as summing the whole ledger line by line.
+ */
+class LedgerActivityServiceTest {
+
+    private static final int ACCOUNTS = 200;
+    private static final AccountType[] TYPES = AccountType.values();
+    private static final LocalDate LEDGER_START = LocalDate.of(2026, 1, 1);
+    private static final int LEDGER_DAYS = 181; // Jan - Jun 2026
+    private static final int LEDGER_ACCOUNTS = 30;
+    private static final int LEDGER_LINES = 3_000;
+
+    /**
+     * One journal line of the fixture ledger
+     */
+    private record Line(String code, LocalDateTime date, BigDecimal debit, BigDecimal credit) {
+    }
+
+    private final List<Line> ledger = new ArrayList<>();
+    private final AccountDailyBalanceRepository snapshotRepository = mock(AccountDailyBalanceRepository.class);
+    private final AccountBalanceSnapshotService snapshotService = mock(AccountBalanceSnapshotService.class);
+    private final FiscalPeriodRepository fiscalPeriodRepository = mock(FiscalPeriodRepository.class);
+    private final AccountOpeningBalanceRepository openingBalanceRepository = mock(AccountOpeningBalanceRepository.class);
+    private JdbcTemplate jdbcTemplate;
+    private LedgerActivityService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(TestDataSources.h2("ledger-" + UUID.randomUUID()));
+        jdbcTemplate.execute("CREATE TABLE journal_lines (id UUID PRIMARY KEY, account_code VARCHAR(20) NOT NULL, " +
+                "transaction_date TIMESTAMP NOT NULL, debit NUMERIC(19, 2) NOT NULL, credit NUMERIC(19, 2) NOT NULL)");
+
+        Random random = new Random(7);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < LEDGER_LINES; i++) {
+            String code = String.valueOf(1000 + random.nextInt(LEDGER_ACCOUNTS));
+            LocalDateTime date = LEDGER_START.plusDays(random.nextInt(LEDGER_DAYS)).atStartOfDay()
+                    .plusSeconds(random.nextInt(86_400));
+            boolean debit = random.nextBoolean();
+            Line line = new Line(code, date, debit ? amount(random) : BigDecimal.ZERO, debit ? BigDecimal.ZERO : amount(random));
+            ledger.add(line);
+            batch.add(new Object[]{UUID.randomUUID(), code, Timestamp.valueOf(date), line.debit(), line.credit()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO journal_lines (id, account_code, transaction_date, debit, credit) VALUES (?, ?, ?, ?, ?)", batch);
+
+        service = new LedgerActivityService(new LedgerActivityRepository(jdbcTemplate), snapshotRepository,
+                snapshotService, fiscalPeriodRepository, openingBalanceRepository);
+    }
+
+    @Test
+    void mergedRowsMatchPerAccountTotals() {
+        Random random = new Random(42);
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) codes.add(String.valueOf(100000 + i));
+
+        // Snapshot openings for every third account, then 0-3 aggregate rows per account (some none at all)
+        Map<String, BigDecimal[]> snapshots = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String code = codes.get(i);
+            if (i % 3 == 0) snapshots.put(code, new BigDecimal[]{amount(random), amount(random)});
+            int rowCount = i % 4;
+            for (int r = 0; r < rowCount; r++) {
+                rows.add(new Object[]{code, amount(random), amount(random), amount(random), amount(random),
+                        (long) random.nextInt(50)});
+            }
+        }
+        Collections.shuffle(rows, random);
+
+        Map<String, AccountActivity> merged = new HashMap<>();
+        snapshots.forEach((code, dc) -> merged.put(code, new AccountActivity(code, dc[0], dc[1], BigDecimal.ZERO, BigDecimal.ZERO, 0)));
+        LedgerActivityService.mergeRows(merged, rows);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String code = codes.get(i);
+            AccountActivity expected = perAccount(code, snapshots.get(code), rows);
+            if (expected == null) {
+                assertFalse(merged.containsKey(code), "No history for " + code);
+                continue;
+            }
+            AccountActivity actual = merged.get(code);
+            assertEquals(0, expected.getOpeningDebit().compareTo(actual.getOpeningDebit()), "Opening debit for " + code);
+            assertEquals(0, expected.getOpeningCredit().compareTo(actual.getOpeningCredit()), "Opening credit for " + code);
+            assertEquals(0, expected.getPeriodDebit().compareTo(actual.getPeriodDebit()), "Period debit for " + code);
+            assertEquals(0, expected.getPeriodCredit().compareTo(actual.getPeriodCredit()), "Period credit for " + code);
+            assertEquals(expected.getLineCount(), actual.getLineCount(), "Line count for " + code);
+            AccountType type = TYPES[i % TYPES.length];
+            assertEquals(0, expected.closingBalance(type).compareTo(actual.closingBalance(type)), "Closing balance for " + code);
+        }
+        assertEquals(codes.stream().filter(c -> perAccount(c, snapshots.get(c), rows) != null).count(), merged.size());
+    }
+
+    @Test
+    void closingBalanceFollowsNormalSide() {
+        Map<String, AccountActivity> activity = new HashMap<>();
+        LedgerActivityService.mergeRows(activity, List.of(
+                new Object[]{"1020", bd("500.00"), bd("200.00"), bd("100.00"), bd("40.00"), 3L},
+                new Object[]{"1020", bd("0.00"), bd("0.00"), bd("10.00"), bd("0.00"), 1L}));
+
+        AccountActivity cash = activity.get("1020");
+        assertEquals(4L, cash.getLineCount());
+        assertEquals(0, bd("300.00").compareTo(cash.openingBalance(AccountType.ASSET)));
+        assertEquals(0, bd("70.00").compareTo(cash.netChange(AccountType.ASSET)));
+        assertEquals(0, bd("370.00").compareTo(cash.closingBalance(AccountType.ASSET)));
+        assertEquals(0, bd("-370.00").compareTo(cash.closingBalance(AccountType.LIABILITY)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2026-02-10", "2026-02-28", "2026-03-15", "2026-04-30"})
+    void snapshotPlusTailMatchesFullLedger(String watermark) {
+        // No snapshots yet, snapshots behind the period, up to the opening day, inside it, past it
+        snapshotsThrough(watermark.isEmpty() ? null : LocalDate.parse(watermark));
+
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        LocalDate end = LocalDate.of(2026, 3, 31);
+        assertActivity(expected(start, end, null), service.getActivity(start, end));
+    }
+
+    @Test
+    void balancesThroughIncludeEverythingUpToTheDay() {
+        snapshotsThrough(LocalDate.of(2026, 5, 31));
+
+        LocalDate day = LocalDate.of(2026, 4, 20);
+        Map<String, AccountActivity> balances = service.getBalancesThrough(day);
+        assertActivity(expected(day.plusDays(1), day, null), balances);
+        balances.values().forEach(a -> assertEquals(0, a.getLineCount()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // period start, period end
+            "2026-03-01, 2026-04-30", // straddles the close: March from snapshots, April from lines
+            "2026-02-01, 2026-03-15"  // wholly archived: snapshot difference only
+    })
+    void archivedDaysComeFromSnapshotDifferences(String from, String to) {
+        LocalDate archivedThrough = LocalDate.of(2026, 3, 31);
+        archive(archivedThrough);
+        snapshotsThrough(LocalDate.of(2026, 5, 31));
+
+        LocalDate start = LocalDate.parse(from);
+        LocalDate end = LocalDate.parse(to);
+        // Totals as if nothing had been archived; lines are only counted where they are still on hand
+        assertActivity(expected(start, end, archivedThrough), service.getActivity(start, end));
+        verify(openingBalanceRepository, never()).findByOpeningDate(any());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // snapshot watermark (blank = none), period start, period end
+            ",           2026-04-01, 2026-04-30",
+            "2026-02-15, 2026-04-01, 2026-04-30",
+            ",           2026-05-01, 2026-06-30",
+            "2026-03-10, 2026-05-01, 2026-06-30"
+    })
+    void openingsRolledForwardByTheCloseStandInForMissingSnapshots(String watermark, String from, String to) {
+        LocalDate archivedThrough = LocalDate.of(2026, 3, 31);
+        archive(archivedThrough);
+        snapshotsThrough(watermark == null ? null : LocalDate.parse(watermark));
+        List<AccountOpeningBalance> openings = new ArrayList<>();
+        closing(archivedThrough).forEach((code, dc) -> openings.add(AccountOpeningBalance.builder()
+                .accountCode(code).openingDate(archivedThrough.plusDays(1))
+                .openingDebit(dc[0]).openingCredit(dc[1]).build()));
+        when(openingBalanceRepository.findByOpeningDate(archivedThrough.plusDays(1))).thenReturn(openings);
+
+        LocalDate start = LocalDate.parse(from);
+        LocalDate end = LocalDate.parse(to);
+        assertActivity(expected(start, end, null), service.getActivity(start, end));
+        verify(openingBalanceRepository).findByOpeningDate(archivedThrough.plusDays(1));
+    }
+
+    @Test
+    void archiveProgressMidPeriodStartsFromThatDaysSnapshot() {
+        // Archiving stopped after February; this node's cached watermark is older than that
+        LocalDate archivedThrough = LocalDate.of(2026, 2, 28);
+        archive(archivedThrough);
+        snapshots(LocalDate.of(2026, 1, 15), LocalDate.of(2026, 3, 31));
+        when(openingBalanceRepository.findByOpeningDate(any())).thenReturn(List.of());
+
+        LocalDate start = LocalDate.of(2026, 3, 1);
+        LocalDate end = LocalDate.of(2026, 3, 31);
+        assertActivity(expected(start, end, null), service.getActivity(start, end));
+        verify(snapshotRepository).findLatestClosing(archivedThrough);
+    }
+
+    @Test
+    void aggregateSplitsOpeningTailFromPeriod() {
+        LocalDateTime scanFrom = LocalDate.of(2026, 2, 1).atStartOfDay();
+        LocalDateTime periodStart = LocalDate.of(2026, 3, 1).atStartOfDay();
+        LocalDateTime periodEnd = LocalDate.of(2026, 4, 1).atStartOfDay();
+
+        Map<String, AccountActivity> rows = new HashMap<>();
+        LedgerActivityService.mergeRows(rows, new LedgerActivityRepository(jdbcTemplate).aggregate(scanFrom, periodStart, periodEnd));
+
+        Map<String, AccountActivity> reference = new HashMap<>();
+        for (Line line : ledger) {
+            if (line.date().isBefore(scanFrom) || !line.date().isBefore(periodEnd)) continue;
+            AccountActivity a = reference.computeIfAbsent(line.code(), AccountActivity::new);
+            if (line.date().isBefore(periodStart)) {
+                a.setOpeningDebit(a.getOpeningDebit().add(line.debit()));
+                a.setOpeningCredit(a.getOpeningCredit().add(line.credit()));
+            } else {
+                a.setPeriodDebit(a.getPeriodDebit().add(line.debit()));
+                a.setPeriodCredit(a.getPeriodCredit().add(line.credit()));
+                a.setLineCount(a.getLineCount() + 1);
+            }
+        }
+        assertActivity(reference, rows);
+    }
+
+    /**
+     * Daily snapshots exist up to the watermark: findLatestClosing answers with the cumulative
+     * totals of the latest snapshotted day on or before the one asked for
+     */
+    private void snapshotsThrough(LocalDate watermark) {
+        snapshots(watermark, watermark);
+    }
+
+    /**
+     * Snapshots stored through one day while the (cached) watermark reports another
+     */
+    private void snapshots(LocalDate reportedWatermark, LocalDate storedThrough) {
+        when(snapshotService.getWatermark()).thenReturn(reportedWatermark);
+        when(snapshotRepository.findLatestClosing(any())).thenAnswer(invocation -> {
+            LocalDate day = invocation.getArgument(0);
+            return closing(storedThrough != null && storedThrough.isBefore(day) ? storedThrough : day);
+        });
+    }
+
+    /**
+     * Close and archive through the given day: its lines leave journal_lines
+     */
+    private void archive(LocalDate archivedThrough) {
+        when(fiscalPeriodRepository.findArchivedThrough()).thenReturn(archivedThrough);
+        jdbcTemplate.update("DELETE FROM journal_lines WHERE transaction_date < ?",
+                Timestamp.valueOf(archivedThrough.plusDays(1).atStartOfDay()));
+    }
+
+    /**
+     * Cumulative {debit, credit} per account for everything dated on or before the day
+     */
+    private Map<String, BigDecimal[]> closing(LocalDate day) {
+        Map<String, BigDecimal[]> totals = new HashMap<>();
+        for (Line line : ledger) {
+            if (line.date().toLocalDate().isAfter(day)) continue;
+            BigDecimal[] dc = totals.computeIfAbsent(line.code(), k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            dc[0] = dc[0].add(line.debit());
+            dc[1] = dc[1].add(line.credit());
+        }
+        return totals;
+    }
+
+    /**
+     * Reference activity summed line by line over the whole ledger. Lines on or before
+     * uncountedThrough (archived) carry their amounts but are not counted.
+     */
+    private Map<String, AccountActivity> expected(LocalDate start, LocalDate end, LocalDate uncountedThrough) {
+        Map<String, AccountActivity> activity = new HashMap<>();
+        for (Line line : ledger) {
+            LocalDate day = line.date().toLocalDate();
+            if (day.isAfter(end) && !day.isBefore(start)) continue;
+            AccountActivity a = activity.computeIfAbsent(line.code(), AccountActivity::new);
+            if (day.isBefore(start)) {
+                a.setOpeningDebit(a.getOpeningDebit().add(line.debit()));
+                a.setOpeningCredit(a.getOpeningCredit().add(line.credit()));
+            } else {
+                a.setPeriodDebit(a.getPeriodDebit().add(line.debit()));
+                a.setPeriodCredit(a.getPeriodCredit().add(line.credit()));
+                if (uncountedThrough == null || day.isAfter(uncountedThrough)) a.setLineCount(a.getLineCount() + 1);
+            }
+        }
+        return activity;
+    }
+
+    private static void assertActivity(Map<String, AccountActivity> expected, Map<String, AccountActivity> actual) {
+        assertEquals(expected.keySet(), actual.keySet(), "Accounts with history");
+        assertTrue(expected.size() > 1);
+        expected.forEach((code, e) -> {
+            AccountActivity a = actual.get(code);
+            assertEquals(0, e.getOpeningDebit().compareTo(a.getOpeningDebit()), "Opening debit for " + code);
+            assertEquals(0, e.getOpeningCredit().compareTo(a.getOpeningCredit()), "Opening credit for " + code);
+            assertEquals(0, e.getPeriodDebit().compareTo(a.getPeriodDebit()), "Period debit for " + code);
+            assertEquals(0, e.getPeriodCredit().compareTo(a.getPeriodCredit()), "Period credit for " + code);
+            assertEquals(e.getLineCount(), a.getLineCount(), "Line count for " + code);
+        });
+    }
+
+    /**
+     * Reference: the account's snapshot opening plus the rows that carry its code, summed on their own
+     */
+    private static AccountActivity perAccount(String code, BigDecimal[] snapshot, List<Object[]> rows) {
+        AccountActivity a = null;
+        if (snapshot != null) {
+            a = new AccountActivity(code, snapshot[0], snapshot[1], BigDecimal.ZERO, BigDecimal.ZERO, 0);
+        }
+        for (Object[] row : rows) {
+            if (!row[0].equals(code)) continue;
+            if (a == null) a = new AccountActivity(code);
+            a.setOpeningDebit(a.getOpeningDebit().add((BigDecimal) row[1]));
+            a.setOpeningCredit(a.getOpeningCredit().add((BigDecimal) row[2]));
+            a.setPeriodDebit(a.getPeriodDebit().add((BigDecimal) row[3]));
+            a.setPeriodCredit(a.getPeriodCredit().add((BigDecimal) row[4]));
+            a.setLineCount(a.getLineCount() + (Long) row[5]);
+        }
+        return a;
+    }
+
+    private static BigDecimal amount(Random random) {
+        return BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,88 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.repository.JobCheckpointRepository;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.core.util.BatchJobRunner;
+import com.sacco.sacco_system.modules.finance.api.dto.LedgerVerificationReportDTO;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountDailyBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.AccountOpeningBalanceRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.FiscalPeriodRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.LedgerIntegrityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drift repair: rewrites balances in ATOMIC mode only. In STRIPED mode other nodes may hold
+ * unfolded deltas, so the drift is reported and nothing is rewritten.
+ */
+class LedgerIntegrityServiceTest {
+
+    private final LedgerIntegrityRepository integrityRepository = mock(LedgerIntegrityRepository.class);
+    private final GlBalanceUpdater balanceUpdater = mock(GlBalanceUpdater.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final AdvisoryLocks advisoryLocks = mock(AdvisoryLocks.class);
+    private final JobCheckpointRepository checkpointRepository = mock(JobCheckpointRepository.class);
+    private final LedgerIntegrityService service = new LedgerIntegrityService(integrityRepository,
+            mock(AccountDailyBalanceRepository.class), mock(AccountOpeningBalanceRepository.class),
+            mock(FiscalPeriodRepository.class), mock(AccountBalanceSnapshotService.class), checkpointRepository,
+            balanceUpdater, advisoryLocks, transactionTemplate, mock(BatchJobRunner.class));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(advisoryLocks.tryLockForTransaction(anyLong())).thenReturn(true);
+        when(checkpointRepository.findById(LedgerIntegrityService.JOB_NAME)).thenReturn(Optional.empty());
+        when(balanceUpdater.pendingDelta(any())).thenReturn(BigDecimal.ZERO);
+
+        // Cash says 100.00 but has no journal lines at all
+        Object[] cash = {"1002", "Cash at Bank", "ASSET", new BigDecimal("100.00")};
+        when(integrityRepository.findAllBalances()).thenReturn(List.<Object[]>of(cash));
+        when(integrityRepository.findBalances(any(), anyBoolean())).thenReturn(Map.of("1002", cash));
+        when(integrityRepository.sumLinesForAccounts(any(), any())).thenReturn(Map.of());
+    }
+
+    @Test
+    void atomicModeRepairsUnderRowLocks() {
+        when(balanceUpdater.getMode()).thenReturn(GlBalanceUpdater.Mode.ATOMIC);
+
+        LedgerVerificationReportDTO report = service.verify(true, true);
+
+        assertEquals(1, report.getAccountDrifts().size());
+        assertTrue(report.isRepaired());
+        verify(integrityRepository).findBalances(List.of("1002"), true);
+        verify(integrityRepository).setBalances(Map.of("1002", BigDecimal.ZERO));
+    }
+
+    @Test
+    void stripedModeOnlyReportsDrift() {
+        when(balanceUpdater.getMode()).thenReturn(GlBalanceUpdater.Mode.STRIPED);
+
+        LedgerVerificationReportDTO report = service.verify(true, true);
+
+        assertEquals(1, report.getAccountDrifts().size());
+        assertFalse(report.isRepaired());
+        verify(integrityRepository).findBalances(any(), eq(false));
+        verify(integrityRepository, never()).setBalances(any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import com.sacco.sacco_system.modules.finance.domain.entity.accounting.GlPostingOutbox;
+import com.sacco.sacco_system.modules.finance.domain.repository.GlPostingOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox drain ordering: a failing intent only holds back intents for the same reference, and a
+ * tick pages past deferred rows instead of re-reading them.
+ */
+class PostingOutboxServiceTest {
+
+    private final GlPostingOutboxRepository outboxRepository = mock(GlPostingOutboxRepository.class);
+    private final AccountingService accountingService = mock(AccountingService.class);
+    private final AdvisoryLocks advisoryLocks = mock(AdvisoryLocks.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final PostingOutboxService service = new PostingOutboxService(outboxRepository, accountingService,
+            advisoryLocks, transactionTemplate);
+    private final List<GlPostingOutbox> outbox = new ArrayList<>();
+    private final List<String> posted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(service, "asyncPosting", true);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "maxAttempts", 10);
+        when(advisoryLocks.tryLockForTransaction(anyLong())).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
+        when(outboxRepository.findByStatusAndIdGreaterThanOrderByIdAsc(eq(GlPostingOutbox.Status.PENDING), anyLong(), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(1);
+                    Pageable page = invocation.getArgument(2);
+                    return outbox.stream()
+                            .filter(row -> row.getStatus() == GlPostingOutbox.Status.PENDING && row.getId() > afterId)
+                            .limit(page.getPageSize()).toList();
+                });
+        // Intents described as "poison" fail validation; everything else would post
+        when(accountingService.findPostingProblems(anyList())).thenAnswer(invocation -> {
+            List<String> problems = new ArrayList<>();
+            for (AccountingService.PostingRequest request : (List<AccountingService.PostingRequest>) invocation.getArgument(0)) {
+                problems.add(request.getDescription().startsWith("poison") ? "Account not found: 9999" : null);
+            }
+            return problems;
+        });
+        when(accountingService.findAffectedAccounts(any())).thenAnswer(invocation -> {
+            AccountingService.PostingRequest request = invocation.getArgument(0);
+            return List.of(request.getDebitAccountCode(), request.getCreditAccountCode());
+        });
+        when(accountingService.postBatch(anyList())).thenAnswer(invocation -> {
+            List<AccountingService.PostingRequest> requests = invocation.getArgument(0);
+            requests.forEach(request -> posted.add(request.getDescription()));
+            return requests.size();
+        });
+    }
+
+    @Test
+    void failingIntentHoldsBackOnlyItsOwnReference() {
+        add(1, "poison deposit", "DEP-1", "1002", "2001");
+        add(2, "deposit", "DEP-2", "1002", "2001");
+        add(3, "fee on DEP-1", "DEP-1", "1002", "4001");
+        add(4, "repayment", null, "1002", "1200");
+        add(5, "repayment", null, "1002", "1201");
+
+        service.drain();
+
+        // Same event and same hot cash account as the failing intent, but a different transaction
+        assertEquals(List.of("deposit", "repayment", "repayment"), posted);
+        GlPostingOutbox failing = outbox.get(0);
+        assertEquals(1, failing.getAttempts());
+        assertNotNull(failing.getNextAttemptAt());
+        assertEquals(GlPostingOutbox.Status.PENDING, outbox.get(2).getStatus());
+        assertEquals(0, outbox.get(2).getAttempts());
+    }
+
+    @Test
+    void tickPagesPastDeferredRows() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        LocalDateTime later = LocalDateTime.now().plusMinutes(10);
+        add(1, "backing off", "DEP-1", "1002", "2001").setNextAttemptAt(later);
+        add(2, "backing off", "DEP-2", "1002", "2001").setNextAttemptAt(later);
+        add(3, "deposit", "DEP-3", "1002", "2001");
+        add(4, "deposit", "DEP-4", "1002", "2001");
+        add(5, "deposit", "DEP-5", "1002", "2001");
+
+        service.drain();
+
+        assertEquals(List.of("deposit", "deposit", "deposit"), posted);
+        ArgumentCaptor<Long> afterIds = ArgumentCaptor.forClass(Long.class);
+        verify(outboxRepository, atLeastOnce()).findByStatusAndIdGreaterThanOrderByIdAsc(
+                eq(GlPostingOutbox.Status.PENDING), afterIds.capture(), any());
+        assertEquals(List.of(0L, 2L, 4L), afterIds.getAllValues());
+    }
+
+    private GlPostingOutbox add(long id, String description, String referenceNo, String debit, String credit) {
+        GlPostingOutbox row = GlPostingOutbox.builder()
+                .id(id)
+                .eventName("SAVINGS_DEPOSIT")
+                .description(description)
+                .referenceNo(referenceNo)
+                .amount(new BigDecimal("100.00"))
+                .debitAccountCode(debit)
+                .creditAccountCode(credit)
+                .transactionDate(LocalDateTime.now())
+                .build();
+        outbox.add(row);
+        return row;
+    }
+}
@@ -0,0 +1,136 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.util.NodeIdentity;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceCodeSequenceRepository;
+import com.sacco.sacco_system.support.TestDataSources;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reference code throughput at 1-8 threads: the old synchronized generator (date re-encoded and
+ * one shared SecureRandom call per character) against the lock-free generator, which reserves
+ * its sequence blocks in reference_code_sequences in their own transactions.
+ *
+ * Opt-in, PostgreSQL only (the block reservation is INSERT ... ON CONFLICT DO UPDATE RETURNING):
+ * mvn test -Dbenchmarks=true -Dtest=ReferenceCodeServiceBenchmarkTest -Dbenchmark.jdbc-url=jdbc:postgresql://...
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = TestDataSources.BENCHMARKS, matches = "true")
+@EnabledIfSystemProperty(named = "benchmark.jdbc-url", matches = ".+")
+class ReferenceCodeServiceBenchmarkTest {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+    private static final int CODES_PER_THREAD = 50_000;
+    private static final int ROUNDS = 3;
+
+    @Test
+    void lockFreeGeneratorOutScalesSynchronizedGenerator() throws Exception {
+        DataSource dataSource = TestDataSources.benchmark("reference-bench");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE reference_code_sequences (node_id INT NOT NULL, day DATE NOT NULL, " +
+                "seed BIGINT NOT NULL, reserved_through BIGINT NOT NULL, PRIMARY KEY (node_id, day))");
+        ReferenceCodeService service = new ReferenceCodeService(new NodeIdentity(null, 7),
+                new ReferenceCodeSequenceRepository(jdbcTemplate), new DataSourceTransactionManager(dataSource));
+        LegacyGenerator legacy = new LegacyGenerator();
+
+        double[] before = new double[THREAD_COUNTS.length];
+        double[] after = new double[THREAD_COUNTS.length];
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < THREAD_COUNTS.length; i++) {
+            int threads = THREAD_COUNTS[i];
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                generate(legacy::generateReferenceCode, threads);
+                before[i] = Math.max(before[i], perSecond(threads, System.nanoTime() - t0));
+
+                long t1 = System.nanoTime();
+                List<String> codes = generate(service::generateReferenceCode, threads);
+                after[i] = Math.max(after[i], perSecond(threads, System.nanoTime() - t1));
+                issued.addAll(codes);
+                assertTrue(codes.stream().allMatch(service::isValidReferenceCode), "Reference codes must keep the format");
+            }
+        }
+
+        System.out.printf("Reference codes (codes/s), %,d per thread, best of %d:%n", CODES_PER_THREAD, ROUNDS);
+        System.out.printf("%-14s", "threads");
+        for (int threads : THREAD_COUNTS) System.out.printf("%12d", threads);
+        System.out.printf("%n%-14s", "synchronized");
+        for (double value : before) System.out.printf("%12.0f", value);
+        System.out.printf("%n%-14s", "lock-free");
+        for (double value : after) System.out.printf("%12.0f", value);
+        System.out.println();
+
+        long total = 0;
+        for (int threads : THREAD_COUNTS) total += (long) ROUNDS * threads * CODES_PER_THREAD;
+        assertEquals(total, issued.size(), "Reference codes must be unique");
+        int last = THREAD_COUNTS.length - 1;
+        assertTrue(after[last] > before[last], "Lock-free generator should out-generate the synchronized one at "
+                + THREAD_COUNTS[last] + " threads");
+    }
+
+    private static double perSecond(int threads, long nanos) {
+        return (double) threads * CODES_PER_THREAD / (nanos / 1e9);
+    }
+
+    private static List<String> generate(Supplier<String> generator, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    List<String> codes = new ArrayList<>(CODES_PER_THREAD);
+                    start.await();
+                    for (int i = 0; i < CODES_PER_THREAD; i++) codes.add(generator.get());
+                    return codes;
+                }));
+            }
+            start.countDown();
+            List<String> all = new ArrayList<>(threads * CODES_PER_THREAD);
+            for (Future<List<String>> future : futures) all.addAll(future.get());
+            return all;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The previous shape: one lock around date encoding and a shared SecureRandom per character,
+     * with uniqueness left to chance
+     */
+    private static final class LegacyGenerator {
+        private static final String ALPHANUMERIC = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+        private final SecureRandom random = new SecureRandom();
+
+        synchronized String generateReferenceCode() {
+            LocalDateTime now = LocalDateTime.now();
+            StringBuilder code = new StringBuilder(11);
+            code.append(Character.toUpperCase(Character.forDigit(now.getYear() - 2000, 36)));
+            code.append(Character.toUpperCase(Character.forDigit(now.getMonthValue(), 36)));
+            code.append(Character.toUpperCase(Character.forDigit(now.getDayOfMonth(), 36)));
+            for (int i = 0; i < 8; i++) {
+                code.append(ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length())));
+            }
+            return code.toString();
+        }
+    }
+}
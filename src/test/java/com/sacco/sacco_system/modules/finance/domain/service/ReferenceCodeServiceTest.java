@@ -0,0 +1,199 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.core.util.NodeIdentity;
+import com.sacco.sacco_system.modules.finance.domain.repository.ReferenceCodeSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reference codes and transaction ids: unique under contention, across nodes and across a
+ * restart on the same day, and always in the documented format. Sequence blocks are reserved
+ * in their own transaction, not the caller's.
+ */
+class ReferenceCodeServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 25_000;
+
+    private final InMemorySequences sequences = new InMemorySequences();
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+    @Test
+    void codesAreUniqueAndWellFormedUnderContention() throws Exception {
+        ReferenceCodeService service = new ReferenceCodeService(new NodeIdentity(null, 7), sequences, transactionManager);
+
+        List<String> generated = generate(service::generateReferenceCode);
+
+        assertEquals(THREADS * CODES_PER_THREAD, Set.copyOf(generated).size(), "Reference codes must be unique");
+        assertTrue(generated.stream().allMatch(service::isValidReferenceCode), "Reference codes must keep the format");
+    }
+
+    @Test
+    void restartedNodeDoesNotReissueCodes() {
+        Set<String> codes = new HashSet<>();
+        for (int run = 0; run < 3; run++) {
+            // A fresh service per run stands in for a restart: only the sequence table survives
+            ReferenceCodeService service = new ReferenceCodeService(new NodeIdentity(null, 3), sequences, transactionManager);
+            for (int i = 0; i < 15_000; i++) {
+                assertTrue(codes.add(service.generateReferenceCode()), "Code reissued after restart");
+            }
+        }
+    }
+
+    @Test
+    void nodesDoNotShareCodes() {
+        ReferenceCodeService first = new ReferenceCodeService(new NodeIdentity(null, 0), sequences, transactionManager);
+        ReferenceCodeService second = new ReferenceCodeService(new NodeIdentity(null, 1), sequences, transactionManager);
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            assertTrue(codes.add(first.generateReferenceCode()));
+            assertTrue(codes.add(second.generateReferenceCode()));
+        }
+    }
+
+    @Test
+    void blocksAreReservedInTheirOwnTransaction() {
+        ReferenceCodeService service = new ReferenceCodeService(new NodeIdentity(null, 5), sequences, transactionManager);
+
+        // The caller's posting rolls back after taking more than one block's worth of codes
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 15_000; i++) service.generateReferenceCode();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(TransactionDefinition.PROPAGATION_REQUIRED, TransactionDefinition.PROPAGATION_REQUIRES_NEW,
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, TransactionDefinition.PROPAGATION_REQUIRES_NEW),
+                transactionManager.begun);
+        assertEquals(3, transactionManager.commits, "First block, old-day cleanup and second block commit on their own");
+        assertEquals(1, transactionManager.rollbacks);
+        assertEquals(2, sequences.reservedInNewTransaction);
+    }
+
+    @Test
+    void transactionIdsAreUniqueAcrossThreads() throws Exception {
+        ReferenceCodeService service = new ReferenceCodeService(new NodeIdentity(null, 7), sequences, transactionManager);
+        List<String> ids = generate(service::nextTransactionId);
+        assertEquals(ids.size(), Set.copyOf(ids).size(), "Transaction ids must be unique");
+        assertTrue(ids.stream().allMatch(id -> id.matches("^TXN[0-9]+07$")));
+    }
+
+    private List<String> generate(Supplier<String> generator) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    List<String> codes = new ArrayList<>(CODES_PER_THREAD);
+                    start.await();
+                    for (int i = 0; i < CODES_PER_THREAD; i++) codes.add(generator.get());
+                    return codes;
+                }));
+            }
+            start.countDown();
+            List<String> all = new ArrayList<>(THREADS * CODES_PER_THREAD);
+            for (Future<List<String>> future : futures) all.addAll(future.get());
+            return all;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * reference_code_sequences stand-in with the same insert-or-add semantics
+     */
+    private static final class InMemorySequences extends ReferenceCodeSequenceRepository {
+        private final Map<String, Reservation> rows = new HashMap<>();
+        private int reservedInNewTransaction;
+
+        InMemorySequences() {
+            super(null);
+        }
+
+        @Override
+        public synchronized Reservation reserve(int nodeId, LocalDate day, long seed, long blockSize) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) reservedInNewTransaction++;
+            return rows.merge(nodeId + "/" + day, new Reservation(seed, blockSize),
+                    (existing, fresh) -> new Reservation(existing.getSeed(), existing.getReservedThrough() + blockSize));
+        }
+
+        @Override
+        public int deleteBefore(LocalDate day) {
+            return 0;
+        }
+    }
+
+    /**
+     * Transaction manager that records what was begun and how it ended. Only a REQUIRES_NEW
+     * inside another transaction begins a second one; everything else joins.
+     */
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private final ThreadLocal<Boolean> active = ThreadLocal.withInitial(() -> false);
+        private final List<Integer> begun = Collections.synchronizedList(new ArrayList<>());
+        private int commits;
+        private int rollbacks;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return active.get();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active.set(true);
+            begun.add(definition.getPropagationBehavior());
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            active.set(false);
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active.set(true);
+        }
+
+        @Override
+        protected synchronized void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected synchronized void doRollback(DefaultTransactionStatus status) {
+            rollbacks++;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active.set(false);
+        }
+    }
+}
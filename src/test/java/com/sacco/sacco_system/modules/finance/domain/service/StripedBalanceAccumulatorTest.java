@@ -0,0 +1,150 @@
+package com.sacco.sacco_system.modules.finance.domain.service;
+
+import com.sacco.sacco_system.modules.finance.domain.repository.JournalBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrency checks for the GL balance modes: hot accounts hammered by many writers (with
+ * folds, some failing, running concurrently in STRIPED mode) must not lose a single cent.
+ */
+class StripedBalanceAccumulatorTest {
+
+    private static final String[] HOT_ACCOUNTS = {"1001", "1002", "2001"};
+    private static final int OPS_PER_THREAD = 200_000;
+
+    @Test
+    void noLostUpdatesWithConcurrentFolds() throws Exception {
+        StripedBalanceAccumulator accumulator = new StripedBalanceAccumulator();
+        Map<String, Long> folded = new ConcurrentHashMap<>(); // stands in for gl_accounts.balance
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread folder = new Thread(() -> {
+            while (writing.get()) {
+                accumulator.drain().forEach((code, cents) -> folded.merge(code, cents, Long::sum));
+            }
+        });
+        folder.start();
+
+        runWriters(accumulator, threads);
+        writing.set(false);
+        folder.join();
+        accumulator.drain().forEach((code, cents) -> folded.merge(code, cents, Long::sum));
+
+        for (String code : HOT_ACCOUNTS) {
+            long expected = (long) threads * (OPS_PER_THREAD / HOT_ACCOUNTS.length);
+            assertEquals(expected, folded.getOrDefault(code, 0L), "Lost updates on " + code);
+            assertEquals(0L, accumulator.pending(code));
+        }
+    }
+
+    @Test
+    void failedFoldRestoresDeltas() {
+        StripedBalanceAccumulator accumulator = new StripedBalanceAccumulator();
+        accumulator.add("2001", new BigDecimal("150.25"));
+        accumulator.add("2001", new BigDecimal("-50.25"));
+
+        Map<String, Long> drained = accumulator.drain();
+        assertEquals(10000L, drained.get("2001"));
+        assertEquals(0L, accumulator.pending("2001"));
+
+        accumulator.restore(drained);
+        assertEquals(10000L, accumulator.pending("2001"));
+    }
+
+    /**
+     * Fold failures only; the stored-balance SQL in both modes is covered by GlBalanceUpdaterSqlTest
+     */
+    @Test
+    void failingFoldsLoseNoUpdates() throws Exception {
+        // gl_accounts stand-in: each applyBalanceDeltas call adds the deltas atomically
+        Map<String, BigDecimal> glBalances = new ConcurrentHashMap<>();
+        AtomicInteger folds = new AtomicInteger();
+        JournalBatchRepository repository = mock(JournalBatchRepository.class);
+        doAnswer(inv -> {
+            // Every third fold fails, so the drained deltas have to be put back
+            if (folds.incrementAndGet() % 3 == 0) {
+                throw new IllegalStateException("connection reset");
+            }
+            inv.<Map<String, BigDecimal>>getArgument(0).forEach((code, delta) -> glBalances.merge(code, delta, BigDecimal::add));
+            return null;
+        }).when(repository).applyBalanceDeltas(any());
+
+        GlBalanceUpdater updater = new GlBalanceUpdater(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(updater, "mode", GlBalanceUpdater.Mode.STRIPED);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread folder = new Thread(() -> {
+            while (writing.get()) updater.fold();
+        });
+        folder.start();
+
+        int threads = 8;
+        int opsPerThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<String, BigDecimal> deposit = new TreeMap<>();
+        for (String code : HOT_ACCOUNTS) deposit.put(code, new BigDecimal("0.01"));
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) updater.apply(deposit);
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+        writing.set(false);
+        folder.join();
+        while (updater.pendingDelta(HOT_ACCOUNTS[0]).signum() != 0) updater.fold();
+
+        BigDecimal expected = new BigDecimal("0.01").multiply(BigDecimal.valueOf((long) threads * opsPerThread));
+        for (String code : HOT_ACCOUNTS) {
+            assertEquals(0, expected.compareTo(glBalances.getOrDefault(code, BigDecimal.ZERO)), "Lost updates on " + code);
+            assertEquals(0, updater.pendingDelta(code).signum());
+        }
+    }
+
+    /**
+     * Each op posts one deposit: +1 cent on each of the three hot accounts
+     */
+    private void runWriters(StripedBalanceAccumulator accumulator, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD / HOT_ACCOUNTS.length; i++) {
+                    for (String code : HOT_ACCOUNTS) {
+                        accumulator.add(code, 1L);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+    }
+}
@@ -0,0 +1,147 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.Delta;
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.GuaranteeLine;
+import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Share at risk as a loan is repaid, and the per-member deltas written when loan balances move.
+ */
+class GuarantorExposureServiceTest {
+
+    private final GuarantorExposureRepository exposureRepository = mock(GuarantorExposureRepository.class);
+    private final GuarantorMatchIndex matchIndex = mock(GuarantorMatchIndex.class);
+    private final GuarantorExposureService service = new GuarantorExposureService(exposureRepository,
+            mock(SystemSettingService.class), matchIndex, mock(MemberRepository.class));
+
+    @ParameterizedTest
+    @CsvSource({
+            // guarantee, balance, repayable, share at risk
+            "50000, 120000, 110000, 50000",   // balance above repayable (penalties on top): capped at the guarantee
+            "50000, 110000, 110000, 50000",   // not yet repaid
+            "50000, 55000,  110000, 25000",   // half repaid
+            "10000, 1,      3,      3333.33", // rounded to cents
+            "50000, 40000,  0,      50000",   // no repayable (zero principal): the whole guarantee
+            "50000, 0,      110000, 0",       // paid off
+            "50000, -10,    110000, 0"        // overpaid
+    })
+    void shareAtRiskFollowsBalance(String guarantee, String balance, String repayable, String expected) {
+        BigDecimal share = GuarantorExposureService.shareAtRisk(new BigDecimal(guarantee), new BigDecimal(balance), new BigDecimal(repayable));
+        assertEquals(0, new BigDecimal(expected).compareTo(share), "Share at risk for balance " + balance);
+    }
+
+    @Test
+    void deltasAreMergedPerMember() {
+        UUID memberA = UUID.randomUUID();
+        UUID memberB = UUID.randomUUID();
+        UUID loan1 = UUID.randomUUID();
+        UUID loan2 = UUID.randomUUID();
+        UUID g1 = UUID.randomUUID();
+        UUID g2 = UUID.randomUUID();
+        UUID g3 = UUID.randomUUID();
+        UUID g4 = UUID.randomUUID();
+        when(exposureRepository.lockLoanGuarantees(anyCollection())).thenReturn(List.of(
+                // Member A guarantees loan 1 twice, and loan 2 once
+                new GuaranteeLine(g1, loan1, memberA, bd("30000"), bd("30000"), bd("100000")),
+                new GuaranteeLine(g2, loan1, memberA, bd("20000"), bd("20000"), bd("100000")),
+                new GuaranteeLine(g3, loan2, memberA, bd("10000"), bd("4000"), bd("60000")),
+                new GuaranteeLine(g4, loan2, memberB, bd("40000"), bd("12000"), bd("60000"))));
+
+        service.onLoanBalances(Map.of(loan1, bd("50000"), loan2, BigDecimal.ZERO));
+
+        Map<UUID, BigDecimal> exposures = new HashMap<>();
+        for (Object[] line : captureExposures()) exposures.put((UUID) line[0], (BigDecimal) line[1]);
+        assertEquals(4, exposures.size());
+        assertEquals(0, bd("15000").compareTo(exposures.get(g1)));
+        assertEquals(0, bd("10000").compareTo(exposures.get(g2)));
+        assertNull(exposures.get(g3));
+        assertNull(exposures.get(g4));
+
+        Map<UUID, Delta> deltas = new HashMap<>();
+        for (Delta delta : captureDeltas()) deltas.put(delta.getMemberId(), delta);
+        assertEquals(2, deltas.size());
+        assertDelta(deltas.get(memberA), "-10000", "-29000", -1);
+        assertDelta(deltas.get(memberB), "-40000", "-12000", -1);
+
+        verify(matchIndex).invalidate(Set.of(memberA, memberB));
+    }
+
+    @Test
+    void sameMemberOnBothSidesOfAChangeCancelsOut() {
+        UUID member = UUID.randomUUID();
+        UUID loan = UUID.randomUUID();
+        UUID g1 = UUID.randomUUID();
+        UUID g2 = UUID.randomUUID();
+        // Exposures recorded at different points (one ahead, one behind), both land on 5000 at the new balance
+        when(exposureRepository.lockLoanGuarantees(anyCollection())).thenReturn(List.of(
+                new GuaranteeLine(g1, loan, member, bd("10000"), bd("6000"), bd("100000")),
+                new GuaranteeLine(g2, loan, member, bd("10000"), bd("4000"), bd("100000"))));
+
+        service.onLoanBalances(Map.of(loan, bd("50000")));
+
+        assertEquals(2, captureExposures().size());
+        List<Delta> deltas = List.copyOf(captureDeltas());
+        assertEquals(1, deltas.size());
+        assertDelta(deltas.get(0), "0", "0", 0);
+    }
+
+    @Test
+    void unchangedExposureWritesNothing() {
+        UUID loan = UUID.randomUUID();
+        when(exposureRepository.lockLoanGuarantees(anyCollection())).thenReturn(List.of(
+                new GuaranteeLine(UUID.randomUUID(), loan, UUID.randomUUID(), bd("10000"), bd("5000.00"), bd("100000"))));
+
+        service.onLoanBalances(Map.of(loan, bd("50000")));
+
+        verify(exposureRepository, never()).updateExposures(any());
+        verify(exposureRepository, never()).applyDeltas(any(), any());
+        verify(matchIndex, never()).invalidate(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> captureExposures() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(exposureRepository).updateExposures(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Delta> captureDeltas() {
+        ArgumentCaptor<Collection<Delta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(exposureRepository).applyDeltas(captor.capture(), any());
+        return captor.getValue();
+    }
+
+    private static void assertDelta(Delta delta, String totalGuaranteed, String outstanding, int activeGuarantees) {
+        assertEquals(0, bd(totalGuaranteed).compareTo(delta.getTotalGuaranteed()), "Total guaranteed");
+        assertEquals(0, bd(outstanding).compareTo(delta.getOutstandingGuaranteed()), "Outstanding guaranteed");
+        assertEquals(activeGuarantees, delta.getActiveGuarantees(), "Active guarantees");
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
@@ -0,0 +1,119 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.loan.domain.repository.GuarantorExposureRepository.CandidateRow;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex.Candidate;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex.Criteria;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guarantor search: results match a brute-force filter and sort, and incremental updates match
+ * a full rebuild.
+ */
+class GuarantorMatchIndexTest {
+
+    private static final int MEMBERS = 20_000;
+    private static final int QUERIES = 200;
+    private static final BigDecimal RATIO = BigDecimal.valueOf(2.0);
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 15);
+
+    @Test
+    void searchMatchesBruteForce() {
+        Random random = new Random(7);
+        List<CandidateRow> rows = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) rows.add(randomRow(random, UUID.randomUUID()));
+        Snapshot snapshot = Snapshot.build(rows, RATIO);
+
+        for (int i = 0; i < QUERIES; i++) {
+            Criteria criteria = randomCriteria(random, rows.get(random.nextInt(MEMBERS)).getMemberId());
+            assertEquals(bruteForce(snapshot, criteria, 20), ids(snapshot.search(criteria, TODAY, 20)), "Query " + i);
+        }
+    }
+
+    @Test
+    void incrementalUpdateMatchesRebuild() {
+        Random random = new Random(11);
+        Map<UUID, CandidateRow> rows = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            CandidateRow row = randomRow(random, UUID.randomUUID());
+            rows.put(row.getMemberId(), row);
+        }
+        Snapshot snapshot = Snapshot.build(rows.values(), RATIO);
+
+        Set<UUID> changed = new HashSet<>();
+        List<CandidateRow> fresh = new ArrayList<>();
+        List<UUID> ids = new ArrayList<>(rows.keySet());
+        for (int i = 0; i < 500; i++) {
+            UUID id = ids.get(random.nextInt(ids.size()));
+            changed.add(id);
+            if (i % 10 == 0) {
+                rows.remove(id); // left the SACCO
+            } else {
+                CandidateRow row = randomRow(random, id);
+                rows.put(id, row);
+                fresh.add(row);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            CandidateRow row = randomRow(random, UUID.randomUUID());
+            changed.add(row.getMemberId());
+            rows.put(row.getMemberId(), row);
+            fresh.add(row);
+        }
+        fresh.removeIf(row -> !rows.containsKey(row.getMemberId()) || rows.get(row.getMemberId()) != row);
+
+        Snapshot updated = snapshot.withUpdates(changed, fresh);
+        Snapshot rebuilt = Snapshot.build(rows.values(), RATIO);
+        assertEquals(ids(Arrays.asList(rebuilt.byCapacity)), ids(Arrays.asList(updated.byCapacity)));
+    }
+
+    private static CandidateRow randomRow(Random random, UUID memberId) {
+        BigDecimal savings = BigDecimal.valueOf(random.nextInt(50_000_000), 2);
+        int active = random.nextInt(4);
+        BigDecimal outstanding = active == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(random.nextInt(8_000_000), 2);
+        return new CandidateRow(memberId, "M" + random.nextInt(1_000_000), "Member", savings,
+                TODAY.minusDays(random.nextInt(3650)), active, outstanding);
+    }
+
+    private static Criteria randomCriteria(Random random, UUID self) {
+        return new Criteria(
+                BigDecimal.valueOf(5_000 + random.nextInt(200_000)),
+                random.nextInt(24),
+                random.nextBoolean() ? random.nextInt(3) : null,
+                random.nextBoolean() ? BigDecimal.valueOf(random.nextInt(300_000)) : null,
+                self);
+    }
+
+    private static List<UUID> bruteForce(Snapshot snapshot, Criteria criteria, int limit) {
+        LocalDate joinedBy = TODAY.minusMonths(criteria.getMinMonths());
+        List<Candidate> all = new ArrayList<>(Arrays.asList(snapshot.byCapacity));
+        all.removeIf(c -> c.getMemberId().equals(criteria.getExcludeMemberId())
+                || c.getTotalSavings().compareTo(criteria.getMinSavings()) < 0
+                || c.getJoinedOn().isAfter(joinedBy)
+                || (criteria.getMaxActiveGuarantees() != null && c.getActiveGuarantees() > criteria.getMaxActiveGuarantees())
+                || (criteria.getMinCapacity() != null && c.getCapacity().compareTo(criteria.getMinCapacity()) < 0));
+        all.sort((a, b) -> {
+            int byCapacity = b.getCapacity().compareTo(a.getCapacity());
+            return byCapacity != 0 ? byCapacity : a.getMemberId().compareTo(b.getMemberId());
+        });
+        return ids(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    private static List<UUID> ids(List<Candidate> candidates) {
+        return candidates.stream().map(Candidate::getMemberId).toList();
+    }
+}
@@ -0,0 +1,134 @@
+package com.sacco.sacco_system.modules.loan.domain.service;
+
+import com.sacco.sacco_system.modules.loan.domain.entity.LoanProduct.InterestType;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleEngine.Installment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Weekly schedules: flat and annuity installments, the rounding remainder on the last
+ * installment, and totals that add up to the cent.
+ */
+class LoanScheduleEngineTest {
+
+    private static final LocalDate DISBURSED = LocalDate.of(2026, 3, 2);
+
+    @Test
+    void flatRateSpreadsInterestEvenlyWithTheRemainderLast() {
+        // 10% a year for 10 weeks on 1,000.00: 19.23 interest, 1.92 a week and 1.95 in the last week
+        List<Installment> schedule = LoanScheduleEngine.build(amount("1000.00"), amount("10"), InterestType.FLAT_RATE, 10, DISBURSED);
+
+        assertEquals(10, schedule.size());
+        for (Installment installment : schedule.subList(0, 9)) {
+            assertEquals(amount("100.00"), installment.getPrincipal());
+            assertEquals(amount("1.92"), installment.getInterest());
+        }
+        assertEquals(amount("100.00"), schedule.get(9).getPrincipal());
+        assertEquals(amount("1.95"), schedule.get(9).getInterest());
+        assertEquals(amount("1019.23"), sum(schedule, Installment::getTotal));
+    }
+
+    @Test
+    void flatRatePrincipalRemainderGoesToTheLastInstallment() {
+        List<Installment> schedule = LoanScheduleEngine.build(amount("1000.00"), amount("10"), InterestType.FLAT_RATE, 3, DISBURSED);
+
+        assertEquals(List.of(amount("333.33"), amount("333.33"), amount("333.34")),
+                schedule.stream().map(Installment::getPrincipal).toList());
+        assertEquals(List.of(amount("1.92"), amount("1.92"), amount("1.93")),
+                schedule.stream().map(Installment::getInterest).toList());
+        assertEquals(amount("1000.00"), sum(schedule, Installment::getPrincipal));
+        assertEquals(amount("1005.77"), sum(schedule, Installment::getTotal));
+    }
+
+    @Test
+    void reducingBalancePaysEqualInstallmentsOnTheOutstandingPrincipal() {
+        // 52% a year is 1% a week: payment = 10,000 x 0.01 / (1 - 1.01^-10) = 1,055.82
+        List<Installment> schedule = LoanScheduleEngine.build(amount("10000.00"), amount("52"),
+                InterestType.REDUCING_BALANCE, 10, DISBURSED);
+
+        assertEquals(10, schedule.size());
+        assertEquals(amount("100.00"), schedule.get(0).getInterest());
+        assertEquals(amount("955.82"), schedule.get(0).getPrincipal());
+        BigDecimal balance = amount("10000.00");
+        for (Installment installment : schedule) {
+            assertEquals(balance.multiply(amount("0.01")).setScale(2, RoundingMode.HALF_UP), installment.getInterest(),
+                    "Interest on the outstanding principal in week " + installment.getNumber());
+            if (installment.getNumber() < 10) assertEquals(amount("1055.82"), installment.getTotal());
+            balance = balance.subtract(installment.getPrincipal());
+        }
+        // The last installment settles whatever rounding left over, to within a few cents
+        BigDecimal last = schedule.get(9).getTotal();
+        assertEquals(-1, last.subtract(amount("1055.82")).abs().compareTo(amount("0.10")), "Last installment " + last);
+        assertEquals(0, balance.signum());
+    }
+
+    @ParameterizedTest
+    @EnumSource(InterestType.class)
+    void installmentsSumToPrincipalPlusInterest(InterestType type) {
+        BigDecimal principal = amount("12345.67");
+        List<Installment> schedule = LoanScheduleEngine.build(principal, amount("18.5"), type, 37, DISBURSED);
+
+        assertEquals(37, schedule.size());
+        assertEquals(principal, sum(schedule, Installment::getPrincipal));
+        assertEquals(principal.add(sum(schedule, Installment::getInterest)), sum(schedule, Installment::getTotal));
+        for (int i = 0; i < schedule.size(); i++) {
+            Installment installment = schedule.get(i);
+            assertEquals(i + 1, installment.getNumber());
+            assertEquals(DISBURSED.plusWeeks(i + 1), installment.getDueDate());
+            assertEquals(2, installment.getPrincipal().scale());
+            assertEquals(2, installment.getInterest().scale());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(InterestType.class)
+    void zeroRateRepaysPrincipalOnly(InterestType type) {
+        List<Installment> schedule = LoanScheduleEngine.build(amount("1000.00"), BigDecimal.ZERO, type, 3, DISBURSED);
+
+        assertEquals(List.of(amount("333.33"), amount("333.33"), amount("333.34")),
+                schedule.stream().map(Installment::getPrincipal).toList());
+        schedule.forEach(installment -> assertEquals(0, installment.getInterest().signum()));
+        assertEquals(amount("1000.00"), sum(schedule, Installment::getTotal));
+    }
+
+    @Test
+    void singleInstallmentRepaysEverythingAWeekLater() {
+        List<Installment> flat = LoanScheduleEngine.build(amount("1000.00"), amount("10"), InterestType.FLAT_RATE, 1, DISBURSED);
+        List<Installment> annuity = LoanScheduleEngine.build(amount("10000.00"), amount("52"), InterestType.REDUCING_BALANCE, 1, DISBURSED);
+
+        assertEquals(1, flat.size());
+        assertEquals(amount("1000.00"), flat.get(0).getPrincipal());
+        assertEquals(amount("1.92"), flat.get(0).getInterest());
+        assertEquals(DISBURSED.plusWeeks(1), flat.get(0).getDueDate());
+        assertEquals(1, annuity.size());
+        assertEquals(amount("10000.00"), annuity.get(0).getPrincipal());
+        assertEquals(amount("100.00"), annuity.get(0).getInterest());
+        assertEquals(amount("10100.00"), annuity.get(0).getTotal());
+    }
+
+    @Test
+    void rejectsEmptyTermsAndPrincipal() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LoanScheduleEngine.build(amount("1000.00"), amount("10"), InterestType.FLAT_RATE, 0, DISBURSED));
+        assertThrows(IllegalArgumentException.class,
+                () -> LoanScheduleEngine.build(BigDecimal.ZERO, amount("10"), InterestType.FLAT_RATE, 4, DISBURSED));
+    }
+
+    private static BigDecimal amount(String value) {
+        return new BigDecimal(value);
+    }
+
+    private static BigDecimal sum(List<Installment> schedule, Function<Installment, BigDecimal> part) {
+        return schedule.stream().map(part).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,180 @@
+package com.sacco.sacco_system.modules.member.domain.service;
+
+import com.sacco.sacco_system.modules.admin.domain.service.SystemSettingService;
+import com.sacco.sacco_system.modules.core.util.NumberSequences;
+import com.sacco.sacco_system.modules.finance.domain.entity.ShareCapital;
+import com.sacco.sacco_system.modules.finance.domain.repository.ShareCapitalRepository;
+import com.sacco.sacco_system.modules.finance.domain.repository.TransactionRepository;
+import com.sacco.sacco_system.modules.finance.domain.service.AccountingService;
+import com.sacco.sacco_system.modules.finance.domain.service.PostingOutboxService;
+import com.sacco.sacco_system.modules.finance.domain.service.ReferenceCodeService;
+import com.sacco.sacco_system.modules.finance.domain.service.ShareCapitalService;
+import com.sacco.sacco_system.modules.loan.domain.entity.Loan;
+import com.sacco.sacco_system.modules.loan.domain.entity.LoanProduct;
+import com.sacco.sacco_system.modules.loan.domain.repository.LoanRepository;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorExposureService;
+import com.sacco.sacco_system.modules.loan.domain.service.GuarantorMatchIndex;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanRepaymentService;
+import com.sacco.sacco_system.modules.loan.domain.service.LoanScheduleService;
+import com.sacco.sacco_system.modules.member.domain.entity.Member;
+import com.sacco.sacco_system.modules.member.domain.repository.MemberRepository;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockServiceTest.FakeAdvisoryLocks;
+import com.sacco.sacco_system.modules.member.domain.service.MemberLockServiceTest.NoOpTransactionManager;
+import com.sacco.sacco_system.modules.savings.domain.entity.SavingsAccount;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsAccountRepository;
+import com.sacco.sacco_system.modules.savings.domain.repository.SavingsProductRepository;
+import com.sacco.sacco_system.modules.savings.domain.service.SavingsInterestJob;
+import com.sacco.sacco_system.modules.savings.domain.service.SavingsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deposits, share purchases and loan repayments for the same members, run through the real
+ * services from many threads on two "nodes" plus a bulk job, against shared in-memory entities
+ * (the repositories are mocks that hand back the same objects, so any unserialized
+ * read-modify-write loses updates).
+ */
+class MemberBalanceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 300;
+    private static final int MEMBERS = 4;
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(100);
+    private static final BigDecimal LOAN_BALANCE = BigDecimal.valueOf(10_000_000);
+
+    private final FakeAdvisoryLocks advisoryLocks = new FakeAdvisoryLocks();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+    private final Map<UUID, Member> members = new HashMap<>();
+    private final Map<UUID, SavingsAccount> accounts = new HashMap<>();
+    private final Map<UUID, ShareCapital> shares = new HashMap<>();
+    private final Map<UUID, Loan> loans = new HashMap<>();
+    private final List<UUID> memberIds = new ArrayList<>();
+
+    private final SavingsAccountRepository savingsAccountRepository = mock(SavingsAccountRepository.class);
+    private final MemberRepository memberRepository = mock(MemberRepository.class);
+    private final ShareCapitalRepository shareCapitalRepository = mock(ShareCapitalRepository.class);
+    private final LoanRepository loanRepository = mock(LoanRepository.class);
+
+    /**
+     * One node's service graph; the nodes share the repositories and the advisory locks only
+     */
+    private final class Node {
+        final MemberLockService lanes = new MemberLockService(advisoryLocks, transactionTemplate);
+        final SavingsService savings = new SavingsService(savingsAccountRepository, mock(TransactionRepository.class),
+                memberRepository, mock(SavingsProductRepository.class), mock(AccountingService.class),
+                mock(PostingOutboxService.class), mock(ReferenceCodeService.class), lanes, mock(SavingsInterestJob.class),
+                mock(NumberSequences.class), loanRepository, mock(GuarantorExposureService.class),
+                mock(GuarantorMatchIndex.class));
+        final ShareCapitalService shareCapital = new ShareCapitalService(shareCapitalRepository, memberRepository,
+                mock(AccountingService.class), mock(SystemSettingService.class), lanes);
+        final LoanRepaymentService repayments = new LoanRepaymentService(loanRepository, mock(PostingOutboxService.class),
+                mock(TransactionRepository.class), mock(ReferenceCodeService.class), lanes,
+                mock(LoanScheduleService.class), mock(GuarantorExposureService.class));
+    }
+
+    @BeforeEach
+    void setUp() {
+        LoanProduct product = LoanProduct.builder().name("Normal").receivableAccountCode("1201").build();
+        for (int i = 0; i < MEMBERS; i++) {
+            Member member = new Member();
+            member.setId(UUID.randomUUID());
+            member.setMemberNumber("M" + i);
+            member.setFirstName("Member");
+            member.setLastName(String.valueOf(i));
+            memberIds.add(member.getId());
+            members.put(member.getId(), member);
+            accounts.put(member.getId(), SavingsAccount.builder().id(UUID.randomUUID()).member(member).build());
+            ShareCapital shareCapital = new ShareCapital();
+            shareCapital.setMember(member);
+            shareCapital.setShareValue(BigDecimal.valueOf(100));
+            shares.put(member.getId(), shareCapital);
+            loans.put(member.getId(), Loan.builder().id(UUID.randomUUID()).loanNumber("LN" + i).member(member)
+                    .product(product).loanBalance(LOAN_BALANCE).status(Loan.LoanStatus.ACTIVE).build());
+        }
+
+        when(memberRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(members.get(inv.<UUID>getArgument(0))));
+        when(shareCapitalRepository.findByMemberId(any())).thenAnswer(inv -> Optional.ofNullable(shares.get(inv.<UUID>getArgument(0))));
+        when(savingsAccountRepository.save(any())).thenAnswer(returnsFirstArg());
+        when(memberRepository.save(any())).thenAnswer(returnsFirstArg());
+        when(shareCapitalRepository.save(any())).thenAnswer(returnsFirstArg());
+        when(loanRepository.save(any())).thenAnswer(returnsFirstArg());
+    }
+
+    @Test
+    void noLostUpdatesAcrossServicesAndNodes() throws Exception {
+        Node nodeA = new Node();
+        Node nodeB = new Node();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    UUID memberId = memberIds.get((thread + i) % MEMBERS);
+                    Node node = (i % 2 == 0) ? nodeA : nodeB;
+                    int operation = (thread + i / MEMBERS) % 3;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        switch (operation) {
+                            case 0 -> node.savings.deposit(accounts.get(memberId), AMOUNT, "Deposit", "1020");
+                            case 1 -> node.shareCapital.purchaseShares(memberId, AMOUNT, "REF");
+                            default -> node.repayments.processPayment(loans.get(memberId), AMOUNT, "1020");
+                        }
+                    });
+                }
+            }));
+        }
+        // Bulk job: one transaction over every member, depositing through the same service
+        futures.add(pool.submit(() -> {
+            for (int round = 0; round < OPS_PER_THREAD / 10; round++) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    nodeB.lanes.lockAll(memberIds);
+                    memberIds.forEach(id -> nodeB.savings.deposit(accounts.get(id), AMOUNT, "Interest", null));
+                });
+            }
+        }));
+        for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        Map<UUID, int[]> expected = new HashMap<>(); // deposits, share purchases, repayments
+        memberIds.forEach(id -> expected.put(id, new int[3]));
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < OPS_PER_THREAD; i++) {
+                expected.get(memberIds.get((t + i) % MEMBERS))[(t + i / MEMBERS) % 3]++;
+            }
+        }
+
+        for (UUID id : memberIds) {
+            int[] counts = expected.get(id);
+            BigDecimal deposited = AMOUNT.multiply(BigDecimal.valueOf(counts[0] + OPS_PER_THREAD / 10));
+            BigDecimal bought = AMOUNT.multiply(BigDecimal.valueOf(counts[1]));
+            BigDecimal repaid = AMOUNT.multiply(BigDecimal.valueOf(counts[2]));
+
+            assertEquals(0, deposited.compareTo(accounts.get(id).getBalance()), "Savings balance for " + id);
+            assertEquals(0, deposited.compareTo(members.get(id).getTotalSavings()), "Member savings for " + id);
+            assertEquals(0, bought.compareTo(members.get(id).getTotalShares()), "Member shares for " + id);
+            assertEquals(0, bought.compareTo(shares.get(id).getPaidAmount()), "Share capital for " + id);
+            assertEquals(0, LOAN_BALANCE.subtract(repaid).compareTo(loans.get(id).getLoanBalance()), "Loan balance for " + id);
+        }
+    }
+}
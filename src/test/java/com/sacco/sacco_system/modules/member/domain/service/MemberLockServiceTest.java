@@ -0,0 +1,259 @@
+package com.sacco.sacco_system.modules.member.domain.service;
+
+import com.sacco.sacco_system.modules.core.exception.ApiException;
+import com.sacco.sacco_system.modules.core.util.AdvisoryLocks;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress checks for member lanes: unsynchronized read-modify-write balances hammered from many
+ * threads on two "nodes" (separate services sharing only the advisory lock) must not lose updates.
+ */
+class MemberLockServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 5_000;
+    private static final int MEMBERS = 8;
+
+    private final FakeAdvisoryLocks advisoryLocks = new FakeAdvisoryLocks();
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+    @Test
+    void noLostUpdatesAcrossNodes() throws Exception {
+        MemberLockService nodeA = new MemberLockService(advisoryLocks, transactionTemplate);
+        MemberLockService nodeB = new MemberLockService(advisoryLocks, transactionTemplate);
+
+        UUID[] members = new UUID[MEMBERS];
+        Map<UUID, long[]> balances = new HashMap<>(); // deliberately not thread-safe: stands in for the DB rows
+        for (int i = 0; i < MEMBERS; i++) {
+            members[i] = UUID.randomUUID();
+            balances.put(members[i], new long[1]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures[t] = pool.submit(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    UUID member = members[(thread + i) % MEMBERS];
+                    MemberLockService node = (i % 2 == 0) ? nodeA : nodeB;
+                    node.execute(member, () -> {
+                        long[] balance = balances.get(member);
+                        long read = balance[0];
+                        Thread.yield(); // widen the race window
+                        balance[0] = read + 1;
+                        return null;
+                    });
+                }
+            });
+        }
+        for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+        pool.shutdown();
+
+        long expected = (long) THREADS * OPS_PER_THREAD / MEMBERS;
+        for (UUID member : members) {
+            assertEquals(expected, balances.get(member)[0], "Lost updates for member " + member);
+        }
+    }
+
+    @Test
+    void unrelatedMembersRunInParallel() throws Exception {
+        MemberLockService lanes = new MemberLockService(advisoryLocks, transactionTemplate);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        while (MemberLockService.stripeOf(second) == MemberLockService.stripeOf(first)) second = UUID.randomUUID();
+
+        // Each lane waits inside its critical section until the other one is inside too
+        CountDownLatch bothInside = new CountDownLatch(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<Boolean> a = pool.submit(() -> lanes.execute(first, () -> awaitBoth(bothInside)));
+        UUID other = second;
+        Future<Boolean> b = pool.submit(() -> lanes.execute(other, () -> awaitBoth(bothInside)));
+
+        assertTrue(a.get(10, TimeUnit.SECONDS));
+        assertTrue(b.get(10, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void laneIsReentrantWithinATransaction() {
+        MemberLockService lanes = new MemberLockService(advisoryLocks, transactionTemplate);
+        UUID member = UUID.randomUUID();
+
+        boolean reacquired = lanes.execute(member, () -> lanes.execute(member, () -> lanes.lock(member)));
+
+        assertFalse(reacquired);
+        assertFalse(advisoryLocks.isHeld(member));
+    }
+
+    @Test
+    void busyLaneTimesOutWith409() throws Exception {
+        MemberLockService lanes = new MemberLockService(advisoryLocks, transactionTemplate);
+        ReflectionTestUtils.setField(lanes, "lockTimeoutMs", 100L);
+        UUID member = UUID.randomUUID();
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> holder = pool.submit(() -> lanes.execute(member, () -> {
+            holding.countDown();
+            return await(release);
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        ApiException busy = assertThrows(ApiException.class, () -> lanes.execute(member, () -> null));
+        assertEquals(409, busy.getStatusCode());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    @Test
+    void bulkLanesDoNotHoldStripes() throws Exception {
+        MemberLockService lanes = new MemberLockService(advisoryLocks, transactionTemplate);
+        ReflectionTestUtils.setField(lanes, "lockTimeoutMs", 1000L);
+        UUID batchMember = UUID.randomUUID();
+        UUID onlineMember = UUID.randomUUID();
+        while (MemberLockService.stripeOf(onlineMember) != MemberLockService.stripeOf(batchMember)) onlineMember = UUID.randomUUID();
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> batch = pool.submit(() -> transactionTemplate.execute(status -> {
+            lanes.lockAll(List.of(batchMember));
+            holding.countDown();
+            return await(release);
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        // Same stripe as the batch member, but the batch only holds the advisory lock
+        UUID other = onlineMember;
+        assertTrue(lanes.execute(other, () -> lanes.isLocked(other)));
+        assertThrows(ApiException.class, () -> lanes.execute(batchMember, () -> null));
+
+        release.countDown();
+        batch.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * pg_advisory_xact_lock stand-in: one lock per key, released when the transaction completes
+     */
+    static final class FakeAdvisoryLocks extends AdvisoryLocks {
+        private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+        FakeAdvisoryLocks() {
+            super(null);
+        }
+
+        @Override
+        public void lockForTransaction(long key) {
+            ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+            lock.lock();
+            releaseAtCompletion(lock);
+        }
+
+        @Override
+        public boolean tryLockForTransaction(long key) {
+            return tryLockForTransaction(key, 0);
+        }
+
+        @Override
+        public boolean tryLockForTransaction(long key, long timeoutMs) {
+            ReentrantLock lock = locks.computeIfAbsent(key, k -> new ReentrantLock());
+            try {
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            releaseAtCompletion(lock);
+            return true;
+        }
+
+        private static void releaseAtCompletion(ReentrantLock lock) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+
+        boolean isHeld(UUID memberId) {
+            ReentrantLock lock = locks.get(AdvisoryLocks.keyOf("MEMBER:" + memberId));
+            return lock != null && lock.isLocked();
+        }
+    }
+
+    /**
+     * Transaction manager with no resource: just drives synchronization callbacks
+     */
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.sacco.sacco_system.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+
+/**
+ * Databases for SQL-level tests.
+ *
+ * Tests get a private in-memory H2 database in PostgreSQL mode (the test profile's database).
+ * Benchmarks (run with -Dbenchmarks=true) use the same unless -Dbenchmark.jdbc-url points them
+ * at a PostgreSQL server (with -Dbenchmark.jdbc-user / -Dbenchmark.jdbc-password), which is where
+ * row-lock contention numbers mean the most. There they work in their own sacco_benchmark schema,
+ * which they drop and recreate, and never touch the application's tables.
+ */
+public final class TestDataSources {
+
+    public static final String BENCHMARKS = "benchmarks";
+    private static final String BENCHMARK_SCHEMA = "sacco_benchmark";
+
+    private TestDataSources() {
+    }
+
+    public static DataSource h2(String name) {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;" +
+                "LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    public static DataSource benchmark(String name) {
+        String url = System.getProperty("benchmark.jdbc-url");
+        if (url == null || url.isBlank()) return h2(name);
+
+        Properties credentials = new Properties();
+        credentials.setProperty("user", System.getProperty("benchmark.jdbc-user", "postgres"));
+        credentials.setProperty("password", System.getProperty("benchmark.jdbc-password", ""));
+        DriverManagerDataSource admin = new DriverManagerDataSource(url, credentials);
+        new JdbcTemplate(admin).execute("DROP SCHEMA IF EXISTS " + BENCHMARK_SCHEMA + " CASCADE");
+        new JdbcTemplate(admin).execute("CREATE SCHEMA " + BENCHMARK_SCHEMA);
+
+        Properties properties = new Properties();
+        properties.putAll(credentials);
+        properties.setProperty("currentSchema", BENCHMARK_SCHEMA);
+        return new DriverManagerDataSource(url, properties);
+    }
+}